@@ -0,0 +1,58 @@
+package com.magictool.web.benchmark;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基准测试使用的缓存对象，字段构成接近常见的业务 DTO
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+@Data
+public class BenchmarkPayload {
+
+    private Long id;
+
+    private String name;
+
+    private String email;
+
+    private Integer age;
+
+    private Double score;
+
+    private Boolean enabled;
+
+    private List<String> tags;
+
+    private Map<String, String> attributes;
+
+    /**
+     * @param id   编号
+     * @param tags 标签数量，用于控制对象大小
+     */
+    public static BenchmarkPayload of(long id, int tags) {
+        BenchmarkPayload payload = new BenchmarkPayload();
+        payload.setId(id);
+        payload.setName("user-" + id);
+        payload.setEmail("user-" + id + "@magic-tool.com");
+        payload.setAge((int) (id % 80));
+        payload.setScore(id * 0.75D);
+        payload.setEnabled(id % 2 == 0);
+        List<String> tagList = new ArrayList<>(tags);
+        Map<String, String> attributes = new HashMap<>(tags * 2);
+        for (int i = 0; i < tags; i++) {
+            tagList.add("tag-" + i);
+            attributes.put("attr-" + i, "value-" + (id + i));
+        }
+        payload.setTags(tagList);
+        payload.setAttributes(attributes);
+        return payload;
+    }
+
+}
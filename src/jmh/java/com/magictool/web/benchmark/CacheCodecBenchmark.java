@@ -0,0 +1,109 @@
+package com.magictool.web.benchmark;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.magictool.web.configuration.RedisConfig;
+import com.magictool.web.util.redis.codec.CacheCodec;
+import com.magictool.web.util.redis.codec.CompactCacheCodec;
+import com.magictool.web.util.redis.codec.JacksonCacheCodec;
+import com.magictool.web.util.redis.codec.VersionedCacheCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存值序列化开销：{@code CacheServiceImpl} 使用的各个 {@link CacheCodec}，以及 {@code RedisUtil}/{@code RedisConfig}
+ * 使用的带类型信息的 JSON 序列化
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheCodecBenchmark {
+
+    private static final JavaType PAYLOAD_TYPE = TypeFactory.defaultInstance().constructType(BenchmarkPayload.class);
+
+    @Param({"json", "smile", "cbor", "compact", "compact-deflate"})
+    private String codecName;
+
+    /**
+     * 标签数量，控制对象大小
+     */
+    @Param({"4", "64"})
+    private int tags;
+
+    private CacheCodec codec;
+
+    private BenchmarkPayload payload;
+
+    private byte[] encoded;
+
+    private Jackson2JsonRedisSerializer<Object> typedJsonSerializer;
+
+    private byte[] typedJson;
+
+    @Setup
+    public void setup() throws IOException {
+        codec = buildCodec(codecName);
+        payload = BenchmarkPayload.of(42L, tags);
+        encoded = codec.encode(payload);
+        typedJsonSerializer = new RedisConfig().getJsonSerializer();
+        typedJson = typedJsonSerializer.serialize(payload);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return codec.encode(payload);
+    }
+
+    @Benchmark
+    public BenchmarkPayload decode() throws IOException {
+        return codec.decode(encoded, PAYLOAD_TYPE);
+    }
+
+    @Benchmark
+    public byte[] typedJsonEncode() {
+        return typedJsonSerializer.serialize(payload);
+    }
+
+    @Benchmark
+    public Object typedJsonDecode() {
+        return typedJsonSerializer.deserialize(typedJson);
+    }
+
+    static CacheCodec buildCodec(String name) {
+        switch (name) {
+            case "json":
+                return JacksonCacheCodec.json();
+            case "smile":
+                return JacksonCacheCodec.smile();
+            case "cbor":
+                return JacksonCacheCodec.cbor();
+            case "compact":
+                return new CompactCacheCodec().register(1, BenchmarkPayload.class);
+            case "compact-deflate":
+                return new VersionedCacheCodec(new CompactCacheCodec().register(1, BenchmarkPayload.class),
+                        JacksonCacheCodec.json(), 256);
+            default:
+                throw new IllegalArgumentException("unknown codec: " + name);
+        }
+    }
+
+}
@@ -0,0 +1,148 @@
+package com.magictool.web.benchmark;
+
+import com.magictool.web.util.redis.CacheServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CacheServiceImpl} 单条与批量读写，连接 {@link InProcessRedisServer}
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class CacheServiceBenchmark {
+
+    private static final int KEY_COUNT = 10000;
+
+    private static final long EXPIRED_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    @Param({"json", "compact"})
+    private String codecName;
+
+    @Param({"16"})
+    private int batchSize;
+
+    private InProcessRedisServer server;
+
+    private LettuceConnectionFactory connectionFactory;
+
+    private CacheServiceImpl cacheService;
+
+    private BenchmarkPayload payload;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        server = new InProcessRedisServer();
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(server.getHost(), server.getPort()));
+        connectionFactory.afterPropertiesSet();
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        cacheService = new CacheServiceImpl(redisTemplate, CacheCodecBenchmark.buildCodec(codecName));
+        payload = BenchmarkPayload.of(1L, 8);
+        Map<String, BenchmarkPayload> data = new LinkedHashMap<>();
+        for (int i = 0; i < KEY_COUNT; i++) {
+            data.put(key(i), BenchmarkPayload.of(i, 8));
+            if (data.size() == 500) {
+                cacheService.multiPut(data);
+                data.clear();
+            }
+        }
+        cacheService.multiPut(data);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        connectionFactory.destroy();
+        server.close();
+    }
+
+    @Benchmark
+    public BenchmarkPayload get() {
+        return cacheService.get(randomKey(), BenchmarkPayload.class);
+    }
+
+    @Benchmark
+    public void put() {
+        cacheService.put(randomKey(), payload, EXPIRED_MILLIS);
+    }
+
+    @Benchmark
+    public Map<String, BenchmarkPayload> multiGet() {
+        return cacheService.multiGet(randomKeys(), BenchmarkPayload.class);
+    }
+
+    /**
+     * 与 {@link #multiGet()} 对比，逐个 GET 的往返开销
+     */
+    @Benchmark
+    public List<BenchmarkPayload> loopGet() {
+        List<String> keys = randomKeys();
+        List<BenchmarkPayload> result = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            result.add(cacheService.get(key, BenchmarkPayload.class));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public void multiPut() {
+        Map<String, BenchmarkPayload> data = new LinkedHashMap<>(batchSize * 2);
+        for (String key : randomKeys()) {
+            data.put(key, payload);
+        }
+        cacheService.multiPut(data, EXPIRED_MILLIS);
+    }
+
+    @Benchmark
+    public BenchmarkPayload getOrLoad() {
+        return cacheService.getOrLoad(randomKey(), BenchmarkPayload.class, () -> payload, EXPIRED_MILLIS);
+    }
+
+    private List<String> randomKeys() {
+        List<String> keys = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            keys.add(randomKey());
+        }
+        return keys;
+    }
+
+    private static String randomKey() {
+        return key(ThreadLocalRandom.current().nextInt(KEY_COUNT));
+    }
+
+    private static String key(int i) {
+        return "benchmark:payload:" + i;
+    }
+
+}
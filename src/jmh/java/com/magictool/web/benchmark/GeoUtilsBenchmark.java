@@ -0,0 +1,111 @@
+package com.magictool.web.benchmark;
+
+import com.magictool.web.util.location.GeoUtils;
+import com.magictool.web.util.location.LngLatDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GeoUtils} 几何计算吞吐量，每次调用计算 {@link #POINTS} 个随机点
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoUtilsBenchmark {
+
+    private static final int POINTS = 1024;
+
+    /**
+     * 多边形顶点数
+     */
+    @Param({"8", "128"})
+    private int vertices;
+
+    private double[] longitudes;
+
+    private double[] latitudes;
+
+    private LngLatDTO[] polygon;
+
+    private List<LngLatDTO> polygonList;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(20261018L);
+        longitudes = new double[POINTS];
+        latitudes = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            longitudes[i] = 113.0D + random.nextDouble();
+            latitudes[i] = 22.0D + random.nextDouble();
+        }
+        // 以(113.5, 22.5)为中心的正多边形
+        polygon = new LngLatDTO[vertices];
+        for (int i = 0; i < vertices; i++) {
+            double radians = 2 * Math.PI * i / vertices;
+            polygon[i] = new LngLatDTO(113.5D + 0.4D * Math.cos(radians), 22.5D + 0.4D * Math.sin(radians));
+        }
+        polygonList = new ArrayList<>(Arrays.asList(polygon));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public void distance(Blackhole blackhole) {
+        for (int i = 0; i < POINTS; i++) {
+            blackhole.consume(GeoUtils.getDistance(113.5D, 22.5D, longitudes[i], latitudes[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public void pointInCircle(Blackhole blackhole) {
+        for (int i = 0; i < POINTS; i++) {
+            blackhole.consume(GeoUtils.isPointInCircle(113.5D, 22.5D, longitudes[i], latitudes[i], 30D));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public void pointInPolygon(Blackhole blackhole) {
+        for (int i = 0; i < POINTS; i++) {
+            blackhole.consume(GeoUtils.isPointInPolygon(longitudes[i], latitudes[i], polygon));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public void pointToLine(Blackhole blackhole) {
+        for (int i = 0; i < POINTS; i++) {
+            blackhole.consume(GeoUtils.distancePointToline(longitudes[i], latitudes[i],
+                    113.1D, 22.1D, 113.9D, 22.9D));
+        }
+    }
+
+    @Benchmark
+    public boolean polygonSelfIntersection() {
+        return GeoUtils.isPolygonExistLineIntersection(polygonList);
+    }
+
+}
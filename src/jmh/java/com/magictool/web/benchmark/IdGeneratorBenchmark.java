@@ -0,0 +1,79 @@
+package com.magictool.web.benchmark;
+
+import com.magictool.web.util.id.IdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link IdGenerator} 在不同并发下的生成速度
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    @Benchmark
+    @Threads(1)
+    public long snowflakeSingleThread() {
+        return IdGenerator.snowflakeId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long snowflakeContended() {
+        return IdGenerator.snowflakeId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long snowflakeWithWorkerContended() {
+        return IdGenerator.snowflakeId(3, 1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    @OperationsPerInvocation(100)
+    public long[] snowflakeBatchContended() {
+        return IdGenerator.snowflakeIds(100);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String batchIdContended() {
+        return IdGenerator.batchId(10001, 1);
+    }
+
+    /**
+     * 雪花ID与其他ID混合调用
+     */
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(4)
+    public long mixedSnowflake() {
+        return IdGenerator.snowflakeId();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(4)
+    public String mixedObjectId() {
+        return IdGenerator.objectId();
+    }
+
+}
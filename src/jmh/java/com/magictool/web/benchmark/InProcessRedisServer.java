@@ -0,0 +1,358 @@
+package com.magictool.web.benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 基准测试使用的进程内 Redis 替身
+ * <p>
+ * 只实现 RESP2 协议和 {@code CacheServiceImpl} 用到的字符串命令（GET/SET/MGET/MSET/DEL/INCRBY/PEXPIRE/PTTL 等），
+ * 数据保存在 {@link ConcurrentHashMap} 中，过期采用惰性删除。测得的是客户端序列化、协议编解码和一次本地回环往返的开销，
+ * 不代表真实 Redis 的服务端耗时，只用于不同版本之间的对比。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public class InProcessRedisServer implements Closeable {
+
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private final Map<String, Entry> data = new ConcurrentHashMap<>();
+
+    private final ServerSocket serverSocket;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "in-process-redis");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean running = true;
+
+    public InProcessRedisServer() throws IOException {
+        this.serverSocket = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+        executor.execute(this::acceptLoop);
+    }
+
+    public String getHost() {
+        return serverSocket.getInetAddress().getHostAddress();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * 清空数据
+     */
+    public void flushAll() {
+        data.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                executor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (Socket s = socket;
+             InputStream in = new BufferedInputStream(s.getInputStream());
+             OutputStream out = new BufferedOutputStream(s.getOutputStream())) {
+            while (running) {
+                List<byte[]> command = readCommand(in);
+                if (command == null) {
+                    return;
+                }
+                execute(command, out);
+                // 管道中还有未读的命令时先不刷出，合并为一次写
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // 客户端断开
+        }
+    }
+
+    private void execute(List<byte[]> command, OutputStream out) throws IOException {
+        String name = new String(command.get(0), StandardCharsets.US_ASCII).toUpperCase();
+        long now = System.currentTimeMillis();
+        switch (name) {
+            case "PING":
+                writeSimple(out, "PONG");
+                break;
+            case "SELECT":
+            case "CLIENT":
+            case "FLUSHDB":
+            case "FLUSHALL":
+                if (name.startsWith("FLUSH")) {
+                    data.clear();
+                }
+                writeSimple(out, "OK");
+                break;
+            case "GET":
+                writeBulk(out, value(key(command, 1), now));
+                break;
+            case "SET":
+                set(command, out, now);
+                break;
+            case "MGET":
+                writeArrayHeader(out, command.size() - 1);
+                for (int i = 1; i < command.size(); i++) {
+                    writeBulk(out, value(key(command, i), now));
+                }
+                break;
+            case "MSET":
+                for (int i = 1; i + 1 < command.size(); i += 2) {
+                    data.put(key(command, i), new Entry(command.get(i + 1), 0));
+                }
+                writeSimple(out, "OK");
+                break;
+            case "DEL":
+            case "UNLINK":
+                long removed = 0;
+                for (int i = 1; i < command.size(); i++) {
+                    if (data.remove(key(command, i)) != null) {
+                        removed++;
+                    }
+                }
+                writeInteger(out, removed);
+                break;
+            case "EXISTS":
+                writeInteger(out, value(key(command, 1), now) == null ? 0 : 1);
+                break;
+            case "INCR":
+            case "DECR":
+            case "INCRBY":
+            case "DECRBY":
+                long delta = command.size() > 2 ? Long.parseLong(text(command, 2)) : 1;
+                writeInteger(out, incrBy(key(command, 1), name.startsWith("DECR") ? -delta : delta, now));
+                break;
+            case "EXPIRE":
+            case "PEXPIRE":
+                long ttl = Long.parseLong(text(command, 2));
+                writeInteger(out, expire(key(command, 1), "EXPIRE".equals(name) ? ttl * 1000 : ttl, now) ? 1 : 0);
+                break;
+            case "PTTL":
+            case "TTL":
+                long pttl = pttl(key(command, 1), now);
+                writeInteger(out, pttl < 0 || "PTTL".equals(name) ? pttl : pttl / 1000);
+                break;
+            default:
+                writeError(out, "ERR unknown command '" + name + "'");
+        }
+    }
+
+    private void set(List<byte[]> command, OutputStream out, long now) throws IOException {
+        String key = key(command, 1);
+        long expireAt = 0;
+        boolean nx = false;
+        boolean xx = false;
+        for (int i = 3; i < command.size(); i++) {
+            String option = text(command, i).toUpperCase();
+            if ("PX".equals(option)) {
+                expireAt = now + Long.parseLong(text(command, ++i));
+            } else if ("EX".equals(option)) {
+                expireAt = now + Long.parseLong(text(command, ++i)) * 1000;
+            } else if ("NX".equals(option)) {
+                nx = true;
+            } else if ("XX".equals(option)) {
+                xx = true;
+            }
+        }
+        Entry entry = new Entry(command.get(2), expireAt);
+        if (nx || xx) {
+            boolean exists = value(key, now) != null;
+            if (nx == exists) {
+                writeBulk(out, null);
+                return;
+            }
+        }
+        data.put(key, entry);
+        writeSimple(out, "OK");
+    }
+
+    private long incrBy(String key, long delta, long now) {
+        Entry[] holder = new Entry[1];
+        data.compute(key, (k, old) -> {
+            long current = old == null || old.isExpired(now)
+                    ? 0 : Long.parseLong(new String(old.value, StandardCharsets.US_ASCII));
+            holder[0] = new Entry(Long.toString(current + delta).getBytes(StandardCharsets.US_ASCII),
+                    old == null || old.isExpired(now) ? 0 : old.expireAt);
+            return holder[0];
+        });
+        return Long.parseLong(new String(holder[0].value, StandardCharsets.US_ASCII));
+    }
+
+    private boolean expire(String key, long ttlMillis, long now) {
+        Entry entry = data.get(key);
+        if (entry == null || entry.isExpired(now)) {
+            return false;
+        }
+        data.replace(key, entry, new Entry(entry.value, now + ttlMillis));
+        return true;
+    }
+
+    private long pttl(String key, long now) {
+        Entry entry = data.get(key);
+        if (entry == null || entry.isExpired(now)) {
+            return -2;
+        }
+        return entry.expireAt == 0 ? -1 : entry.expireAt - now;
+    }
+
+    private byte[] value(String key, long now) {
+        Entry entry = data.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(now)) {
+            data.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    private static String key(List<byte[]> command, int index) {
+        return new String(command.get(index), StandardCharsets.UTF_8);
+    }
+
+    private static String text(List<byte[]> command, int index) {
+        return new String(command.get(index), StandardCharsets.US_ASCII);
+    }
+
+    private static List<byte[]> readCommand(InputStream in) throws IOException {
+        int prefix = in.read();
+        if (prefix < 0) {
+            return null;
+        }
+        if (prefix != '*') {
+            throw new IOException("inline commands are not supported");
+        }
+        int count = (int) readLong(in);
+        List<byte[]> command = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (in.read() != '$') {
+                throw new IOException("bulk string expected");
+            }
+            int length = (int) readLong(in);
+            byte[] bytes = new byte[length];
+            int offset = 0;
+            while (offset < length) {
+                int read = in.read(bytes, offset, length - offset);
+                if (read < 0) {
+                    throw new EOFException();
+                }
+                offset += read;
+            }
+            // 跳过 CRLF
+            in.read();
+            in.read();
+            command.add(bytes);
+        }
+        return command;
+    }
+
+    private static long readLong(InputStream in) throws IOException {
+        long value = 0;
+        boolean negative = false;
+        int b;
+        while ((b = in.read()) != '\r') {
+            if (b < 0) {
+                throw new EOFException();
+            }
+            if (b == '-') {
+                negative = true;
+            } else {
+                value = value * 10 + (b - '0');
+            }
+        }
+        in.read();
+        return negative ? -value : value;
+    }
+
+    private static void writeSimple(OutputStream out, String value) throws IOException {
+        out.write('+');
+        out.write(value.getBytes(StandardCharsets.US_ASCII));
+        out.write(CRLF);
+    }
+
+    private static void writeError(OutputStream out, String message) throws IOException {
+        out.write('-');
+        out.write(message.getBytes(StandardCharsets.UTF_8));
+        out.write(CRLF);
+    }
+
+    private static void writeInteger(OutputStream out, long value) throws IOException {
+        out.write(':');
+        out.write(Long.toString(value).getBytes(StandardCharsets.US_ASCII));
+        out.write(CRLF);
+    }
+
+    private static void writeArrayHeader(OutputStream out, int size) throws IOException {
+        out.write('*');
+        out.write(Integer.toString(size).getBytes(StandardCharsets.US_ASCII));
+        out.write(CRLF);
+    }
+
+    private static void writeBulk(OutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            out.write(new byte[]{'$', '-', '1', '\r', '\n'});
+            return;
+        }
+        out.write('$');
+        out.write(Integer.toString(value.length).getBytes(StandardCharsets.US_ASCII));
+        out.write(CRLF);
+        out.write(value);
+        out.write(CRLF);
+    }
+
+    private static final class Entry {
+
+        private final byte[] value;
+
+        /**
+         * 过期时间戳，0表示永不过期
+         */
+        private final long expireAt;
+
+        private Entry(byte[] value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+
+        private boolean isExpired(long now) {
+            return expireAt != 0 && expireAt <= now;
+        }
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.magictool.web.benchmark;
+
+import com.magictool.web.constants.SingletonLucene;
+import com.magictool.web.util.lucene.LuceneIndexManager;
+import com.magictool.web.util.lucene.LuceneUtil;
+import com.magictool.web.util.lucene.QueryResultCache;
+import com.magictool.web.util.lucene.QuerySearchUtils;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TopDocs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link QuerySearchUtils} 查询延迟，语料随机生成后写入 {@link SingletonLucene} 的内存目录
+ * <p>
+ * 查询基准直接在索引管理器的 searcher 上执行，不经过 {@link QueryResultCache}，否则测到的只是缓存命中；
+ * 结果缓存命中的开销由 {@link #termTop10Cached()} 单独测量。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LuceneQueryBenchmark {
+
+    private static final String[] WORDS = {
+            "redis", "lucene", "cache", "index", "search", "query", "shard", "replica", "cluster", "node",
+            "memory", "disk", "thread", "lock", "queue", "bloom", "filter", "geo", "point", "polygon",
+            "token", "bucket", "window", "limit", "snowflake", "segment", "lease", "codec", "json", "binary"
+    };
+
+    private static final String[] FIELDS = {"title", "content"};
+
+    /**
+     * 语料文档数，分叉进程内只生成一次
+     */
+    @Param({"100000"})
+    private int documents;
+
+    private Query termQuery;
+
+    private Query parsedQuery;
+
+    private Query wildcardQuery;
+
+    private Query fuzzyQuery;
+
+    private Sort sort;
+
+    private LuceneIndexManager indexManager;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(20261018L);
+        IndexWriter writer = LuceneUtil.buildIndexWriter(SingletonLucene.getDirectory());
+        writer.deleteAll();
+        for (int i = 0; i < documents; i++) {
+            Document document = new Document();
+            document.add(new StringField("id", String.valueOf(i), Field.Store.YES));
+            document.add(new TextField("title", sentence(random, 4), Field.Store.YES));
+            document.add(new TextField("content", sentence(random, 40), Field.Store.NO));
+            document.add(new NumericDocValuesField("createTime", random.nextInt(1_000_000)));
+            writer.addDocument(document);
+        }
+        LuceneUtil.close(writer);
+        termQuery = QuerySearchUtils.buildTermQuery("title", "redis");
+        parsedQuery = QuerySearchUtils.buildMultiFieldQuery(FIELDS, "redis AND (cache OR lock)");
+        wildcardQuery = QuerySearchUtils.buildWildcardQuery("content", "seg*");
+        fuzzyQuery = QuerySearchUtils.buildFuzzyQuery("content", "lucena", 1);
+        sort = new Sort(new SortField("createTime", SortField.Type.LONG, true));
+        indexManager = SingletonLucene.getIndexManager();
+        // 预热一次，保证缓存命中基准从第一轮开始就是命中
+        QuerySearchUtils.searchQuery(termQuery, 10, null, (searcher, topDocs) -> topDocs);
+    }
+
+    @Benchmark
+    public Query parseMultiField() {
+        return QuerySearchUtils.buildMultiFieldQuery(FIELDS,
+                WORDS[ThreadLocalRandom.current().nextInt(WORDS.length)] + " AND cache");
+    }
+
+    @Benchmark
+    public TopDocs termTop10() throws IOException {
+        return indexManager.search(searcher -> searcher.search(termQuery, 10));
+    }
+
+    @Benchmark
+    public TopDocs termTop10Cached() {
+        return QuerySearchUtils.searchQuery(termQuery, 10, null, (searcher, topDocs) -> topDocs);
+    }
+
+    @Benchmark
+    public TopDocs booleanTop100() throws IOException {
+        return indexManager.search(searcher -> searcher.search(parsedQuery, 100));
+    }
+
+    @Benchmark
+    public TopDocs booleanSortedTop100() throws IOException {
+        return indexManager.search(searcher -> searcher.search(parsedQuery, 100, sort));
+    }
+
+    @Benchmark
+    public TopDocs wildcardTop10() throws IOException {
+        return indexManager.search(searcher -> searcher.search(wildcardQuery, 10));
+    }
+
+    @Benchmark
+    public TopDocs fuzzyTop10() throws IOException {
+        return indexManager.search(searcher -> searcher.search(fuzzyQuery, 10));
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder builder = new StringBuilder(words * 8);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            // 平方分布，让部分词成为高频词
+            double r = random.nextDouble();
+            builder.append(WORDS[(int) (r * r * WORDS.length)]);
+        }
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.magictool.web.configuration;
+
+import com.magictool.web.filter.RedissonBloomFilter;
+import com.magictool.web.filter.bloom.BloomFilterRegistry;
+import com.magictool.web.filter.bloom.ProbabilisticFilter;
+import org.apache.commons.lang3.StringUtils;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import org.redisson.config.SingleServerConfig;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+/**
+ * 布隆过滤器配置类，magic.bloom-filter.enabled=true 时生效
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "magic.bloom-filter", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(BloomFilterProperties.class)
+public class BloomFilterConfig {
+
+    @Bean(destroyMethod = "close")
+    public BloomFilterRegistry bloomFilterRegistry(BloomFilterProperties properties,
+                                                   ObjectProvider<RedissonClient> clientProvider) {
+        RedissonClient client = clientProvider.getIfAvailable();
+        BloomFilterRegistry registry = client != null
+                ? new BloomFilterRegistry(client)
+                : new BloomFilterRegistry(createClient(properties), true);
+        for (Map.Entry<String, BloomFilterProperties.Filter> entry : properties.getFilters().entrySet()) {
+            BloomFilterProperties.Filter filter = entry.getValue();
+            switch (filter.getType()) {
+                case SCALABLE:
+                    registry.registerScalable(entry.getKey(), filter.getExpectedInsertions(), filter.getFalseProbability());
+                    break;
+                case COUNTING:
+                    registry.registerCounting(entry.getKey(), filter.getExpectedInsertions(), filter.getFalseProbability());
+                    break;
+                default:
+                    registry.register(entry.getKey(), filter.getExpectedInsertions(), filter.getFalseProbability(),
+                            filter.isLocalReplica(), filter.isVerifyNegative(), filter.getSyncInterval().toMillis());
+            }
+        }
+        // 原有的静态入口使用注册表中的同名过滤器
+        ProbabilisticFilter<String> legacy = registry.get(RedissonBloomFilter.DEFAULT_NAME);
+        if (legacy != null) {
+            RedissonBloomFilter.use(legacy);
+        }
+        return registry;
+    }
+
+    private static RedissonClient createClient(BloomFilterProperties properties) {
+        Config config = new Config();
+        SingleServerConfig server = config.useSingleServer()
+                .setAddress(properties.getAddress())
+                .setDatabase(properties.getDatabase());
+        if (StringUtils.isNotBlank(properties.getPassword())) {
+            server.setPassword(properties.getPassword());
+        }
+        return Redisson.create(config);
+    }
+
+}
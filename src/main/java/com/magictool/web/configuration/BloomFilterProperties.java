@@ -0,0 +1,88 @@
+package com.magictool.web.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 布隆过滤器配置，例如：
+ * <pre>
+ * magic.bloom-filter.enabled=true
+ * magic.bloom-filter.address=redis://127.0.0.1:6379
+ * magic.bloom-filter.filters.user.expected-insertions=1000000
+ * magic.bloom-filter.filters.user.false-probability=0.01
+ * magic.bloom-filter.filters.user.local-replica=true
+ * magic.bloom-filter.filters.user.sync-interval=30s
+ * magic.bloom-filter.filters.order.type=scalable
+ * </pre>
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+@Data
+@ConfigurationProperties(prefix = "magic.bloom-filter")
+public class BloomFilterProperties {
+
+    private boolean enabled;
+
+    /**
+     * 容器中没有 RedissonClient 时使用该地址创建
+     */
+    private String address = "redis://127.0.0.1:6379";
+
+    private String password;
+
+    private int database;
+
+    /**
+     * 过滤器名称 -> 配置
+     */
+    private Map<String, Filter> filters = new LinkedHashMap<>();
+
+    public enum Type {
+
+        /**
+         * 固定容量的布隆过滤器，可以保留本地副本
+         */
+        BLOOM,
+
+        /**
+         * 可扩容布隆过滤器，expected-insertions 为第一个分片的容量
+         */
+        SCALABLE,
+
+        /**
+         * 支持删除的计数布隆过滤器
+         */
+        COUNTING
+    }
+
+    @Data
+    public static class Filter {
+
+        private Type type = Type.BLOOM;
+
+        private long expectedInsertions = 1000_000;
+
+        private double falseProbability = 0.01;
+
+        /**
+         * 是否保留本地副本，开启后判断只查本地，只对 BLOOM 类型生效
+         */
+        private boolean localReplica;
+
+        /**
+         * 本地副本判断不存在时是否再查 Redis
+         */
+        private boolean verifyNegative;
+
+        /**
+         * 本地副本从 Redis 同步的间隔
+         */
+        private Duration syncInterval = Duration.ofSeconds(30);
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.magictool.web.configuration;
+
+import com.magictool.web.constants.SingletonLucene;
+import com.magictool.web.util.lucene.Analyzers;
+import com.magictool.web.util.lucene.DirectoryOptions;
+import com.magictool.web.util.lucene.LuceneIndexManager;
+import com.magictool.web.util.lucene.SearchOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Lucene 索引目录配置类，配置 {@link SingletonLucene} 使用的目录并暴露索引管理器
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+@Configuration
+public class LuceneConfig {
+
+    /**
+     * 目录类型：ram、mmap、niofs、fs
+     */
+    @Value("${magic.lucene.directory:ram}")
+    private String directory;
+
+    /**
+     * 索引目录路径，非 ram 时必填，mmap 可以放在 tmpfs 上
+     */
+    @Value("${magic.lucene.path:}")
+    private String path;
+
+    @Value("${magic.lucene.nrt-caching:true}")
+    private boolean nrtCaching;
+
+    @Value("${magic.lucene.nrt-max-merge-size-mb:5.0}")
+    private double nrtMaxMergeSizeMb;
+
+    @Value("${magic.lucene.nrt-max-cached-mb:60.0}")
+    private double nrtMaxCachedMb;
+
+    @Value("${magic.lucene.preload:false}")
+    private boolean preload;
+
+    /**
+     * 快照目录：启动时索引为空则从快照恢复，退出时保存快照
+     */
+    @Value("${magic.lucene.snapshot-path:}")
+    private String snapshotPath;
+
+    /**
+     * 分词器：simple、standard、whitespace、smart_chinese，写索引和解析查询共用
+     */
+    @Value("${magic.lucene.analyzer:simple}")
+    private String analyzer;
+
+    /**
+     * 解析结果缓存条目数，0表示不缓存
+     */
+    @Value("${magic.lucene.parsed-query-cache-size:10000}")
+    private int parsedQueryCacheSize;
+
+    /**
+     * 查询结果缓存条目数，0表示不缓存
+     */
+    @Value("${magic.lucene.result-cache-size:1000}")
+    private int resultCacheSize;
+
+    /**
+     * 过滤条件位集缓存条目数，0表示不缓存
+     */
+    @Value("${magic.lucene.query-cache-size:10000}")
+    private int queryCacheSize;
+
+    @Value("${magic.lucene.query-cache-ram-mb:32}")
+    private long queryCacheRamMb;
+
+    /**
+     * 过滤条件缓存策略：usage_tracking、always
+     */
+    @Value("${magic.lucene.query-cache-policy:usage_tracking}")
+    private String queryCachePolicy;
+
+    /**
+     * 并行搜索线程数，0表示顺序搜索
+     */
+    @Value("${magic.lucene.search-threads:0}")
+    private int searchThreads;
+
+    @Value("${magic.lucene.search-queue-capacity:1000}")
+    private int searchQueueCapacity;
+
+    @Value("${magic.lucene.max-docs-per-slice:250000}")
+    private int maxDocsPerSlice;
+
+    @Value("${magic.lucene.max-segments-per-slice:5}")
+    private int maxSegmentsPerSlice;
+
+    /**
+     * 带超时查询的默认超时时间（毫秒），0表示不限制
+     */
+    @Value("${magic.lucene.search-timeout-millis:0}")
+    private long searchTimeoutMillis;
+
+    @Bean(destroyMethod = "")
+    public LuceneIndexManager luceneIndexManager() {
+        DirectoryOptions options = new DirectoryOptions();
+        options.setType(DirectoryOptions.Type.valueOf(directory.trim().toUpperCase()));
+        options.setPath(path);
+        options.setNrtCaching(nrtCaching);
+        options.setNrtMaxMergeSizeMb(nrtMaxMergeSizeMb);
+        options.setNrtMaxCachedMb(nrtMaxCachedMb);
+        options.setPreload(preload);
+        options.setSnapshotPath(snapshotPath);
+        SearchOptions searchOptions = new SearchOptions();
+        searchOptions.setAnalyzer(Analyzers.Type.valueOf(analyzer.trim().toUpperCase()));
+        searchOptions.setParsedQueryCacheSize(parsedQueryCacheSize);
+        searchOptions.setResultCacheSize(resultCacheSize);
+        searchOptions.setQueryCacheSize(queryCacheSize);
+        searchOptions.setQueryCacheRamMb(queryCacheRamMb);
+        searchOptions.setQueryCachePolicy(SearchOptions.QueryCachePolicy.valueOf(queryCachePolicy.trim().toUpperCase()));
+        searchOptions.setSearchThreads(searchThreads);
+        searchOptions.setSearchQueueCapacity(searchQueueCapacity);
+        searchOptions.setMaxDocsPerSlice(maxDocsPerSlice);
+        searchOptions.setMaxSegmentsPerSlice(maxSegmentsPerSlice);
+        searchOptions.setSearchTimeoutMillis(searchTimeoutMillis);
+        SingletonLucene.configure(options, searchOptions);
+        // 关闭由 SingletonLucene 的 shutdown hook 负责，这里不重复关闭
+        return SingletonLucene.getIndexManager();
+    }
+
+}
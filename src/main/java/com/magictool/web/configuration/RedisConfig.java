@@ -1,13 +1,16 @@
 package com.magictool.web.configuration;
 
-import com.fasterxml.jackson.annotation.JsonAutoDetect;
-import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.annotation.JsonTypeInfo;
-import com.fasterxml.jackson.annotation.PropertyAccessor;
-import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.magictool.web.util.redis.codec.CacheCodec;
+import com.magictool.web.util.redis.codec.CacheCodecRedisSerializer;
+import com.magictool.web.util.redis.codec.CacheTypeValidator;
+import com.magictool.web.util.redis.codec.CompactCacheCodec;
+import com.magictool.web.util.redis.codec.JacksonCacheCodec;
+import com.magictool.web.util.redis.codec.VersionedCacheCodec;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
@@ -15,6 +18,7 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
@@ -27,6 +31,36 @@ import java.time.Duration;
 @Configuration
 public class RedisConfig {
 
+    /**
+     * 缓存值的编码方式：json、smile、cbor、compact，为空时使用原有的 JSON 序列化（不带版本头）
+     */
+    @Value("${magic.cache.codec:}")
+    private String codecName;
+
+    /**
+     * 超过该字节数的值使用 Deflate 压缩，0或小于0不压缩
+     */
+    @Value("${magic.cache.compress-threshold:1024}")
+    private int compressThreshold;
+
+    /**
+     * 压缩值解压后的最大字节数，头部记录的长度超过该值时按损坏数据处理
+     */
+    @Value("${magic.cache.max-decompressed-bytes:" + VersionedCacheCodec.DEFAULT_MAX_DECOMPRESSED_BYTES + "}")
+    private int maxDecompressedBytes;
+
+    /**
+     * 缓存值中允许反序列化的类所在的包，逗号分隔，JDK 的常用类型总是允许。
+     * 为空时与升级前一样不限制类型（存在反序列化漏洞的风险）；建议配置为缓存值所在的包，例如 {@code com.magictool,com.example.dto}，
+     * 配置后不在这些包下的已有缓存值将无法读取，需要先确认缓存中的类型都被覆盖
+     */
+    @Value("${magic.cache.trusted-packages:}")
+    private String[] trustedPackages;
+
+    private volatile CacheTypeValidator typeValidator;
+
+    private volatile CacheCodec cacheCodec;
+
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory factory) {
         RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
@@ -36,8 +70,8 @@ public class RedisConfig {
         //设置HashKey的序列化机制
         redisTemplate.setHashKeySerializer(new StringRedisSerializer());
         //设置Value的序列化机制
-        redisTemplate.setValueSerializer(getJsonSerializer());
-        redisTemplate.setHashValueSerializer(getJsonSerializer());
+        redisTemplate.setValueSerializer(getValueSerializer());
+        redisTemplate.setHashValueSerializer(getValueSerializer());
         //设置RedisConnectionFactory
         redisTemplate.setConnectionFactory(factory);
         return redisTemplate;
@@ -45,27 +79,93 @@ public class RedisConfig {
 
     public Jackson2JsonRedisSerializer<Object> getJsonSerializer() {
         Jackson2JsonRedisSerializer<Object> serializer = new Jackson2JsonRedisSerializer<Object>(Object.class);
-        ObjectMapper om = new ObjectMapper();
-        //只针对非空的属性进行序列化
-        om.setSerializationInclusion(JsonInclude.Include.NON_NULL);
-        //访问类型
-        om.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
-        //将类的全名序列化到json字符串中
-        om.activateDefaultTyping(LaissezFaireSubTypeValidator.instance,
-                ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.WRAPPER_ARRAY);
-        //对于匹配不了的属性忽略报错信息
-        om.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        //不包含任何属性的bean也不报错
-        om.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
-        serializer.setObjectMapper(om);
+        serializer.setObjectMapper(configureObjectMapper(new ObjectMapper()));
         return serializer;
     }
 
+    /**
+     * 值的序列化机制，配置了 magic.cache.codec 时使用带版本头的 {@link CacheCodec}，
+     * 读取时兼容原有的 JSON 数据，可以平滑切换
+     */
+    public RedisSerializer<Object> getValueSerializer() {
+        CacheCodec codec = getCacheCodec();
+        return codec == null ? getJsonSerializer() : new CacheCodecRedisSerializer(codec);
+    }
+
+    /**
+     * 根据 magic.cache.codec 创建的编解码器，未配置时返回null
+     */
+    public CacheCodec getCacheCodec() {
+        if (StringUtils.isBlank(codecName)) {
+            return null;
+        }
+        CacheCodec codec = cacheCodec;
+        if (codec == null) {
+            synchronized (this) {
+                codec = cacheCodec;
+                if (codec == null) {
+                    codec = buildCacheCodec(codecName.trim().toLowerCase());
+                    cacheCodec = codec;
+                }
+            }
+        }
+        return codec;
+    }
+
+    private CacheCodec buildCacheCodec(String name) {
+        CacheCodec json = new JacksonCacheCodec(JacksonCacheCodec.JSON_ID, configureObjectMapper(new ObjectMapper()));
+        CacheCodec smile = new JacksonCacheCodec(JacksonCacheCodec.SMILE_ID,
+                configureObjectMapper(new ObjectMapper(new SmileFactory())));
+        CacheCodec cbor = new JacksonCacheCodec(JacksonCacheCodec.CBOR_ID,
+                configureObjectMapper(new ObjectMapper(new CBORFactory())));
+        CacheCodec compact = new CompactCacheCodec(getTypeValidator());
+        CacheCodec writer;
+        switch (name) {
+            case "json":
+                writer = json;
+                break;
+            case "smile":
+                writer = smile;
+                break;
+            case "cbor":
+                writer = cbor;
+                break;
+            case "compact":
+                writer = compact;
+                break;
+            default:
+                throw new IllegalArgumentException("unknown magic.cache.codec: " + name);
+        }
+        return new VersionedCacheCodec(writer, json, compressThreshold, maxDecompressedBytes, json, smile, cbor, compact);
+    }
+
+    private ObjectMapper configureObjectMapper(ObjectMapper om) {
+        return JacksonCacheCodec.configureTyping(om, getTypeValidator());
+    }
+
+    /**
+     * 所有 ObjectMapper 共用的类名白名单，compact 注册的类型也会加入其中
+     */
+    private CacheTypeValidator getTypeValidator() {
+        CacheTypeValidator validator = typeValidator;
+        if (validator == null) {
+            synchronized (this) {
+                validator = typeValidator;
+                if (validator == null) {
+                    validator = StringUtils.isAllBlank(trustedPackages) ? CacheTypeValidator.allowAll()
+                            : new CacheTypeValidator(trustedPackages);
+                    typeValidator = validator;
+                }
+            }
+        }
+        return validator;
+    }
+
     @Bean
     public RedisCacheConfiguration redisCacheConfiguration() {
         RedisCacheConfiguration configuration = RedisCacheConfiguration.defaultCacheConfig();
         return configuration.serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(getJsonSerializer()))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(getValueSerializer()))
                 .entryTtl(Duration.ofMinutes(60));
     }
 
@@ -1,20 +1,132 @@
 package com.magictool.web.constants;
 
 
+import com.magictool.web.util.lucene.Analyzers;
+import com.magictool.web.util.lucene.DirectoryOptions;
+import com.magictool.web.util.lucene.LuceneIndexManager;
 import com.magictool.web.util.lucene.LuceneUtil;
+import com.magictool.web.util.lucene.ParallelSearcherFactory;
+import com.magictool.web.util.lucene.QueryCacheSearcherFactory;
+import com.magictool.web.util.lucene.QueryParserEngine;
+import com.magictool.web.util.lucene.QueryResultCache;
+import com.magictool.web.util.lucene.SearchOptions;
+import com.magictool.web.util.lucene.highlight.SearchHighlighter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.lucene.store.Directory;
 
 /**
- * 单例Lucene内存目录对象
+ * 单例Lucene目录对象
+ * 默认使用内存目录，可以在第一次使用前调用 {@link #configure(DirectoryOptions)}，
+ * 或者通过系统属性 magic.lucene.directory / magic.lucene.path 切换到 MMAP、NIOFS 等磁盘目录
  * @Author ljf
  * @Date 2021/11/15 11:29
  */
+@Slf4j
 public class SingletonLucene {
 
     private SingletonLucene(){}
 
+    private static volatile DirectoryOptions options;
+
+    private static volatile SearchOptions searchOptions = new SearchOptions();
+
+    private static volatile boolean initialized;
+
     private static class SingleDirectory{
-        private static final Directory DIRECTORY = LuceneUtil.buildRAMDirectory();
+        private static final Directory DIRECTORY = createDirectory();
+
+        private static Directory createDirectory(){
+            synchronized (SingletonLucene.class) {
+                initialized = true;
+                if (options == null) {
+                    options = DirectoryOptions.fromSystemProperties();
+                }
+                return LuceneUtil.buildDirectory(options);
+            }
+        }
+    }
+
+    private static class SingleIndexManager{
+        private static final LuceneIndexManager INDEX_MANAGER = createIndexManager();
+
+        private static LuceneIndexManager createIndexManager(){
+            Analyzers.Type analyzer = freezeSearchOptions().getAnalyzer();
+            LuceneIndexManager manager = new LuceneIndexManager(getDirectory(), Analyzers.get(analyzer),
+                    SingleSearcherFactory.SEARCHER_FACTORY, LuceneIndexManager.DEFAULT_TARGET_MAX_STALE_SEC,
+                    LuceneIndexManager.DEFAULT_TARGET_MIN_STALE_SEC);
+            String snapshotPath = options.getSnapshotPath();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                // 配置了快照目录时退出前保存快照，下次启动从快照恢复（例如内存目录或索引放在 tmpfs 上）
+                if (StringUtils.isNotBlank(snapshotPath)) {
+                    try {
+                        manager.snapshot(snapshotPath);
+                    } catch (Exception e) {
+                        log.warn("[400.save snapshot]: error={}, snapshotPath={}", e, snapshotPath);
+                    }
+                }
+                manager.close();
+                if (SingleSearcherFactory.SEARCHER_FACTORY instanceof ParallelSearcherFactory) {
+                    ((ParallelSearcherFactory) SingleSearcherFactory.SEARCHER_FACTORY).close();
+                }
+            }, "lucene-index-manager-shutdown"));
+            return manager;
+        }
+    }
+
+    private static class SingleSearcherFactory{
+        private static final QueryCacheSearcherFactory SEARCHER_FACTORY = createSearcherFactory();
+
+        private static QueryCacheSearcherFactory createSearcherFactory(){
+            SearchOptions current = freezeSearchOptions();
+            return current.getSearchThreads() > 0
+                    ? new ParallelSearcherFactory(current)
+                    : new QueryCacheSearcherFactory(current);
+        }
+    }
+
+    private static class SingleResultCache{
+        private static final QueryResultCache RESULT_CACHE =
+                new QueryResultCache(getIndexManager(), freezeSearchOptions().getResultCacheSize());
+    }
+
+    private static class SingleQueryParserEngine{
+        private static final QueryParserEngine QUERY_PARSER_ENGINE =
+                new QueryParserEngine(freezeSearchOptions().getAnalyzer(), searchOptions.getParsedQueryCacheSize());
+    }
+
+    private static class SingleSearchHighlighter{
+        private static final SearchHighlighter SEARCH_HIGHLIGHTER =
+                new SearchHighlighter(Analyzers.get(freezeSearchOptions().getAnalyzer()));
+    }
+
+    /**
+     * 任何一个单例按查询配置创建后都不能再调用 configure，否则分词器等配置会前后不一致
+     */
+    private static synchronized SearchOptions freezeSearchOptions(){
+        initialized = true;
+        return searchOptions;
+    }
+
+    /**
+     * 设置目录配置，必须在第一次使用目录、解析器或高亮器之前调用
+     * @param directoryOptions 目录配置
+     */
+    public static synchronized void configure(DirectoryOptions directoryOptions){
+        configure(directoryOptions, searchOptions);
+    }
+
+    /**
+     * 设置目录配置和查询缓存配置，必须在第一次使用目录、解析器或高亮器之前调用
+     * @param directoryOptions 目录配置
+     * @param querySearchOptions 查询缓存配置
+     */
+    public static synchronized void configure(DirectoryOptions directoryOptions, SearchOptions querySearchOptions){
+        if (initialized) {
+            throw new IllegalStateException("lucene singletons have already been created");
+        }
+        options = directoryOptions;
+        searchOptions = querySearchOptions;
     }
 
     /**
@@ -24,4 +136,46 @@ public class SingletonLucene {
         return SingleDirectory.DIRECTORY;
     }
 
+    /**
+     * 单例目录的索引管理器，持有共享的 writer 和 searcher，第一次使用时创建
+     */
+    public static LuceneIndexManager getIndexManager(){
+        return SingleIndexManager.INDEX_MANAGER;
+    }
+
+    /**
+     * 单例索引管理器的查询结果缓存，索引刷新后自动失效
+     */
+    public static QueryResultCache getResultCache(){
+        return SingleResultCache.RESULT_CACHE;
+    }
+
+    /**
+     * 查询解析引擎，默认分词器与单例索引写入时一致
+     */
+    public static QueryParserEngine getQueryParserEngine(){
+        return SingleQueryParserEngine.QUERY_PARSER_ENGINE;
+    }
+
+    /**
+     * 搜索结果高亮器，分词器与单例索引写入时一致
+     */
+    public static SearchHighlighter getSearchHighlighter(){
+        return SingleSearchHighlighter.SEARCH_HIGHLIGHTER;
+    }
+
+    /**
+     * 当前的查询配置
+     */
+    public static SearchOptions getSearchOptions(){
+        return searchOptions;
+    }
+
+    /**
+     * 单例索引管理器使用的 searcher 工厂，可以获取过滤条件缓存的命中率等指标
+     */
+    public static QueryCacheSearcherFactory getSearcherFactory(){
+        return SingleSearcherFactory.SEARCHER_FACTORY;
+    }
+
 }
@@ -0,0 +1,37 @@
+package com.magictool.web.entity;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * 游标分页查询封装结果集，翻下一页时把 nextCursor 原样传回
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class CursorPage<T> extends Page<T> {
+
+    private static final long serialVersionUID = 5307286410398157826L;
+
+    /** 下一页游标，没有下一页时为null */
+    private String nextCursor;
+
+    public CursorPage(long totalCount, int pageNum, int pageSize, List<T> resultList, String nextCursor){
+        super(totalCount, pageNum, pageSize, resultList);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * 是否还有下一页
+     */
+    public boolean hasNext(){
+        return nextCursor != null;
+    }
+}
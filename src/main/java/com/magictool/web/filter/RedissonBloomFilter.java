@@ -1,32 +1,51 @@
 package com.magictool.web.filter;
+import com.magictool.web.filter.bloom.ProbabilisticFilter;
+import com.magictool.web.filter.bloom.ReplicatedBloomFilter;
 import org.redisson.Redisson;
-import org.redisson.api.RBloomFilter;
-import org.redisson.api.RedissonClient;
 import org.redisson.config.Config;
 
 /**
  * 布隆过滤器配置
+ * <p>
+ * 开启 magic.bloom-filter.enabled 并配置名为 bloomFilter 的过滤器后，使用注册表中的过滤器（可以开启本地副本）；
+ * 否则第一次使用时连接 redis://127.0.0.1:6379 创建
  * @author lijf
  */
 public class RedissonBloomFilter {
 
-    private static RBloomFilter<String> bloomFilter;
+    public static final String DEFAULT_NAME = "bloomFilter";
 
-    static {
-        Config config = new Config();
-        config.useSingleServer().setAddress("redis://127.0.0.1:6379");
-        RedissonClient client = Redisson.create(config);
+    private static volatile ProbabilisticFilter<String> bloomFilter;
 
-        bloomFilter = client.getBloomFilter("bloomFilter");
-        bloomFilter.tryInit(1000_000, 0.01);
+    /**
+     * 使用指定的过滤器
+     */
+    public static void use(ProbabilisticFilter<String> filter) {
+        bloomFilter = filter;
     }
 
     public static void add(String data) {
-        bloomFilter.add(data);
+        getFilter().add(data);
     }
 
     public static boolean check(String data) {
-        return bloomFilter.contains(data);
+        return getFilter().contains(data);
     }
 
-}
\ No newline at end of file
+    private static ProbabilisticFilter<String> getFilter() {
+        ProbabilisticFilter<String> filter = bloomFilter;
+        if (filter == null) {
+            synchronized (RedissonBloomFilter.class) {
+                filter = bloomFilter;
+                if (filter == null) {
+                    Config config = new Config();
+                    config.useSingleServer().setAddress("redis://127.0.0.1:6379");
+                    filter = new ReplicatedBloomFilter<>(Redisson.create(config), DEFAULT_NAME, 1000_000, 0.01);
+                    bloomFilter = filter;
+                }
+            }
+        }
+        return filter;
+    }
+
+}
@@ -0,0 +1,154 @@
+package com.magictool.web.filter.bloom;
+
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * 布隆过滤器注册表，按名称管理多个过滤器，统一调度本地副本的同步
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+@Slf4j
+public class BloomFilterRegistry implements Closeable {
+
+    private final RedissonClient client;
+
+    /**
+     * 关闭时是否一起关闭 redisson
+     */
+    private final boolean shutdownClient;
+
+    private final ConcurrentHashMap<String, ProbabilisticFilter<?>> filters = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler;
+
+    public BloomFilterRegistry(RedissonClient client) {
+        this(client, false);
+    }
+
+    /**
+     * @param client         redisson
+     * @param shutdownClient 关闭注册表时是否关闭 redisson，redisson 由注册表自己创建时传 true
+     */
+    public BloomFilterRegistry(RedissonClient client, boolean shutdownClient) {
+        this.client = client;
+        this.shutdownClient = shutdownClient;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "bloom-filter-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 注册只使用 Redis 的布隆过滤器，同名过滤器已存在时直接返回
+     */
+    public <T> ReplicatedBloomFilter<T> register(String name, long expectedInsertions, double falseProbability) {
+        return register(name, expectedInsertions, falseProbability, false, false, 0);
+    }
+
+    /**
+     * 注册布隆过滤器，同名过滤器已存在时直接返回
+     *
+     * @param name               过滤器名称
+     * @param expectedInsertions 预计元素数量
+     * @param falseProbability   误判率
+     * @param localReplica       是否保留本地副本
+     * @param verifyNegative     本地副本判断不存在时是否再查 Redis
+     * @param syncIntervalMillis 本地副本同步间隔（毫秒），0表示不定时同步
+     * @return 过滤器
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ReplicatedBloomFilter<T> register(String name, long expectedInsertions, double falseProbability,
+                                                 boolean localReplica, boolean verifyNegative, long syncIntervalMillis) {
+        return (ReplicatedBloomFilter<T>) filters.computeIfAbsent(name, k -> {
+            ReplicatedBloomFilter<T> filter = new ReplicatedBloomFilter<>(client, k, expectedInsertions, falseProbability,
+                    localReplica, verifyNegative);
+            filter.scheduleSync(scheduler, syncIntervalMillis);
+            log.info("bloom filter registered, name={}, bits={}, hashIterations={}, localReplica={}", k,
+                    filter.getBitSize(), filter.getHashIterations(), localReplica);
+            return filter;
+        });
+    }
+
+    /**
+     * 注册可扩容布隆过滤器，同名过滤器已存在时直接返回
+     *
+     * @param name             过滤器名称
+     * @param initialCapacity  第一个分片的容量
+     * @param falseProbability 整体误判率上限
+     * @return 过滤器
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ScalableBloomFilter<T> registerScalable(String name, long initialCapacity, double falseProbability) {
+        return (ScalableBloomFilter<T>) filters.computeIfAbsent(name, k -> {
+            ScalableBloomFilter<T> filter = new ScalableBloomFilter<>(client, k, initialCapacity, falseProbability);
+            log.info("scalable bloom filter registered, name={}, slices={}, capacity={}", k, filter.getSliceCount(),
+                    filter.getCapacity());
+            return filter;
+        });
+    }
+
+    /**
+     * 注册支持删除的计数布隆过滤器，同名过滤器已存在时直接返回
+     *
+     * @param name               过滤器名称
+     * @param expectedInsertions 预计元素数量
+     * @param falseProbability   误判率
+     * @return 过滤器
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CountingBloomFilter<T> registerCounting(String name, long expectedInsertions, double falseProbability) {
+        return (CountingBloomFilter<T>) filters.computeIfAbsent(name, k -> {
+            CountingBloomFilter<T> filter = new CountingBloomFilter<>(client, k, expectedInsertions, falseProbability);
+            log.info("counting bloom filter registered, name={}, counters={}, hashIterations={}", k, filter.getSize(),
+                    filter.getHashIterations());
+            return filter;
+        });
+    }
+
+    /**
+     * 获取过滤器
+     *
+     * @param name 过滤器名称
+     * @return 过滤器，不存在返回null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ProbabilisticFilter<T> get(String name) {
+        return (ProbabilisticFilter<T>) filters.get(name);
+    }
+
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(filters.keySet());
+    }
+
+    public RedissonClient getClient() {
+        return client;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        for (ProbabilisticFilter<?> filter : filters.values()) {
+            if (filter instanceof Closeable) {
+                try {
+                    ((Closeable) filter).close();
+                } catch (Exception e) {
+                    log.warn("failed to close bloom filter, name={}", filter.getName(), e);
+                }
+            }
+        }
+        if (shutdownClient) {
+            client.shutdown();
+        }
+    }
+
+}
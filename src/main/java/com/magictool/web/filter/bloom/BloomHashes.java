@@ -0,0 +1,68 @@
+package com.magictool.web.filter.bloom;
+
+import io.netty.buffer.ByteBuf;
+import org.redisson.client.codec.Codec;
+import org.redisson.misc.Hash;
+
+/**
+ * 布隆过滤器的哈希和容量计算，与 Redisson 的 RedissonBloomFilter 保持一致
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+final class BloomHashes {
+
+    private BloomHashes() {
+    }
+
+    /**
+     * 计算元素的位下标：编码后做 128 位 HighwayHash，再用两个 64 位哈希交替累加得到 hashIterations 个下标
+     */
+    static long[] indexes(Codec codec, Object value, int hashIterations, long bitSize) {
+        long[] hash;
+        ByteBuf state;
+        try {
+            state = codec.getValueEncoder().encode(value);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("failed to encode bloom filter element", e);
+        }
+        try {
+            hash = Hash.hash128(state);
+        } finally {
+            state.release();
+        }
+        long[] indexes = new long[hashIterations];
+        long combined = hash[0];
+        for (int i = 0; i < hashIterations; i++) {
+            indexes[i] = (combined & Long.MAX_VALUE) % bitSize;
+            combined += i % 2 == 0 ? hash[1] : hash[0];
+        }
+        return indexes;
+    }
+
+    static long optimalNumOfBits(long expectedInsertions, double falseProbability) {
+        if (falseProbability == 0) {
+            falseProbability = Double.MIN_VALUE;
+        }
+        return (long) (-expectedInsertions * Math.log(falseProbability) / (Math.log(2) * Math.log(2)));
+    }
+
+    static int optimalNumOfHashFunctions(long expectedInsertions, long bitSize) {
+        return Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * 按已置位的比例估算误判率：(置位数 / 位数) ^ 哈希次数
+     */
+    static double falseProbabilityByFill(long setBits, long bitSize, int hashIterations) {
+        return Math.pow((double) setBits / bitSize, hashIterations);
+    }
+
+    /**
+     * 按元素数量估算误判率：(1 - e ^ (-kn / m)) ^ k
+     */
+    static double falseProbabilityByCount(long count, long bitSize, int hashIterations) {
+        return Math.pow(1 - Math.exp(-(double) hashIterations * count / bitSize), hashIterations);
+    }
+
+}
@@ -0,0 +1,254 @@
+package com.magictool.web.filter.bloom;
+
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 计数布隆过滤器，支持删除
+ * <p>
+ * 每个位置是一个 4 位计数器（Redis BITFIELD u4，饱和于15），添加时对应计数器加1，删除时减1，
+ * 占用空间是同样参数布隆过滤器的 4 倍。已饱和的计数器删除时不再减少，避免误删其他元素，代价是该位置永远不会归零。
+ * <p>
+ * 只能删除确实添加过的元素，删除从未添加过但被误判为存在的元素会让其他元素变成“不存在”。
+ * 批量操作在一个 Lua 脚本中完成，一次网络往返。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+@Slf4j
+public class CountingBloomFilter<T> implements ProbabilisticFilter<T> {
+
+    private static final int MAX_COUNTER = 15;
+
+    /**
+     * 添加：ARGV[1] 为哈希次数，之后每个元素依次放 k 个下标；返回每个元素添加前是否不存在
+     */
+    private static final String ADD_SCRIPT =
+            "local k = tonumber(ARGV[1]) " +
+            "local result = {} " +
+            "local added = 0 " +
+            "for i = 2, #ARGV, k do " +
+            "  local gets, incrs = {}, {'OVERFLOW', 'SAT'} " +
+            "  for j = i, i + k - 1 do " +
+            "    local offset = '#' .. ARGV[j] " +
+            "    gets[#gets + 1] = 'GET'; gets[#gets + 1] = 'u4'; gets[#gets + 1] = offset " +
+            "    incrs[#incrs + 1] = 'INCRBY'; incrs[#incrs + 1] = 'u4'; incrs[#incrs + 1] = offset; incrs[#incrs + 1] = 1 " +
+            "  end " +
+            "  local present = 1 " +
+            "  for _, v in ipairs(redis.call('bitfield', KEYS[1], unpack(gets))) do " +
+            "    if v == 0 then present = 0 break end " +
+            "  end " +
+            "  redis.call('bitfield', KEYS[1], unpack(incrs)) " +
+            "  added = added + 1 - present " +
+            "  result[#result + 1] = 1 - present " +
+            "end " +
+            "if added > 0 then redis.call('incrby', KEYS[2], added) end " +
+            "return result";
+
+    /**
+     * 删除：只有全部计数器都大于0的元素才会删除，已饱和的计数器不减；返回每个元素是否删除
+     */
+    private static final String REMOVE_SCRIPT =
+            "local k = tonumber(ARGV[1]) " +
+            "local result = {} " +
+            "local removed = 0 " +
+            "for i = 2, #ARGV, k do " +
+            "  local gets = {} " +
+            "  for j = i, i + k - 1 do " +
+            "    gets[#gets + 1] = 'GET'; gets[#gets + 1] = 'u4'; gets[#gets + 1] = '#' .. ARGV[j] " +
+            "  end " +
+            "  local values = redis.call('bitfield', KEYS[1], unpack(gets)) " +
+            "  local present = 1 " +
+            "  for _, v in ipairs(values) do " +
+            "    if v == 0 then present = 0 break end " +
+            "  end " +
+            "  if present == 1 then " +
+            "    local decrs = {'OVERFLOW', 'SAT'} " +
+            "    for n = 1, k do " +
+            "      if values[n] < " + MAX_COUNTER + " then " +
+            "        decrs[#decrs + 1] = 'INCRBY'; decrs[#decrs + 1] = 'u4'; decrs[#decrs + 1] = '#' .. ARGV[i + n - 1]; decrs[#decrs + 1] = -1 " +
+            "      end " +
+            "    end " +
+            "    if #decrs > 2 then redis.call('bitfield', KEYS[1], unpack(decrs)) end " +
+            "    removed = removed + 1 " +
+            "  end " +
+            "  result[#result + 1] = present " +
+            "end " +
+            "if removed > 0 and redis.call('decrby', KEYS[2], removed) < 0 then redis.call('set', KEYS[2], 0) end " +
+            "return result";
+
+    /**
+     * 判断：返回每个元素的全部计数器是否都大于0。
+     * BITFIELD 在 Redis 中被标记为写命令，只读副本会拒绝执行，脚本需要以 READ_WRITE 模式发到主节点
+     */
+    private static final String CONTAINS_SCRIPT =
+            "local k = tonumber(ARGV[1]) " +
+            "local result = {} " +
+            "for i = 2, #ARGV, k do " +
+            "  local gets = {} " +
+            "  for j = i, i + k - 1 do " +
+            "    gets[#gets + 1] = 'GET'; gets[#gets + 1] = 'u4'; gets[#gets + 1] = '#' .. ARGV[j] " +
+            "  end " +
+            "  local present = 1 " +
+            "  for _, v in ipairs(redis.call('bitfield', KEYS[1], unpack(gets))) do " +
+            "    if v == 0 then present = 0 break end " +
+            "  end " +
+            "  result[#result + 1] = present " +
+            "end " +
+            "return result";
+
+    private final String name;
+
+    private final RedissonClient client;
+
+    private final Codec codec;
+
+    private final List<Object> keys;
+
+    private final long size;
+
+    private final int hashIterations;
+
+    /**
+     * @param client             redisson
+     * @param name               过滤器名称
+     * @param expectedInsertions 预计元素数量
+     * @param falseProbability   误判率
+     */
+    public CountingBloomFilter(RedissonClient client, String name, long expectedInsertions, double falseProbability) {
+        if (expectedInsertions <= 0 || falseProbability <= 0 || falseProbability >= 1) {
+            throw new IllegalArgumentException("expectedInsertions must be greater than 0 and falseProbability in (0, 1)");
+        }
+        this.name = name;
+        this.client = client;
+        this.codec = client.getConfig().getCodec();
+        String key = "{" + name + "}";
+        this.keys = Arrays.asList(key, key + ":count");
+        long bits = BloomHashes.optimalNumOfBits(expectedInsertions, falseProbability);
+        int iterations = BloomHashes.optimalNumOfHashFunctions(expectedInsertions, bits);
+        // 第一次创建时保存参数，之后所有节点沿用 Redis 中的参数
+        RBucket<String> config = client.getBucket(key + ":config", StringCodec.INSTANCE);
+        config.trySet(bits + ":" + iterations);
+        String[] saved = config.get().split(":");
+        this.size = Long.parseLong(saved[0]);
+        this.hashIterations = Integer.parseInt(saved[1]);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean add(T value) {
+        return addAll(Collections.singletonList(value)) > 0;
+    }
+
+    @Override
+    public boolean contains(T value) {
+        return containsAll(Collections.singletonList(value)).get(0);
+    }
+
+    /**
+     * 删除元素
+     *
+     * @param value 元素，必须是添加过的
+     * @return 元素存在并已删除返回true
+     */
+    public boolean remove(T value) {
+        return removeAll(Collections.singletonList(value)) > 0;
+    }
+
+    @Override
+    public int addAll(Collection<? extends T> values) {
+        List<Long> result = eval(RScript.Mode.READ_WRITE, ADD_SCRIPT, values);
+        return result == null ? 0 : countTrue(result);
+    }
+
+    /**
+     * 批量删除
+     *
+     * @param values 元素
+     * @return 实际删除的元素个数
+     */
+    public int removeAll(Collection<? extends T> values) {
+        List<Long> result = eval(RScript.Mode.READ_WRITE, REMOVE_SCRIPT, values);
+        return result == null ? 0 : countTrue(result);
+    }
+
+    @Override
+    public List<Boolean> containsAll(List<? extends T> values) {
+        List<Long> result = eval(RScript.Mode.READ_WRITE, CONTAINS_SCRIPT, values);
+        List<Boolean> contains = new ArrayList<>(values.size());
+        for (int i = 0; i < values.size(); i++) {
+            // 查询失败时按存在处理
+            contains.add(result == null || result.get(i) == 1L);
+        }
+        return contains;
+    }
+
+    /**
+     * 按 Redis 中记录的元素数量估算：(1 - e ^ (-kn / m)) ^ k
+     */
+    @Override
+    public double estimatedFalseProbability() {
+        return BloomHashes.falseProbabilityByCount(getCount(), size, hashIterations);
+    }
+
+    /**
+     * 当前元素数量（重复添加的元素只计一次）
+     */
+    public long getCount() {
+        String count = client.<String>getBucket((String) keys.get(1), StringCodec.INSTANCE).get();
+        return count == null ? 0 : Long.parseLong(count);
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public int getHashIterations() {
+        return hashIterations;
+    }
+
+    private List<Long> eval(RScript.Mode mode, String script, Collection<? extends T> values) {
+        if (values.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Object[] args = new Object[1 + values.size() * hashIterations];
+        args[0] = String.valueOf(hashIterations);
+        int i = 1;
+        for (T value : values) {
+            for (long index : BloomHashes.indexes(codec, value, hashIterations, size)) {
+                args[i++] = String.valueOf(index);
+            }
+        }
+        try {
+            return client.getScript(StringCodec.INSTANCE).eval(mode, script, RScript.ReturnType.MULTI, keys, args);
+        } catch (Exception e) {
+            log.error("failed to execute counting bloom filter script, name={}, size={}", name, values.size(), e);
+            return null;
+        }
+    }
+
+    private static int countTrue(List<Long> result) {
+        int count = 0;
+        for (Long flag : result) {
+            if (flag != null && flag == 1L) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+}
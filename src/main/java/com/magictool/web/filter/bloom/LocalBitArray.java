@@ -0,0 +1,92 @@
+package com.magictool.web.filter.bloom;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 基于 {@link AtomicLongArray} 的无锁位数组，作为 Redis 位图在本地的副本
+ * <p>
+ * 位的编号与 Redis SETBIT 的 offset 一致；Redis 位图中每个字节的最高位是编号最小的位，
+ * 本地每个 long 的最低位是编号最小的位，{@link #merge(byte[])} 负责转换。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public class LocalBitArray {
+
+    private final AtomicLongArray words;
+
+    private final long bitSize;
+
+    public LocalBitArray(long bitSize) {
+        if (bitSize <= 0 || (bitSize + 63) >>> 6 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("illegal bitSize: " + bitSize);
+        }
+        this.bitSize = bitSize;
+        this.words = new AtomicLongArray((int) ((bitSize + 63) >>> 6));
+    }
+
+    /**
+     * 置位
+     *
+     * @return 该位原来是0返回true
+     */
+    public boolean set(long index) {
+        int wordIndex = (int) (index >>> 6);
+        long mask = 1L << index;
+        while (true) {
+            long word = words.get(wordIndex);
+            if ((word & mask) != 0) {
+                return false;
+            }
+            if (words.compareAndSet(wordIndex, word, word | mask)) {
+                return true;
+            }
+        }
+    }
+
+    public boolean get(long index) {
+        return (words.get((int) (index >>> 6)) & (1L << index)) != 0;
+    }
+
+    /**
+     * 把 Redis 位图（GET 得到的原始字节）合并进本地副本，按位或，不会清除本地已经置位的位
+     *
+     * @param bitmap redis 位图
+     */
+    public void merge(byte[] bitmap) {
+        if (bitmap == null) {
+            return;
+        }
+        int byteCount = (int) Math.min(bitmap.length, (bitSize + 7) >>> 3);
+        for (int wordIndex = 0; wordIndex << 3 < byteCount; wordIndex++) {
+            long value = 0;
+            int base = wordIndex << 3;
+            int end = Math.min(base + 8, byteCount);
+            for (int i = base; i < end; i++) {
+                // 字节内高位在前，翻转后低位在前
+                long reversed = (Integer.reverse(bitmap[i] & 0xFF) >>> 24) & 0xFF;
+                value |= reversed << ((i - base) << 3);
+            }
+            if (value != 0) {
+                long bits = value;
+                words.accumulateAndGet(wordIndex, bits, (left, right) -> left | right);
+            }
+        }
+    }
+
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    /**
+     * 已置位的数量
+     */
+    public long cardinality() {
+        long count = 0;
+        for (int i = 0; i < words.length(); i++) {
+            count += Long.bitCount(words.get(i));
+        }
+        return count;
+    }
+
+}
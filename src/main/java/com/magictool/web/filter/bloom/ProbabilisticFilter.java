@@ -0,0 +1,76 @@
+package com.magictool.web.filter.bloom;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 概率型过滤器，判断元素“可能存在”或“一定不存在”，常用于防止缓存穿透
+ * <ul>
+ *     <li>{@link ReplicatedBloomFilter}：固定容量的布隆过滤器，可以保留本地副本</li>
+ *     <li>{@link ScalableBloomFilter}：超过容量时追加新的分片，误判率不会随元素增长失控</li>
+ *     <li>{@link CountingBloomFilter}：计数布隆过滤器，支持删除</li>
+ * </ul>
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public interface ProbabilisticFilter<T> {
+
+    /**
+     * 过滤器名称
+     */
+    String getName();
+
+    /**
+     * 添加元素
+     *
+     * @param value 元素
+     * @return 添加前元素不存在（过滤器内容发生变化）返回true
+     */
+    boolean add(T value);
+
+    /**
+     * 判断元素是否可能存在
+     *
+     * @param value 元素
+     * @return false表示一定不存在，true表示可能存在
+     */
+    boolean contains(T value);
+
+    /**
+     * 批量添加，实现类会把所有位操作放在一次网络往返中完成
+     *
+     * @param values 元素
+     * @return 添加前不存在的元素个数
+     */
+    default int addAll(Collection<? extends T> values) {
+        int added = 0;
+        for (T value : values) {
+            if (add(value)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * 批量判断，实现类会把所有位操作放在一次网络往返中完成
+     *
+     * @param values 元素
+     * @return 与 values 一一对应的判断结果
+     */
+    default List<Boolean> containsAll(List<? extends T> values) {
+        List<Boolean> result = new ArrayList<>(values.size());
+        for (T value : values) {
+            result.add(contains(value));
+        }
+        return result;
+    }
+
+    /**
+     * 按当前的填充程度估算的误判率，可能需要访问 Redis，用于监控而不是热点路径
+     */
+    double estimatedFalseProbability();
+
+}
@@ -0,0 +1,363 @@
+package com.magictool.web.filter.bloom;
+
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBatch;
+import org.redisson.api.RBitSetAsync;
+import org.redisson.api.RBloomFilter;
+import org.redisson.api.RFuture;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 两级布隆过滤器：Redisson 的 {@link RBloomFilter}（Redis 位图）+ 可选的本地位数组副本
+ * <p>
+ * 开启本地副本后：
+ * <ul>
+ *     <li>写入同时写 Redis 和本地副本</li>
+ *     <li>判断只查本地副本，不访问网络</li>
+ *     <li>后台定时拉取 Redis 位图合并到本地，其他节点写入的元素最多延迟一个同步周期可见，
+ *     这期间本地可能把它们判断为不存在；不能接受时打开 verifyNegative，本地判断不存在时再查一次 Redis</li>
+ * </ul>
+ * 本地计算位下标的方式与 Redisson 完全一致（相同的编码、HighwayHash 和下标公式），所以两边的位图可以直接合并。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+@Slf4j
+public class ReplicatedBloomFilter<T> implements ProbabilisticFilter<T>, Closeable {
+
+    private final String name;
+
+    private final RedissonClient client;
+
+    private final RBloomFilter<T> remote;
+
+    private final Codec codec;
+
+    private final long bitSize;
+
+    private final int hashIterations;
+
+    /**
+     * 本地副本，未开启时为null
+     */
+    private final LocalBitArray local;
+
+    private final boolean verifyNegative;
+
+    private volatile ScheduledFuture<?> syncTask;
+
+    private volatile long lastSyncTime;
+
+    private final LongAdder localCheckCount = new LongAdder();
+
+    private final LongAdder remoteCheckCount = new LongAdder();
+
+    private final LongAdder syncFailCount = new LongAdder();
+
+    /**
+     * 只使用 Redis，不保留本地副本
+     */
+    public ReplicatedBloomFilter(RedissonClient client, String name, long expectedInsertions, double falseProbability) {
+        this(client, name, expectedInsertions, falseProbability, false, false);
+    }
+
+    /**
+     * @param client             redisson
+     * @param name               过滤器名称，即 Redis 位图的 key
+     * @param expectedInsertions 预计元素数量
+     * @param falseProbability   误判率
+     * @param localReplica       是否保留本地副本
+     * @param verifyNegative     本地副本判断不存在时是否再查 Redis
+     */
+    public ReplicatedBloomFilter(RedissonClient client, String name, long expectedInsertions, double falseProbability,
+                                 boolean localReplica, boolean verifyNegative) {
+        this.name = name;
+        this.client = client;
+        this.codec = client.getConfig().getCodec();
+        this.remote = client.getBloomFilter(name, codec);
+        // 已经存在时沿用 Redis 中的配置
+        remote.tryInit(expectedInsertions, falseProbability);
+        this.bitSize = remote.getSize();
+        this.hashIterations = remote.getHashIterations();
+        this.local = localReplica ? new LocalBitArray(bitSize) : null;
+        this.verifyNegative = verifyNegative;
+        if (local != null) {
+            sync();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean add(T value) {
+        boolean added = false;
+        try {
+            added = remote.add(value);
+        } catch (Exception e) {
+            log.error("failed to add element to redis bloom filter, name={}", name, e);
+        }
+        if (local != null) {
+            // Redis 写入失败时也写本地，至少保证本节点不会误判
+            for (long index : indexes(value)) {
+                added |= local.set(index);
+            }
+        }
+        return added;
+    }
+
+    @Override
+    public boolean contains(T value) {
+        if (local != null) {
+            localCheckCount.increment();
+            if (containsLocally(value)) {
+                return true;
+            }
+            if (!verifyNegative) {
+                return false;
+            }
+        }
+        remoteCheckCount.increment();
+        try {
+            return remote.contains(value);
+        } catch (Exception e) {
+            // 查询失败时按存在处理，避免把正常请求挡在外面
+            log.error("failed to check redis bloom filter, name={}", name, e);
+            return true;
+        }
+    }
+
+    /**
+     * 批量添加：本地计算全部位下标，所有 SETBIT 放在一个 batch 中一次发送
+     */
+    @Override
+    public int addAll(Collection<? extends T> values) {
+        if (values.isEmpty()) {
+            return 0;
+        }
+        RBatch batch = client.createBatch();
+        RBitSetAsync bitSet = batch.getBitSet(name);
+        List<List<RFuture<Boolean>>> futures = new ArrayList<>(values.size());
+        for (T value : values) {
+            long[] indexes = indexes(value);
+            List<RFuture<Boolean>> previous = new ArrayList<>(indexes.length);
+            for (long index : indexes) {
+                previous.add(bitSet.setAsync(index));
+                if (local != null) {
+                    local.set(index);
+                }
+            }
+            futures.add(previous);
+        }
+        try {
+            batch.execute();
+        } catch (Exception e) {
+            log.error("failed to add elements to redis bloom filter, name={}, size={}", name, values.size(), e);
+            return 0;
+        }
+        int added = 0;
+        for (List<RFuture<Boolean>> previous : futures) {
+            if (anyChanged(previous)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * 批量判断：有本地副本时先查本地，剩下需要查 Redis 的元素的所有 GETBIT 放在一个 batch 中一次发送
+     */
+    @Override
+    public List<Boolean> containsAll(List<? extends T> values) {
+        List<Boolean> result = new ArrayList<>(values.size());
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < values.size(); i++) {
+            boolean present = local != null && containsLocally(values.get(i));
+            result.add(present);
+            if (!present && (local == null || verifyNegative)) {
+                pending.add(i);
+            }
+        }
+        if (local != null) {
+            localCheckCount.add(values.size());
+        }
+        if (pending.isEmpty()) {
+            return result;
+        }
+        remoteCheckCount.add(pending.size());
+        RBatch batch = client.createBatch();
+        RBitSetAsync bitSet = batch.getBitSet(name);
+        List<List<RFuture<Boolean>>> futures = new ArrayList<>(pending.size());
+        for (int i : pending) {
+            List<RFuture<Boolean>> bits = new ArrayList<>(hashIterations);
+            for (long index : indexes(values.get(i))) {
+                bits.add(bitSet.getAsync(index));
+            }
+            futures.add(bits);
+        }
+        try {
+            batch.execute();
+        } catch (Exception e) {
+            // 与 contains 一致，查询失败时按存在处理
+            log.error("failed to check redis bloom filter, name={}, size={}", name, pending.size(), e);
+            for (int i : pending) {
+                result.set(i, true);
+            }
+            return result;
+        }
+        for (int j = 0; j < pending.size(); j++) {
+            result.set(pending.get(j), allSet(futures.get(j)));
+        }
+        return result;
+    }
+
+    /**
+     * 有本地副本时按本地副本的置位数估算，否则执行一次 BITCOUNT
+     */
+    @Override
+    public double estimatedFalseProbability() {
+        long setBits = local != null ? local.cardinality() : client.getBitSet(name).cardinality();
+        return BloomHashes.falseProbabilityByFill(setBits, bitSize, hashIterations);
+    }
+
+    /**
+     * 拉取 Redis 位图合并到本地副本
+     */
+    public void sync() {
+        if (local == null) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            byte[] bitmap = client.getBitSet(name).toByteArray();
+            local.merge(bitmap);
+            lastSyncTime = System.currentTimeMillis();
+            log.debug("bloom filter synced, name={}, bytes={}, cost={}ms", name, bitmap == null ? 0 : bitmap.length,
+                    lastSyncTime - start);
+        } catch (Exception e) {
+            syncFailCount.increment();
+            log.warn("failed to sync bloom filter from redis, name={}", name, e);
+        }
+    }
+
+    /**
+     * 定时同步本地副本
+     *
+     * @param scheduler      调度线程池
+     * @param intervalMillis 同步间隔（毫秒）
+     */
+    public void scheduleSync(ScheduledExecutorService scheduler, long intervalMillis) {
+        if (local == null || intervalMillis <= 0) {
+            return;
+        }
+        ScheduledFuture<?> previous = syncTask;
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        syncTask = scheduler.scheduleWithFixedDelay(this::sync, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean hasLocalReplica() {
+        return local != null;
+    }
+
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    public int getHashIterations() {
+        return hashIterations;
+    }
+
+    public double getFalseProbability() {
+        return remote.getFalseProbability();
+    }
+
+    public long getExpectedInsertions() {
+        return remote.getExpectedInsertions();
+    }
+
+    /**
+     * 最近一次成功同步的时间戳，0表示从未同步成功
+     */
+    public long getLastSyncTime() {
+        return lastSyncTime;
+    }
+
+    public long getLocalCheckCount() {
+        return localCheckCount.sum();
+    }
+
+    public long getRemoteCheckCount() {
+        return remoteCheckCount.sum();
+    }
+
+    public long getSyncFailCount() {
+        return syncFailCount.sum();
+    }
+
+    /**
+     * 停止定时同步
+     */
+    @Override
+    public void close() {
+        ScheduledFuture<?> task = syncTask;
+        if (task != null) {
+            task.cancel(false);
+        }
+    }
+
+    private boolean containsLocally(T value) {
+        for (long index : indexes(value)) {
+            if (!local.get(index)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 与 Redisson 相同的位下标计算方式
+     */
+    long[] indexes(T value) {
+        return BloomHashes.indexes(codec, value, hashIterations, bitSize);
+    }
+
+    static boolean allSet(List<RFuture<Boolean>> bits) {
+        for (RFuture<Boolean> bit : bits) {
+            if (!Boolean.TRUE.equals(resultOf(bit))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean anyChanged(List<RFuture<Boolean>> previous) {
+        for (RFuture<Boolean> bit : previous) {
+            if (!Boolean.TRUE.equals(resultOf(bit))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * batch.execute() 返回后批次中的 future 都已完成，直接取结果，未完成时返回null
+     */
+    static <V> V resultOf(RFuture<V> future) {
+        return future.toCompletableFuture().getNow(null);
+    }
+
+}
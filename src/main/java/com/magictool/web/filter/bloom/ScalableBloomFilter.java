@@ -0,0 +1,320 @@
+package com.magictool.web.filter.bloom;
+
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RAtomicLong;
+import org.redisson.api.RBatch;
+import org.redisson.api.RBitSetAsync;
+import org.redisson.api.RFuture;
+import org.redisson.api.RedissonClient;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 可扩容布隆过滤器（Scalable Bloom Filter）
+ * <p>
+ * 由多个布隆过滤器分片组成，新元素只写入最后一个分片，最后一个分片写满时追加一个新分片：
+ * 第 i 个分片的容量为 initialCapacity × growth^i，误判率为 falseProbability × (1 - r) × r^i（r 为收紧比例），
+ * 所有分片误判率之和不超过 falseProbability，元素数量远超初始容量时整体误判率仍然可控。
+ * <p>
+ * 分片数量和每个分片的元素数量保存在 Redis，多个节点共享；每次判断都会在同一个 batch 中读取分片数量，
+ * 发现其他节点追加了分片时立即加载，不会漏查。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+@Slf4j
+public class ScalableBloomFilter<T> implements ProbabilisticFilter<T> {
+
+    public static final int DEFAULT_GROWTH = 2;
+
+    public static final double DEFAULT_TIGHTENING_RATIO = 0.5D;
+
+    /**
+     * Redisson 布隆过滤器允许的最大位数（{@code RedissonBloomFilter.MAX_SIZE}），即 Redis 位图的上限 4G 位
+     */
+    static final long MAX_BIT_SIZE = Integer.MAX_VALUE * 2L;
+
+    private final String name;
+
+    private final RedissonClient client;
+
+    private final long initialCapacity;
+
+    private final double falseProbability;
+
+    private final int growth;
+
+    private final double tighteningRatio;
+
+    private final String sliceCountKey;
+
+    private final RAtomicLong sliceCount;
+
+    private volatile List<Slice<T>> slices = Collections.emptyList();
+
+    public ScalableBloomFilter(RedissonClient client, String name, long initialCapacity, double falseProbability) {
+        this(client, name, initialCapacity, falseProbability, DEFAULT_GROWTH, DEFAULT_TIGHTENING_RATIO);
+    }
+
+    /**
+     * @param client           redisson
+     * @param name             过滤器名称，分片的 key 为 name:0、name:1 ...
+     * @param initialCapacity  第一个分片的容量
+     * @param falseProbability 整体误判率上限
+     * @param growth           每个新分片的容量是上一个的多少倍
+     * @param tighteningRatio  每个新分片的误判率是上一个的多少倍，0~1
+     */
+    public ScalableBloomFilter(RedissonClient client, String name, long initialCapacity, double falseProbability,
+                               int growth, double tighteningRatio) {
+        if (initialCapacity <= 0 || growth < 1) {
+            throw new IllegalArgumentException("initialCapacity must be greater than 0 and growth at least 1");
+        }
+        if (tighteningRatio <= 0 || tighteningRatio >= 1) {
+            throw new IllegalArgumentException("tighteningRatio must be in (0, 1)");
+        }
+        this.name = name;
+        this.client = client;
+        this.initialCapacity = initialCapacity;
+        this.falseProbability = falseProbability;
+        this.growth = growth;
+        this.tighteningRatio = tighteningRatio;
+        this.sliceCountKey = name + ":slices";
+        this.sliceCount = client.getAtomicLong(sliceCountKey);
+        sliceCount.compareAndSet(0, 1);
+        ensureSlices(sliceCount.get());
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean add(T value) {
+        return addAll(Collections.singletonList(value)) > 0;
+    }
+
+    @Override
+    public boolean contains(T value) {
+        return containsAll(Collections.singletonList(value)).get(0);
+    }
+
+    /**
+     * 先批量判断，只有不存在的元素写入最后一个分片；一个分片写满时剩余元素写入新分片，
+     * 每个分片一次网络往返
+     */
+    @Override
+    public int addAll(Collection<? extends T> values) {
+        if (values.isEmpty()) {
+            return 0;
+        }
+        List<T> candidates = new ArrayList<>(values);
+        List<Boolean> present = containsAll(candidates);
+        Set<T> absent = new LinkedHashSet<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            if (!present.get(i)) {
+                absent.add(candidates.get(i));
+            }
+        }
+        List<T> pending = new ArrayList<>(absent);
+        int offset = 0;
+        while (offset < pending.size()) {
+            List<Slice<T>> current = slices;
+            Slice<T> last = current.get(current.size() - 1);
+            long room = Math.max(1, last.capacity - last.knownCount.get());
+            int end = (int) Math.min(pending.size(), offset + room);
+            List<T> chunk = pending.subList(offset, end);
+            RBatch batch = client.createBatch();
+            RBitSetAsync bitSet = batch.getBitSet(last.filter.getName());
+            for (T value : chunk) {
+                for (long index : last.filter.indexes(value)) {
+                    bitSet.setAsync(index);
+                }
+            }
+            RFuture<Long> count = batch.getAtomicLong(last.countKey).addAndGetAsync(chunk.size());
+            try {
+                batch.execute();
+            } catch (Exception e) {
+                log.error("failed to add elements to scalable bloom filter, name={}, slice={}", name, last.index, e);
+                return offset;
+            }
+            long added = ReplicatedBloomFilter.resultOf(count);
+            last.knownCount.set(added);
+            if (added >= last.capacity) {
+                grow(current.size());
+            }
+            offset = end;
+        }
+        return pending.size();
+    }
+
+    /**
+     * 所有分片的 GETBIT 和分片数量的读取放在一个 batch 中一次发送
+     */
+    @Override
+    public List<Boolean> containsAll(List<? extends T> values) {
+        while (true) {
+            List<Slice<T>> current = slices;
+            RBatch batch = client.createBatch();
+            RFuture<Long> count = batch.getAtomicLong(sliceCountKey).getAsync();
+            List<List<List<RFuture<Boolean>>>> futures = new ArrayList<>(values.size());
+            for (T value : values) {
+                List<List<RFuture<Boolean>>> perSlice = new ArrayList<>(current.size());
+                for (Slice<T> slice : current) {
+                    RBitSetAsync bitSet = batch.getBitSet(slice.filter.getName());
+                    List<RFuture<Boolean>> bits = new ArrayList<>(slice.filter.getHashIterations());
+                    for (long index : slice.filter.indexes(value)) {
+                        bits.add(bitSet.getAsync(index));
+                    }
+                    perSlice.add(bits);
+                }
+                futures.add(perSlice);
+            }
+            try {
+                batch.execute();
+            } catch (Exception e) {
+                // 查询失败时按存在处理，避免把正常请求挡在外面
+                log.error("failed to check scalable bloom filter, name={}, size={}", name, values.size(), e);
+                return new ArrayList<>(Collections.nCopies(values.size(), Boolean.TRUE));
+            }
+            Long latest = ReplicatedBloomFilter.resultOf(count);
+            if (latest != null && latest > current.size()) {
+                // 其他节点追加了分片，加载后重新判断
+                ensureSlices(latest);
+                continue;
+            }
+            List<Boolean> result = new ArrayList<>(values.size());
+            for (List<List<RFuture<Boolean>>> perSlice : futures) {
+                boolean found = false;
+                for (List<RFuture<Boolean>> bits : perSlice) {
+                    if (ReplicatedBloomFilter.allSet(bits)) {
+                        found = true;
+                        break;
+                    }
+                }
+                result.add(found);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 1 - ∏(1 - 分片误判率)，每个分片的误判率按 BITCOUNT 得到的置位比例估算，所有 BITCOUNT 在一个 batch 中发送
+     */
+    @Override
+    public double estimatedFalseProbability() {
+        List<Slice<T>> current = slices;
+        RBatch batch = client.createBatch();
+        List<RFuture<Long>> setBits = new ArrayList<>(current.size());
+        for (Slice<T> slice : current) {
+            setBits.add(batch.getBitSet(slice.filter.getName()).cardinalityAsync());
+        }
+        batch.execute();
+        double notFalse = 1;
+        for (int i = 0; i < current.size(); i++) {
+            ReplicatedBloomFilter<T> filter = current.get(i).filter;
+            notFalse *= 1 - BloomHashes.falseProbabilityByFill(ReplicatedBloomFilter.resultOf(setBits.get(i)), filter.getBitSize(),
+                    filter.getHashIterations());
+        }
+        return 1 - notFalse;
+    }
+
+    public int getSliceCount() {
+        return slices.size();
+    }
+
+    /**
+     * 当前所有分片的总容量
+     */
+    public long getCapacity() {
+        long capacity = 0;
+        for (Slice<T> slice : slices) {
+            capacity += slice.capacity;
+        }
+        return capacity;
+    }
+
+    private void grow(int expectedSlices) {
+        if (sliceCount.compareAndSet(expectedSlices, expectedSlices + 1)) {
+            log.info("scalable bloom filter grows, name={}, slices={}", name, expectedSlices + 1);
+        }
+        ensureSlices(sliceCount.get());
+    }
+
+    private synchronized void ensureSlices(long count) {
+        List<Slice<T>> current = slices;
+        if (current.size() >= count) {
+            return;
+        }
+        List<Slice<T>> next = new ArrayList<>(current);
+        for (int i = current.size(); i < count; i++) {
+            next.add(createSlice(i));
+        }
+        slices = Collections.unmodifiableList(next);
+    }
+
+    /**
+     * 分片容量按 growth 倍增长，但位图不能超过 {@link #MAX_BIT_SIZE}：达到上限后容量不再增长，
+     * 误判率继续收紧，新分片能容纳的元素会逐渐变少；连一个元素都放不下时抛出异常
+     */
+    private Slice<T> createSlice(int index) {
+        double probability = falseProbability * (1 - tighteningRatio) * Math.pow(tighteningRatio, index);
+        long maxCapacity = maxCapacity(probability);
+        if (maxCapacity < 1) {
+            throw new IllegalStateException("scalable bloom filter cannot grow any more, name=" + name
+                    + ", slice=" + index + ", falseProbability=" + probability);
+        }
+        long capacity = initialCapacity;
+        for (int i = 0; i < index && capacity < maxCapacity; i++) {
+            capacity = capacity > maxCapacity / growth ? maxCapacity : capacity * growth;
+        }
+        capacity = Math.min(capacity, maxCapacity);
+        String sliceName = name + ":" + index;
+        ReplicatedBloomFilter<T> filter = new ReplicatedBloomFilter<>(client, sliceName, capacity, probability);
+        String countKey = sliceName + ":count";
+        return new Slice<>(index, filter, capacity, countKey, client.getAtomicLong(countKey).get());
+    }
+
+    /**
+     * 给定误判率下位图不超过 {@link #MAX_BIT_SIZE} 的最大元素数量
+     */
+    static long maxCapacity(double probability) {
+        long capacity = (long) (MAX_BIT_SIZE * Math.log(2) * Math.log(2) / -Math.log(probability));
+        // 浮点误差可能多算一个，按实际位数修正
+        while (capacity > 0 && BloomHashes.optimalNumOfBits(capacity, probability) > MAX_BIT_SIZE) {
+            capacity--;
+        }
+        return capacity;
+    }
+
+    private static final class Slice<T> {
+
+        private final int index;
+
+        private final ReplicatedBloomFilter<T> filter;
+
+        private final long capacity;
+
+        private final String countKey;
+
+        /**
+         * 最近一次读到的元素数量，多个节点同时写入时可能略小于实际值
+         */
+        private final AtomicLong knownCount;
+
+        private Slice(int index, ReplicatedBloomFilter<T> filter, long capacity, String countKey, long count) {
+            this.index = index;
+            this.filter = filter;
+            this.capacity = capacity;
+            this.countKey = countKey;
+            this.knownCount = new AtomicLong(count);
+        }
+    }
+
+}
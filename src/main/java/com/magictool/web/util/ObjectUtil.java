@@ -1,11 +1,17 @@
 package com.magictool.web.util;
 
+import com.magictool.web.util.highlight.KeywordHighlighter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -16,6 +22,23 @@ public class ObjectUtil {
 
     private static final Logger logger = LoggerFactory.getLogger(ObjectUtil.class);
 
+    /**
+     * 类 -> 字段名 -> 已设置可访问的字段，避免每次高亮都反射遍历字段
+     */
+    private static final Map<Class<?>, Map<String, Field>> DECLARED_FIELDS = new ConcurrentHashMap<>();
+
+    private static final int MAX_CACHED_PATTERNS = 256;
+
+    /**
+     * 最近使用的忽略大小写的高亮正则
+     */
+    private static final Map<String, Pattern> IGNORE_CASE_PATTERNS = new LinkedHashMap<String, Pattern>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Pattern> eldest) {
+            return size() > MAX_CACHED_PATTERNS;
+        }
+    };
+
     /**
      * 将 object 对象转换为指定泛型对象
      *
@@ -117,16 +140,12 @@ public class ObjectUtil {
      * @param fields      要被替换的参数
      */
     public static void highLightReplace(Object target, String replacement, String... fields) {
-        Class<?> clz = target.getClass();
-        Field[] fs = clz.getDeclaredFields();
+        Map<String, Field> declaredFields = declaredFields(target.getClass());
         try {
-            for (Field f : fs) {
-                f.setAccessible(true);
-                for (String field : fields) {
-                    if (f.getName().equals(field)) {
-                        String value = (String) f.get(target);
-                        f.set(target, replaceAllIgnoreCase(value, replacement));
-                    }
+            for (String field : fields) {
+                Field f = declaredFields.get(field);
+                if (f != null && f.getType() == String.class) {
+                    f.set(target, replaceAllIgnoreCase((String) f.get(target), replacement));
                 }
             }
         } catch (Exception e) {
@@ -134,24 +153,70 @@ public class ObjectUtil {
         }
     }
 
+    /**
+     * 替换对象中字符串属性的值（多关键字高亮，关键字按普通文本匹配）
+     *
+     * @param target      目标对象
+     * @param highlighter 关键字高亮器，通过 {@link KeywordHighlighter#of(String...)} 获取
+     * @param fields      要被替换的参数
+     */
+    public static void highLightReplace(Object target, KeywordHighlighter highlighter, String... fields) {
+        Map<String, Field> declaredFields = declaredFields(target.getClass());
+        try {
+            for (String field : fields) {
+                Field f = declaredFields.get(field);
+                if (f != null && f.getType() == String.class) {
+                    f.set(target, highlighter.highlight((String) f.get(target)));
+                }
+            }
+        } catch (Exception e) {
+            logger.warn(" occur error to highlight fields {} of {} ", Arrays.toString(fields), target.getClass().getName(), e);
+        }
+    }
+
     /**
      * 忽略大小写的替换字符串中的特征字符串
+     * 编译后的正则会被缓存，一次扫描完成所有替换
      *
      * @param str   原字符串
      * @param regex 等待被替换的字符串
      * @return 替换后的字符串
      */
     public static String replaceAllIgnoreCase(String str, String regex) {
-        Pattern p = Pattern.compile("((?i)" + regex + ")");
-        Matcher m = p.matcher(str);
-        if (m.find()) {
-            StringBuilder result = new StringBuilder();
-            String prefix = str.substring(0, m.start());
-            String highLight = str.substring(m.start(), m.end());
-            String suffix = str.substring(m.end());
-            return result.append(prefix).append("<em>").append(highLight).append("</em>").append(replaceAllIgnoreCase(suffix, regex)).toString();
+        if (str == null || regex == null || regex.isEmpty()) {
+            return str;
+        }
+        Matcher m = ignoreCasePattern(regex).matcher(str);
+        if (!m.find()) {
+            return str;
         }
-        return str;
+        StringBuilder result = new StringBuilder(str.length() + 16);
+        int copied = 0;
+        do {
+            // 空匹配没有可高亮的内容
+            if (m.end() > m.start()) {
+                result.append(str, copied, m.start()).append("<em>").append(str, m.start(), m.end()).append("</em>");
+                copied = m.end();
+            }
+        } while (m.find());
+        return result.append(str, copied, str.length()).toString();
+    }
+
+    private static Pattern ignoreCasePattern(String regex) {
+        synchronized (IGNORE_CASE_PATTERNS) {
+            return IGNORE_CASE_PATTERNS.computeIfAbsent(regex, r -> Pattern.compile("((?i)" + r + ")"));
+        }
+    }
+
+    private static Map<String, Field> declaredFields(Class<?> clz) {
+        return DECLARED_FIELDS.computeIfAbsent(clz, c -> {
+            Map<String, Field> fields = new HashMap<>();
+            for (Field f : c.getDeclaredFields()) {
+                f.setAccessible(true);
+                fields.put(f.getName(), f);
+            }
+            return fields;
+        });
     }
 
 
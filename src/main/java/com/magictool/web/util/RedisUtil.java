@@ -7,6 +7,7 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.magictool.web.configuration.RedisConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
@@ -15,6 +16,7 @@ import org.springframework.context.ApplicationContextAware;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.stereotype.Component;
 
@@ -71,9 +73,12 @@ public final class RedisUtil implements ApplicationContextAware {
         redisTemplate.setKeySerializer(new StringRedisSerializer());
         //设置HashKey的序列化机制
         redisTemplate.setHashKeySerializer(new StringRedisSerializer());
-        //设置Value的序列化机制
-        redisTemplate.setValueSerializer(getJsonSerializer());
-        redisTemplate.setHashValueSerializer(getJsonSerializer());
+        //设置Value的序列化机制，容器中有 RedisConfig 时与其保持一致（可能配置了 magic.cache.codec）
+        RedisConfig redisConfig = applicationContext.getBeanProvider(RedisConfig.class).getIfAvailable();
+        RedisSerializer<Object> valueSerializer = redisConfig == null
+                ? getJsonSerializer() : redisConfig.getValueSerializer();
+        redisTemplate.setValueSerializer(valueSerializer);
+        redisTemplate.setHashValueSerializer(valueSerializer);
         //设置RedisConnectionFactory
         redisTemplate.setConnectionFactory(redisConnectionFactory);
     }
@@ -0,0 +1,314 @@
+package com.magictool.web.util.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 有界的进程内 LRU 缓存
+ * <p>
+ * 按 key 的哈希分段加锁，每段内部使用分段 LRU（SLRU）淘汰：新写入的数据先进入试用区，
+ * 再次命中后晋升到保护区，保护区溢出时降级回试用区，整体溢出时从试用区最久未访问的数据开始淘汰。
+ * 这样一次性扫描的冷 key 不会把热点 key 挤出缓存。可以为条目设置存活时间。
+ * <p>
+ * 每段维护自己的失效版本号：回源前用 {@link #stamp(Object)} 取版本号，回源后用
+ * {@link #putIfFresh(Object, Object, long)} 写入，期间同一段发生过失效或清空时放弃写入，旧值不会覆盖失效。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public class SegmentedLruCache<K, V> {
+
+    public static final int DEFAULT_CONCURRENCY = 16;
+
+    /**
+     * 保护区占每段容量的比例
+     */
+    private static final double PROTECTED_RATIO = 0.8D;
+
+    private final Segment<K, V>[] segments;
+
+    private final int segmentMask;
+
+    private final long ttlMillis;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    private final LongAdder expirationCount = new LongAdder();
+
+    /**
+     * 条目不过期
+     *
+     * @param maximumSize 最大条目数
+     */
+    public SegmentedLruCache(long maximumSize) {
+        this(maximumSize, 0, DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * @param maximumSize 最大条目数
+     * @param ttlMillis   条目存活时间（毫秒），小于等于0表示不过期
+     * @param concurrency 分段数，会向上取整为2的幂
+     */
+    @SuppressWarnings("unchecked")
+    public SegmentedLruCache(long maximumSize, long ttlMillis, int concurrency) {
+        if (maximumSize <= 0 || concurrency <= 0) {
+            throw new IllegalArgumentException("maximumSize and concurrency must be greater than 0");
+        }
+        int segmentCount = 1;
+        while (segmentCount < concurrency && segmentCount < maximumSize) {
+            segmentCount <<= 1;
+        }
+        this.segments = (Segment<K, V>[]) new Segment<?, ?>[segmentCount];
+        this.segmentMask = segmentCount - 1;
+        this.ttlMillis = ttlMillis > 0 ? ttlMillis : Long.MAX_VALUE;
+        long perSegment = Math.max(1, maximumSize / segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(perSegment, evictionCount, expirationCount);
+        }
+    }
+
+    /**
+     * 获取缓存值，不存在或已过期返回null
+     */
+    public V get(K key) {
+        V value = segmentFor(key).get(key, System.currentTimeMillis());
+        if (value == null) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        return value;
+    }
+
+    /**
+     * 写入缓存，使用默认的存活时间
+     */
+    public void put(K key, V value) {
+        put(key, value, ttlMillis);
+    }
+
+    /**
+     * 写入缓存
+     *
+     * @param ttlMillis 存活时间（毫秒），超过默认存活时间时按默认值处理，小于等于0则不写入
+     */
+    public void put(K key, V value, long ttlMillis) {
+        if (key == null || value == null || ttlMillis <= 0) {
+            return;
+        }
+        segmentFor(key).put(key, value, expireAt(Math.min(ttlMillis, this.ttlMillis)));
+    }
+
+    /**
+     * 回源结果写入缓存，若回源期间 key 所在的段发生过失效则放弃写入，避免旧值覆盖
+     *
+     * @param stamp 回源前通过 {@link #stamp(Object)} 获取的版本号
+     */
+    public void putIfFresh(K key, V value, long stamp) {
+        if (key == null || value == null) {
+            return;
+        }
+        segmentFor(key).putIfFresh(key, value, expireAt(ttlMillis), stamp);
+    }
+
+    /**
+     * key 所在段的失效版本号，回源前获取
+     */
+    public long stamp(K key) {
+        return segmentFor(key).stamp();
+    }
+
+    /**
+     * 失效一个key
+     */
+    public void invalidate(K key) {
+        if (key == null) {
+            return;
+        }
+        segmentFor(key).remove(key);
+    }
+
+    /**
+     * 清空缓存，所有段的失效版本号都会递增
+     */
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    public long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    public long expirationCount() {
+        return expirationCount.sum();
+    }
+
+    /**
+     * 命中率，没有请求时返回1
+     */
+    public double hitRate() {
+        long hit = hitCount.sum();
+        long total = hit + missCount.sum();
+        return total == 0 ? 1.0D : (double) hit / total;
+    }
+
+    private static long expireAt(long ttlMillis) {
+        long now = System.currentTimeMillis();
+        return ttlMillis > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + ttlMillis;
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        // 扰动，避免低位相同的 key 集中在同一段
+        h ^= (h >>> 16);
+        return segments[h & segmentMask];
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+
+        private final long expireAt;
+
+        private Entry(V value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+
+    private static final class Segment<K, V> {
+
+        private final long capacity;
+
+        private final long protectedCapacity;
+
+        private final LongAdder evictionCount;
+
+        private final LongAdder expirationCount;
+
+        /**
+         * 失效版本号，段内每次失效都会递增，用于丢弃失效前发起的回源结果
+         */
+        private long invalidation;
+
+        /**
+         * 试用区，按插入顺序
+         */
+        private final LinkedHashMap<K, Entry<V>> probation = new LinkedHashMap<>();
+
+        /**
+         * 保护区，按访问顺序
+         */
+        private final LinkedHashMap<K, Entry<V>> protectedArea = new LinkedHashMap<>(16, 0.75F, true);
+
+        private Segment(long capacity, LongAdder evictionCount, LongAdder expirationCount) {
+            this.capacity = capacity;
+            this.protectedCapacity = Math.max(1, (long) (capacity * PROTECTED_RATIO));
+            this.evictionCount = evictionCount;
+            this.expirationCount = expirationCount;
+        }
+
+        private synchronized long stamp() {
+            return invalidation;
+        }
+
+        private synchronized V get(K key, long now) {
+            Entry<V> entry = protectedArea.get(key);
+            if (entry != null) {
+                if (entry.expireAt <= now) {
+                    protectedArea.remove(key);
+                    expirationCount.increment();
+                    return null;
+                }
+                return entry.value;
+            }
+            entry = probation.remove(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expireAt <= now) {
+                expirationCount.increment();
+                return null;
+            }
+            // 再次命中，晋升到保护区
+            protectedArea.put(key, entry);
+            if (protectedArea.size() > protectedCapacity) {
+                Iterator<Map.Entry<K, Entry<V>>> iterator = protectedArea.entrySet().iterator();
+                Map.Entry<K, Entry<V>> eldest = iterator.next();
+                iterator.remove();
+                probation.put(eldest.getKey(), eldest.getValue());
+            }
+            return entry.value;
+        }
+
+        private synchronized void putIfFresh(K key, V value, long expireAt, long stamp) {
+            if (invalidation == stamp) {
+                put(key, value, expireAt);
+            }
+        }
+
+        private synchronized void put(K key, V value, long expireAt) {
+            Entry<V> entry = new Entry<>(value, expireAt);
+            if (protectedArea.containsKey(key)) {
+                protectedArea.put(key, entry);
+                return;
+            }
+            probation.remove(key);
+            probation.put(key, entry);
+            evict();
+        }
+
+        private void evict() {
+            while (probation.size() + protectedArea.size() > capacity) {
+                Iterator<Map.Entry<K, Entry<V>>> iterator = probation.isEmpty()
+                        ? protectedArea.entrySet().iterator()
+                        : probation.entrySet().iterator();
+                iterator.next();
+                iterator.remove();
+                evictionCount.increment();
+            }
+        }
+
+        private synchronized void remove(K key) {
+            invalidation++;
+            if (probation.remove(key) == null) {
+                protectedArea.remove(key);
+            }
+        }
+
+        private synchronized void clear() {
+            invalidation++;
+            probation.clear();
+            protectedArea.clear();
+        }
+
+        private synchronized int size() {
+            return probation.size() + protectedArea.size();
+        }
+    }
+
+}
@@ -0,0 +1,279 @@
+package com.magictool.web.util.highlight;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeSet;
+
+/**
+ * 多关键字高亮（Aho-Corasick 自动机），用于不在 Lucene 索引中的普通文本
+ * <p>
+ * 所有关键字构建成一个自动机，对文本只扫描一遍，耗时与文本长度和匹配数成正比，与关键字数量无关。
+ * 忽略大小写；关键字重叠时取最左边开始的匹配，同一位置开始的取最长的。
+ * 自动机构建后不可修改，可以被多个线程共享，{@link #of(String...)} 按关键字集合缓存最近使用的自动机。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public final class KeywordHighlighter {
+
+    public static final String DEFAULT_PRE_TAG = "<em>";
+
+    public static final String DEFAULT_POST_TAG = "</em>";
+
+    private static final int MAX_CACHED = 256;
+
+    private static final Map<CacheKey, KeywordHighlighter> CACHE = new LinkedHashMap<CacheKey, KeywordHighlighter>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, KeywordHighlighter> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+
+    private final Node root = new Node();
+
+    private final String preTag;
+
+    private final String postTag;
+
+    private final int keywordCount;
+
+    /**
+     * @param keywords 关键字，空字符串和null会被忽略
+     * @param preTag   关键字前缀标签
+     * @param postTag  关键字后缀标签
+     */
+    public KeywordHighlighter(Collection<String> keywords, String preTag, String postTag) {
+        this.preTag = preTag;
+        this.postTag = postTag;
+        int count = 0;
+        for (String keyword : keywords) {
+            if (keyword != null && !keyword.isEmpty() && insert(keyword)) {
+                count++;
+            }
+        }
+        this.keywordCount = count;
+        buildFailureLinks();
+    }
+
+    /**
+     * 获取使用默认标签 {@code <em></em>} 的高亮器，相同的关键字集合复用同一个自动机
+     */
+    public static KeywordHighlighter of(String... keywords) {
+        return of(Arrays.asList(keywords), DEFAULT_PRE_TAG, DEFAULT_POST_TAG);
+    }
+
+    /**
+     * 获取高亮器，相同的关键字集合和标签复用同一个自动机
+     */
+    public static KeywordHighlighter of(Collection<String> keywords, String preTag, String postTag) {
+        CacheKey key = new CacheKey(preTag, postTag, keywords);
+        synchronized (CACHE) {
+            KeywordHighlighter highlighter = CACHE.get(key);
+            if (highlighter != null) {
+                return highlighter;
+            }
+        }
+        // 构建放在锁外，并发构建同一个集合时后放入的覆盖先放入的，结果相同
+        KeywordHighlighter highlighter = new KeywordHighlighter(key.keywords, preTag, postTag);
+        synchronized (CACHE) {
+            CACHE.put(key, highlighter);
+        }
+        return highlighter;
+    }
+
+    /**
+     * 高亮文本中的所有关键字
+     *
+     * @param text 原文本，为null时返回null
+     * @return 高亮后的文本，没有匹配时返回原对象
+     */
+    public String highlight(String text) {
+        if (text == null || text.isEmpty() || keywordCount == 0) {
+            return text;
+        }
+        int length = text.length();
+        // longest[i]：从位置 i 开始的最长匹配长度
+        int[] longest = null;
+        Node node = root;
+        for (int i = 0; i < length; i++) {
+            node = next(node, Character.toLowerCase(text.charAt(i)));
+            for (Node output = node.terminal ? node : node.output; output != null; output = output.output) {
+                int start = i - output.depth + 1;
+                if (longest == null) {
+                    longest = new int[length];
+                }
+                if (output.depth > longest[start]) {
+                    longest[start] = output.depth;
+                }
+            }
+        }
+        if (longest == null) {
+            return text;
+        }
+        StringBuilder result = new StringBuilder(length + 16);
+        int copied = 0;
+        for (int i = 0; i < length; ) {
+            if (longest[i] > 0) {
+                result.append(text, copied, i).append(preTag).append(text, i, i + longest[i]).append(postTag);
+                i += longest[i];
+                copied = i;
+            } else {
+                i++;
+            }
+        }
+        return result.append(text, copied, length).toString();
+    }
+
+    /**
+     * 文本中是否包含任意一个关键字
+     */
+    public boolean containsAny(String text) {
+        if (text == null || keywordCount == 0) {
+            return false;
+        }
+        Node node = root;
+        for (int i = 0; i < text.length(); i++) {
+            node = next(node, Character.toLowerCase(text.charAt(i)));
+            if (node.terminal || node.output != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getKeywordCount() {
+        return keywordCount;
+    }
+
+    private boolean insert(String keyword) {
+        Node node = root;
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = Character.toLowerCase(keyword.charAt(i));
+            Node child = node.children.get(c);
+            if (child == null) {
+                child = new Node();
+                child.depth = node.depth + 1;
+                node.children.put(c, child);
+            }
+            node = child;
+        }
+        boolean added = !node.terminal;
+        node.terminal = true;
+        return added;
+    }
+
+    /**
+     * 按层遍历建立失配指针和输出指针（沿失配链最近的关键字结尾节点）
+     */
+    private void buildFailureLinks() {
+        Queue<Node> queue = new ArrayDeque<>();
+        for (Node child : root.children.values()) {
+            child.failure = root;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            for (Map.Entry<Character, Node> entry : node.children.entrySet()) {
+                char c = entry.getKey();
+                Node child = entry.getValue();
+                Node failure = node.failure;
+                while (failure != root && !failure.children.containsKey(c)) {
+                    failure = failure.failure;
+                }
+                Node target = failure.children.get(c);
+                child.failure = target == null ? root : target;
+                child.output = child.failure.terminal ? child.failure : child.failure.output;
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * 逐个字符转小写，保证与自动机匹配时的长度一致（String.toLowerCase 可能改变长度）
+     */
+    private static String lowerCase(String keyword) {
+        char[] chars = keyword.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private Node next(Node node, char c) {
+        while (true) {
+            Node child = node.children.get(c);
+            if (child != null) {
+                return child;
+            }
+            if (node == root) {
+                return root;
+            }
+            node = node.failure;
+        }
+    }
+
+    private static final class Node {
+
+        private final Map<Character, Node> children = new HashMap<>(4);
+
+        private Node failure;
+
+        /**
+         * 沿失配链最近的关键字结尾节点
+         */
+        private Node output;
+
+        private int depth;
+
+        private boolean terminal;
+    }
+
+    private static final class CacheKey {
+
+        private final String preTag;
+
+        private final String postTag;
+
+        /**
+         * 去重排序后的关键字，顺序不同的同一组关键字共用缓存
+         */
+        private final TreeSet<String> keywords;
+
+        private final int hash;
+
+        private CacheKey(String preTag, String postTag, Collection<String> keywords) {
+            this.preTag = preTag;
+            this.postTag = postTag;
+            this.keywords = new TreeSet<>();
+            for (String keyword : keywords) {
+                if (keyword != null && !keyword.isEmpty()) {
+                    this.keywords.add(lowerCase(keyword));
+                }
+            }
+            this.hash = Arrays.hashCode(new Object[]{preTag, postTag, this.keywords});
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return preTag.equals(other.preTag) && postTag.equals(other.postTag) && keywords.equals(other.keywords);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+}
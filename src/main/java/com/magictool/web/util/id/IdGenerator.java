@@ -3,7 +3,6 @@ package com.magictool.web.util.id;
 import cn.hutool.core.date.DatePattern;
 import cn.hutool.core.date.DateTime;
 import cn.hutool.core.lang.ObjectId;
-import cn.hutool.core.lang.Snowflake;
 import cn.hutool.core.net.NetUtil;
 import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.RandomUtil;
@@ -63,19 +62,44 @@ public class IdGenerator {
     }
 
     /**
-     * 生成雪花算法id
+     * 生成雪花算法id，无锁实现，与 hutool Snowflake 的ID结构相同
      */
-    private static Snowflake snowflake = IdUtil.createSnowflake(workerId, 1);
+    private static volatile SnowflakeIdGenerator snowflake = SnowflakeIdGenerator.of(workerId, 1);
 
-    public static synchronized long snowflakeId() {
-        return snowflake.nextId();
+    /**
+     * 改为从 Redis 租用机器ID和数据中心ID，避免多个节点的 ip % 32 相同导致ID重复，应用启动时调用一次。
+     * 之后租约过期且未能续期时 {@link #snowflakeId()} 抛出 {@link IllegalStateException}，直到重新租到槽位
+     *
+     * @param allocator 机器ID分配器，应用关闭时需要调用 {@link RedisWorkerIdAllocator#close()} 释放
+     */
+    public static void useWorkerIdAllocator(RedisWorkerIdAllocator allocator) {
+        snowflake = allocator.lease();
+        allocator.addListener(generator -> snowflake = generator);
+        log.info("IdGenerator uses leased workerId: {}, dataCenterId: {}",
+                allocator.getWorkerId(), allocator.getDataCenterId());
     }
 
-    public static synchronized long snowflakeId(long workerId, long dataCenterId) {
-        Snowflake snowflake = IdUtil.createSnowflake(workerId, dataCenterId);
+    public static long snowflakeId() {
         return snowflake.nextId();
     }
 
+    /**
+     * 批量生成雪花算法id
+     *
+     * @param n 数量
+     * @return 递增的id数组
+     */
+    public static long[] snowflakeIds(int n) {
+        return snowflake.nextIds(n);
+    }
+
+    /**
+     * 指定机器和数据中心生成雪花算法id，相同的机器和数据中心共享同一个生成器
+     */
+    public static long snowflakeId(long workerId, long dataCenterId) {
+        return SnowflakeIdGenerator.of(workerId, dataCenterId).nextId();
+    }
+
     /**
      * 生成类似：5b9e306a4df4f8c54a39fb0c
      * <p>
@@ -0,0 +1,39 @@
+package com.magictool.web.util.id;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * 基于 Redis INCRBY 的号段存储
+ * <p>
+ * 注意：Redis 需要开启持久化，否则重启后号段会从头开始；从数据库自增ID迁移时，先把 key 设置为已使用的最大ID。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public class RedisSegmentStore implements SegmentStore {
+
+    public static final String DEFAULT_KEY_PREFIX = "magic-tool:segment:";
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final String keyPrefix;
+
+    public RedisSegmentStore(StringRedisTemplate redisTemplate) {
+        this(redisTemplate, DEFAULT_KEY_PREFIX);
+    }
+
+    public RedisSegmentStore(StringRedisTemplate redisTemplate, String keyPrefix) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public long allocate(String bizTag, long step) {
+        Long max = redisTemplate.opsForValue().increment(keyPrefix + bizTag, step);
+        if (max == null) {
+            throw new IllegalStateException("failed to allocate segment from redis, bizTag=" + bizTag);
+        }
+        return max;
+    }
+
+}
@@ -0,0 +1,419 @@
+package com.magictool.web.util.id;
+
+import cn.hutool.core.net.NetUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 基于 Redis 租约分配雪花算法的机器ID和数据中心ID
+ * <p>
+ * 机器ID（5位）和数据中心ID（5位）组合成 1024 个槽位，每个槽位对应一个 Redis key，节点用 {@code SET NX PX} 抢占一个空闲槽位，
+ * 并定时续期。正常关闭时调用 {@link #close()} 释放槽位；进程崩溃时租约到期后由其他节点回收。
+ * 续期时发现租约已经丢失（例如长时间 GC 或 Redis 故障超过租约时间），会跳过丢失的槽位重新抢占一个并通知监听器切换生成器，
+ * 重新抢占失败（没有空闲槽位或 Redis 暂时不可用）时由心跳按指数退避继续重试，直到租到槽位。
+ * <p>
+ * 分配出的生成器每次发号都会检查租约截止时间 {@code 最后一次续期成功的时间 + 租约时间 - 安全余量}，
+ * 续期持续失败超过截止时间后拒绝发号，租约可能已经被其他节点接手时不会再产生ID。
+ * <p>
+ * 当前租到的ID可以通过 getter 获取，注册为 Spring bean 且开启 spring.jmx.enabled 时也会作为 JMX 属性导出。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+@Slf4j
+@ManagedResource(objectName = "com.magictool.web:type=WorkerIdLease", description = "snowflake worker id lease")
+public class RedisWorkerIdAllocator implements Closeable {
+
+    /**
+     * 槽位总数：数据中心ID * 32 + 机器ID
+     */
+    public static final int SLOT_COUNT = (int) ((SnowflakeIdGenerator.MAX_DATA_CENTER_ID + 1) * (SnowflakeIdGenerator.MAX_WORKER_ID + 1));
+
+    /**
+     * 默认 key 前缀，使用 hash tag 保证集群模式下所有槽位 key 在同一个节点
+     */
+    public static final String DEFAULT_KEY_PREFIX = "magic-tool:{worker-id}:";
+
+    public static final long DEFAULT_LEASE_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * 重新抢占槽位失败后的最长退避时间（按心跳间隔的倍数）
+     */
+    private static final int MAX_REACQUIRE_BACKOFF_PERIODS = 32;
+
+    /**
+     * 从 ARGV[3] 开始依次尝试抢占槽位，跳过 ARGV[5]，返回抢到的槽位，没有空闲槽位返回 -1
+     */
+    private static final RedisScript<Long> LEASE_SCRIPT = new DefaultRedisScript<>(
+            "local count = tonumber(ARGV[4]) " +
+            "local excluded = tonumber(ARGV[5]) " +
+            "for i = 0, count - 1 do " +
+            "  local slot = (tonumber(ARGV[3]) + i) % count " +
+            "  if slot ~= excluded and redis.call('set', KEYS[1] .. slot, ARGV[1], 'nx', 'px', ARGV[2]) then return slot end " +
+            "end " +
+            "return -1", Long.class);
+
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end",
+            Long.class);
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final String keyPrefix;
+
+    private final long leaseMillis;
+
+    /**
+     * 租约截止时间的安全余量，覆盖续期请求的网络耗时和节点间的时钟误差
+     */
+    private final long safetyMarginMillis;
+
+    /**
+     * 每个槽位的生成器，重新租到同一个槽位时沿用之前的序列状态，guarded by this
+     */
+    private final SnowflakeIdGenerator[] generators = new SnowflakeIdGenerator[SLOT_COUNT];
+
+    /**
+     * 租约持有者标识：主机名 + 随机串
+     */
+    private final String owner;
+
+    private final List<Consumer<SnowflakeIdGenerator>> listeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong renewCount = new AtomicLong();
+
+    private final AtomicLong renewFailureCount = new AtomicLong();
+
+    private final AtomicLong leaseLostCount = new AtomicLong();
+
+    private final AtomicLong reacquireFailureCount = new AtomicLong();
+
+    private volatile int slot = -1;
+
+    /**
+     * 丢失的槽位，重新抢占时跳过，租到新槽位后重置为 -1，guarded by this
+     */
+    private int lostSlot = -1;
+
+    /**
+     * 连续重新抢占失败的次数和下一次允许尝试的时间，guarded by this
+     */
+    private int reacquireFailures;
+
+    private long nextReacquireAt;
+
+    private volatile long lastRenewAt;
+
+    private ScheduledExecutorService heartbeat;
+
+    private ScheduledFuture<?> heartbeatFuture;
+
+    public RedisWorkerIdAllocator(StringRedisTemplate redisTemplate) {
+        this(redisTemplate, DEFAULT_KEY_PREFIX, DEFAULT_LEASE_MILLIS);
+    }
+
+    /**
+     * @param redisTemplate redis
+     * @param keyPrefix     槽位 key 前缀
+     * @param leaseMillis   租约时间（毫秒），每 1/3 租约时间续期一次，安全余量为 1/5 租约时间
+     */
+    public RedisWorkerIdAllocator(StringRedisTemplate redisTemplate, String keyPrefix, long leaseMillis) {
+        this(redisTemplate, keyPrefix, leaseMillis, leaseMillis / 5);
+    }
+
+    /**
+     * @param redisTemplate      redis
+     * @param keyPrefix          槽位 key 前缀
+     * @param leaseMillis        租约时间（毫秒），每 1/3 租约时间续期一次
+     * @param safetyMarginMillis 安全余量（毫秒），最后一次续期成功后超过 {@code leaseMillis - safetyMarginMillis} 拒绝发号
+     */
+    public RedisWorkerIdAllocator(StringRedisTemplate redisTemplate, String keyPrefix, long leaseMillis,
+                                  long safetyMarginMillis) {
+        if (leaseMillis < 300) {
+            throw new IllegalArgumentException("leaseMillis must be at least 300");
+        }
+        if (safetyMarginMillis < 0 || safetyMarginMillis > leaseMillis * 2 / 3) {
+            throw new IllegalArgumentException("safetyMarginMillis must be between 0 and 2/3 of leaseMillis");
+        }
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+        this.leaseMillis = leaseMillis;
+        this.safetyMarginMillis = safetyMarginMillis;
+        this.owner = NetUtil.getLocalHostName() + ":" + UUID.randomUUID();
+    }
+
+    /**
+     * 抢占一个槽位并开始定时续期，重复调用返回已租到的槽位。
+     * 租约丢失后、心跳重新抢占成功之前调用时立即抢占，沿用已有的心跳并通知监听器
+     *
+     * @return 雪花算法生成器
+     * @throws IllegalStateException 所有槽位都已被占用
+     */
+    public SnowflakeIdGenerator lease() {
+        SnowflakeIdGenerator generator;
+        boolean reacquired;
+        synchronized (this) {
+            if (slot >= 0) {
+                return getGenerator();
+            }
+            reacquired = lostSlot >= 0;
+            acquire(reacquired ? (lostSlot + 1) % SLOT_COUNT : ThreadLocalRandom.current().nextInt(SLOT_COUNT), lostSlot);
+            if (heartbeatFuture == null) {
+                heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "worker-id-lease-heartbeat");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                long period = leaseMillis / 3;
+                heartbeatFuture = heartbeat.scheduleWithFixedDelay(this::heartbeat, period, period, TimeUnit.MILLISECONDS);
+            }
+            generator = getGenerator();
+        }
+        if (reacquired) {
+            notifyListeners(generator);
+        }
+        return generator;
+    }
+
+    /**
+     * 当前槽位对应的雪花算法生成器，租约过期或槽位丢失后该生成器拒绝发号
+     *
+     * @throws IllegalStateException 尚未租到槽位
+     */
+    public synchronized SnowflakeIdGenerator getGenerator() {
+        int current = slot;
+        if (current < 0) {
+            throw new IllegalStateException("worker id is not leased");
+        }
+        SnowflakeIdGenerator generator = generators[current];
+        if (generator == null) {
+            generator = new SnowflakeIdGenerator(workerIdOf(current), dataCenterIdOf(current),
+                    SnowflakeIdGenerator.DEFAULT_MAX_BACKWARD_MILLIS, () -> leaseDeadline(current));
+            generators[current] = generator;
+        }
+        return generator;
+    }
+
+    /**
+     * 添加监听器，租约丢失后重新抢占到新槽位时回调新的生成器
+     */
+    public void addListener(Consumer<SnowflakeIdGenerator> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 停止续期并释放槽位
+     */
+    @Override
+    public synchronized void close() {
+        if (heartbeatFuture != null) {
+            heartbeatFuture.cancel(false);
+            heartbeat.shutdown();
+            heartbeatFuture = null;
+            heartbeat = null;
+        }
+        lostSlot = -1;
+        int current = slot;
+        if (current < 0) {
+            return;
+        }
+        slot = -1;
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(keyPrefix + current), owner);
+            log.info("released worker id lease, slot={}", current);
+        } catch (Exception e) {
+            log.warn("failed to release worker id lease, it will expire in {}ms, slot={}", leaseMillis, current, e);
+        }
+    }
+
+    @ManagedAttribute(description = "leased slot, -1 if not leased")
+    public int getSlot() {
+        return slot;
+    }
+
+    @ManagedAttribute(description = "leased worker id, -1 if not leased")
+    public long getWorkerId() {
+        int current = slot;
+        return current < 0 ? -1 : workerIdOf(current);
+    }
+
+    @ManagedAttribute(description = "leased data center id, -1 if not leased")
+    public long getDataCenterId() {
+        int current = slot;
+        return current < 0 ? -1 : dataCenterIdOf(current);
+    }
+
+    @ManagedAttribute(description = "whether a worker id is currently leased")
+    public boolean isLeased() {
+        return slot >= 0;
+    }
+
+    @ManagedAttribute(description = "last successful renew time in millis")
+    public long getLastRenewAt() {
+        return lastRenewAt;
+    }
+
+    @ManagedAttribute(description = "time in millis after which ids are no longer issued, 0 if not leased")
+    public long getLeaseDeadline() {
+        int current = slot;
+        return current < 0 ? 0 : leaseDeadline(current);
+    }
+
+    @ManagedAttribute(description = "successful renew count")
+    public long getRenewCount() {
+        return renewCount.get();
+    }
+
+    @ManagedAttribute(description = "failed renew count")
+    public long getRenewFailureCount() {
+        return renewFailureCount.get();
+    }
+
+    @ManagedAttribute(description = "lease lost count")
+    public long getLeaseLostCount() {
+        return leaseLostCount.get();
+    }
+
+    @ManagedAttribute(description = "failed re-lease count after the lease was lost")
+    public long getReacquireFailureCount() {
+        return reacquireFailureCount.get();
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * 槽位的租约截止时间，槽位已经不属于当前节点时返回 {@link Long#MIN_VALUE}
+     */
+    private long leaseDeadline(int leasedSlot) {
+        return slot == leasedSlot ? lastRenewAt + leaseMillis - safetyMarginMillis : Long.MIN_VALUE;
+    }
+
+    /**
+     * guarded by this
+     */
+    private void acquire(int startSlot, int excludedSlot) {
+        // 以发出请求的时间作为续期时间，Redis 上的过期时间只会比这个晚
+        long requestAt = System.currentTimeMillis();
+        Long leased = redisTemplate.execute(LEASE_SCRIPT, Collections.singletonList(keyPrefix), owner,
+                String.valueOf(leaseMillis), String.valueOf(startSlot), String.valueOf(SLOT_COUNT),
+                String.valueOf(excludedSlot));
+        if (leased == null || leased < 0) {
+            throw new IllegalStateException("no free worker id, all " + SLOT_COUNT + " slots are leased");
+        }
+        lastRenewAt = requestAt;
+        lostSlot = -1;
+        reacquireFailures = 0;
+        nextReacquireAt = 0;
+        slot = leased.intValue();
+        log.info("leased worker id, slot={}, workerId={}, dataCenterId={}, owner={}",
+                slot, workerIdOf(slot), dataCenterIdOf(slot), owner);
+    }
+
+    private void heartbeat() {
+        int current = slot;
+        if (current < 0) {
+            reacquire();
+        } else {
+            renew(current);
+        }
+    }
+
+    private void renew(int current) {
+        try {
+            long requestAt = System.currentTimeMillis();
+            Long renewed = redisTemplate.execute(RENEW_SCRIPT, Collections.singletonList(keyPrefix + current),
+                    owner, String.valueOf(leaseMillis));
+            if (renewed != null && renewed > 0) {
+                renewCount.incrementAndGet();
+                lastRenewAt = requestAt;
+                return;
+            }
+            // 租约已过期或被其他节点抢占，继续使用当前ID可能产生重复，重新抢占
+            leaseLostCount.incrementAndGet();
+            log.error("worker id lease lost, slot={}, owner={}, re-leasing", current, owner);
+            synchronized (this) {
+                if (slot != current) {
+                    return;
+                }
+                slot = -1;
+                // 丢失的槽位很可能已经被其他节点接手，重新抢占时跳过
+                lostSlot = current;
+            }
+            reacquire();
+        } catch (Exception e) {
+            renewFailureCount.incrementAndGet();
+            log.warn("failed to renew worker id lease, slot={}, last renew {}ms ago",
+                    current, System.currentTimeMillis() - lastRenewAt, e);
+        }
+    }
+
+    /**
+     * 租约丢失后重新抢占槽位，失败时按指数退避等待之后的心跳重试，成功后通知监听器
+     */
+    private void reacquire() {
+        SnowflakeIdGenerator generator;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            // 已经租到（lease() 抢先一步）、已关闭或还在退避中
+            if (slot >= 0 || heartbeatFuture == null || now < nextReacquireAt) {
+                return;
+            }
+            int excluded = lostSlot;
+            try {
+                acquire(excluded < 0 ? ThreadLocalRandom.current().nextInt(SLOT_COUNT) : (excluded + 1) % SLOT_COUNT,
+                        excluded);
+            } catch (Exception e) {
+                reacquireFailureCount.incrementAndGet();
+                reacquireFailures++;
+                long backoff = (leaseMillis / 3) * Math.min(1L << Math.min(reacquireFailures - 1, 30),
+                        MAX_REACQUIRE_BACKOFF_PERIODS);
+                nextReacquireAt = now + backoff;
+                log.warn("failed to re-lease worker id, retry in {}ms, failures={}", backoff, reacquireFailures, e);
+                return;
+            }
+            generator = getGenerator();
+        }
+        notifyListeners(generator);
+    }
+
+    private void notifyListeners(SnowflakeIdGenerator generator) {
+        for (Consumer<SnowflakeIdGenerator> listener : listeners) {
+            try {
+                listener.accept(generator);
+            } catch (Exception e) {
+                log.warn("worker id listener failed", e);
+            }
+        }
+    }
+
+    private static long workerIdOf(int slot) {
+        return slot & SnowflakeIdGenerator.MAX_WORKER_ID;
+    }
+
+    private static long dataCenterIdOf(int slot) {
+        return slot >>> 5;
+    }
+
+}
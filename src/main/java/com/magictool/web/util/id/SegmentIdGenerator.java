@@ -0,0 +1,199 @@
+package com.magictool.web.util.id;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 号段模式ID生成器（Leaf-segment），生成稠密、单调递增的ID，适合订单号等需要写入数据库索引的场景
+ * <p>
+ * 每次从 {@link SegmentStore} 取一段连续的ID放在本地，取号只是一次本地原子自增，不加锁也不访问 Redis。
+ * 双缓冲：当前号段使用到 {@code prefetchRatio} 时异步加载下一个号段，当前号段用完后直接切换，
+ * 只有下一个号段还没加载完成时才会阻塞等待。
+ * <p>
+ * 单个节点内ID严格递增；多个节点之间各自使用不同的号段，整体趋势递增。节点重启会丢弃未用完的号段，ID 会出现空洞。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+@Slf4j
+public class SegmentIdGenerator {
+
+    public static final double DEFAULT_PREFETCH_RATIO = 0.1D;
+
+    /**
+     * 初始的空号段，第一次取号时加载
+     */
+    private static final Segment EMPTY = new Segment(0, 0, 0);
+
+    private final SegmentStore store;
+
+    private final String bizTag;
+
+    private final long step;
+
+    private final long prefetchOffset;
+
+    private final Executor executor;
+
+    private volatile Segment current = EMPTY;
+
+    /**
+     * 正在加载或已经加载完成的下一个号段
+     */
+    private CompletableFuture<Segment> next;
+
+    private final LongAdder loadCount = new LongAdder();
+
+    private final LongAdder waitCount = new LongAdder();
+
+    /**
+     * @param store  号段存储
+     * @param bizTag 业务标识
+     * @param step   号段长度，建议为高峰期 10 分钟左右的用量
+     */
+    public SegmentIdGenerator(SegmentStore store, String bizTag, long step) {
+        this(store, bizTag, step, DEFAULT_PREFETCH_RATIO, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param store         号段存储
+     * @param bizTag        业务标识
+     * @param step          号段长度
+     * @param prefetchRatio 当前号段使用到该比例时开始预取下一个号段，0~1
+     * @param executor      预取号段的线程池
+     */
+    public SegmentIdGenerator(SegmentStore store, String bizTag, long step, double prefetchRatio, Executor executor) {
+        if (step <= 0) {
+            throw new IllegalArgumentException("step must be greater than 0");
+        }
+        if (prefetchRatio < 0 || prefetchRatio >= 1) {
+            throw new IllegalArgumentException("prefetchRatio must be in [0, 1)");
+        }
+        this.store = store;
+        this.bizTag = bizTag;
+        this.step = step;
+        this.prefetchOffset = (long) (step * prefetchRatio);
+        this.executor = executor;
+    }
+
+    /**
+     * 获取一个ID
+     *
+     * @return id
+     * @throws IllegalStateException 号段存储不可用且本地号段已用完
+     */
+    public long nextId() {
+        while (true) {
+            Segment segment = current;
+            long id = segment.value.getAndIncrement();
+            if (id < segment.end) {
+                // 每个值只会被一个线程拿到，所以每个号段只会触发一次预取
+                if (id == segment.prefetchAt) {
+                    prefetch(segment);
+                }
+                return id;
+            }
+            switchSegment(segment);
+        }
+    }
+
+    public String getBizTag() {
+        return bizTag;
+    }
+
+    /**
+     * 当前号段剩余的ID数量
+     */
+    public long getRemaining() {
+        Segment segment = current;
+        return Math.max(0, segment.end - segment.value.get());
+    }
+
+    /**
+     * 从号段存储加载号段的次数
+     */
+    public long getLoadCount() {
+        return loadCount.sum();
+    }
+
+    /**
+     * 号段用完时下一个号段还没准备好、需要等待的次数，持续增长说明 step 太小
+     */
+    public long getWaitCount() {
+        return waitCount.sum();
+    }
+
+    private synchronized void prefetch(Segment segment) {
+        if (current != segment || next != null) {
+            return;
+        }
+        next = CompletableFuture.supplyAsync(this::loadSegment, executor);
+    }
+
+    private synchronized void switchSegment(Segment exhausted) {
+        if (current != exhausted) {
+            // 其他线程已经切换
+            return;
+        }
+        CompletableFuture<Segment> future = next;
+        next = null;
+        Segment segment = null;
+        if (future != null) {
+            if (!future.isDone()) {
+                waitCount.increment();
+            }
+            try {
+                segment = future.join();
+            } catch (Exception e) {
+                log.warn("prefetch segment failed, bizTag={}, retry synchronously", bizTag, e);
+            }
+        }
+        if (segment == null) {
+            segment = loadSegment();
+        }
+        current = segment;
+    }
+
+    private Segment loadSegment() {
+        long max;
+        try {
+            max = store.allocate(bizTag, step);
+        } catch (Exception e) {
+            throw new IllegalStateException("failed to allocate id segment, bizTag=" + bizTag, e);
+        }
+        loadCount.increment();
+        long start = max - step + 1;
+        log.debug("loaded id segment, bizTag={}, range=[{}, {}]", bizTag, start, max);
+        return new Segment(start, max + 1, start + prefetchOffset);
+    }
+
+    private static final class Segment {
+
+        /**
+         * 下一个可用的值
+         */
+        private final AtomicLong value;
+
+        /**
+         * 号段结束值（不包含）
+         */
+        private final long end;
+
+        /**
+         * 发出这个值时预取下一个号段
+         */
+        private final long prefetchAt;
+
+        private Segment(long start, long end, long prefetchAt) {
+            this.value = new AtomicLong(start);
+            this.end = end;
+            this.prefetchAt = prefetchAt;
+        }
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.magictool.web.util.id;
+
+/**
+ * 号段存储，{@link SegmentIdGenerator} 通过它获取新的号段
+ * <p>
+ * 实现需要保证多个节点并发调用时号段不重叠，例如 Redis INCRBY，或数据库
+ * {@code update t set max_id = max_id + step where biz_tag = ?} 后再读取 max_id。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public interface SegmentStore {
+
+    /**
+     * 为业务分配一个长度为 step 的号段
+     *
+     * @param bizTag 业务标识
+     * @param step   号段长度
+     * @return 号段的最大值（包含），号段为 {@code (返回值 - step, 返回值]}
+     */
+    long allocate(String bizTag, long step);
+
+}
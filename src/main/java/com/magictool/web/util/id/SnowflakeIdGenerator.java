@@ -0,0 +1,248 @@
+package com.magictool.web.util.id;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * 无锁雪花ID生成器
+ * <p>
+ * ID 结构与 hutool {@code Snowflake} 保持一致：1 位符号位 + 41 位时间戳（相对 {@link #EPOCH}）+ 5 位数据中心 + 5 位机器 + 12 位序列号，
+ * 切换后生成的 ID 与旧数据仍然有序。
+ * <p>
+ * 时间戳和序列号打包在一个 {@link AtomicLong} 中（{@code 时间戳 << 12 | 序列号}），每次生成只需一次 CAS，不加锁也不分配对象。
+ * 同一毫秒的序列号用完后直接借用下一毫秒；时钟回拨不超过 {@code maxBackwardMillis} 时沿用上次的时间戳继续发号，
+ * 超过则抛出 {@link IllegalStateException}。提前借用的时间同样不会超过 {@code maxBackwardMillis}，超过时等待时钟追上。
+ * <p>
+ * 机器ID来自租约（{@link RedisWorkerIdAllocator}）时可以传入租约截止时间，发出的ID的时间戳不会超过截止时间，
+ * 租约过期后直接抛出 {@link IllegalStateException}，避免与接手该槽位的节点产生重复ID。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public class SnowflakeIdGenerator {
+
+    /**
+     * 起始时间戳，与 hutool 默认值相同（2010-11-04 09:42:54）
+     */
+    public static final long EPOCH = 1288834974657L;
+
+    private static final int WORKER_ID_BITS = 5;
+
+    private static final int DATA_CENTER_ID_BITS = 5;
+
+    private static final int SEQUENCE_BITS = 12;
+
+    public static final long MAX_WORKER_ID = ~(-1L << WORKER_ID_BITS);
+
+    public static final long MAX_DATA_CENTER_ID = ~(-1L << DATA_CENTER_ID_BITS);
+
+    private static final long SEQUENCE_MASK = ~(-1L << SEQUENCE_BITS);
+
+    private static final int WORKER_ID_SHIFT = SEQUENCE_BITS;
+
+    private static final int DATA_CENTER_ID_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS;
+
+    private static final int TIMESTAMP_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS + DATA_CENTER_ID_BITS;
+
+    /**
+     * 默认允许的时钟回拨毫秒数，与 hutool 默认值相同
+     */
+    public static final long DEFAULT_MAX_BACKWARD_MILLIS = 2000L;
+
+    private static final ConcurrentMap<Long, SnowflakeIdGenerator> INSTANCES = new ConcurrentHashMap<>();
+
+    private final long workerId;
+
+    private final long dataCenterId;
+
+    /**
+     * 数据中心和机器位，生成时直接或运算
+     */
+    private final long nodeBits;
+
+    private final long maxBackwardMillis;
+
+    /**
+     * 允许发号的截止时间戳（毫秒），为null时不限制
+     */
+    private final LongSupplier leaseDeadline;
+
+    /**
+     * 当前时间（毫秒），测试时可以替换以模拟时钟回拨
+     */
+    private final LongSupplier clock;
+
+    /**
+     * 最后一次发出的 {@code (时间戳 - EPOCH) << 12 | 序列号}
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * @param workerId     机器ID，0~31
+     * @param dataCenterId 数据中心ID，0~31
+     */
+    public SnowflakeIdGenerator(long workerId, long dataCenterId) {
+        this(workerId, dataCenterId, DEFAULT_MAX_BACKWARD_MILLIS);
+    }
+
+    /**
+     * @param workerId          机器ID，0~31
+     * @param dataCenterId      数据中心ID，0~31
+     * @param maxBackwardMillis 允许的时钟回拨毫秒数，也是序列号用完后最多借用的未来毫秒数
+     */
+    public SnowflakeIdGenerator(long workerId, long dataCenterId, long maxBackwardMillis) {
+        this(workerId, dataCenterId, maxBackwardMillis, null);
+    }
+
+    /**
+     * @param workerId          机器ID，0~31
+     * @param dataCenterId      数据中心ID，0~31
+     * @param maxBackwardMillis 允许的时钟回拨毫秒数，也是序列号用完后最多借用的未来毫秒数
+     * @param leaseDeadline     返回允许发号的截止时间戳（毫秒），每次发号都会调用，为null时不限制
+     */
+    public SnowflakeIdGenerator(long workerId, long dataCenterId, long maxBackwardMillis, LongSupplier leaseDeadline) {
+        this(workerId, dataCenterId, maxBackwardMillis, leaseDeadline, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(long workerId, long dataCenterId, long maxBackwardMillis, LongSupplier leaseDeadline,
+                         LongSupplier clock) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("workerId must be between 0 and " + MAX_WORKER_ID + ", but was " + workerId);
+        }
+        if (dataCenterId < 0 || dataCenterId > MAX_DATA_CENTER_ID) {
+            throw new IllegalArgumentException("dataCenterId must be between 0 and " + MAX_DATA_CENTER_ID + ", but was " + dataCenterId);
+        }
+        if (maxBackwardMillis < 0) {
+            throw new IllegalArgumentException("maxBackwardMillis must not be negative");
+        }
+        this.workerId = workerId;
+        this.dataCenterId = dataCenterId;
+        this.nodeBits = (dataCenterId << DATA_CENTER_ID_SHIFT) | (workerId << WORKER_ID_SHIFT);
+        this.maxBackwardMillis = maxBackwardMillis;
+        this.leaseDeadline = leaseDeadline;
+        this.clock = clock;
+    }
+
+    /**
+     * 获取（机器ID，数据中心ID）对应的共享实例，同一进程内相同的机器和数据中心只会有一个生成器，避免产生重复ID
+     *
+     * @param workerId     机器ID，0~31
+     * @param dataCenterId 数据中心ID，0~31
+     * @return SnowflakeIdGenerator
+     */
+    public static SnowflakeIdGenerator of(long workerId, long dataCenterId) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID || dataCenterId < 0 || dataCenterId > MAX_DATA_CENTER_ID) {
+            // 由构造方法抛出具体的异常信息
+            return new SnowflakeIdGenerator(workerId, dataCenterId);
+        }
+        Long node = (dataCenterId << WORKER_ID_BITS) | workerId;
+        SnowflakeIdGenerator generator = INSTANCES.get(node);
+        if (generator == null) {
+            generator = INSTANCES.computeIfAbsent(node, k -> new SnowflakeIdGenerator(workerId, dataCenterId));
+        }
+        return generator;
+    }
+
+    /**
+     * 生成一个ID
+     *
+     * @return id
+     */
+    public long nextId() {
+        return toId(reserve(1));
+    }
+
+    /**
+     * 批量生成ID，一次 CAS 预留连续的序列号
+     *
+     * @param n 数量
+     * @return 递增的ID数组
+     */
+    public long[] nextIds(int n) {
+        if (n <= 0) {
+            return new long[0];
+        }
+        long[] ids = new long[n];
+        // 单次预留不能超过允许借用的时间范围，超出时分多次预留
+        int maxBatch = (int) Math.min(Integer.MAX_VALUE, (maxBackwardMillis + 1) << SEQUENCE_BITS);
+        int filled = 0;
+        while (filled < n) {
+            int count = Math.min(maxBatch, n - filled);
+            long start = reserve(count);
+            for (int i = 0; i < count; i++) {
+                ids[filled++] = toId(start + i);
+            }
+        }
+        return ids;
+    }
+
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    public long getDataCenterId() {
+        return dataCenterId;
+    }
+
+    /**
+     * 解析ID的生成时间戳（毫秒）
+     *
+     * @param id 雪花ID
+     * @return 时间戳
+     */
+    public static long getTimestamp(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + EPOCH;
+    }
+
+    /**
+     * 解析ID的机器ID
+     */
+    public static long getWorkerId(long id) {
+        return (id >>> WORKER_ID_SHIFT) & MAX_WORKER_ID;
+    }
+
+    /**
+     * 解析ID的数据中心ID
+     */
+    public static long getDataCenterId(long id) {
+        return (id >>> DATA_CENTER_ID_SHIFT) & MAX_DATA_CENTER_ID;
+    }
+
+    /**
+     * 预留 count 个连续的 {@code 时间戳 << 12 | 序列号}，返回第一个
+     */
+    private long reserve(int count) {
+        while (true) {
+            long current = state.get();
+            long now = clock.getAsLong() - EPOCH;
+            long lastMillis = current >>> SEQUENCE_BITS;
+            if (lastMillis - now > maxBackwardMillis) {
+                throw new IllegalStateException("Clock moved backwards, refusing to generate id for "
+                        + (lastMillis - now) + "ms");
+            }
+            long start = Math.max(current + 1, now << SEQUENCE_BITS);
+            long end = start + count - 1;
+            if ((end >>> SEQUENCE_BITS) - now > maxBackwardMillis) {
+                // 借用的时间太多，等待时钟追上
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                continue;
+            }
+            if (leaseDeadline != null && (end >>> SEQUENCE_BITS) + EPOCH >= leaseDeadline.getAsLong()) {
+                throw new IllegalStateException("Worker id lease expired, refusing to generate id, workerId="
+                        + workerId + ", dataCenterId=" + dataCenterId);
+            }
+            if (state.compareAndSet(current, end)) {
+                return start;
+            }
+        }
+    }
+
+    private long toId(long stamp) {
+        return ((stamp >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT) | nodeBits | (stamp & SEQUENCE_MASK);
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.magictool.web.util.limiter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * 基于 Redis Lua 脚本的限流器基类，脚本通过 EVALSHA 执行，判断和扣减在 Redis 中原子完成
+ * <p>
+ * 时间使用调用方的本地时钟，多个节点之间的时钟偏差会影响窗口边界的精度。
+ * Redis 不可用时按 {@link #setFailOpen(boolean)} 的设置放行或拒绝，默认放行。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+@Slf4j
+public abstract class AbstractRedisRateLimiter implements RateLimiter {
+
+    public static final String DEFAULT_KEY_PREFIX = "magic-tool:limiter:";
+
+    protected final StringRedisTemplate redisTemplate;
+
+    protected final String keyPrefix;
+
+    private volatile boolean failOpen = true;
+
+    protected AbstractRedisRateLimiter(StringRedisTemplate redisTemplate, String keyPrefix) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public boolean tryAcquire(String key, int permits) {
+        if (StringUtils.isBlank(key) || permits <= 0) {
+            log.debug("sorry your limiter key is null or permits is not positive, then return now");
+            return permits <= 0;
+        }
+        try {
+            return doAcquire(key, permits, System.currentTimeMillis());
+        } catch (Exception e) {
+            log.error("rate limiter failed, key={}, permits={}, failOpen={}", key, permits, failOpen, e);
+            return failOpen;
+        }
+    }
+
+    /**
+     * Redis 不可用时是否放行
+     */
+    public void setFailOpen(boolean failOpen) {
+        this.failOpen = failOpen;
+    }
+
+    /**
+     * 执行获取许可的脚本
+     *
+     * @param key     限流维度
+     * @param permits 许可数量
+     * @param now     当前时间戳（毫秒）
+     * @return 是否获取成功
+     */
+    protected abstract boolean doAcquire(String key, int permits, long now);
+
+    protected boolean execute(RedisScript<Long> script, List<String> keys, Object... args) {
+        String[] values = new String[args.length];
+        for (int i = 0; i < args.length; i++) {
+            values[i] = String.valueOf(args[i]);
+        }
+        Long result = redisTemplate.execute(script, keys, (Object[]) values);
+        return result != null && result > 0;
+    }
+
+    /**
+     * 限流 key，使用 hash tag 保证同一维度的多个 key 在集群中的同一个节点
+     */
+    protected String redisKey(String key) {
+        return keyPrefix + "{" + key + "}";
+    }
+
+}
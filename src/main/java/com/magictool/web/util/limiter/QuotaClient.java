@@ -0,0 +1,387 @@
+package com.magictool.web.util.limiter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 租借式配额客户端：Redis 中按周期记录每个配额已经发出的许可数，本地一次租借 {@code chunkSize} 个许可放入本地桶，
+ * 请求在本地桶扣减，剩余量低于低水位时异步续租，Redis 访问次数约为请求数的 1/chunkSize
+ * <p>
+ * 准确性：
+ * <ul>
+ *     <li>Redis 中每个周期发出的许可总数不会超过 limit，节点不会跨周期使用旧的许可</li>
+ *     <li>少放行：其他节点租到但还没用完的许可，全局最多为 节点数 × (chunkSize + 低水位)，
+ *     可以通过 {@link #getOutstandingPermits()} 查看本节点持有的数量；{@link #close()} 会把未用完的许可归还 Redis</li>
+ *     <li>多放行：本地桶使用 {@link LongAdder} 计数，先累加再检查，超出时立即回滚，极端并发下仍可能超出租到的许可，
+ *     回滚后残留的超出量通过 {@link #getOverAdmitted()} 统计，通常为0；本节点放行量与 Redis 计数之间的偏差上限
+ *     通过 {@link #getDeviationBound()} 获取</li>
+ * </ul>
+ * Redis 不可用时按 {@link #setFailOpen(boolean)} 的设置放行或拒绝，与 {@link AbstractRedisRateLimiter} 一样默认放行。
+ * 上个周期的本地桶在周期切换后顺带清理，不再访问的 key 不会一直占用内存。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+@Slf4j
+public class QuotaClient implements RateLimiter, Closeable {
+
+    public static final String DEFAULT_KEY_PREFIX = "magic-tool:quota:";
+
+    /**
+     * 租借许可：返回实际租到的数量，配额用完返回0
+     */
+    private static final RedisScript<Long> LEASE_SCRIPT = new DefaultRedisScript<>(
+            "local used = tonumber(redis.call('get', KEYS[1]) or '0') " +
+            "local grant = math.min(tonumber(ARGV[1]), tonumber(ARGV[2]) - used) " +
+            "if grant <= 0 then return 0 end " +
+            "redis.call('incrby', KEYS[1], grant) " +
+            "if used == 0 then redis.call('pexpire', KEYS[1], ARGV[3]) end " +
+            "return grant", Long.class);
+
+    /**
+     * 归还未用完的许可
+     */
+    private static final RedisScript<Long> RETURN_SCRIPT = new DefaultRedisScript<>(
+            "local used = tonumber(redis.call('get', KEYS[1]) or '0') " +
+            "local back = math.min(used, tonumber(ARGV[1])) " +
+            "if back > 0 then redis.call('decrby', KEYS[1], back) end " +
+            "return back", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final String keyPrefix;
+
+    private final long limit;
+
+    private final long periodMillis;
+
+    private final int chunkSize;
+
+    private final long lowWater;
+
+    private final Executor refillExecutor;
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    private final LongAdder localAdmits = new LongAdder();
+
+    private final LongAdder redisCalls = new LongAdder();
+
+    private final LongAdder overAdmitted = new LongAdder();
+
+    /**
+     * 正在访问 Redis 的租借请求数
+     */
+    private final AtomicInteger leasesInFlight = new AtomicInteger();
+
+    /**
+     * 下一次清理过期本地桶的周期编号
+     */
+    private final AtomicLong nextSweepAt = new AtomicLong();
+
+    private volatile boolean failOpen = true;
+
+    /**
+     * @param redisTemplate redis
+     * @param limit         每个周期的配额
+     * @param periodMillis  周期长度（毫秒），例如一天
+     * @param chunkSize     每次租借的许可数
+     */
+    public QuotaClient(StringRedisTemplate redisTemplate, long limit, long periodMillis, int chunkSize) {
+        this(redisTemplate, DEFAULT_KEY_PREFIX, limit, periodMillis, chunkSize, 0.2D, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param redisTemplate  redis
+     * @param keyPrefix      redis key 前缀
+     * @param limit          每个周期的配额
+     * @param periodMillis   周期长度（毫秒）
+     * @param chunkSize      每次租借的许可数
+     * @param lowWaterRatio  本地剩余许可低于 chunkSize 的该比例时异步续租，0~1
+     * @param refillExecutor 异步续租的线程池
+     */
+    public QuotaClient(StringRedisTemplate redisTemplate, String keyPrefix, long limit, long periodMillis, int chunkSize,
+                       double lowWaterRatio, Executor refillExecutor) {
+        if (limit <= 0 || periodMillis <= 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("limit, periodMillis and chunkSize must be greater than 0");
+        }
+        if (lowWaterRatio < 0 || lowWaterRatio >= 1) {
+            throw new IllegalArgumentException("lowWaterRatio must be in [0, 1)");
+        }
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+        this.limit = limit;
+        this.periodMillis = periodMillis;
+        this.chunkSize = chunkSize;
+        this.lowWater = (long) (chunkSize * lowWaterRatio);
+        this.refillExecutor = refillExecutor;
+    }
+
+    @Override
+    public boolean tryAcquire(String key, int permits) {
+        if (StringUtils.isBlank(key) || permits <= 0) {
+            log.debug("sorry your quota key is null or permits is not positive, then return now");
+            return permits <= 0;
+        }
+        Bucket bucket = bucketFor(key, System.currentTimeMillis());
+        if (bucket.tryTake(permits)) {
+            localAdmits.increment();
+            if (bucket.remaining() < lowWater) {
+                refillAsync(bucket);
+            }
+            return true;
+        }
+        // 本地许可不足，同步续租一次
+        if (bucket.exhausted) {
+            return false;
+        }
+        long leased = refill(bucket, permits);
+        if (leased < 0) {
+            return failOpen;
+        }
+        if (leased == 0) {
+            return false;
+        }
+        if (bucket.tryTake(permits)) {
+            localAdmits.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 本节点已经租到但还没用完的许可数
+     */
+    public long getOutstandingPermits() {
+        long outstanding = 0;
+        for (Bucket bucket : buckets.values()) {
+            outstanding += Math.max(0, bucket.remaining());
+        }
+        return outstanding;
+    }
+
+    /**
+     * 回滚后仍然残留的多放行数量（本地并发竞争导致放行数超过租到的许可数），在本地桶退役时统计
+     */
+    public long getOverAdmitted() {
+        return overAdmitted.sum();
+    }
+
+    /**
+     * 本节点放行量与 Redis 中已发出许可数的偏差上限：已租未用的许可 + 正在进行的租借数 × chunkSize
+     */
+    public long getDeviationBound() {
+        return getOutstandingPermits() + (long) leasesInFlight.get() * chunkSize;
+    }
+
+    /**
+     * Redis 不可用时是否放行，默认放行
+     */
+    public void setFailOpen(boolean failOpen) {
+        this.failOpen = failOpen;
+    }
+
+    /**
+     * 本地桶直接放行的次数
+     */
+    public long getLocalAdmits() {
+        return localAdmits.sum();
+    }
+
+    /**
+     * 访问 Redis 的次数
+     */
+    public long getRedisCalls() {
+        return redisCalls.sum();
+    }
+
+    /**
+     * 把当前周期未用完的许可归还 Redis，应用关闭时调用
+     */
+    @Override
+    public void close() {
+        long period = System.currentTimeMillis() / periodMillis;
+        for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+            Bucket bucket = entry.getValue();
+            if (!buckets.remove(entry.getKey(), bucket)) {
+                continue;
+            }
+            retire(bucket);
+            long unused = bucket.drain();
+            if (unused <= 0 || bucket.period != period) {
+                continue;
+            }
+            try {
+                redisCalls.increment();
+                redisTemplate.execute(RETURN_SCRIPT, Collections.singletonList(bucket.redisKey), String.valueOf(unused));
+            } catch (Exception e) {
+                log.warn("failed to return unused quota, key={}, unused={}", entry.getKey(), unused, e);
+            }
+        }
+    }
+
+    private Bucket bucketFor(String key, long now) {
+        long period = now / periodMillis;
+        Bucket bucket = buckets.get(key);
+        if (bucket != null && bucket.period == period) {
+            return bucket;
+        }
+        sweepExpired(period);
+        return buckets.compute(key, (k, old) -> {
+            if (old != null && old.period == period) {
+                return old;
+            }
+            if (old != null) {
+                // 上个周期剩余的许可随 Redis 计数器一起过期，不能带入新周期
+                retire(old);
+            }
+            return new Bucket(keyPrefix + "{" + k + "}:" + period, period);
+        });
+    }
+
+    /**
+     * 周期切换后清理上个周期的本地桶，每个周期只清理一次
+     */
+    private void sweepExpired(long period) {
+        long sweepAt = nextSweepAt.get();
+        if (period < sweepAt || !nextSweepAt.compareAndSet(sweepAt, period + 1)) {
+            return;
+        }
+        for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+            Bucket bucket = entry.getValue();
+            if (bucket.period < period && buckets.remove(entry.getKey(), bucket)) {
+                retire(bucket);
+            }
+        }
+    }
+
+    private void retire(Bucket bucket) {
+        long overshoot = -bucket.remaining();
+        if (overshoot > 0) {
+            overAdmitted.add(overshoot);
+        }
+    }
+
+    private void refillAsync(Bucket bucket) {
+        if (bucket.exhausted || !bucket.refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refillExecutor.execute(() -> {
+                try {
+                    lease(bucket, chunkSize);
+                } finally {
+                    bucket.refilling.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            bucket.refilling.set(false);
+            log.warn("failed to submit quota refill, redisKey={}", bucket.redisKey, e);
+        }
+    }
+
+    /**
+     * @return 租到的许可数，等待期间其他线程已经续租时返回 permits，配额用完返回0，Redis 异常返回-1
+     */
+    private long refill(Bucket bucket, int permits) {
+        synchronized (bucket) {
+            if (bucket.remaining() >= permits) {
+                // 等待期间其他线程已经续租
+                return permits;
+            }
+            return lease(bucket, Math.max(chunkSize, permits));
+        }
+    }
+
+    /**
+     * @return 租到的许可数，配额用完返回0，Redis 异常返回-1
+     */
+    private long lease(Bucket bucket, long size) {
+        leasesInFlight.incrementAndGet();
+        try {
+            redisCalls.increment();
+            Long granted = redisTemplate.execute(LEASE_SCRIPT, Collections.singletonList(bucket.redisKey),
+                    String.valueOf(size), String.valueOf(limit), String.valueOf(periodMillis));
+            if (granted == null || granted <= 0) {
+                bucket.exhausted = true;
+                return 0;
+            }
+            bucket.granted.addAndGet(granted);
+            return granted;
+        } catch (Exception e) {
+            log.error("failed to lease quota, redisKey={}, failOpen={}", bucket.redisKey, failOpen, e);
+            return -1;
+        } finally {
+            leasesInFlight.decrementAndGet();
+        }
+    }
+
+    private static final class Bucket {
+
+        private final String redisKey;
+
+        private final long period;
+
+        /**
+         * 累计租到的许可数
+         */
+        private final AtomicLong granted = new AtomicLong();
+
+        /**
+         * 累计放行的许可数，热点路径只做累加
+         */
+        private final LongAdder consumed = new LongAdder();
+
+        private final AtomicBoolean refilling = new AtomicBoolean();
+
+        /**
+         * Redis 中本周期的配额已经发完
+         */
+        private volatile boolean exhausted;
+
+        private Bucket(String redisKey, long period) {
+            this.redisKey = redisKey;
+            this.period = period;
+        }
+
+        private boolean tryTake(int permits) {
+            consumed.add(permits);
+            if (consumed.sum() <= granted.get()) {
+                return true;
+            }
+            consumed.add(-permits);
+            return false;
+        }
+
+        private long remaining() {
+            return granted.get() - consumed.sum();
+        }
+
+        /**
+         * 取出全部剩余许可，之后本地桶不再放行
+         */
+        private long drain() {
+            long unused = remaining();
+            if (unused > 0) {
+                consumed.add(unused);
+            }
+            exhausted = true;
+            return unused;
+        }
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.magictool.web.util.limiter;
+
+/**
+ * 限流器
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public interface RateLimiter {
+
+    /**
+     * 尝试获取1个许可
+     *
+     * @param key 限流维度，例如用户ID、接口名
+     * @return 是否获取成功
+     */
+    default boolean tryAcquire(String key) {
+        return tryAcquire(key, 1);
+    }
+
+    /**
+     * 尝试一次获取多个许可，要么全部获取成功，要么一个都不获取
+     *
+     * @param key     限流维度
+     * @param permits 许可数量
+     * @return 是否获取成功
+     */
+    boolean tryAcquire(String key, int permits);
+
+}
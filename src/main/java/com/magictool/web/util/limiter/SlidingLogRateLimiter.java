@@ -0,0 +1,61 @@
+package com.magictool.web.util.limiter;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.Collections;
+import java.util.UUID;
+
+/**
+ * 滑动日志限流：有序集合记录窗口内每个许可的时间戳，任意时间段内都不会超过限制，精确但内存与 limit 成正比，
+ * 适合 limit 较小的场景（例如每个用户每分钟几十次）
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public class SlidingLogRateLimiter extends AbstractRedisRateLimiter {
+
+    private static final RedisScript<Long> SCRIPT = new DefaultRedisScript<>(
+            "local now = tonumber(ARGV[1]) " +
+            "local window = tonumber(ARGV[2]) " +
+            "local permits = tonumber(ARGV[4]) " +
+            "redis.call('zremrangebyscore', KEYS[1], '-inf', now - window) " +
+            "if redis.call('zcard', KEYS[1]) + permits > tonumber(ARGV[3]) then return 0 end " +
+            "for i = 1, permits do redis.call('zadd', KEYS[1], now, ARGV[5] .. ':' .. i) end " +
+            "redis.call('pexpire', KEYS[1], window) " +
+            "return 1", Long.class);
+
+    private final long limit;
+
+    private final long windowMillis;
+
+    /**
+     * @param redisTemplate redis
+     * @param limit         任意 windowMillis 时间段内允许的许可数
+     * @param windowMillis  窗口长度（毫秒）
+     */
+    public SlidingLogRateLimiter(StringRedisTemplate redisTemplate, long limit, long windowMillis) {
+        this(redisTemplate, DEFAULT_KEY_PREFIX + "log:", limit, windowMillis);
+    }
+
+    public SlidingLogRateLimiter(StringRedisTemplate redisTemplate, String keyPrefix, long limit, long windowMillis) {
+        super(redisTemplate, keyPrefix);
+        if (limit <= 0 || windowMillis <= 0) {
+            throw new IllegalArgumentException("limit and windowMillis must be greater than 0");
+        }
+        this.limit = limit;
+        this.windowMillis = windowMillis;
+    }
+
+    @Override
+    protected boolean doAcquire(String key, int permits, long now) {
+        if (permits > limit) {
+            return false;
+        }
+        // 成员需要唯一，同一毫秒的多个许可才不会互相覆盖
+        return execute(SCRIPT, Collections.singletonList(redisKey(key)), now, windowMillis, limit, permits,
+                UUID.randomUUID().toString());
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.magictool.web.util.limiter;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.Collections;
+
+/**
+ * 令牌桶限流：按固定速率补充令牌，桶满后不再补充，允许不超过桶容量的突发流量
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public class TokenBucketRateLimiter extends AbstractRedisRateLimiter {
+
+    private static final RedisScript<Long> SCRIPT = new DefaultRedisScript<>(
+            "local capacity = tonumber(ARGV[1]) " +
+            "local rate = tonumber(ARGV[2]) " +
+            "local now = tonumber(ARGV[3]) " +
+            "local permits = tonumber(ARGV[4]) " +
+            "local bucket = redis.call('hmget', KEYS[1], 'tokens', 'timestamp') " +
+            "local tokens = tonumber(bucket[1]) or capacity " +
+            "local timestamp = tonumber(bucket[2]) or now " +
+            "if now > timestamp then tokens = math.min(capacity, tokens + (now - timestamp) * rate / 1000) end " +
+            "local allowed = 0 " +
+            "if tokens >= permits then tokens = tokens - permits allowed = 1 end " +
+            "redis.call('hmset', KEYS[1], 'tokens', tostring(tokens), 'timestamp', tostring(math.max(now, timestamp))) " +
+            "redis.call('pexpire', KEYS[1], ARGV[5]) " +
+            "return allowed", Long.class);
+
+    private final long capacity;
+
+    private final double permitsPerSecond;
+
+    /**
+     * 桶从空到满所需时间的2倍，超过这个时间没有访问的桶视为满桶，可以删除
+     */
+    private final long ttlMillis;
+
+    /**
+     * @param redisTemplate    redis
+     * @param capacity         桶容量，即允许的最大突发
+     * @param permitsPerSecond 每秒补充的令牌数
+     */
+    public TokenBucketRateLimiter(StringRedisTemplate redisTemplate, long capacity, double permitsPerSecond) {
+        this(redisTemplate, DEFAULT_KEY_PREFIX + "bucket:", capacity, permitsPerSecond);
+    }
+
+    public TokenBucketRateLimiter(StringRedisTemplate redisTemplate, String keyPrefix, long capacity, double permitsPerSecond) {
+        super(redisTemplate, keyPrefix);
+        if (capacity <= 0 || permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("capacity and permitsPerSecond must be greater than 0");
+        }
+        this.capacity = capacity;
+        this.permitsPerSecond = permitsPerSecond;
+        this.ttlMillis = Math.max(1000L, (long) Math.ceil(capacity / permitsPerSecond * 1000) * 2);
+    }
+
+    @Override
+    protected boolean doAcquire(String key, int permits, long now) {
+        if (permits > capacity) {
+            return false;
+        }
+        return execute(SCRIPT, Collections.singletonList(redisKey(key)), capacity, permitsPerSecond, now, permits, ttlMillis);
+    }
+
+}
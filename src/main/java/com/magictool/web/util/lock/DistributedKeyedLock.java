@@ -0,0 +1,378 @@
+package com.magictool.web.util.lock;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * 两级分布式锁：本地 {@link KeyedLock} + Redis 租约
+ * <p>
+ * 同一节点内竞争同一个 key 的线程先在本地锁上排队，只有拿到本地锁的线程才去 Redis 抢占租约，
+ * Redis 上的锁请求数从“并发线程数”降为“节点数”。
+ * <p>
+ * 每次抢到 Redis 租约都会返回一个单调递增的 fencing token（同一个 key 维度），写入下游存储时带上 token，
+ * 下游拒绝比已见过的 token 更小的请求，就可以避免租约过期后旧持有者的延迟写入覆盖新数据。
+ * token 计数器与锁 key 放在同一个 hash tag 下，每次抢到租约时续期 {@link #getFenceTtlMillis()}，
+ * 长时间没有加锁的 key 的计数器会过期，不会永久占用内存；计数器不存在时以 Redis 服务器的微秒时间作为起点，
+ * 过期重建后 token 仍然大于之前发出的 token。前提是 Redis 时钟不回拨（包括主从切换到时钟落后的节点）。
+ * 持有期间看门狗每 1/3 租约时间续期一次，发现租约丢失，或距离最后一次续期成功已经超过租约时间时，
+ * {@link Handle#isValid()} 返回 false。
+ * <p>
+ * 同一线程可以重入；{@link Handle} 必须在加锁的线程中释放。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+@Slf4j
+public class DistributedKeyedLock implements Closeable {
+
+    public static final String DEFAULT_KEY_PREFIX = "magic-tool:lock:";
+
+    public static final long DEFAULT_LEASE_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * fencing token 计数器的最短存活时间
+     */
+    public static final long MIN_FENCE_TTL_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * 抢占租约成功返回新的 fencing token，失败返回0
+     * 计数器不存在（第一次加锁或已过期）时用服务器时间 秒+6位微秒 初始化，保证重建后不小于之前的 token；
+     * 脚本中使用了 TIME，需要按效果复制（Redis 5 之前需要显式开启）
+     */
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "redis.replicate_commands() " +
+            "if not redis.call('set', KEYS[1], ARGV[1], 'nx', 'px', ARGV[2]) then return 0 end " +
+            "local token = redis.call('incr', KEYS[2]) " +
+            "if token == 1 then " +
+            "local now = redis.call('time') " +
+            "local seed = now[1] .. string.format('%06d', tonumber(now[2])) " +
+            "redis.call('set', KEYS[2], seed) " +
+            "token = tonumber(seed) " +
+            "end " +
+            "redis.call('pexpire', KEYS[2], ARGV[3]) " +
+            "return token", Long.class);
+
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end",
+            Long.class);
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+
+    private static final long MIN_RETRY_MILLIS = 5;
+
+    private static final long MAX_RETRY_MILLIS = 100;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final KeyedLock localLock;
+
+    private final String keyPrefix;
+
+    private final long leaseMillis;
+
+    private final long fenceTtlMillis;
+
+    private final ScheduledExecutorService watchdog;
+
+    /**
+     * 本节点当前持有的锁，用于重入
+     */
+    private final ConcurrentHashMap<String, Handle> held = new ConcurrentHashMap<>();
+
+    private final LongAdder redisAcquireCount = new LongAdder();
+
+    private final LongAdder reentrantCount = new LongAdder();
+
+    private final LongAdder leaseLostCount = new LongAdder();
+
+    private volatile boolean closed;
+
+    public DistributedKeyedLock(StringRedisTemplate redisTemplate) {
+        this(redisTemplate, new WeakRefHashLock(), DEFAULT_KEY_PREFIX, DEFAULT_LEASE_MILLIS);
+    }
+
+    /**
+     * @param redisTemplate redis
+     * @param localLock     本地锁，可以使用 {@link WeakRefHashLock} 或 {@link StripedLock}
+     * @param keyPrefix     redis key 前缀
+     * @param leaseMillis   租约时间（毫秒）
+     */
+    public DistributedKeyedLock(StringRedisTemplate redisTemplate, KeyedLock localLock, String keyPrefix, long leaseMillis) {
+        if (leaseMillis < 300) {
+            throw new IllegalArgumentException("leaseMillis must be at least 300");
+        }
+        this.redisTemplate = redisTemplate;
+        this.localLock = localLock;
+        this.keyPrefix = keyPrefix;
+        this.leaseMillis = leaseMillis;
+        this.fenceTtlMillis = Math.max(MIN_FENCE_TTL_MILLIS, leaseMillis * 100);
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "distributed-lock-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 加锁，一直等待直到成功
+     *
+     * @param key key
+     * @return 锁句柄
+     */
+    public Handle lock(String key) {
+        Handle handle = tryLock(key, Long.MAX_VALUE);
+        if (handle == null) {
+            throw new IllegalStateException("failed to acquire lock, key=" + key);
+        }
+        return handle;
+    }
+
+    /**
+     * 尝试加锁
+     *
+     * @param key        key
+     * @param waitMillis 最长等待时间（毫秒），包括本地排队和 Redis 抢占的时间
+     * @return 锁句柄，超时或被中断返回null
+     * @throws IllegalStateException 已经调用过 {@link #close()}
+     */
+    public Handle tryLock(String key, long waitMillis) {
+        if (closed) {
+            throw new IllegalStateException("distributed lock is closed, key=" + key);
+        }
+        long deadline = waitMillis == Long.MAX_VALUE ? Long.MAX_VALUE : System.currentTimeMillis() + waitMillis;
+        Handle handle = held.get(key);
+        if (handle != null && handle.thread == Thread.currentThread()) {
+            handle.holdCount++;
+            reentrantCount.increment();
+            return handle;
+        }
+        Lock local = localLock.lock(key);
+        try {
+            if (!local.tryLock(waitMillis, TimeUnit.MILLISECONDS)) {
+                return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        boolean acquired = false;
+        try {
+            handle = acquireLease(key, local, deadline);
+            if (handle != null) {
+                held.put(key, handle);
+                acquired = true;
+            }
+            return handle;
+        } finally {
+            if (!acquired) {
+                local.unlock();
+            }
+        }
+    }
+
+    /**
+     * 从 Redis 抢占租约的次数，与加锁次数的比值即本地排队节省的比例
+     */
+    public long getRedisAcquireCount() {
+        return redisAcquireCount.sum();
+    }
+
+    /**
+     * fencing token 计数器的存活时间，远大于租约时间，每次抢到租约时续期
+     */
+    public long getFenceTtlMillis() {
+        return fenceTtlMillis;
+    }
+
+    public long getReentrantCount() {
+        return reentrantCount.sum();
+    }
+
+    /**
+     * 持有期间续期失败（租约丢失）的次数
+     */
+    public long getLeaseLostCount() {
+        return leaseLostCount.sum();
+    }
+
+    /**
+     * 停止看门狗并拒绝新的加锁请求，已持有的锁将在租约到期后自动释放
+     */
+    @Override
+    public void close() {
+        closed = true;
+        watchdog.shutdownNow();
+    }
+
+    private Handle acquireLease(String key, Lock local, long deadline) {
+        String lockKey = keyPrefix + "{" + key + "}";
+        String fenceKey = lockKey + ":fence";
+        String owner = UUID.randomUUID().toString();
+        long retryMillis = MIN_RETRY_MILLIS;
+        while (true) {
+            if (closed) {
+                throw new IllegalStateException("distributed lock is closed, key=" + key);
+            }
+            redisAcquireCount.increment();
+            long requestAt = System.currentTimeMillis();
+            Long token = redisTemplate.execute(ACQUIRE_SCRIPT, Arrays.asList(lockKey, fenceKey),
+                    owner, String.valueOf(leaseMillis), String.valueOf(fenceTtlMillis));
+            if (token != null && token > 0) {
+                Handle handle = new Handle(key, lockKey, owner, token, local, requestAt);
+                long period = leaseMillis / 3;
+                try {
+                    handle.renewal = watchdog.scheduleWithFixedDelay(() -> renew(handle), period, period,
+                            TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // 加锁期间被关闭，归还刚抢到的租约
+                    redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(lockKey), owner);
+                    throw new IllegalStateException("distributed lock is closed, key=" + key, e);
+                }
+                return handle;
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return null;
+            }
+            try {
+                // 退避加随机抖动，避免多个节点同时重试
+                long sleep = Math.min(remaining, retryMillis + ThreadLocalRandom.current().nextLong(retryMillis));
+                TimeUnit.MILLISECONDS.sleep(sleep);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            retryMillis = Math.min(MAX_RETRY_MILLIS, retryMillis * 2);
+        }
+    }
+
+    private void renew(Handle handle) {
+        try {
+            long requestAt = System.currentTimeMillis();
+            Long renewed = redisTemplate.execute(RENEW_SCRIPT, Collections.singletonList(handle.lockKey),
+                    handle.owner, String.valueOf(leaseMillis));
+            if (renewed != null && renewed > 0) {
+                handle.lastRenewAt = requestAt;
+                return;
+            }
+            handle.valid = false;
+            leaseLostCount.increment();
+            handle.renewal.cancel(false);
+            log.error("distributed lock lease lost, key={}, fencingToken={}", handle.key, handle.fencingToken);
+        } catch (Exception e) {
+            log.warn("failed to renew distributed lock, key={}, fencingToken={}", handle.key, handle.fencingToken, e);
+        }
+    }
+
+    private void release(Handle handle) {
+        held.remove(handle.key, handle);
+        handle.renewal.cancel(false);
+        try {
+            if (handle.valid) {
+                redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(handle.lockKey), handle.owner);
+            }
+        } catch (Exception e) {
+            log.warn("failed to release distributed lock, it will expire in {}ms, key={}", leaseMillis, handle.key, e);
+        } finally {
+            handle.valid = false;
+            handle.local.unlock();
+        }
+    }
+
+    /**
+     * 锁句柄，可以配合 try-with-resources 使用
+     */
+    public final class Handle implements AutoCloseable {
+
+        private final String key;
+
+        private final String lockKey;
+
+        private final String owner;
+
+        private final long fencingToken;
+
+        private final Lock local;
+
+        private final Thread thread = Thread.currentThread();
+
+        private volatile ScheduledFuture<?> renewal;
+
+        private volatile boolean valid = true;
+
+        /**
+         * 最后一次抢占或续期成功的请求发出时间，Redis 上的过期时间只会比它加租约时间更晚
+         */
+        private volatile long lastRenewAt;
+
+        /**
+         * 重入次数，只会被持有锁的线程修改
+         */
+        private int holdCount = 1;
+
+        private Handle(String key, String lockKey, String owner, long fencingToken, Lock local, long lastRenewAt) {
+            this.key = key;
+            this.lockKey = lockKey;
+            this.owner = owner;
+            this.fencingToken = fencingToken;
+            this.local = local;
+            this.lastRenewAt = lastRenewAt;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * 单调递增的 fencing token，写下游时携带，下游拒绝更小的 token
+         */
+        public long getFencingToken() {
+            return fencingToken;
+        }
+
+        /**
+         * 租约是否仍然有效，租约丢失、已释放或距离最后一次续期成功超过租约时间时返回false
+         */
+        public boolean isValid() {
+            return valid && System.currentTimeMillis() - lastRenewAt < leaseMillis;
+        }
+
+        /**
+         * 释放锁，重入时需要释放相同的次数
+         */
+        public void unlock() {
+            if (thread != Thread.currentThread()) {
+                throw new IllegalMonitorStateException("lock must be released by the thread that acquired it, key=" + key);
+            }
+            if (holdCount <= 0) {
+                return;
+            }
+            if (--holdCount == 0) {
+                release(this);
+            }
+        }
+
+        @Override
+        public void close() {
+            unlock();
+        }
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.magictool.web.util.lock;
+
+import java.util.concurrent.locks.Lock;
+
+/**
+ * 按 key 获取锁
+ * <ul>
+ *     <li>{@link WeakRefHashLock}：每个 key 一把锁，互不影响，但每个 key 都会创建锁对象，依赖 GC 回收</li>
+ *     <li>{@link StripedLock}：固定数量的锁，key 按哈希映射到其中一把，内存固定且不分配对象，不同 key 可能共用同一把锁</li>
+ * </ul>
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public interface KeyedLock {
+
+    /**
+     * 获取 key 对应的 lock，相同的 key 总是返回同一把锁
+     *
+     * @param key key
+     * @return lock，需要调用方自己加锁和释放
+     */
+    Lock lock(Object key);
+
+}
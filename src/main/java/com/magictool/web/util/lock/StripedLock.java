@@ -0,0 +1,83 @@
+package com.magictool.web.util.lock;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 分段锁：固定数量的 {@link ReentrantLock}，key 经过扰动哈希后映射到其中一把
+ * <p>
+ * 与 {@link WeakRefHashLock} 相比，不随 key 的数量增长，也不依赖 GC；代价是不同 key 可能映射到同一把锁，
+ * 锁的数量越多冲突越少。同时持有多个 key 的锁时需要注意加锁顺序，可以按 {@link #indexOf(Object)} 排序后加锁避免死锁。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public class StripedLock implements KeyedLock {
+
+    private static final int MAX_STRIPES = 1 << 16;
+
+    private final ReentrantLock[] locks;
+
+    private final int mask;
+
+    /**
+     * @param stripes 锁的数量，会向上取整为2的幂
+     */
+    public StripedLock(int stripes) {
+        this(stripes, false);
+    }
+
+    /**
+     * @param stripes 锁的数量，会向上取整为2的幂
+     * @param fair    是否公平锁
+     */
+    public StripedLock(int stripes, boolean fair) {
+        int size = stripeCount(stripes);
+        this.locks = new ReentrantLock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock(fair);
+        }
+    }
+
+    @Override
+    public Lock lock(Object key) {
+        return locks[indexFor(key, mask)];
+    }
+
+    /**
+     * key 对应的锁下标，同时锁多个 key 时按下标从小到大加锁
+     */
+    public int indexOf(Object key) {
+        return indexFor(key, mask);
+    }
+
+    /**
+     * 锁的数量
+     */
+    public int size() {
+        return locks.length;
+    }
+
+    static int stripeCount(int stripes) {
+        if (stripes <= 0 || stripes > MAX_STRIPES) {
+            throw new IllegalArgumentException("stripes must be between 1 and " + MAX_STRIPES);
+        }
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    /**
+     * 扰动哈希，把高位混入低位，避免 hashCode 低位相同的 key 集中在少数几把锁上
+     */
+    static int indexFor(Object key, int mask) {
+        int h = key.hashCode();
+        h ^= (h >>> 20) ^ (h >>> 12);
+        h ^= (h >>> 7) ^ (h >>> 4);
+        return h & mask;
+    }
+
+}
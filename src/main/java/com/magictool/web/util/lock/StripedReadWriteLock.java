@@ -0,0 +1,78 @@
+package com.magictool.web.util.lock;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 读写分段锁：固定数量的 {@link ReentrantReadWriteLock}，读多写少的场景下同一 key 的读操作可以并发
+ * <p>
+ * 映射规则与 {@link StripedLock} 相同，{@link #lock(Object)} 返回写锁。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public class StripedReadWriteLock implements KeyedLock {
+
+    private final ReentrantReadWriteLock[] locks;
+
+    private final int mask;
+
+    /**
+     * @param stripes 锁的数量，会向上取整为2的幂
+     */
+    public StripedReadWriteLock(int stripes) {
+        this(stripes, false);
+    }
+
+    /**
+     * @param stripes 锁的数量，会向上取整为2的幂
+     * @param fair    是否公平锁
+     */
+    public StripedReadWriteLock(int stripes, boolean fair) {
+        int size = StripedLock.stripeCount(stripes);
+        this.locks = new ReentrantReadWriteLock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantReadWriteLock(fair);
+        }
+    }
+
+    /**
+     * 获取 key 对应的写锁
+     */
+    @Override
+    public Lock lock(Object key) {
+        return writeLock(key);
+    }
+
+    /**
+     * 获取 key 对应的读写锁
+     */
+    public ReadWriteLock readWriteLock(Object key) {
+        return locks[StripedLock.indexFor(key, mask)];
+    }
+
+    public Lock readLock(Object key) {
+        return locks[StripedLock.indexFor(key, mask)].readLock();
+    }
+
+    public Lock writeLock(Object key) {
+        return locks[StripedLock.indexFor(key, mask)].writeLock();
+    }
+
+    /**
+     * key 对应的锁下标，同时锁多个 key 时按下标从小到大加锁
+     */
+    public int indexOf(Object key) {
+        return StripedLock.indexFor(key, mask);
+    }
+
+    /**
+     * 锁的数量
+     */
+    public int size() {
+        return locks.length;
+    }
+
+}
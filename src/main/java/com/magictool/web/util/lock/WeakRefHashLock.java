@@ -12,7 +12,7 @@ import java.util.concurrent.locks.ReentrantLock;
  * @Author ljf
  * @Date 2022/9/23
  */
-public class WeakRefHashLock {
+public class WeakRefHashLock implements KeyedLock {
 
     /**
      * 存储 key 对应 锁 的弱引用
@@ -27,6 +27,7 @@ public class WeakRefHashLock {
     /**
      * 获取 key 对应的 lock
      */
+    @Override
     public Lock lock(Object key){
 
         if (lockMap.size() > 1000){
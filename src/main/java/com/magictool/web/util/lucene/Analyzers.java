@@ -0,0 +1,72 @@
+package com.magictool.web.util.lucene;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.cn.smart.SmartChineseAnalyzer;
+import org.apache.lucene.analysis.core.SimpleAnalyzer;
+import org.apache.lucene.analysis.core.WhitespaceAnalyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 共享的分词器
+ * <p>
+ * Analyzer 是线程安全的，内部按线程复用分词组件，每次 new 一个会丢掉这些缓存，
+ * SmartChineseAnalyzer 还要加载词典和停用词。这里每种分词器只创建一次，写索引和查询共用，
+ * 同一个字段写入和查询必须使用同一种分词器。共享的分词器不能关闭。
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+public final class Analyzers {
+
+    public enum Type {
+
+        /**
+         * 按非字母切分并转小写，原有默认的分词方式
+         */
+        SIMPLE,
+
+        /**
+         * 按 Unicode 文本切分规则分词，中文按单字切分
+         */
+        STANDARD,
+
+        /**
+         * 按空白切分，不转小写
+         */
+        WHITESPACE,
+
+        /**
+         * 中文智能分词（基于隐马尔可夫模型和词典）
+         */
+        SMART_CHINESE
+    }
+
+    private static final Map<Type, Analyzer> ANALYZERS = new ConcurrentHashMap<>();
+
+    private Analyzers() {
+    }
+
+    /**
+     * 获取共享的分词器，第一次使用时创建
+     */
+    public static Analyzer get(Type type) {
+        return ANALYZERS.computeIfAbsent(type, Analyzers::create);
+    }
+
+    private static Analyzer create(Type type) {
+        switch (type) {
+            case STANDARD:
+                return new StandardAnalyzer();
+            case WHITESPACE:
+                return new WhitespaceAnalyzer();
+            case SMART_CHINESE:
+                return new SmartChineseAnalyzer();
+            default:
+                return new SimpleAnalyzer();
+        }
+    }
+
+}
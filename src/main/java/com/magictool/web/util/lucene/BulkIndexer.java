@@ -0,0 +1,382 @@
+package com.magictool.web.util.lucene;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.Term;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 批量并行写索引
+ * <p>
+ * 调用方线程把文档放入有界队列（队列满时阻塞，起到限流作用），N 个写索引线程共享 {@link LuceneIndexManager} 的
+ * {@link IndexWriter} 并发写入。IndexWriter 本身是线程安全的，每个线程有独立的内存段，
+ * RAM 缓冲区越大落盘的段越少、合并越少，重建索引时建议 256MB 以上。
+ * <p>
+ * 带 ID 的文档使用 updateDocument（先按 ID 删除再添加），重复导入不会产生重复文档；
+ * 后台按固定间隔提交，{@link #close()} 时写完队列中剩余的文档并最后提交一次，然后恢复原来的 RAM 缓冲区大小。
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+@Slf4j
+public class BulkIndexer implements Closeable {
+
+    public static final double DEFAULT_RAM_BUFFER_MB = 256.0D;
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+
+    public static final long DEFAULT_COMMIT_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * 每次从队列中最多取出的操作数
+     */
+    private static final int DRAIN_BATCH_SIZE = 256;
+
+    /**
+     * 队列为空时写索引线程检查是否已关闭的间隔
+     */
+    private static final long POLL_MILLIS = 100;
+
+    private final LuceneIndexManager indexManager;
+
+    private final IndexWriter indexWriter;
+
+    /**
+     * 修改前的 RAM 缓冲区大小，没有修改时为0
+     */
+    private final double previousRamBufferMb;
+
+    private final String idField;
+
+    private final BlockingQueue<Operation> queue;
+
+    private final List<Thread> workers;
+
+    private final ScheduledExecutorService committer;
+
+    private final Object idle = new Object();
+
+    /**
+     * 已提交但还没处理完的操作数
+     */
+    private final AtomicLong pending = new AtomicLong();
+
+    private final AtomicInteger runningWorkers = new AtomicInteger();
+
+    private final LongAdder submitted = new LongAdder();
+
+    private final LongAdder indexed = new LongAdder();
+
+    private final LongAdder deleted = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private final LongAdder commits = new LongAdder();
+
+    private final long startTime = System.currentTimeMillis();
+
+    private volatile boolean closed;
+
+    /**
+     * 使用 CPU 核数的写索引线程和默认参数
+     *
+     * @param indexManager 索引管理器
+     * @param idField      文档ID字段，用于 updateDocument 和删除，需要使用不分词的 StringField
+     */
+    public BulkIndexer(LuceneIndexManager indexManager, String idField) {
+        this(indexManager, idField, Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY,
+                DEFAULT_RAM_BUFFER_MB, DEFAULT_COMMIT_INTERVAL_MILLIS);
+    }
+
+    /**
+     * @param indexManager         索引管理器
+     * @param idField              文档ID字段
+     * @param threads              写索引线程数
+     * @param queueCapacity        队列容量
+     * @param ramBufferMb          IndexWriter 的 RAM 缓冲区大小（MB），小于等于0时不修改
+     * @param commitIntervalMillis 自动提交间隔（毫秒），小于等于0时不自动提交
+     */
+    public BulkIndexer(LuceneIndexManager indexManager, String idField, int threads, int queueCapacity,
+                       double ramBufferMb, long commitIntervalMillis) {
+        if (threads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("threads and queueCapacity must be greater than 0");
+        }
+        this.indexManager = indexManager;
+        this.indexWriter = indexManager.getIndexWriter();
+        this.idField = idField;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        if (ramBufferMb > 0) {
+            // IndexWriter 由 LuceneIndexManager 共享，关闭时改回去，避免日常写入一直占用批量导入的缓冲区
+            this.previousRamBufferMb = indexWriter.getConfig().getRAMBufferSizeMB();
+            indexWriter.getConfig().setRAMBufferSizeMB(ramBufferMb);
+        } else {
+            this.previousRamBufferMb = 0;
+        }
+        this.workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(this::work, "lucene-bulk-indexer-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+        runningWorkers.set(threads);
+        workers.forEach(Thread::start);
+        if (commitIntervalMillis > 0) {
+            this.committer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "lucene-bulk-indexer-commit");
+                thread.setDaemon(true);
+                return thread;
+            });
+            committer.scheduleWithFixedDelay(this::commitQuietly, commitIntervalMillis, commitIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.committer = null;
+        }
+    }
+
+    /**
+     * 添加文档，不检查是否重复，队列满时阻塞
+     */
+    public void add(Document document) throws InterruptedException {
+        submit(new Operation(null, document));
+    }
+
+    /**
+     * 按ID更新文档，ID不存在时相当于添加，队列满时阻塞
+     */
+    public void update(String id, Document document) throws InterruptedException {
+        submit(new Operation(new Term(idField, id), document));
+    }
+
+    /**
+     * 按ID删除文档，队列满时阻塞
+     */
+    public void delete(String id) throws InterruptedException {
+        submit(new Operation(new Term(idField, id), null));
+    }
+
+    /**
+     * 等待已提交的操作全部写入 IndexWriter（不提交）
+     */
+    public void flush() throws InterruptedException {
+        synchronized (idle) {
+            while (pending.get() > 0 && runningWorkers.get() > 0) {
+                idle.wait(100);
+            }
+        }
+    }
+
+    /**
+     * 等待已提交的操作全部写入后提交
+     */
+    public void commit() throws InterruptedException {
+        flush();
+        commitQuietly();
+    }
+
+    /**
+     * 已提交的操作数
+     */
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    /**
+     * 已写入的文档数（添加和更新）
+     */
+    public long getIndexed() {
+        return indexed.sum();
+    }
+
+    public long getDeleted() {
+        return deleted.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getCommits() {
+        return commits.sum();
+    }
+
+    /**
+     * 队列中等待处理的操作数
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * 从创建到现在的平均写入速度（文档/秒）
+     */
+    public double getDocsPerSecond() {
+        long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+        return indexed.sum() * 1000.0D / elapsed;
+    }
+
+    /**
+     * 写完队列中剩余的操作，停止写索引线程并提交，恢复 RAM 缓冲区大小，不关闭 {@link LuceneIndexManager}
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            // 写索引线程在队列取空后退出
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            // 关闭前已经通过检查的提交可能在写索引线程退出后才放入队列，由关闭线程写完
+            drainRemaining();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("[420.bulk index]: interrupted while closing, pending={}", pending.get());
+        }
+        if (committer != null) {
+            // 不能中断正在提交的线程，Lucene 的文件通道被中断后 IndexWriter 会直接关闭
+            committer.shutdown();
+            try {
+                committer.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        commitQuietly();
+        if (previousRamBufferMb > 0) {
+            indexWriter.getConfig().setRAMBufferSizeMB(previousRamBufferMb);
+        }
+        log.info("bulk indexing finished, indexed={}, deleted={}, failed={}, docsPerSecond={}", indexed.sum(),
+                deleted.sum(), failed.sum(), String.format("%.1f", getDocsPerSecond()));
+    }
+
+    private void submit(Operation operation) throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("bulk indexer is closed");
+        }
+        pending.incrementAndGet();
+        submitted.increment();
+        try {
+            queue.put(operation);
+        } catch (InterruptedException e) {
+            done(1);
+            throw e;
+        }
+    }
+
+    private void work() {
+        List<Operation> batch = new ArrayList<>(DRAIN_BATCH_SIZE);
+        try {
+            while (true) {
+                Operation first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (closed) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, DRAIN_BATCH_SIZE - 1);
+                applyAll(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            runningWorkers.decrementAndGet();
+            synchronized (idle) {
+                idle.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 写完所有已提交的操作，包括正在阻塞放入队列的
+     */
+    private void drainRemaining() throws InterruptedException {
+        List<Operation> batch = new ArrayList<>(DRAIN_BATCH_SIZE);
+        while (pending.get() > 0) {
+            Operation first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            if (first != null) {
+                batch.add(first);
+                queue.drainTo(batch, DRAIN_BATCH_SIZE - 1);
+                applyAll(batch);
+            }
+        }
+    }
+
+    private void applyAll(List<Operation> batch) {
+        for (Operation operation : batch) {
+            apply(operation);
+        }
+        done(batch.size());
+        batch.clear();
+    }
+
+    private void apply(Operation operation) {
+        try {
+            if (operation.document == null) {
+                indexWriter.deleteDocuments(operation.id);
+                deleted.increment();
+            } else if (operation.id == null) {
+                indexWriter.addDocument(operation.document);
+                indexed.increment();
+            } else {
+                indexWriter.updateDocument(operation.id, operation.document);
+                indexed.increment();
+            }
+        } catch (Exception e) {
+            failed.increment();
+            log.warn("[420.bulk index]: error={}, id={}", e, operation.id);
+        }
+    }
+
+    private void done(int count) {
+        if (count > 0 && pending.addAndGet(-count) == 0) {
+            synchronized (idle) {
+                idle.notifyAll();
+            }
+        }
+    }
+
+    private void commitQuietly() {
+        try {
+            indexManager.commit();
+            commits.increment();
+            log.debug("bulk indexer committed, indexed={}, queue={}", indexed.sum(), queue.size());
+        } catch (Exception e) {
+            log.warn("[421.bulk commit]: error={}", e.toString());
+        }
+    }
+
+    private static final class Operation {
+
+        /**
+         * ID 词条，添加时为null
+         */
+        private final Term id;
+
+        /**
+         * 文档，删除时为null
+         */
+        private final Document document;
+
+        private Operation(Term id, Document document) {
+            this.id = id;
+            this.document = document;
+        }
+    }
+
+}
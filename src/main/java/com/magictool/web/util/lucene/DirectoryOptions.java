@@ -0,0 +1,76 @@
+package com.magictool.web.util.lucene;
+
+import lombok.Data;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * 索引目录配置
+ * <ul>
+ *     <li>RAM：堆内存（{@link org.apache.lucene.store.RAMDirectory}），默认值，重启后索引丢失，大索引 GC 压力大</li>
+ *     <li>MMAP：内存映射文件，索引在堆外，由操作系统页缓存管理，path 放在 tmpfs 上可以得到接近内存的速度</li>
+ *     <li>NIOFS：使用 FileChannel 按位置读，不占用虚拟地址空间，适合 32 位环境或虚拟内存受限的场景</li>
+ *     <li>FS：由 Lucene 按平台自动选择，64 位 JVM 上就是 MMAP</li>
+ * </ul>
+ * 磁盘目录可以再包一层 NRTCachingDirectory，刚刷新出来的小段先放在内存中，减少近实时刷新的磁盘 IO。
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+@Data
+public class DirectoryOptions {
+
+    public enum Type {
+        RAM, MMAP, NIOFS, FS
+    }
+
+    private Type type = Type.RAM;
+
+    /**
+     * 索引目录路径，type 不是 RAM 时必填
+     */
+    private String path;
+
+    /**
+     * 是否包一层 NRTCachingDirectory
+     */
+    private boolean nrtCaching = true;
+
+    /**
+     * 小于该大小（MB）的新段缓存在内存中
+     */
+    private double nrtMaxMergeSizeMb = 5.0D;
+
+    /**
+     * 内存中缓存的新段总大小上限（MB）
+     */
+    private double nrtMaxCachedMb = 60.0D;
+
+    /**
+     * MMAP 打开文件时是否预读到页缓存
+     */
+    private boolean preload;
+
+    /**
+     * 快照目录：索引目录为空时从快照恢复，{@link LuceneIndexManager#snapshot(String)} 写入快照，
+     * 内存目录配置后同样在启动时恢复、退出时保存
+     */
+    private String snapshotPath;
+
+    /**
+     * 从系统属性读取配置，属性名与 Spring 配置相同：
+     * magic.lucene.directory、magic.lucene.path、magic.lucene.nrt-caching、magic.lucene.preload、magic.lucene.snapshot-path
+     */
+    public static DirectoryOptions fromSystemProperties() {
+        DirectoryOptions options = new DirectoryOptions();
+        String type = System.getProperty("magic.lucene.directory");
+        if (StringUtils.isNotBlank(type)) {
+            options.setType(Type.valueOf(type.trim().toUpperCase()));
+        }
+        options.setPath(System.getProperty("magic.lucene.path"));
+        options.setNrtCaching(Boolean.parseBoolean(System.getProperty("magic.lucene.nrt-caching", "true")));
+        options.setPreload(Boolean.parseBoolean(System.getProperty("magic.lucene.preload", "false")));
+        options.setSnapshotPath(System.getProperty("magic.lucene.snapshot-path"));
+        return options;
+    }
+
+}
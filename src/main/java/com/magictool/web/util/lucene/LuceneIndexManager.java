@@ -0,0 +1,325 @@
+package com.magictool.web.util.lucene;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.index.IndexCommit;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.KeepOnlyLastCommitDeletionPolicy;
+import org.apache.lucene.index.SnapshotDeletionPolicy;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lucene 索引管理器：一个目录对应一个长期存活的 {@link IndexWriter} 和一个 {@link SearcherManager}
+ * <p>
+ * 查询从 {@link SearcherManager} 借用共享的 {@link IndexSearcher}，用完归还，不再每次查询都打开新的 reader；
+ * 后台 {@link ControlledRealTimeReopenThread} 定期从 writer 打开近实时（NRT）reader，写入不需要 commit 就能被查到。
+ * 需要“写入后立即可见”时，用写入方法返回的序号调用 {@link #waitForGeneration(long)}。
+ * <p>
+ * 同一个目录只能有一个 writer，通过管理器写入时不要再用 {@link LuceneUtil#buildIndexWriter(Directory)} 另外打开，
+ * 也不要关闭 {@link #getIndexWriter()} 返回的 writer。
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+@Slf4j
+public class LuceneIndexManager implements Closeable {
+
+    /**
+     * 后台刷新的默认最大间隔（秒），没有线程等待时按这个间隔打开新的 reader
+     */
+    public static final double DEFAULT_TARGET_MAX_STALE_SEC = 1.0D;
+
+    /**
+     * 有线程调用 waitForGeneration 等待时的最小刷新间隔（秒）
+     */
+    public static final double DEFAULT_TARGET_MIN_STALE_SEC = 0.025D;
+
+    private static final Map<IndexWriter, LuceneIndexManager> OWNERS = new ConcurrentHashMap<>();
+
+    private final Directory directory;
+
+    private final IndexWriter indexWriter;
+
+    private final SnapshotDeletionPolicy snapshotPolicy;
+
+    private final SearcherManager searcherManager;
+
+    private final ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+
+    private volatile boolean closed;
+
+    public LuceneIndexManager(Directory directory) {
+        this(directory, Analyzers.get(Analyzers.Type.SIMPLE), new SearcherFactory(), DEFAULT_TARGET_MAX_STALE_SEC, DEFAULT_TARGET_MIN_STALE_SEC);
+    }
+
+    /**
+     * @param directory         索引目录
+     * @param analyzer          写入时使用的分词器
+     * @param searcherFactory   创建 IndexSearcher 的工厂，每次打开新的 reader 时调用
+     * @param targetMaxStaleSec 后台刷新的最大间隔（秒）
+     * @param targetMinStaleSec 有线程等待时的最小刷新间隔（秒）
+     */
+    public LuceneIndexManager(Directory directory, Analyzer analyzer, SearcherFactory searcherFactory,
+                              double targetMaxStaleSec, double targetMinStaleSec) {
+        this.directory = directory;
+        this.snapshotPolicy = new SnapshotDeletionPolicy(new KeepOnlyLastCommitDeletionPolicy());
+        try {
+            IndexWriterConfig config = new IndexWriterConfig(analyzer);
+            config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+            config.setCommitOnClose(true);
+            // 生成快照期间保留被引用的提交点，不影响写入
+            config.setIndexDeletionPolicy(snapshotPolicy);
+            this.indexWriter = new IndexWriter(directory, config);
+            this.searcherManager = new SearcherManager(indexWriter, true, true, searcherFactory);
+        } catch (IOException e) {
+            throw new IllegalStateException("failed to open index, directory=" + directory, e);
+        }
+        this.reopenThread = new ControlledRealTimeReopenThread<>(indexWriter, searcherManager, targetMaxStaleSec,
+                targetMinStaleSec);
+        reopenThread.setName("lucene-nrt-reopen");
+        reopenThread.setDaemon(true);
+        reopenThread.start();
+        OWNERS.put(indexWriter, this);
+    }
+
+    /**
+     * 查找 writer 所属的管理器
+     *
+     * @param indexWriter 写入索引对象
+     * @return 管理器，writer 不是管理器创建的返回null
+     */
+    public static LuceneIndexManager ownerOf(IndexWriter indexWriter) {
+        return indexWriter == null ? null : OWNERS.get(indexWriter);
+    }
+
+    /**
+     * 借用 searcher，必须在 finally 中调用 {@link #release(IndexSearcher)} 归还
+     */
+    public IndexSearcher acquire() throws IOException {
+        return searcherManager.acquire();
+    }
+
+    /**
+     * 归还 searcher
+     */
+    public void release(IndexSearcher searcher) {
+        if (searcher == null) {
+            return;
+        }
+        try {
+            searcherManager.release(searcher);
+        } catch (IOException e) {
+            log.warn("[405.release searcher]: error={}, directory={}", e, directory);
+        }
+    }
+
+    /**
+     * 借用 searcher 执行查询并自动归还，回调中读取的文档编号只在本次回调内有效
+     *
+     * @param callback 查询逻辑
+     * @return 回调的返回值
+     */
+    public <R> R search(SearcherCallback<R> callback) throws IOException {
+        IndexSearcher searcher = acquire();
+        try {
+            return callback.doWithSearcher(searcher);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    /**
+     * 添加文档
+     *
+     * @return 本次操作的序号，可以传给 {@link #waitForGeneration(long)}
+     */
+    public long addDocument(Iterable<? extends IndexableField> document) throws IOException {
+        return indexWriter.addDocument(document);
+    }
+
+    /**
+     * 按词条更新文档（先删除再添加）
+     *
+     * @return 本次操作的序号
+     */
+    public long updateDocument(Term term, Iterable<? extends IndexableField> document) throws IOException {
+        return indexWriter.updateDocument(term, document);
+    }
+
+    /**
+     * 按词条删除文档
+     *
+     * @return 本次操作的序号
+     */
+    public long deleteDocuments(Term... terms) throws IOException {
+        return indexWriter.deleteDocuments(terms);
+    }
+
+    /**
+     * 按查询删除文档
+     *
+     * @return 本次操作的序号
+     */
+    public long deleteDocuments(Query... queries) throws IOException {
+        return indexWriter.deleteDocuments(queries);
+    }
+
+    /**
+     * 等待指定序号的写入对查询可见
+     *
+     * @param generation 写入方法返回的序号
+     */
+    public void waitForGeneration(long generation) throws InterruptedException {
+        reopenThread.waitForGeneration(generation);
+    }
+
+    /**
+     * 立即刷新，让之前的写入对后续查询可见
+     */
+    public void refresh() throws IOException {
+        searcherManager.maybeRefreshBlocking();
+    }
+
+    /**
+     * 提交到目录（持久化）并刷新
+     */
+    public void commit() throws IOException {
+        indexWriter.commit();
+        searcherManager.maybeRefresh();
+    }
+
+    /**
+     * 提交后把当前提交点复制到快照目录，下次启动时可以用 {@link LuceneUtil#restoreSnapshot(Directory, String)} 恢复
+     * <p>
+     * 索引文件写入后不再修改，快照目录中校验和相同的文件直接复用，只复制新增的段；
+     * 先复制新文件再删除旧文件，复制中途失败时快照目录仍是上一个完整的提交点。
+     *
+     * @param snapshotPath 快照目录
+     */
+    public synchronized void snapshot(String snapshotPath) throws IOException {
+        indexWriter.commit();
+        IndexCommit commit = snapshotPolicy.snapshot();
+        try (Directory target = FSDirectory.open(Paths.get(snapshotPath))) {
+            long start = System.currentTimeMillis();
+            Collection<String> files = commit.getFileNames();
+            Set<String> existing = new HashSet<>(Arrays.asList(target.listAll()));
+            String segmentsFile = commit.getSegmentsFileName();
+            List<String> copied = new ArrayList<>();
+            for (String file : files) {
+                if (!file.equals(segmentsFile) && copyIfChanged(target, existing, file)) {
+                    copied.add(file);
+                }
+            }
+            target.sync(copied);
+            // segments_N 最后复制，之前的文件都落盘后这个提交点才可见
+            if (copyIfChanged(target, existing, segmentsFile)) {
+                target.sync(Collections.singletonList(segmentsFile));
+                copied.add(segmentsFile);
+            }
+            target.syncMetaData();
+            for (String file : existing) {
+                if (!files.contains(file) && !IndexWriter.WRITE_LOCK_NAME.equals(file)) {
+                    target.deleteFile(file);
+                }
+            }
+            log.info("index snapshot saved, path={}, files={}, copied={}, cost={}ms", snapshotPath, files.size(),
+                    copied.size(), System.currentTimeMillis() - start);
+        } finally {
+            snapshotPolicy.release(commit);
+            indexWriter.deleteUnusedFiles();
+        }
+    }
+
+    /**
+     * 共享的 writer，只能用于写入，不要关闭
+     */
+    public IndexWriter getIndexWriter() {
+        return indexWriter;
+    }
+
+    public SearcherManager getSearcherManager() {
+        return searcherManager;
+    }
+
+    public Directory getDirectory() {
+        return directory;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * 停止刷新线程，关闭 searcher 和 writer（关闭前提交）
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        OWNERS.remove(indexWriter);
+        reopenThread.close();
+        try {
+            searcherManager.close();
+        } catch (IOException e) {
+            log.warn("[406.close searcherManager]: error={}, directory={}", e, directory);
+        }
+        LuceneUtil.close(indexWriter);
+    }
+
+    private boolean copyIfChanged(Directory target, Set<String> existing, String file) throws IOException {
+        if (existing.contains(file)) {
+            if (checksum(target, file) == checksum(directory, file)) {
+                return false;
+            }
+            target.deleteFile(file);
+        }
+        target.copyFrom(directory, file, file, IOContext.READONCE);
+        return true;
+    }
+
+    private static long checksum(Directory directory, String file) {
+        try (IndexInput input = directory.openInput(file, IOContext.READONCE)) {
+            return CodecUtil.retrieveChecksum(input);
+        } catch (IOException e) {
+            // 文件不完整（上次复制中断）时校验和读取失败，按不同处理
+            return -1;
+        }
+    }
+
+    /**
+     * 查询回调
+     */
+    @FunctionalInterface
+    public interface SearcherCallback<R> {
+
+        R doWithSearcher(IndexSearcher searcher) throws IOException;
+    }
+
+}
@@ -2,10 +2,14 @@ package com.magictool.web.util.lucene;
 
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import com.magictool.web.constants.SingletonLucene;
+import com.magictool.web.util.lucene.highlight.SearchHighlighter;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.lucene.analysis.core.SimpleAnalyzer;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
@@ -21,6 +25,10 @@ import org.apache.lucene.search.highlight.SimpleFragmenter;
 import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.apache.lucene.store.NRTCachingDirectory;
 import org.apache.lucene.store.RAMDirectory;
 
 /**
@@ -51,8 +59,114 @@ public class LuceneUtil {
         return new RAMDirectory();
     }
 
+    /**
+     * 创建存储目录（内存映射文件，索引在堆外）
+     * @param filePath  索引存放的路径，可以放在 tmpfs 上
+     * @param preload   打开文件时是否预读到页缓存
+     */
+    public static Directory buildMMapDirectory(String filePath, boolean preload){
+        try{
+            MMapDirectory directory = new MMapDirectory(Paths.get(filePath));
+            directory.setPreload(preload);
+            return directory;
+        }catch (IOException e){
+            log.warn("[400.build directory]: error={}, path={}", e, filePath);
+        }
+        return null;
+    }
+
+    /**
+     * 创建存储目录（FileChannel 按位置读）
+     * @param filePath  索引存放在磁盘的路径
+     */
+    public static Directory buildNIOFSDirectory(String filePath){
+        try{
+            return new NIOFSDirectory(Paths.get(filePath));
+        }catch (IOException e){
+            log.warn("[400.build directory]: error={}, path={}", e, filePath);
+        }
+        return null;
+    }
+
+    /**
+     * 在目录外包一层近实时缓存，刚刷新出来的小段先放在内存中
+     * @param directory         被包装的目录
+     * @param maxMergeSizeMb    小于该大小的新段缓存在内存中
+     * @param maxCachedMb       缓存总大小上限
+     */
+    public static Directory buildNRTCachingDirectory(Directory directory, double maxMergeSizeMb, double maxCachedMb){
+        return new NRTCachingDirectory(directory, maxMergeSizeMb, maxCachedMb);
+    }
+
+    /**
+     * 按配置创建存储目录，配置了快照目录且索引为空时先从快照恢复（内存目录同样恢复，重启后索引不丢失）
+     * @param options   目录配置
+     */
+    public static Directory buildDirectory(DirectoryOptions options){
+        if (options.getType() == DirectoryOptions.Type.RAM) {
+            Directory directory = buildRAMDirectory();
+            if (StringUtils.isNotBlank(options.getSnapshotPath())) {
+                restoreSnapshot(directory, options.getSnapshotPath());
+            }
+            return directory;
+        }
+        if (StringUtils.isBlank(options.getPath())) {
+            throw new IllegalArgumentException("index path is required for directory type " + options.getType());
+        }
+        Directory directory;
+        switch (options.getType()) {
+            case MMAP:
+                directory = buildMMapDirectory(options.getPath(), options.isPreload());
+                break;
+            case NIOFS:
+                directory = buildNIOFSDirectory(options.getPath());
+                break;
+            default:
+                directory = buildFSDirectory(options.getPath());
+        }
+        if (directory == null) {
+            throw new IllegalStateException("failed to open index directory, path=" + options.getPath());
+        }
+        if (StringUtils.isNotBlank(options.getSnapshotPath())) {
+            restoreSnapshot(directory, options.getSnapshotPath());
+        }
+        return options.isNrtCaching()
+                ? buildNRTCachingDirectory(directory, options.getNrtMaxMergeSizeMb(), options.getNrtMaxCachedMb())
+                : directory;
+    }
+
+    /**
+     * 索引目录为空时从快照目录复制索引文件
+     * @param directory     索引目录
+     * @param snapshotPath  快照目录，由 {@link LuceneIndexManager#snapshot(String)} 生成
+     * @return 是否恢复了快照
+     */
+    public static boolean restoreSnapshot(Directory directory, String snapshotPath){
+        try (Directory snapshot = FSDirectory.open(Paths.get(snapshotPath))) {
+            if (DirectoryReader.indexExists(directory) || !DirectoryReader.indexExists(snapshot)) {
+                return false;
+            }
+            long start = System.currentTimeMillis();
+            List<String> files = new ArrayList<>();
+            for (String file : snapshot.listAll()) {
+                if (!IndexWriter.WRITE_LOCK_NAME.equals(file)) {
+                    directory.copyFrom(snapshot, file, file, IOContext.READONCE);
+                    files.add(file);
+                }
+            }
+            directory.sync(files);
+            log.info("index restored from snapshot, path={}, files={}, cost={}ms", snapshotPath, files.size(),
+                    System.currentTimeMillis() - start);
+            return true;
+        }catch (IOException e){
+            log.warn("[400.restore snapshot]: error={}, snapshotPath={}", e, snapshotPath);
+        }
+        return false;
+    }
+
     /**
      * 创建索引读取工具
+     * 每次调用都会打开新的 reader，只能看到已提交的数据，用完必须关闭；查询请使用 {@link LuceneIndexManager}
      */
     public static IndexReader buildIndexReader(){
         if (SingletonLucene.getDirectory() == null){
@@ -75,14 +189,27 @@ public class LuceneUtil {
         return new IndexSearcher(reader);
     }
 
+    /**
+     * 创建并行搜索对象，按段分组后由线程池并行搜索
+     * @param reader 索引读取对象
+     * @param executor 搜索线程池，为null时顺序搜索
+     */
+    public static IndexSearcher buildIndexSearcher(IndexReader reader, ExecutorService executor){
+        return new ParallelIndexSearcher(reader, executor);
+    }
+
     /**
      * 创建写入索引对象
+     * 单例内存目录返回 {@link SingletonLucene#getIndexManager()} 中共享的 writer，调用 {@link #close(IndexWriter)} 时只提交不关闭
      * @param directory 索引存放目录
      */
     public static IndexWriter buildIndexWriter(Directory directory) {
+        if (directory == SingletonLucene.getDirectory()) {
+            return SingletonLucene.getIndexManager().getIndexWriter();
+        }
         IndexWriter indexWriter = null;
         try {
-            IndexWriterConfig config = new IndexWriterConfig(new SimpleAnalyzer());
+            IndexWriterConfig config = new IndexWriterConfig(Analyzers.get(Analyzers.Type.SIMPLE));
             // 设置索引打开方式
             config.setOpenMode(OpenMode.CREATE_OR_APPEND);
             // 设置关闭之前先提交
@@ -96,9 +223,19 @@ public class LuceneUtil {
 
     /**
      * 关闭索引文件生成对象
+     * {@link LuceneIndexManager} 管理的 writer 只提交并刷新查询，不关闭
      * @param indexWriter   写入索引对象
      */
     public static void close(IndexWriter indexWriter) {
+        LuceneIndexManager manager = LuceneIndexManager.ownerOf(indexWriter);
+        if (manager != null) {
+            try {
+                manager.commit();
+            } catch (IOException e) {
+                log.warn("[indexWriter commit]: error={}, indexWriter={}", e, indexWriter);
+            }
+            return;
+        }
         if (indexWriter != null) {
             try {
                 indexWriter.close();
@@ -125,9 +262,12 @@ public class LuceneUtil {
 
     /**
      * 高亮标签
+     * 每个命中都要把原文重新分词，批量高亮搜索结果请使用 {@link SearchHighlighter}
      * @param query 查询对象
      * @param fieldName 关键字
+     * @deprecated 使用 {@link SearchHighlighter} 或 {@link QuerySearchUtils#searchHighlights(Query, int, String...)}
      */
+    @Deprecated
     public static Highlighter getHighlighter(Query query, String fieldName) {
         Formatter formatter = new SimpleHTMLFormatter("<span style='color:red'>", "</span>");
         Scorer fragmentScorer = new QueryTermScorer(query, fieldName);
@@ -0,0 +1,108 @@
+package com.magictool.web.util.lucene;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.IndexSearcher;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 使用线程池并行搜索各个段的 IndexSearcher
+ * <p>
+ * Lucene 默认每个段一个切片，小段太多时任务调度的开销比搜索本身还大。这里按段大小从大到小分组，
+ * 一个切片内的文档数不超过 maxDocsPerSlice、段数不超过 maxSegmentsPerSlice，超过 maxDocsPerSlice 的大段单独成为一个切片。
+ * 每个切片由一个线程用独立的 Collector 收集，最后由 CollectorManager 合并结果。
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+public class ParallelIndexSearcher extends IndexSearcher {
+
+    public static final int DEFAULT_MAX_DOCS_PER_SLICE = 250_000;
+
+    public static final int DEFAULT_MAX_SEGMENTS_PER_SLICE = 5;
+
+    /**
+     * 父类构造方法中就会调用 {@link #slices(List)}，此时子类字段还没有赋值，切片参数通过线程变量传入
+     */
+    private static final ThreadLocal<int[]> SLICE_LIMITS = new ThreadLocal<>();
+
+    public ParallelIndexSearcher(IndexReader reader, ExecutorService executor) {
+        this(reader, executor, DEFAULT_MAX_DOCS_PER_SLICE, DEFAULT_MAX_SEGMENTS_PER_SLICE);
+    }
+
+    /**
+     * @param reader              索引读取对象
+     * @param executor            搜索线程池
+     * @param maxDocsPerSlice     每个切片的最大文档数
+     * @param maxSegmentsPerSlice 每个切片的最大段数
+     */
+    public ParallelIndexSearcher(IndexReader reader, ExecutorService executor, int maxDocsPerSlice,
+                                 int maxSegmentsPerSlice) {
+        super(reader, limit(executor, maxDocsPerSlice, maxSegmentsPerSlice));
+    }
+
+    /**
+     * 切片数量，为0时表示顺序搜索
+     */
+    public int getSliceCount() {
+        return leafSlices == null ? 0 : leafSlices.length;
+    }
+
+    @Override
+    protected LeafSlice[] slices(List<LeafReaderContext> leaves) {
+        int[] limits = SLICE_LIMITS.get();
+        SLICE_LIMITS.remove();
+        if (limits == null) {
+            return super.slices(leaves);
+        }
+        return slices(leaves, limits[0], limits[1]);
+    }
+
+    /**
+     * 按段大小分组
+     *
+     * @param leaves              所有段
+     * @param maxDocsPerSlice     每个切片的最大文档数
+     * @param maxSegmentsPerSlice 每个切片的最大段数
+     */
+    public static LeafSlice[] slices(List<LeafReaderContext> leaves, int maxDocsPerSlice, int maxSegmentsPerSlice) {
+        List<LeafReaderContext> sorted = new ArrayList<>(leaves);
+        sorted.sort(Comparator.comparingInt((LeafReaderContext leaf) -> leaf.reader().maxDoc()).reversed());
+        List<LeafSlice> slices = new ArrayList<>();
+        List<LeafReaderContext> group = new ArrayList<>();
+        long docs = 0;
+        for (LeafReaderContext leaf : sorted) {
+            int maxDoc = leaf.reader().maxDoc();
+            if (maxDoc > maxDocsPerSlice) {
+                slices.add(new LeafSlice(leaf));
+                continue;
+            }
+            group.add(leaf);
+            docs += maxDoc;
+            if (docs > maxDocsPerSlice || group.size() >= maxSegmentsPerSlice) {
+                slices.add(new LeafSlice(group.toArray(new LeafReaderContext[0])));
+                group.clear();
+                docs = 0;
+            }
+        }
+        if (!group.isEmpty()) {
+            slices.add(new LeafSlice(group.toArray(new LeafReaderContext[0])));
+        }
+        return slices.toArray(new LeafSlice[0]);
+    }
+
+    private static ExecutorService limit(ExecutorService executor, int maxDocsPerSlice, int maxSegmentsPerSlice) {
+        if (maxDocsPerSlice <= 0 || maxSegmentsPerSlice <= 0) {
+            throw new IllegalArgumentException("maxDocsPerSlice and maxSegmentsPerSlice must be greater than 0");
+        }
+        if (executor != null) {
+            SLICE_LIMITS.set(new int[]{maxDocsPerSlice, maxSegmentsPerSlice});
+        }
+        return executor;
+    }
+
+}
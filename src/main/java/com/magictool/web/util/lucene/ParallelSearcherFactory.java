@@ -0,0 +1,71 @@
+package com.magictool.web.util.lucene;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.IndexSearcher;
+
+import java.io.Closeable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 创建 {@link ParallelIndexSearcher} 的工厂，所有 searcher 共用一个有界线程池
+ * <p>
+ * 线程池队列满时由查询线程自己执行切片任务，不会拒绝查询，并发查询很多时自动退化为顺序搜索。
+ * 关闭索引管理器之后调用 {@link #close()} 关闭线程池。
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+@Slf4j
+public class ParallelSearcherFactory extends QueryCacheSearcherFactory implements Closeable {
+
+    private final ExecutorService executor;
+
+    private final int maxDocsPerSlice;
+
+    private final int maxSegmentsPerSlice;
+
+    public ParallelSearcherFactory(SearchOptions options) {
+        super(options);
+        if (options.getSearchThreads() <= 0 || options.getSearchQueueCapacity() <= 0) {
+            throw new IllegalArgumentException("searchThreads and searchQueueCapacity must be greater than 0");
+        }
+        this.maxDocsPerSlice = options.getMaxDocsPerSlice();
+        this.maxSegmentsPerSlice = options.getMaxSegmentsPerSlice();
+        AtomicInteger index = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(options.getSearchThreads(), options.getSearchThreads(),
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(options.getSearchQueueCapacity()), r -> {
+            Thread thread = new Thread(r, "lucene-search-" + index.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @Override
+    public IndexSearcher newSearcher(IndexReader reader, IndexReader previousReader) {
+        IndexSearcher searcher = new ParallelIndexSearcher(reader, executor, maxDocsPerSlice, maxSegmentsPerSlice);
+        configure(searcher);
+        return searcher;
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("[412.close search executor]: search tasks still running after 10s");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.magictool.web.util.lucene;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.LRUQueryCache;
+import org.apache.lucene.search.QueryCache;
+import org.apache.lucene.search.QueryCachingPolicy;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.UsageTrackingQueryCachingPolicy;
+
+/**
+ * 为每个新打开的 searcher 设置共享的 {@link LRUQueryCache} 和缓存策略
+ * <p>
+ * LRUQueryCache 按段缓存不参与打分的子查询（{@link BoolQueryBuilders#filter(org.apache.lucene.search.Query)} 产生的 FILTER 子句）
+ * 匹配到的文档位集，NRT 刷新后没有变化的段继续命中缓存，只有新段需要重新计算。
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+public class QueryCacheSearcherFactory extends SearcherFactory {
+
+    private final LRUQueryCache queryCache;
+
+    private final QueryCachingPolicy cachingPolicy;
+
+    public QueryCacheSearcherFactory(SearchOptions options) {
+        this(options.getQueryCacheSize() > 0
+                        ? new LRUQueryCache(options.getQueryCacheSize(), options.getQueryCacheRamMb() * 1024 * 1024)
+                        : null,
+                options.getQueryCachePolicy() == SearchOptions.QueryCachePolicy.ALWAYS
+                        ? QueryCachingPolicy.ALWAYS_CACHE
+                        : new UsageTrackingQueryCachingPolicy());
+    }
+
+    /**
+     * @param queryCache    过滤条件缓存，为null时不缓存
+     * @param cachingPolicy 缓存策略
+     */
+    public QueryCacheSearcherFactory(LRUQueryCache queryCache, QueryCachingPolicy cachingPolicy) {
+        this.queryCache = queryCache;
+        this.cachingPolicy = cachingPolicy;
+    }
+
+    @Override
+    public IndexSearcher newSearcher(IndexReader reader, IndexReader previousReader) {
+        IndexSearcher searcher = new IndexSearcher(reader);
+        configure(searcher);
+        return searcher;
+    }
+
+    /**
+     * 设置缓存，子类创建 searcher 时调用
+     */
+    protected void configure(IndexSearcher searcher) {
+        searcher.setQueryCache(queryCache);
+        searcher.setQueryCachingPolicy(cachingPolicy);
+    }
+
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    public long getHitCount() {
+        return queryCache == null ? 0 : queryCache.getHitCount();
+    }
+
+    public long getMissCount() {
+        return queryCache == null ? 0 : queryCache.getMissCount();
+    }
+
+    /**
+     * 命中率，没有访问时返回0
+     */
+    public double getHitRate() {
+        long hit = getHitCount();
+        long total = hit + getMissCount();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    /**
+     * 缓存的位集数量（每个段每个查询一个）
+     */
+    public long getCacheSize() {
+        return queryCache == null ? 0 : queryCache.getCacheSize();
+    }
+
+    public long getEvictionCount() {
+        return queryCache == null ? 0 : queryCache.getEvictionCount();
+    }
+
+    public long getRamBytesUsed() {
+        return queryCache == null ? 0 : queryCache.ramBytesUsed();
+    }
+
+}
@@ -0,0 +1,218 @@
+package com.magictool.web.util.lucene;
+
+import com.magictool.web.util.cache.SegmentedLruCache;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.Query;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 查询解析引擎
+ * <p>
+ * QueryParser 不是线程安全的，这里每个线程按 (字段, 分词器) 保留一个解析器实例重复使用，
+ * 分词器使用 {@link Analyzers} 中共享的实例。解析结果按 (字段, 关键字, 分词器) 放入有界 LRU 缓存，
+ * Lucene 的 Query 创建后不可修改，可以被多个线程共享，热门关键字不再重复分词和解析。
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+public class QueryParserEngine {
+
+    public static final int DEFAULT_CACHE_SIZE = 10_000;
+
+    /**
+     * 每个线程最多保留的解析器数量
+     */
+    private static final int MAX_PARSERS_PER_THREAD = 64;
+
+    private final Analyzers.Type defaultAnalyzer;
+
+    private final int cacheSize;
+
+    private final SegmentedLruCache<Key, Query> cache;
+
+    private final ThreadLocal<Map<ParserKey, QueryParser>> parsers = ThreadLocal.withInitial(() ->
+            new LinkedHashMap<ParserKey, QueryParser>(16, 0.75F, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<ParserKey, QueryParser> eldest) {
+                    return size() > MAX_PARSERS_PER_THREAD;
+                }
+            });
+
+    public QueryParserEngine() {
+        this(Analyzers.Type.SIMPLE, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param defaultAnalyzer 不指定分词器时使用的分词器，需要与写索引时一致
+     * @param cacheSize       解析结果缓存的最大条目数，0表示不缓存
+     */
+    public QueryParserEngine(Analyzers.Type defaultAnalyzer, int cacheSize) {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("cacheSize must not be negative");
+        }
+        this.defaultAnalyzer = defaultAnalyzer;
+        this.cacheSize = cacheSize;
+        this.cache = new SegmentedLruCache<>(Math.max(1, cacheSize));
+    }
+
+    /**
+     * 使用默认分词器解析单字段查询
+     */
+    public Query parse(String field, String keyword) throws ParseException {
+        return parse(new String[]{field}, keyword, defaultAnalyzer);
+    }
+
+    /**
+     * 解析单字段查询
+     */
+    public Query parse(String field, String keyword, Analyzers.Type analyzer) throws ParseException {
+        return parse(new String[]{field}, keyword, analyzer);
+    }
+
+    /**
+     * 使用默认分词器解析多字段查询
+     */
+    public Query parse(String[] fields, String keyword) throws ParseException {
+        return parse(fields, keyword, defaultAnalyzer);
+    }
+
+    /**
+     * 解析查询，只有一个字段时使用 QueryParser，多个字段时使用 MultiFieldQueryParser
+     *
+     * @param fields   查询的字段
+     * @param keyword  查询的关键字，支持 QueryParser 语法
+     * @param analyzer 分词器
+     */
+    public Query parse(String[] fields, String keyword, Analyzers.Type analyzer) throws ParseException {
+        if (fields == null || fields.length == 0) {
+            throw new IllegalArgumentException("fields must not be empty");
+        }
+        if (cacheSize == 0) {
+            return parser(fields, analyzer).parse(keyword);
+        }
+        Key key = new Key(fields, keyword, analyzer);
+        Query query = cache.get(key);
+        if (query != null) {
+            return query;
+        }
+        query = parser(key.fields, analyzer).parse(keyword);
+        cache.put(key, query);
+        return query;
+    }
+
+    public Analyzers.Type getDefaultAnalyzer() {
+        return defaultAnalyzer;
+    }
+
+    public long getHitCount() {
+        return cache.hitCount();
+    }
+
+    public long getMissCount() {
+        return cache.missCount();
+    }
+
+    /**
+     * 命中率，没有访问时返回0
+     */
+    public double getHitRate() {
+        long hit = cache.hitCount();
+        long total = hit + cache.missCount();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    public int size() {
+        return (int) cache.size();
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    private QueryParser parser(String[] fields, Analyzers.Type analyzer) {
+        Map<ParserKey, QueryParser> threadParsers = parsers.get();
+        QueryParser parser = threadParsers.get(new ParserKey(fields, analyzer));
+        if (parser == null) {
+            String[] copy = fields.clone();
+            parser = copy.length == 1
+                    ? new QueryParser(copy[0], Analyzers.get(analyzer))
+                    : new MultiFieldQueryParser(copy, Analyzers.get(analyzer));
+            threadParsers.put(new ParserKey(copy, analyzer), parser);
+        }
+        return parser;
+    }
+
+    private static final class ParserKey {
+
+        private final String[] fields;
+
+        private final Analyzers.Type analyzer;
+
+        private final int hash;
+
+        private ParserKey(String[] fields, Analyzers.Type analyzer) {
+            this.fields = fields;
+            this.analyzer = analyzer;
+            this.hash = 31 * Arrays.hashCode(fields) + analyzer.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ParserKey)) {
+                return false;
+            }
+            ParserKey other = (ParserKey) o;
+            return analyzer == other.analyzer && Arrays.equals(fields, other.fields);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Key {
+
+        private final String[] fields;
+
+        private final String keyword;
+
+        private final Analyzers.Type analyzer;
+
+        private final int hash;
+
+        private Key(String[] fields, String keyword, Analyzers.Type analyzer) {
+            // 拷贝一份，调用方之后修改数组不影响缓存
+            this.fields = fields.clone();
+            this.keyword = keyword;
+            this.analyzer = analyzer;
+            this.hash = 31 * (31 * Arrays.hashCode(this.fields) + keyword.hashCode()) + analyzer.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return analyzer == other.analyzer && keyword.equals(other.keyword) && Arrays.equals(fields, other.fields);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+}
@@ -0,0 +1,194 @@
+package com.magictool.web.util.lucene;
+
+import com.magictool.web.util.cache.SegmentedLruCache;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ReferenceManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.TopDocs;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * 查询结果缓存，缓存 (Query, n, Sort, reader 版本) 对应的 {@link TopDocs}
+ * <p>
+ * Lucene 的 Query 按结构实现 equals/hashCode（BooleanQuery 比较的是子句集合，与添加顺序无关），
+ * 结构相同的查询即使是分别构造的对象也能命中。reader 版本是键的一部分，
+ * NRT 刷新打开新的 reader 后旧结果不会再命中，同时刷新监听器会清空缓存释放内存。
+ * 刷新前借出的 searcher 在清空之后才写入的旧版本结果会被丢弃，不会留在缓存中占用空间。
+ * <p>
+ * 返回的 TopDocs 被所有命中的调用方共享，不要修改其中的数组。
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+public class QueryResultCache implements ReferenceManager.RefreshListener {
+
+    private final LuceneIndexManager indexManager;
+
+    private final int maxSize;
+
+    private final SegmentedLruCache<Key, TopDocs> entries;
+
+    /**
+     * 当前 searcher 的 reader 版本，只缓存这个版本的结果
+     */
+    private volatile long currentVersion;
+
+    /**
+     * @param indexManager 索引管理器
+     * @param maxSize      最大条目数，0表示不缓存
+     */
+    public QueryResultCache(LuceneIndexManager indexManager, int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must not be negative");
+        }
+        this.indexManager = indexManager;
+        this.maxSize = maxSize;
+        this.entries = new SegmentedLruCache<>(Math.max(1, maxSize));
+        this.currentVersion = currentVersion();
+        indexManager.getSearcherManager().addListener(this);
+    }
+
+    /**
+     * 查询，命中缓存时直接返回
+     *
+     * @param query 查询对象
+     * @param n     要查询的最大结果条数
+     */
+    public TopDocs search(Query query, int n) throws IOException {
+        return search(query, n, null);
+    }
+
+    /**
+     * 查询，命中缓存时直接返回
+     *
+     * @param query 查询对象
+     * @param n     要查询的最大结果条数
+     * @param sort  排序策略，为null时按相关度
+     */
+    public TopDocs search(Query query, int n, Sort sort) throws IOException {
+        return indexManager.search(searcher -> search(searcher, query, n, sort));
+    }
+
+    /**
+     * 使用调用方已经借到的 searcher 查询，命中缓存时直接返回
+     */
+    public TopDocs search(IndexSearcher searcher, Query query, int n, Sort sort) throws IOException {
+        if (maxSize == 0) {
+            return execute(searcher, query, n, sort);
+        }
+        Key key = new Key(query, n, sort, version(searcher.getIndexReader()));
+        TopDocs topDocs = entries.get(key);
+        if (topDocs != null) {
+            return topDocs;
+        }
+        long stamp = entries.stamp(key);
+        topDocs = execute(searcher, query, n, sort);
+        // 查询期间发生刷新时：先清空的由 stamp 拦下，清空后才取 stamp 的由版本拦下
+        if (key.version == currentVersion) {
+            entries.putIfFresh(key, topDocs, stamp);
+        }
+        return topDocs;
+    }
+
+    public long getHitCount() {
+        return entries.hitCount();
+    }
+
+    public long getMissCount() {
+        return entries.missCount();
+    }
+
+    /**
+     * 命中率，没有访问时返回0
+     */
+    public double getHitRate() {
+        long hit = entries.hitCount();
+        long total = hit + entries.missCount();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    public int size() {
+        return (int) entries.size();
+    }
+
+    public void clear() {
+        entries.invalidateAll();
+    }
+
+    @Override
+    public void beforeRefresh() {
+    }
+
+    @Override
+    public void afterRefresh(boolean didRefresh) {
+        if (didRefresh) {
+            // 先更新版本再清空，顺序不能颠倒
+            currentVersion = currentVersion();
+            clear();
+        }
+    }
+
+    private long currentVersion() {
+        try {
+            return indexManager.search(searcher -> version(searcher.getIndexReader()));
+        } catch (IOException e) {
+            // 拿不到当前版本时不缓存任何结果，直到下一次刷新
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private static TopDocs execute(IndexSearcher searcher, Query query, int n, Sort sort) throws IOException {
+        return sort == null ? searcher.search(query, n) : searcher.search(query, n, sort);
+    }
+
+    private static long version(IndexReader reader) {
+        // SearcherManager 打开的都是 DirectoryReader，其他 reader 没有版本号，用对象标识区分
+        return reader instanceof DirectoryReader ? ((DirectoryReader) reader).getVersion()
+                : System.identityHashCode(reader);
+    }
+
+    private static final class Key {
+
+        private final Query query;
+
+        private final int n;
+
+        private final Sort sort;
+
+        private final long version;
+
+        private final int hash;
+
+        private Key(Query query, int n, Sort sort, long version) {
+            this.query = query;
+            this.n = n;
+            this.sort = sort;
+            this.version = version;
+            this.hash = Objects.hash(query, n, sort, version);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return n == other.n && version == other.version && query.equals(other.query)
+                    && Objects.equals(sort, other.sort);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+}
@@ -1,14 +1,25 @@
 package com.magictool.web.util.lucene;
 
+import com.magictool.web.constants.SingletonLucene;
+import com.magictool.web.entity.CursorPage;
+import com.magictool.web.util.lucene.facet.DrillDownQuery;
+import com.magictool.web.util.lucene.facet.FacetRequest;
+import com.magictool.web.util.lucene.facet.FacetSearchResult;
+import com.magictool.web.util.lucene.facet.FacetSearcher;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.lucene.analysis.core.SimpleAnalyzer;
-import org.apache.lucene.index.IndexReader;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.document.Document;
 import org.apache.lucene.index.Term;
-import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
 import org.apache.lucene.queryparser.classic.ParseException;
-import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.*;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
 
 /**
  * Lucene索引查询工具类
@@ -26,13 +37,20 @@ public class QuerySearchUtils {
      * @param keyword 查询的关键字
      */
     public static Query buildSingleQuery(String field, String keyword) {
-        Query query = null;
+        return buildSingleQuery(field, keyword, SingletonLucene.getQueryParserEngine().getDefaultAnalyzer());
+    }
+
+    /**
+     * 使用指定分词器创建查询对象（单字段）
+     *
+     * @param field    查询的字段名称
+     * @param keyword  查询的关键字
+     * @param analyzer 分词器，需要与写索引时一致
+     */
+    public static Query buildSingleQuery(String field, String keyword, Analyzers.Type analyzer) {
         try {
-            // 创建查询解析器，默认适用IK分词器
-            QueryParser parser = new QueryParser(field, new SimpleAnalyzer());
-            // 创建查询对象
-            query = parser.parse(keyword);
-            return query;
+            // 解析器和分词器复用，解析结果有缓存
+            return SingletonLucene.getQueryParserEngine().parse(field, keyword, analyzer);
         } catch (ParseException e) {
             log.warn("[402.build query]: error={}, field={}, value={}", e, field, keyword);
         }
@@ -46,11 +64,19 @@ public class QuerySearchUtils {
      * @param keyword 查询的关键字
      */
     public static Query buildMultiFieldQuery(String[] fields, String keyword) {
-        Query query = null;
+        return buildMultiFieldQuery(fields, keyword, SingletonLucene.getQueryParserEngine().getDefaultAnalyzer());
+    }
+
+    /**
+     * 使用指定分词器创建查询对象（多字段）
+     *
+     * @param fields   要查询的字段数组
+     * @param keyword  查询的关键字
+     * @param analyzer 分词器，需要与写索引时一致
+     */
+    public static Query buildMultiFieldQuery(String[] fields, String keyword, Analyzers.Type analyzer) {
         try {
-            MultiFieldQueryParser parser = new MultiFieldQueryParser(fields, new SimpleAnalyzer());
-            query = parser.parse(keyword);
-            return query;
+            return SingletonLucene.getQueryParserEngine().parse(fields, keyword, analyzer);
         } catch (Exception e) {
             log.warn("[403.build query]: error={}, fields={}, value={}", e, fields, keyword);
         }
@@ -98,12 +124,14 @@ public class QuerySearchUtils {
      * @param query 查询对象
      * @param n     要查询的最大结果条数
      * @return 按照匹配度排名得分前n名的文档信息（包含查询到的总条数信息、所有符合条件的文档的编号信息）。
+     * 结果可能来自缓存，不要修改返回对象
+     * @deprecated 返回时 searcher 已经归还，NRT 刷新后文档编号可能指向其他文档，只能使用 totalHits；
+     * 需要文档时使用 {@link #searchDocuments(Query, int, Sort)} 或 {@link #searchQuery(Query, int, Sort, HitsCallback)}
      */
+    @Deprecated
     public static TopDocs searchQuery(Query query, int n) {
-        IndexReader reader = LuceneUtil.buildIndexReader();
-        IndexSearcher searcher = LuceneUtil.buildIndexSearcher(reader);
         try {
-            return searcher.search(query, n);
+            return SingletonLucene.getResultCache().search(query, n);
         } catch (Exception e) {
             log.warn("[410.search query]: error={}, query={}, num={}", e, query, n);
         }
@@ -117,15 +145,262 @@ public class QuerySearchUtils {
      * @param n     要查询的最大结果条数
      * @param sort  排序策略
      * @return 按照匹配度排名得分前n名的文档信息（包含查询到的总条数信息、所有符合条件的文档的编号信息）。
+     * @deprecated 返回时 searcher 已经归还，文档编号可能已经失效，使用 {@link #searchQuery(Query, int, Sort, HitsCallback)}
      */
+    @Deprecated
     public static TopDocs searchQuery(Query query, int n, Sort sort) {
-        IndexReader reader = LuceneUtil.buildIndexReader();
-        IndexSearcher searcher = LuceneUtil.buildIndexSearcher(reader);
         try {
-            return searcher.search(query, n, sort);
+            return SingletonLucene.getResultCache().search(query, n, sort);
+        } catch (Exception e) {
+            log.warn("[410.search query]: error={}, query={}, num={}, sort={}", e, query, n, sort);
+        }
+        return null;
+    }
+
+    /**
+     * 查询并在归还 searcher 之前处理命中结果，命中结果可能来自缓存
+     *
+     * @param query    查询对象
+     * @param n        要查询的最大结果条数
+     * @param sort     排序策略，为null时按相关度
+     * @param callback 处理命中结果，文档编号只在回调内有效，不要修改 TopDocs
+     * @return 回调的返回值，查询失败时返回null
+     */
+    public static <R> R searchQuery(Query query, int n, Sort sort, HitsCallback<R> callback) {
+        try {
+            return SingletonLucene.getIndexManager().search(searcher ->
+                    callback.apply(searcher, SingletonLucene.getResultCache().search(searcher, query, n, sort)));
+        } catch (Exception e) {
+            log.warn("[410.search query]: error={}, query={}, num={}, sort={}", e, query, n, sort);
+        }
+        return null;
+    }
+
+    /**
+     * 带超时的查询，不使用结果缓存，开启并行搜索时各个段由线程池并行收集
+     * 超时后返回已经收集到的部分结果
+     *
+     * @param query         查询对象
+     * @param n             要查询的最大结果条数
+     * @param sort          排序策略，为null时按相关度
+     * @param timeoutMillis 超时时间（毫秒），小于等于0时不限制
+     * @deprecated 返回时 searcher 已经归还，文档编号可能已经失效，使用
+     * {@link #searchQuery(Query, int, Sort, long, HitsCallback)}
+     */
+    @Deprecated
+    public static TopDocs searchQuery(Query query, int n, Sort sort, long timeoutMillis) {
+        return searchQuery(query, n, sort, timeoutMillis, (searcher, topDocs) -> topDocs);
+    }
+
+    /**
+     * 带超时的查询，并在归还 searcher 之前处理命中结果
+     *
+     * @param query         查询对象
+     * @param n             要查询的最大结果条数
+     * @param sort          排序策略，为null时按相关度
+     * @param timeoutMillis 超时时间（毫秒），小于等于0时不限制
+     * @param callback      处理命中结果，文档编号只在回调内有效
+     * @return 回调的返回值，查询失败时返回null
+     */
+    public static <R> R searchQuery(Query query, int n, Sort sort, long timeoutMillis, HitsCallback<R> callback) {
+        try {
+            return SingletonLucene.getIndexManager().search(searcher -> {
+                int limit = Math.max(1, Math.min(n, searcher.getIndexReader().maxDoc()));
+                TimeLimitedCollectorManager<?, ? extends TopDocs> manager = sort == null
+                        ? TimeLimitedCollectorManager.topDocs(limit, null, timeoutMillis)
+                        : TimeLimitedCollectorManager.topFieldDocs(sort, limit, null, timeoutMillis);
+                TopDocs topDocs = searcher.search(query, manager);
+                if (manager.isTimedOut()) {
+                    log.warn("[413.search timeout]: query={}, num={}, timeoutMillis={}, partialHits={}", query, n,
+                            timeoutMillis, topDocs.totalHits);
+                }
+                return callback.apply(searcher, topDocs);
+            });
         } catch (Exception e) {
             log.warn("[410.search query]: error={}, query={}, num={}, sort={}", e, query, n, sort);
         }
         return null;
     }
+
+    /**
+     * 统计命中总数，使用配置的默认超时时间，超时后返回已统计到的数量
+     *
+     * @param query 查询对象
+     * @return 命中总数，查询失败时返回null
+     */
+    public static Integer count(Query query) {
+        try {
+            long timeoutMillis = SingletonLucene.getSearchOptions().getSearchTimeoutMillis();
+            return SingletonLucene.getIndexManager().search(searcher -> {
+                TimeLimitedCollectorManager<?, Integer> manager = TimeLimitedCollectorManager.count(timeoutMillis);
+                Integer count = searcher.search(query, manager);
+                if (manager.isTimedOut()) {
+                    log.warn("[413.search timeout]: query={}, timeoutMillis={}, partialCount={}", query,
+                            timeoutMillis, count);
+                }
+                return count;
+            });
+        } catch (Exception e) {
+            log.warn("[410.search query]: error={}, query={}", e, query);
+        }
+        return null;
+    }
+
+    /**
+     * 查询并统计分面，命中文档和计数在一次遍历中完成
+     *
+     * @param query    查询对象
+     * @param n        要查询的最大结果条数，0表示只统计
+     * @param requests 分面请求
+     * @return 命中和分面统计结果，查询失败时返回null
+     */
+    public static FacetSearchResult searchFacets(Query query, int n, FacetRequest... requests) {
+        try {
+            return SingletonLucene.getIndexManager().search(searcher -> FacetSearcher.search(searcher, query, n, requests));
+        } catch (Exception e) {
+            log.warn("[414.search facets]: error={}, query={}, num={}", e, query, n);
+        }
+        return null;
+    }
+
+    /**
+     * 下钻查询并侧向统计分面，被选中的字段仍然返回其他值的数量
+     *
+     * @param drillDown 下钻查询
+     * @param n         要查询的最大结果条数，0表示只统计
+     * @param requests  分面请求
+     * @return 命中和分面统计结果，查询失败时返回null
+     */
+    public static FacetSearchResult searchFacets(DrillDownQuery drillDown, int n, FacetRequest... requests) {
+        try {
+            return SingletonLucene.getIndexManager().search(searcher ->
+                    FacetSearcher.drillSideways(searcher, drillDown, n, null, requests));
+        } catch (Exception e) {
+            log.warn("[414.search facets]: error={}, query={}, num={}", e, drillDown, n);
+        }
+        return null;
+    }
+
+    /**
+     * 查询并批量高亮所有命中文档，查询和高亮在同一个 searcher 中完成
+     * 字段通过 {@link com.magictool.web.util.lucene.highlight.HighlightFields} 写入时直接使用倒排表中的偏移，不需要重新分词
+     *
+     * @param query  查询对象
+     * @param n      要查询的最大结果条数
+     * @param fields 要高亮的存储字段
+     * @return 按命中顺序的 字段 -> 高亮片段，字段没有值时为null
+     */
+    public static List<Map<String, String>> searchHighlights(Query query, int n, String... fields) {
+        try {
+            return SingletonLucene.getIndexManager().search(searcher -> {
+                TopDocs topDocs = searcher.search(query, n);
+                return SingletonLucene.getSearchHighlighter().highlightHits(searcher, query, topDocs, fields);
+            });
+        } catch (Exception e) {
+            log.warn("[415.search highlights]: error={}, query={}, num={}", e, query, n);
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * 查询内存索引并在同一个 searcher 中取出文档，文档编号与 searcher 绑定，需要文档内容时使用该方法
+     *
+     * @param query 查询对象
+     * @param n     要查询的最大结果条数
+     * @return 按照匹配度排名得分前n名的文档
+     */
+    public static List<Document> searchDocuments(Query query, int n) {
+        return searchDocuments(query, n, null);
+    }
+
+    /**
+     * 查询内存索引并在同一个 searcher 中按排序取出文档
+     *
+     * @param query 查询对象
+     * @param n     要查询的最大结果条数
+     * @param sort  排序策略，为null时按相关度
+     * @return 排序后的前n个文档，查询失败时返回空列表
+     */
+    public static List<Document> searchDocuments(Query query, int n, Sort sort) {
+        List<Document> documents = searchQuery(query, n, sort, (searcher, topDocs) -> {
+            List<Document> result = new ArrayList<>(topDocs.scoreDocs.length);
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                result.add(searcher.doc(scoreDoc.doc));
+            }
+            return result;
+        });
+        return documents == null ? Collections.<Document>emptyList() : documents;
+    }
+
+    /**
+     * 按相关度游标分页查询，第一页 cursor 传null，之后传上一页返回的 nextCursor
+     * 使用 searchAfter 只收集游标之后的 pageSize 条结果，深分页和第一页的开销相同
+     *
+     * @param query    查询对象
+     * @param pageSize 每页条数
+     * @param cursor   上一页返回的游标
+     * @return 当前页的文档，查询失败时返回null
+     */
+    public static CursorPage<Document> searchPage(Query query, int pageSize, String cursor) {
+        return searchPage(query, pageSize, null, cursor, Function.identity());
+    }
+
+    /**
+     * 按指定排序游标分页查询，翻页过程中 sort 必须保持不变
+     *
+     * @param query    查询对象
+     * @param pageSize 每页条数
+     * @param sort     排序策略，为null时按相关度
+     * @param cursor   上一页返回的游标
+     * @return 当前页的文档，查询失败时返回null
+     */
+    public static CursorPage<Document> searchPage(Query query, int pageSize, Sort sort, String cursor) {
+        return searchPage(query, pageSize, sort, cursor, Function.identity());
+    }
+
+    /**
+     * 游标分页查询并在同一个 searcher 中把文档转换为结果对象
+     *
+     * @param query    查询对象
+     * @param pageSize 每页条数
+     * @param sort     排序策略，为null时按相关度
+     * @param cursor   上一页返回的游标，第一页传null
+     * @param mapper   文档转换函数
+     * @return 当前页的结果，查询失败或游标无效时返回null
+     */
+    public static <T> CursorPage<T> searchPage(Query query, int pageSize, Sort sort, String cursor,
+                                               Function<Document, T> mapper) {
+        try {
+            SearchCursor after = StringUtils.isBlank(cursor) ? null : SearchCursor.decode(cursor);
+            int pageNum = after == null ? 1 : after.getPageNum();
+            return SingletonLucene.getIndexManager().search(searcher -> {
+                ScoreDoc afterDoc = after == null ? null : after.toScoreDoc();
+                TopDocs topDocs = sort == null
+                        ? searcher.searchAfter(afterDoc, query, pageSize)
+                        : searcher.searchAfter(afterDoc, query, pageSize, sort);
+                List<T> resultList = new ArrayList<>(topDocs.scoreDocs.length);
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    resultList.add(mapper.apply(searcher.doc(scoreDoc.doc)));
+                }
+                String nextCursor = null;
+                if (topDocs.scoreDocs.length == pageSize && (long) pageNum * pageSize < topDocs.totalHits) {
+                    nextCursor = SearchCursor.after(pageNum + 1, topDocs.scoreDocs[pageSize - 1]).encode();
+                }
+                return new CursorPage<>(topDocs.totalHits, pageNum, pageSize, resultList, nextCursor);
+            });
+        } catch (Exception e) {
+            log.warn("[411.search page]: error={}, query={}, pageSize={}, sort={}, cursor={}", e, query, pageSize,
+                    sort, cursor);
+        }
+        return null;
+    }
+
+    /**
+     * 命中结果回调，在 searcher 归还之前执行
+     */
+    @FunctionalInterface
+    public interface HitsCallback<R> {
+
+        R apply(IndexSearcher searcher, TopDocs topDocs) throws IOException;
+    }
 }
@@ -0,0 +1,211 @@
+package com.magictool.web.util.lucene;
+
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.util.BytesRef;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * searchAfter 分页游标，记录上一页最后一条结果的文档编号、得分和排序值
+ * <p>
+ * 下一页从游标之后开始收集，每页只需要大小为 pageSize 的优先队列，第500页和第1页的开销相同。
+ * {@link #encode()} 得到的字符串可以直接返回给前端，下次请求时用 {@link #decode(String)} 还原。
+ * <p>
+ * 游标中的文档编号只在同一个 reader 内有意义，索引刷新后翻页仍然按排序值定位，
+ * 排序值相同的文档可能重复或遗漏，需要严格稳定的翻页时在 Sort 最后加上唯一字段。
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+public final class SearchCursor implements Serializable {
+
+    private static final long serialVersionUID = 2847315906732158841L;
+
+    private static final byte VERSION = 1;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_INT = 1;
+    private static final byte TYPE_LONG = 2;
+    private static final byte TYPE_FLOAT = 3;
+    private static final byte TYPE_DOUBLE = 4;
+    private static final byte TYPE_BYTES = 5;
+    private static final byte TYPE_STRING = 6;
+
+    /**
+     * 下一页的页码
+     */
+    private final int pageNum;
+
+    private final int doc;
+
+    private final float score;
+
+    /**
+     * 排序值，按相关度查询时为null
+     */
+    private final Object[] fields;
+
+    private SearchCursor(int pageNum, int doc, float score, Object[] fields) {
+        this.pageNum = pageNum;
+        this.doc = doc;
+        this.score = score;
+        this.fields = fields;
+    }
+
+    /**
+     * 根据上一页最后一条结果创建游标
+     *
+     * @param pageNum 下一页的页码
+     * @param last    上一页最后一条结果
+     */
+    public static SearchCursor after(int pageNum, ScoreDoc last) {
+        Object[] fields = last instanceof FieldDoc ? ((FieldDoc) last).fields : null;
+        if (fields != null) {
+            fields = fields.clone();
+            for (int i = 0; i < fields.length; i++) {
+                // TopFieldCollector 复用 BytesRef 的底层数组，需要拷贝
+                if (fields[i] instanceof BytesRef) {
+                    fields[i] = BytesRef.deepCopyOf((BytesRef) fields[i]);
+                }
+            }
+        }
+        return new SearchCursor(pageNum, last.doc, last.score, fields);
+    }
+
+    /**
+     * 还原为 searchAfter 需要的 ScoreDoc
+     */
+    public ScoreDoc toScoreDoc() {
+        return fields == null ? new ScoreDoc(doc, score) : new FieldDoc(doc, score, fields.clone());
+    }
+
+    public int getPageNum() {
+        return pageNum;
+    }
+
+    /**
+     * 编码为 URL 安全的字符串
+     */
+    public String encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeInt(pageNum);
+            out.writeInt(doc);
+            out.writeFloat(score);
+            if (fields == null) {
+                out.writeInt(-1);
+            } else {
+                out.writeInt(fields.length);
+                for (Object field : fields) {
+                    writeField(out, field);
+                }
+            }
+        } catch (IOException e) {
+            // 写内存流不会抛出 IOException
+            throw new IllegalStateException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * 从 {@link #encode()} 的结果还原游标
+     *
+     * @throws IllegalArgumentException 游标格式错误
+     */
+    public static SearchCursor decode(String cursor) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            if (in.readByte() != VERSION) {
+                throw new IllegalArgumentException("unsupported cursor version");
+            }
+            int pageNum = in.readInt();
+            int doc = in.readInt();
+            float score = in.readFloat();
+            int size = in.readInt();
+            if (size > in.available()) {
+                throw new IOException("truncated cursor");
+            }
+            Object[] fields = null;
+            if (size >= 0) {
+                fields = new Object[size];
+                for (int i = 0; i < size; i++) {
+                    fields[i] = readField(in);
+                }
+            }
+            return new SearchCursor(pageNum, doc, score, fields);
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("invalid cursor: " + cursor, e);
+        }
+    }
+
+    private static void writeField(DataOutputStream out, Object field) throws IOException {
+        if (field == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (field instanceof Integer) {
+            out.writeByte(TYPE_INT);
+            out.writeInt((Integer) field);
+        } else if (field instanceof Long) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong((Long) field);
+        } else if (field instanceof Float) {
+            out.writeByte(TYPE_FLOAT);
+            out.writeFloat((Float) field);
+        } else if (field instanceof Double) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble((Double) field);
+        } else if (field instanceof BytesRef) {
+            BytesRef ref = (BytesRef) field;
+            out.writeByte(TYPE_BYTES);
+            out.writeInt(ref.length);
+            out.write(ref.bytes, ref.offset, ref.length);
+        } else if (field instanceof String) {
+            out.writeByte(TYPE_STRING);
+            out.writeUTF((String) field);
+        } else {
+            throw new IllegalArgumentException("unsupported sort value type: " + field.getClass().getName());
+        }
+    }
+
+    private static Object readField(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_INT:
+                return in.readInt();
+            case TYPE_LONG:
+                return in.readLong();
+            case TYPE_FLOAT:
+                return in.readFloat();
+            case TYPE_DOUBLE:
+                return in.readDouble();
+            case TYPE_BYTES:
+                int length = in.readInt();
+                if (length < 0 || length > in.available()) {
+                    throw new IOException("truncated cursor");
+                }
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                return new BytesRef(bytes);
+            case TYPE_STRING:
+                return in.readUTF();
+            default:
+                throw new IOException("unknown sort value type: " + type);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SearchCursor{pageNum=" + pageNum + ", doc=" + doc + ", score=" + score
+                + ", fields=" + Arrays.toString(fields) + '}';
+    }
+
+}
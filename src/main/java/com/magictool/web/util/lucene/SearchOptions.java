@@ -0,0 +1,73 @@
+package com.magictool.web.util.lucene;
+
+import lombok.Data;
+
+/**
+ * 查询配置
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+@Data
+public class SearchOptions {
+
+    public enum QueryCachePolicy {
+
+        /**
+         * 按使用频率缓存：同一个过滤条件最近被使用多次后才缓存，Lucene 的默认策略
+         */
+        USAGE_TRACKING,
+
+        /**
+         * 过滤条件第一次出现就缓存，适合过滤条件固定、数量少的场景
+         */
+        ALWAYS
+    }
+
+    /**
+     * 写索引和解析查询默认使用的分词器，两者必须一致
+     */
+    private Analyzers.Type analyzer = Analyzers.Type.SIMPLE;
+
+    /**
+     * 解析结果缓存的最大条目数，0表示不缓存
+     */
+    private int parsedQueryCacheSize = QueryParserEngine.DEFAULT_CACHE_SIZE;
+
+    /**
+     * 查询结果缓存的最大条目数，0表示不缓存
+     */
+    private int resultCacheSize = 1000;
+
+    /**
+     * 过滤条件位集缓存（LRUQueryCache）的最大条目数，0表示不缓存
+     */
+    private int queryCacheSize = 10000;
+
+    /**
+     * 过滤条件位集缓存的内存上限（MB）
+     */
+    private long queryCacheRamMb = 32;
+
+    private QueryCachePolicy queryCachePolicy = QueryCachePolicy.USAGE_TRACKING;
+
+    /**
+     * 并行搜索线程数，0表示每个查询在调用线程上顺序搜索所有段
+     */
+    private int searchThreads = 0;
+
+    /**
+     * 并行搜索线程池的队列容量，队列满时由查询线程自己执行
+     */
+    private int searchQueueCapacity = 1000;
+
+    private int maxDocsPerSlice = ParallelIndexSearcher.DEFAULT_MAX_DOCS_PER_SLICE;
+
+    private int maxSegmentsPerSlice = ParallelIndexSearcher.DEFAULT_MAX_SEGMENTS_PER_SLICE;
+
+    /**
+     * 带超时查询的默认超时时间（毫秒），0表示不限制
+     */
+    private long searchTimeoutMillis = 0;
+
+}
@@ -0,0 +1,202 @@
+package com.magictool.web.util.lucene;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.CollectorManager;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.FilterCollector;
+import org.apache.lucene.search.FilterLeafCollector;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.TimeLimitingCollector;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopFieldCollector;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.search.TotalHitCountCollector;
+import org.apache.lucene.util.Counter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 带超时的 CollectorManager，配合 {@link ParallelIndexSearcher} 每个切片创建一个 Collector，最后合并结果
+ * <p>
+ * 每个切片的 Collector 用 {@link TimeLimitingCollector} 包装，所有切片共用创建时的时间基准。
+ * 超时后不抛出异常，而是结束当前段的收集并跳过剩余的段，返回已经收集到的部分结果，
+ * 通过 {@link #isTimedOut()} 判断结果是否完整。一个实例只能用于一次查询。
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+public class TimeLimitedCollectorManager<C extends Collector, T> implements CollectorManager<Collector, T> {
+
+    private final CollectorManager<C, T> delegate;
+
+    private final Counter clock;
+
+    private final long baseline;
+
+    private final long timeoutMillis;
+
+    private volatile boolean timedOut;
+
+    /**
+     * @param delegate      被包装的 CollectorManager
+     * @param timeoutMillis 超时时间（毫秒），小于等于0时不限制；计时精度为20毫秒
+     */
+    public TimeLimitedCollectorManager(CollectorManager<C, T> delegate, long timeoutMillis) {
+        this.delegate = delegate;
+        this.timeoutMillis = timeoutMillis;
+        this.clock = TimeLimitingCollector.getGlobalCounter();
+        this.baseline = clock.get();
+    }
+
+    /**
+     * 按相关度收集前n条
+     *
+     * @param n             最大结果条数
+     * @param after         上一页最后一条结果，不分页时为null
+     * @param timeoutMillis 超时时间（毫秒）
+     */
+    public static TimeLimitedCollectorManager<TopScoreDocCollector, TopDocs> topDocs(int n, ScoreDoc after,
+                                                                                   long timeoutMillis) {
+        return new TimeLimitedCollectorManager<>(new CollectorManager<TopScoreDocCollector, TopDocs>() {
+            @Override
+            public TopScoreDocCollector newCollector() {
+                return TopScoreDocCollector.create(n, after);
+            }
+
+            @Override
+            public TopDocs reduce(Collection<TopScoreDocCollector> collectors) {
+                TopDocs[] topDocs = new TopDocs[collectors.size()];
+                int i = 0;
+                for (TopScoreDocCollector collector : collectors) {
+                    topDocs[i++] = collector.topDocs();
+                }
+                return TopDocs.merge(0, n, topDocs, true);
+            }
+        }, timeoutMillis);
+    }
+
+    /**
+     * 按指定排序收集前n条
+     *
+     * @param sort          排序策略
+     * @param n             最大结果条数
+     * @param after         上一页最后一条结果，不分页时为null
+     * @param timeoutMillis 超时时间（毫秒）
+     */
+    public static TimeLimitedCollectorManager<TopFieldCollector, TopFieldDocs> topFieldDocs(Sort sort, int n,
+                                                                                          FieldDoc after,
+                                                                                          long timeoutMillis) {
+        return new TimeLimitedCollectorManager<>(new CollectorManager<TopFieldCollector, TopFieldDocs>() {
+            @Override
+            public TopFieldCollector newCollector() {
+                return TopFieldCollector.create(sort, n, after, true, false, false, true);
+            }
+
+            @Override
+            public TopFieldDocs reduce(Collection<TopFieldCollector> collectors) {
+                TopFieldDocs[] topDocs = new TopFieldDocs[collectors.size()];
+                int i = 0;
+                for (TopFieldCollector collector : collectors) {
+                    topDocs[i++] = collector.topDocs();
+                }
+                return TopDocs.merge(sort, 0, n, topDocs, true);
+            }
+        }, timeoutMillis);
+    }
+
+    /**
+     * 统计命中总数
+     *
+     * @param timeoutMillis 超时时间（毫秒）
+     */
+    public static TimeLimitedCollectorManager<TotalHitCountCollector, Integer> count(long timeoutMillis) {
+        return new TimeLimitedCollectorManager<>(new CollectorManager<TotalHitCountCollector, Integer>() {
+            @Override
+            public TotalHitCountCollector newCollector() {
+                return new TotalHitCountCollector();
+            }
+
+            @Override
+            public Integer reduce(Collection<TotalHitCountCollector> collectors) {
+                int total = 0;
+                for (TotalHitCountCollector collector : collectors) {
+                    total += collector.getTotalHits();
+                }
+                return total;
+            }
+        }, timeoutMillis);
+    }
+
+    /**
+     * 是否超时，超时时结果只包含部分段
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    @Override
+    public Collector newCollector() throws IOException {
+        C collector = delegate.newCollector();
+        if (timeoutMillis <= 0) {
+            return new SliceCollector<>(collector, collector);
+        }
+        TimeLimitingCollector limited = new TimeLimitingCollector(collector, clock, timeoutMillis);
+        limited.setBaseline(baseline);
+        return new SliceCollector<>(limited, collector);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T reduce(Collection<Collector> collectors) throws IOException {
+        List<C> unwrapped = new ArrayList<>(collectors.size());
+        for (Collector collector : collectors) {
+            unwrapped.add(((SliceCollector<C>) collector).target);
+        }
+        return delegate.reduce(unwrapped);
+    }
+
+    /**
+     * 把超时异常转换为 {@link CollectionTerminatedException}，IndexSearcher 收到后结束当前段继续下一个段，
+     * 下一个段在 getLeafCollector 时再次超时，从而跳过剩余的段而保留已收集的结果
+     */
+    private final class SliceCollector<D extends Collector> extends FilterCollector {
+
+        private final D target;
+
+        private SliceCollector(Collector in, D target) {
+            super(in);
+            this.target = target;
+        }
+
+        @Override
+        public LeafCollector getLeafCollector(LeafReaderContext context) throws IOException {
+            LeafCollector leafCollector;
+            try {
+                leafCollector = super.getLeafCollector(context);
+            } catch (TimeLimitingCollector.TimeExceededException e) {
+                timedOut = true;
+                throw new CollectionTerminatedException();
+            }
+            return new FilterLeafCollector(leafCollector) {
+                @Override
+                public void collect(int doc) throws IOException {
+                    try {
+                        super.collect(doc);
+                    } catch (TimeLimitingCollector.TimeExceededException e) {
+                        timedOut = true;
+                        throw new CollectionTerminatedException();
+                    }
+                }
+            };
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.magictool.web.util.lucene.facet;
+
+import com.magictool.web.util.lucene.BoolQueryBuilders;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 下钻查询：在基础查询上按分面字段逐层过滤
+ * <p>
+ * 同一个字段选中的多个值之间是“或”，不同字段之间是“且”。过滤条件作为 FILTER 子句，不影响得分，
+ * 并且可以被 LRUQueryCache 缓存。
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+public class DrillDownQuery {
+
+    private final Query baseQuery;
+
+    private final Map<String, Query> dimensions = new LinkedHashMap<>();
+
+    /**
+     * @param baseQuery 基础查询，为null时匹配所有文档
+     */
+    public DrillDownQuery(Query baseQuery) {
+        this.baseQuery = baseQuery == null ? new MatchAllDocsQuery() : baseQuery;
+    }
+
+    /**
+     * 按分类值过滤，重复调用同一个字段会覆盖之前的选择
+     *
+     * @param field  分面字段
+     * @param values 选中的值
+     * @return this
+     */
+    public DrillDownQuery add(String field, String... values) {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("values must not be empty, field=" + field);
+        }
+        if (values.length == 1) {
+            dimensions.put(field, new TermQuery(new Term(field, values[0])));
+            return this;
+        }
+        BoolQueryBuilders builders = new BoolQueryBuilders();
+        for (String value : values) {
+            builders.should(new TermQuery(new Term(field, value)));
+        }
+        dimensions.put(field, builders.build());
+        return this;
+    }
+
+    /**
+     * 按数值区间过滤，重复调用同一个字段会覆盖之前的选择
+     *
+     * @param field  分面字段
+     * @param ranges 选中的区间
+     * @return this
+     */
+    public DrillDownQuery add(String field, FacetRange... ranges) {
+        if (ranges.length == 0) {
+            throw new IllegalArgumentException("ranges must not be empty, field=" + field);
+        }
+        if (ranges.length == 1) {
+            dimensions.put(field, ranges[0].toQuery(field));
+            return this;
+        }
+        BoolQueryBuilders builders = new BoolQueryBuilders();
+        for (FacetRange range : ranges) {
+            builders.should(range.toQuery(field));
+        }
+        dimensions.put(field, builders.build());
+        return this;
+    }
+
+    /**
+     * 使用自定义的过滤条件，重复调用同一个字段会覆盖之前的选择
+     *
+     * @param field 分面字段
+     * @param query 过滤条件
+     * @return this
+     */
+    public DrillDownQuery add(String field, Query query) {
+        dimensions.put(field, query);
+        return this;
+    }
+
+    public Query getBaseQuery() {
+        return baseQuery;
+    }
+
+    /**
+     * 字段 -> 过滤条件，按添加顺序
+     */
+    public Map<String, Query> getDimensions() {
+        return Collections.unmodifiableMap(dimensions);
+    }
+
+    /**
+     * 组合为普通查询：基础查询作为 MUST，各字段的过滤条件作为 FILTER
+     */
+    public Query build() {
+        if (dimensions.isEmpty()) {
+            return baseQuery;
+        }
+        BoolQueryBuilders builders = new BoolQueryBuilders().must(baseQuery);
+        for (Query query : dimensions.values()) {
+            builders.filter(query);
+        }
+        return builders.build();
+    }
+
+    @Override
+    public String toString() {
+        return build().toString();
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.magictool.web.util.lucene.facet;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.TopDocsCollector;
+import org.apache.lucene.search.Weight;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 一次遍历同时收集命中文档和分面计数
+ * <p>
+ * 有侧向下钻字段时，遍历的是基础查询的命中，每个文档逐个检查下钻条件：
+ * 满足全部条件的文档计入命中和所有分面；只有一个字段不满足的文档只计入该字段自己的分面，
+ * 这样被选中的字段仍然能统计出其他可选值的数量（drill sideways）。
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+class FacetCollector implements Collector {
+
+    private final TopDocsCollector<?> hits;
+
+    private final FacetCounter[] counters;
+
+    private final Weight[] dimensionWeights;
+
+    /**
+     * 下钻字段对应的计数器下标，该字段没有分面请求时为-1
+     */
+    private final int[] dimensionCounters;
+
+    private long totalHits;
+
+    /**
+     * @param hits              命中文档收集器，为null时只计数
+     * @param counters          分面计数器
+     * @param dimensionWeights  侧向下钻的过滤条件
+     * @param dimensionCounters 下钻字段对应的计数器下标
+     */
+    FacetCollector(TopDocsCollector<?> hits, List<FacetCounter> counters, Weight[] dimensionWeights,
+                   int[] dimensionCounters) {
+        this.hits = hits;
+        this.counters = counters.toArray(new FacetCounter[0]);
+        this.dimensionWeights = dimensionWeights;
+        this.dimensionCounters = dimensionCounters;
+    }
+
+    TopDocsCollector<?> getHits() {
+        return hits;
+    }
+
+    FacetCounter[] getCounters() {
+        return counters;
+    }
+
+    long getTotalHits() {
+        return totalHits;
+    }
+
+    void finish() throws IOException {
+        for (FacetCounter counter : counters) {
+            counter.finish();
+        }
+    }
+
+    @Override
+    public LeafCollector getLeafCollector(LeafReaderContext context) throws IOException {
+        for (FacetCounter counter : counters) {
+            counter.setNextReader(context.reader());
+        }
+        LeafCollector hitsLeaf = hits == null ? null : hits.getLeafCollector(context);
+        DocIdSetIterator[] dimensions = new DocIdSetIterator[dimensionWeights.length];
+        for (int i = 0; i < dimensionWeights.length; i++) {
+            Scorer scorer = dimensionWeights[i].scorer(context);
+            dimensions[i] = scorer == null ? null : scorer.iterator();
+        }
+        return new LeafCollector() {
+            @Override
+            public void setScorer(Scorer scorer) throws IOException {
+                if (hitsLeaf != null) {
+                    hitsLeaf.setScorer(scorer);
+                }
+            }
+
+            @Override
+            public void collect(int doc) throws IOException {
+                int failed = -1;
+                for (int i = 0; i < dimensions.length; i++) {
+                    if (!matches(dimensions[i], doc)) {
+                        if (failed >= 0) {
+                            // 两个以上字段不满足，不计入任何统计
+                            return;
+                        }
+                        failed = i;
+                    }
+                }
+                if (failed < 0) {
+                    totalHits++;
+                    if (hitsLeaf != null) {
+                        hitsLeaf.collect(doc);
+                    }
+                    for (FacetCounter counter : counters) {
+                        counter.collect(doc);
+                    }
+                } else if (dimensionCounters[failed] >= 0) {
+                    counters[dimensionCounters[failed]].collect(doc);
+                }
+            }
+        };
+    }
+
+    @Override
+    public boolean needsScores() {
+        return hits != null && hits.needsScores();
+    }
+
+    private static boolean matches(DocIdSetIterator iterator, int doc) throws IOException {
+        if (iterator == null) {
+            return false;
+        }
+        int current = iterator.docID();
+        if (current < doc) {
+            current = iterator.advance(doc);
+        }
+        return current == doc;
+    }
+
+}
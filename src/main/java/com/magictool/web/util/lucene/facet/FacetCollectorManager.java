@@ -0,0 +1,99 @@
+package com.magictool.web.util.lucene.facet;
+
+import org.apache.lucene.search.CollectorManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopDocsCollector;
+import org.apache.lucene.search.TopFieldCollector;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.search.Weight;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分面收集器管理器，开启并行搜索时每个切片一个 {@link FacetCollector}，最后合并命中和计数
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+class FacetCollectorManager implements CollectorManager<FacetCollector, FacetSearchResult> {
+
+    private final int n;
+
+    private final Sort sort;
+
+    private final List<FacetRequest> requests;
+
+    private final Weight[] dimensionWeights;
+
+    private final int[] dimensionCounters;
+
+    FacetCollectorManager(int n, Sort sort, List<FacetRequest> requests, Weight[] dimensionWeights,
+                          int[] dimensionCounters) {
+        this.n = n;
+        this.sort = sort;
+        this.requests = requests;
+        this.dimensionWeights = dimensionWeights;
+        this.dimensionCounters = dimensionCounters;
+    }
+
+    @Override
+    public FacetCollector newCollector() {
+        List<FacetCounter> counters = new ArrayList<>(requests.size());
+        for (FacetRequest request : requests) {
+            counters.add(FacetCounter.create(request));
+        }
+        TopDocsCollector<?> hits = null;
+        if (n > 0) {
+            hits = sort == null ? TopScoreDocCollector.create(n) : TopFieldCollector.create(sort, n, true, false, false, true);
+        }
+        return new FacetCollector(hits, counters, dimensionWeights, dimensionCounters);
+    }
+
+    @Override
+    public FacetSearchResult reduce(Collection<FacetCollector> collectors) throws IOException {
+        Iterator<FacetCollector> iterator = collectors.iterator();
+        FacetCollector first = iterator.next();
+        first.finish();
+        long totalHits = first.getTotalHits();
+        while (iterator.hasNext()) {
+            FacetCollector collector = iterator.next();
+            collector.finish();
+            totalHits += collector.getTotalHits();
+            FacetCounter[] counters = collector.getCounters();
+            for (int i = 0; i < counters.length; i++) {
+                first.getCounters()[i].merge(counters[i]);
+            }
+        }
+        Map<String, FacetResult> facets = new LinkedHashMap<>();
+        for (FacetCounter counter : first.getCounters()) {
+            facets.put(counter.request.getField(), counter.result());
+        }
+        return new FacetSearchResult(n > 0 ? mergeHits(collectors) : null, totalHits, facets);
+    }
+
+    private TopDocs mergeHits(Collection<FacetCollector> collectors) {
+        if (sort == null) {
+            TopDocs[] topDocs = new TopDocs[collectors.size()];
+            int i = 0;
+            for (FacetCollector collector : collectors) {
+                topDocs[i++] = collector.getHits().topDocs();
+            }
+            return TopDocs.merge(0, n, topDocs, true);
+        }
+        TopFieldDocs[] topDocs = new TopFieldDocs[collectors.size()];
+        int i = 0;
+        for (FacetCollector collector : collectors) {
+            topDocs[i++] = (TopFieldDocs) collector.getHits().topDocs();
+        }
+        return TopDocs.merge(sort, 0, n, topDocs, true);
+    }
+
+}
@@ -0,0 +1,265 @@
+package com.magictool.web.util.lucene.facet;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.util.ArrayUtil;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 单个分面字段的计数器，每个段依次调用 setNextReader / collect，最后调用 finish
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+abstract class FacetCounter {
+
+    final FacetRequest request;
+
+    /**
+     * 有该字段值的文档数
+     */
+    long totalCount;
+
+    FacetCounter(FacetRequest request) {
+        this.request = request;
+    }
+
+    static FacetCounter create(FacetRequest request) {
+        return request.getType() == FacetRequest.Type.RANGE ? new RangeCounter(request) : new TermsCounter(request);
+    }
+
+    /**
+     * 切换到下一个段，同时结算上一个段
+     */
+    abstract void setNextReader(LeafReader reader) throws IOException;
+
+    abstract void collect(int doc) throws IOException;
+
+    /**
+     * 结算最后一个段
+     */
+    abstract void finish() throws IOException;
+
+    /**
+     * 合并其他切片的计数，两者都已经 finish
+     */
+    abstract void merge(FacetCounter other);
+
+    abstract FacetResult result();
+
+    /**
+     * 分类计数：段内按序号计数，切换段时把有计数的序号转换为字符串合并，不需要构建全局序号映射
+     * <p>
+     * 序号数不超过 {@link #MAX_DENSE_ORDS} 的段使用计数数组，数组在各段之间复用，结算时只遍历并清零计过数的序号；
+     * 序号更多的段（高基数字段）只记录命中的序号，结算时排序后按连续相同的序号计数，内存与命中数成正比。
+     */
+    private static final class TermsCounter extends FacetCounter {
+
+        private static final int MAX_DENSE_ORDS = 1 << 16;
+
+        private final Map<String, Long> counts = new HashMap<>();
+
+        private SortedSetDocValues docValues;
+
+        private boolean dense;
+
+        private int[] denseCounts = new int[0];
+
+        /**
+         * 计数数组中大于0的序号
+         */
+        private int[] touchedOrds = new int[0];
+
+        private int touchedSize;
+
+        /**
+         * 高基数段中命中的序号，可能重复
+         */
+        private long[] sparseOrds = new long[0];
+
+        private int sparseSize;
+
+        private TermsCounter(FacetRequest request) {
+            super(request);
+        }
+
+        @Override
+        void setNextReader(LeafReader reader) throws IOException {
+            finish();
+            docValues = DocValues.getSortedSet(reader, request.getField());
+            long valueCount = docValues.getValueCount();
+            dense = valueCount <= MAX_DENSE_ORDS;
+            if (dense && denseCounts.length < valueCount) {
+                denseCounts = new int[(int) valueCount];
+            }
+        }
+
+        @Override
+        void collect(int doc) throws IOException {
+            if (docValues == null || !docValues.advanceExact(doc)) {
+                return;
+            }
+            totalCount++;
+            for (long ord = docValues.nextOrd(); ord != SortedSetDocValues.NO_MORE_ORDS; ord = docValues.nextOrd()) {
+                if (!dense) {
+                    sparseOrds = ArrayUtil.grow(sparseOrds, sparseSize + 1);
+                    sparseOrds[sparseSize++] = ord;
+                } else if (denseCounts[(int) ord]++ == 0) {
+                    touchedOrds = ArrayUtil.grow(touchedOrds, touchedSize + 1);
+                    touchedOrds[touchedSize++] = (int) ord;
+                }
+            }
+        }
+
+        @Override
+        void finish() throws IOException {
+            if (docValues == null) {
+                return;
+            }
+            if (dense) {
+                for (int i = 0; i < touchedSize; i++) {
+                    int ord = touchedOrds[i];
+                    add(ord, denseCounts[ord]);
+                    denseCounts[ord] = 0;
+                }
+                touchedSize = 0;
+            } else {
+                Arrays.sort(sparseOrds, 0, sparseSize);
+                int start = 0;
+                while (start < sparseSize) {
+                    int end = start + 1;
+                    while (end < sparseSize && sparseOrds[end] == sparseOrds[start]) {
+                        end++;
+                    }
+                    add(sparseOrds[start], end - start);
+                    start = end;
+                }
+                sparseSize = 0;
+            }
+            docValues = null;
+        }
+
+        private void add(long ord, int count) throws IOException {
+            counts.merge(docValues.lookupOrd(ord).utf8ToString(), (long) count, Long::sum);
+        }
+
+        @Override
+        void merge(FacetCounter other) {
+            totalCount += other.totalCount;
+            ((TermsCounter) other).counts.forEach((label, count) -> counts.merge(label, count, Long::sum));
+        }
+
+        @Override
+        FacetResult result() {
+            Comparator<Map.Entry<String, Long>> order = Comparator.<Map.Entry<String, Long>>comparingLong(Map.Entry::getValue)
+                    .reversed().thenComparing(Map.Entry::getKey);
+            // 小顶堆（按 order 倒序）保留前N个
+            PriorityQueue<Map.Entry<String, Long>> top = new PriorityQueue<>(request.getTopN() + 1, order.reversed());
+            for (Map.Entry<String, Long> entry : counts.entrySet()) {
+                top.offer(entry);
+                if (top.size() > request.getTopN()) {
+                    top.poll();
+                }
+            }
+            List<Map.Entry<String, Long>> entries = new ArrayList<>(top);
+            entries.sort(order);
+            List<FacetResult.LabelAndCount> values = new ArrayList<>(entries.size());
+            for (Map.Entry<String, Long> entry : entries) {
+                values.add(new FacetResult.LabelAndCount(entry.getKey(), entry.getValue()));
+            }
+            return new FacetResult(request.getField(), totalCount, counts.size(), values);
+        }
+    }
+
+    /**
+     * 区间计数，一个文档在同一个区间内只计一次
+     */
+    private static final class RangeCounter extends FacetCounter {
+
+        private final FacetRange[] ranges;
+
+        private final long[] counts;
+
+        private SortedNumericDocValues docValues;
+
+        private RangeCounter(FacetRequest request) {
+            super(request);
+            this.ranges = request.getRanges().toArray(new FacetRange[0]);
+            this.counts = new long[ranges.length];
+        }
+
+        @Override
+        void setNextReader(LeafReader reader) throws IOException {
+            docValues = DocValues.getSortedNumeric(reader, request.getField());
+        }
+
+        @Override
+        void collect(int doc) throws IOException {
+            if (!docValues.advanceExact(doc)) {
+                return;
+            }
+            totalCount++;
+            int valueCount = docValues.docValueCount();
+            if (valueCount == 1) {
+                long value = docValues.nextValue();
+                for (int i = 0; i < ranges.length; i++) {
+                    if (ranges[i].accept(value)) {
+                        counts[i]++;
+                    }
+                }
+                return;
+            }
+            // 多值时值按升序返回，每个区间只要有一个值落入即可
+            long[] values = new long[valueCount];
+            for (int i = 0; i < valueCount; i++) {
+                values[i] = docValues.nextValue();
+            }
+            for (int i = 0; i < ranges.length; i++) {
+                for (long value : values) {
+                    if (ranges[i].accept(value)) {
+                        counts[i]++;
+                        break;
+                    }
+                }
+            }
+        }
+
+        @Override
+        void finish() {
+            docValues = null;
+        }
+
+        @Override
+        void merge(FacetCounter other) {
+            totalCount += other.totalCount;
+            long[] otherCounts = ((RangeCounter) other).counts;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += otherCounts[i];
+            }
+        }
+
+        @Override
+        FacetResult result() {
+            List<FacetResult.LabelAndCount> values = new ArrayList<>(ranges.length);
+            int childCount = 0;
+            for (int i = 0; i < ranges.length; i++) {
+                values.add(new FacetResult.LabelAndCount(ranges[i].getLabel(), counts[i]));
+                if (counts[i] > 0) {
+                    childCount++;
+                }
+            }
+            return new FacetResult(request.getField(), totalCount, childCount, values);
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.magictool.web.util.lucene.facet;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.util.BytesRef;
+
+/**
+ * 写入分面字段
+ * <p>
+ * 分面统计只读取 DocValues（列式存储，按文档编号顺序访问），不加载存储字段；
+ * 同名的索引字段（StringField / LongPoint）用于下钻过滤。分面字段不要和全文检索字段同名。
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+public final class FacetFields {
+
+    private FacetFields() {
+    }
+
+    /**
+     * 添加分类分面值，一个文档可以有多个值
+     *
+     * @param document 文档
+     * @param field    分面字段
+     * @param values   分类值
+     */
+    public static void addTerms(Document document, String field, String... values) {
+        for (String value : values) {
+            document.add(new SortedSetDocValuesField(field, new BytesRef(value)));
+            document.add(new StringField(field, value, Field.Store.NO));
+        }
+    }
+
+    /**
+     * 添加数值分面值，用于区间统计，一个文档可以有多个值
+     *
+     * @param document 文档
+     * @param field    分面字段
+     * @param values   数值
+     */
+    public static void addLongs(Document document, String field, long... values) {
+        for (long value : values) {
+            document.add(new SortedNumericDocValuesField(field, value));
+            document.add(new LongPoint(field, value));
+        }
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.magictool.web.util.lucene.facet;
+
+import lombok.Getter;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.search.Query;
+
+/**
+ * 数值区间，上下界都包含
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+@Getter
+public final class FacetRange {
+
+    private final String label;
+
+    private final long min;
+
+    private final long max;
+
+    private FacetRange(String label, long min, long max) {
+        if (min > max) {
+            throw new IllegalArgumentException("min must not be greater than max, label=" + label);
+        }
+        this.label = label;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * @param label 区间名称
+     * @param min   下界（包含）
+     * @param max   上界（包含）
+     */
+    public static FacetRange of(String label, long min, long max) {
+        return new FacetRange(label, min, max);
+    }
+
+    /**
+     * 大于等于 min 的区间
+     */
+    public static FacetRange atLeast(String label, long min) {
+        return new FacetRange(label, min, Long.MAX_VALUE);
+    }
+
+    /**
+     * 小于等于 max 的区间
+     */
+    public static FacetRange atMost(String label, long max) {
+        return new FacetRange(label, Long.MIN_VALUE, max);
+    }
+
+    public boolean accept(long value) {
+        return value >= min && value <= max;
+    }
+
+    /**
+     * 下钻过滤用的查询，需要字段通过 {@link FacetFields#addLongs} 写入
+     */
+    public Query toQuery(String field) {
+        return LongPoint.newRangeQuery(field, min, max);
+    }
+
+    @Override
+    public String toString() {
+        return label + "[" + min + ", " + max + "]";
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.magictool.web.util.lucene.facet;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 分面统计请求
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+@Getter
+public final class FacetRequest {
+
+    public enum Type {
+
+        /**
+         * 按分类值计数，取数量最多的前N个
+         */
+        TERMS,
+
+        /**
+         * 按数值区间计数
+         */
+        RANGE
+    }
+
+    private final Type type;
+
+    private final String field;
+
+    private final int topN;
+
+    private final List<FacetRange> ranges;
+
+    private FacetRequest(Type type, String field, int topN, List<FacetRange> ranges) {
+        this.type = type;
+        this.field = field;
+        this.topN = topN;
+        this.ranges = ranges;
+    }
+
+    /**
+     * 分类计数，字段需要通过 {@link FacetFields#addTerms} 写入
+     *
+     * @param field 分面字段
+     * @param topN  返回数量最多的前N个值
+     */
+    public static FacetRequest terms(String field, int topN) {
+        if (topN <= 0) {
+            throw new IllegalArgumentException("topN must be greater than 0");
+        }
+        return new FacetRequest(Type.TERMS, field, topN, Collections.emptyList());
+    }
+
+    /**
+     * 区间计数，字段需要通过 {@link FacetFields#addLongs} 写入，区间可以重叠
+     *
+     * @param field  分面字段
+     * @param ranges 区间，结果按传入顺序返回
+     */
+    public static FacetRequest ranges(String field, FacetRange... ranges) {
+        if (ranges.length == 0) {
+            throw new IllegalArgumentException("ranges must not be empty");
+        }
+        return new FacetRequest(Type.RANGE, field, ranges.length, Collections.unmodifiableList(Arrays.asList(ranges)));
+    }
+
+}
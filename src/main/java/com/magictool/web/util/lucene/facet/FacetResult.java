@@ -0,0 +1,48 @@
+package com.magictool.web.util.lucene.facet;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 单个字段的分面统计结果
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FacetResult implements Serializable {
+
+    private static final long serialVersionUID = -3416630829117409613L;
+
+    /** 分面字段 */
+    private String field;
+
+    /** 有该字段值的命中文档数 */
+    private long totalCount;
+
+    /** 不同值的数量（区间统计时为有计数的区间数） */
+    private int childCount;
+
+    /** 按数量倒序的前N个值，区间统计时按请求顺序 */
+    private List<LabelAndCount> values = new ArrayList<>();
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class LabelAndCount implements Serializable {
+
+        private static final long serialVersionUID = 6094176612379547803L;
+
+        private String label;
+
+        private long count;
+    }
+
+}
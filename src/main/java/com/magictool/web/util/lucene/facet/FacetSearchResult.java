@@ -0,0 +1,28 @@
+package com.magictool.web.util.lucene.facet;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.apache.lucene.search.TopDocs;
+
+import java.util.Map;
+
+/**
+ * 命中结果和分面统计结果，文档编号与执行查询的 searcher 绑定
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+@Data
+@AllArgsConstructor
+public class FacetSearchResult {
+
+    /** 得分前n名的文档，n 为0时为null */
+    private TopDocs topDocs;
+
+    /** 命中总数 */
+    private long totalHits;
+
+    /** 分面字段 -> 统计结果，按请求顺序 */
+    private Map<String, FacetResult> facets;
+
+}
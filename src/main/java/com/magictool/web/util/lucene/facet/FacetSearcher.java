@@ -0,0 +1,119 @@
+package com.magictool.web.util.lucene.facet;
+
+import com.magictool.web.util.lucene.BoolQueryBuilders;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.Weight;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 分面搜索
+ * <p>
+ * 命中文档和各字段计数在同一次遍历中完成，计数只读 DocValues，不加载存储字段。
+ * searcher 为 {@link com.magictool.web.util.lucene.ParallelIndexSearcher} 时各个切片并行统计后合并。
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+public final class FacetSearcher {
+
+    private FacetSearcher() {
+    }
+
+    /**
+     * 查询并统计分面
+     *
+     * @param searcher 搜索对象
+     * @param query    查询对象
+     * @param n        返回得分前n名的文档，0表示只统计
+     * @param requests 分面请求，每个字段一个
+     */
+    public static FacetSearchResult search(IndexSearcher searcher, Query query, int n, FacetRequest... requests)
+            throws IOException {
+        return search(searcher, query, n, null, requests);
+    }
+
+    /**
+     * 查询并统计分面
+     *
+     * @param searcher 搜索对象
+     * @param query    查询对象
+     * @param n        返回前n名的文档，0表示只统计
+     * @param sort     排序策略，为null时按相关度
+     * @param requests 分面请求，每个字段一个
+     */
+    public static FacetSearchResult search(IndexSearcher searcher, Query query, int n, Sort sort,
+                                           FacetRequest... requests) throws IOException {
+        List<FacetRequest> list = checkRequests(requests);
+        return searcher.search(query, new FacetCollectorManager(limit(searcher, n), sort, list, new Weight[0], new int[0]));
+    }
+
+    /**
+     * 下钻查询并侧向统计（drill sideways）
+     * <p>
+     * 命中文档满足所有下钻条件；有分面请求的下钻字段，其计数忽略该字段自己的条件，
+     * 例如选中“品牌=A”后品牌分面仍然返回 B、C 的数量，可以直接用来切换或多选。
+     * 没有分面请求的下钻字段作为普通过滤条件。
+     *
+     * @param searcher  搜索对象
+     * @param drillDown 下钻查询
+     * @param n         返回前n名的文档，0表示只统计
+     * @param sort      排序策略，为null时按相关度
+     * @param requests  分面请求，每个字段一个
+     */
+    public static FacetSearchResult drillSideways(IndexSearcher searcher, DrillDownQuery drillDown, int n, Sort sort,
+                                                  FacetRequest... requests) throws IOException {
+        List<FacetRequest> list = checkRequests(requests);
+        BoolQueryBuilders base = new BoolQueryBuilders().must(drillDown.getBaseQuery());
+        List<Weight> weights = new ArrayList<>();
+        List<Integer> counters = new ArrayList<>();
+        for (Map.Entry<String, Query> dimension : drillDown.getDimensions().entrySet()) {
+            int counter = indexOf(list, dimension.getKey());
+            if (counter < 0) {
+                base.filter(dimension.getValue());
+            } else {
+                weights.add(searcher.createNormalizedWeight(dimension.getValue(), false));
+                counters.add(counter);
+            }
+        }
+        Query query = base.build();
+        if (weights.isEmpty()) {
+            return searcher.search(query, new FacetCollectorManager(limit(searcher, n), sort, list, new Weight[0],
+                    new int[0]));
+        }
+        return searcher.search(query, new FacetCollectorManager(limit(searcher, n), sort, list,
+                weights.toArray(new Weight[0]), counters.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    private static List<FacetRequest> checkRequests(FacetRequest[] requests) {
+        Set<String> fields = new HashSet<>();
+        for (FacetRequest request : requests) {
+            if (!fields.add(request.getField())) {
+                throw new IllegalArgumentException("duplicate facet field: " + request.getField());
+            }
+        }
+        return Arrays.asList(requests);
+    }
+
+    private static int indexOf(List<FacetRequest> requests, String field) {
+        for (int i = 0; i < requests.size(); i++) {
+            if (requests.get(i).getField().equals(field)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int limit(IndexSearcher searcher, int n) {
+        return n <= 0 ? 0 : Math.max(1, Math.min(n, searcher.getIndexReader().maxDoc()));
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.magictool.web.util.lucene.highlight;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexOptions;
+
+/**
+ * 写入需要高亮的文本字段
+ * <p>
+ * 倒排表中额外记录每个词的字符偏移，高亮时直接按偏移截取片段，不需要重新分词；
+ * 普通 TextField 也能高亮，但每个命中都要把存储的原文重新分词一遍。
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+public final class HighlightFields {
+
+    /**
+     * 分词、存储原文、倒排表带偏移
+     */
+    public static final FieldType TYPE_STORED_WITH_OFFSETS;
+
+    static {
+        TYPE_STORED_WITH_OFFSETS = new FieldType(TextField.TYPE_STORED);
+        TYPE_STORED_WITH_OFFSETS.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+        TYPE_STORED_WITH_OFFSETS.freeze();
+    }
+
+    private HighlightFields() {
+    }
+
+    /**
+     * 创建带偏移的文本字段
+     *
+     * @param name  字段名
+     * @param value 文本
+     */
+    public static Field newTextField(String name, String value) {
+        return new Field(name, value, TYPE_STORED_WITH_OFFSETS);
+    }
+
+    /**
+     * 添加带偏移的文本字段
+     *
+     * @param document 文档
+     * @param name     字段名
+     * @param value    文本
+     */
+    public static void addText(Document document, String name, String value) {
+        document.add(newTextField(name, value));
+    }
+
+}
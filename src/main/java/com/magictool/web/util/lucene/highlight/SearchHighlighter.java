@@ -0,0 +1,116 @@
+package com.magictool.web.util.lucene.highlight;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.PassageFormatter;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于 {@link UnifiedHighlighter} 的搜索结果高亮
+ * <p>
+ * 一次调用高亮所有命中文档的多个字段：文档按编号排序后每个文档只读一次存储字段，
+ * 字段通过 {@link HighlightFields} 写入时直接使用倒排表中的偏移，否则退化为重新分词。
+ * 没有命中关键字的文档返回开头的片段。配置创建后不变，可以被多个线程共享。
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+public class SearchHighlighter {
+
+    public static final String DEFAULT_PRE_TAG = "<span style='color:red'>";
+
+    public static final String DEFAULT_POST_TAG = "</span>";
+
+    public static final String DEFAULT_ELLIPSIS = "...";
+
+    private final Analyzer analyzer;
+
+    private final PassageFormatter formatter;
+
+    private final int maxPassages;
+
+    private final int maxLength;
+
+    /**
+     * @param analyzer 写索引时使用的分词器，字段没有偏移时用于重新分词
+     */
+    public SearchHighlighter(Analyzer analyzer) {
+        this(analyzer, DEFAULT_PRE_TAG, DEFAULT_POST_TAG, 1, UnifiedHighlighter.DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * @param analyzer    写索引时使用的分词器
+     * @param preTag      关键字前缀标签
+     * @param postTag     关键字后缀标签
+     * @param maxPassages 每个字段最多返回的片段数（按句子切分）
+     * @param maxLength   每个字段最多分析的字符数，超出部分不高亮
+     */
+    public SearchHighlighter(Analyzer analyzer, String preTag, String postTag, int maxPassages, int maxLength) {
+        if (maxPassages <= 0) {
+            throw new IllegalArgumentException("maxPassages must be greater than 0");
+        }
+        this.analyzer = analyzer;
+        this.formatter = new DefaultPassageFormatter(preTag, postTag, DEFAULT_ELLIPSIS, false);
+        this.maxPassages = maxPassages;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * 高亮命中文档的多个字段
+     *
+     * @param searcher 执行查询的 searcher，文档编号与其绑定
+     * @param query    查询对象
+     * @param topDocs  查询结果
+     * @param fields   要高亮的字段，必须是存储字段
+     * @return 字段 -> 每个命中文档的高亮片段（与 topDocs.scoreDocs 顺序一致，字段没有值时为null）
+     */
+    public Map<String, String[]> highlight(IndexSearcher searcher, Query query, TopDocs topDocs, String... fields)
+            throws IOException {
+        if (fields.length == 0 || topDocs.scoreDocs.length == 0) {
+            Map<String, String[]> empty = new HashMap<>();
+            for (String field : fields) {
+                empty.put(field, new String[topDocs.scoreDocs.length]);
+            }
+            return empty;
+        }
+        int[] passages = new int[fields.length];
+        Arrays.fill(passages, maxPassages);
+        return newHighlighter(searcher).highlightFields(fields, query, topDocs, passages);
+    }
+
+    /**
+     * 高亮命中文档的多个字段，按命中顺序返回每个文档的 字段 -> 高亮片段
+     */
+    public List<Map<String, String>> highlightHits(IndexSearcher searcher, Query query, TopDocs topDocs,
+                                                   String... fields) throws IOException {
+        Map<String, String[]> byField = highlight(searcher, query, topDocs, fields);
+        List<Map<String, String>> hits = new ArrayList<>(topDocs.scoreDocs.length);
+        for (int i = 0; i < topDocs.scoreDocs.length; i++) {
+            Map<String, String> hit = new HashMap<>(fields.length * 2);
+            for (String field : fields) {
+                hit.put(field, byField.get(field)[i]);
+            }
+            hits.add(hit);
+        }
+        return hits;
+    }
+
+    private UnifiedHighlighter newHighlighter(IndexSearcher searcher) {
+        // UnifiedHighlighter 绑定 searcher，NRT 刷新后 searcher 会变化，每次调用创建一个，创建本身没有开销
+        UnifiedHighlighter highlighter = new UnifiedHighlighter(searcher, analyzer);
+        highlighter.setFormatter(formatter);
+        highlighter.setMaxLength(maxLength);
+        return highlighter;
+    }
+
+}
@@ -0,0 +1,174 @@
+package com.magictool.web.util.redis;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步缓存服务，与 {@link CacheService} 的常用操作一一对应，返回 {@link CompletableFuture}，调用线程不会阻塞在 Redis IO 上
+ * <p>
+ * 回调默认在 Redis 客户端的 IO 线程中执行，回调中不要执行阻塞操作，耗时的处理请使用 {@code thenApplyAsync} 切换线程。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public interface AsyncCacheService {
+
+    /**
+     * 递减1并且返回
+     * @param cacheKey key
+     * @return long
+     */
+    CompletableFuture<Long> decrement(String cacheKey);
+
+    /**
+     * 递增1并且返回，第一次递增时设置过期时间
+     * @param cacheKey key
+     * @param expiredTime timeout
+     * @return long
+     */
+    CompletableFuture<Long> increment(String cacheKey, long expiredTime);
+
+    /**
+     * 由外部传入递增因子进行递增并且返回
+     * @param cacheKey key
+     * @param delta data
+     * @param expiredTime 大于0才设置过期时间，0或小于0不设置过期时间
+     * @return long
+     */
+    CompletableFuture<Long> increment(String cacheKey, long delta, long expiredTime);
+
+    /**
+     * 压入一个对象到cache中
+     * @param cacheKey key
+     * @param data T
+     */
+    <T> CompletableFuture<Void> put(String cacheKey, T data);
+
+    /**
+     * 压入一个对象到cache中
+     * @param cacheKey key
+     * @param data T
+     * @param expiredTime timeout
+     */
+    <T> CompletableFuture<Void> put(String cacheKey, T data, long expiredTime);
+
+    /**
+     * 更新cache key的过期时间
+     * @param cacheKey key
+     * @param expiredTime timeout
+     */
+    CompletableFuture<Void> refresh(String cacheKey, long expiredTime);
+
+    /**
+     * 获取一个缓存对象 通过key和对应的class
+     * @param key key
+     * @param clazzT 类
+     * @return T，不存在时为null
+     */
+    <T> CompletableFuture<T> get(String key, Class<T> clazzT);
+
+    /**
+     * 通过typeReference返回
+     * @param key key
+     * @param typeReference 序列换类型
+     * @return T，不存在时为null
+     */
+    <T> CompletableFuture<T> get(String key, TypeReference<T> typeReference);
+
+    /**
+     * 获取缓存对象用String object方式获取
+     * @param cacheKey key
+     * @return str
+     */
+    CompletableFuture<String> getAsString(String cacheKey);
+
+    /**
+     * 写入cache string类型
+     * @param cacheKey key
+     * @param cacheValue value
+     */
+    CompletableFuture<Void> put(String cacheKey, String cacheValue);
+
+    /**
+     * 写入cache string类型
+     * @param cacheKey key
+     * @param cacheValue value
+     * @param expiredTime timeout
+     */
+    CompletableFuture<Void> put(String cacheKey, String cacheValue, long expiredTime);
+
+    /**
+     * 删除缓存
+     * @param cacheKey key
+     */
+    CompletableFuture<Void> delete(String cacheKey);
+
+    /**
+     * 从队列存储一个字符串
+     * @param cacheKey key
+     * @param cacheValue value
+     */
+    CompletableFuture<Void> lPush(String cacheKey, String cacheValue);
+
+    /**
+     * 从队首获取一个值
+     * @param cacheKey key
+     * @return str
+     */
+    CompletableFuture<String> rpop(String cacheKey);
+
+    /**
+     * 获取队列长度
+     * @param cacheKey key
+     * @return long
+     */
+    CompletableFuture<Long> queueSize(String cacheKey);
+
+    /**
+     * 从队列存储一个对象
+     * @param cacheKey key
+     * @param data value
+     */
+    <T> CompletableFuture<Void> lPushData(String cacheKey, T data);
+
+    /**
+     * 从队首获取一个对象
+     * @param key key
+     * @param clazzT 类
+     * @return T
+     */
+    <T> CompletableFuture<T> rpopData(String key, Class<T> clazzT);
+
+    /**
+     * 获取集合
+     * @param key key
+     * @return List<String>
+     */
+    CompletableFuture<List<String>> getStringList(String key);
+
+    /**
+     * 存储一个list（一次 LPUSH 写入全部元素）
+     * @param key key
+     * @param data value
+     */
+    CompletableFuture<Void> pushStringList(String key, List<String> data);
+
+    /**
+     * 批量获取缓存对象（MGET）
+     * @param keys key集合
+     * @param clazzT 类
+     * @return key -> 对象，不存在的key不包含在结果中
+     */
+    <T> CompletableFuture<Map<String, T>> multiGet(Collection<String> keys, Class<T> clazzT);
+
+    /**
+     * 批量删除缓存（DEL）
+     * @param keys key集合
+     */
+    CompletableFuture<Void> multiDelete(Collection<String> keys);
+
+}
@@ -0,0 +1,428 @@
+package com.magictool.web.util.redis;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.magictool.web.util.redis.codec.CacheCodec;
+import com.magictool.web.util.redis.codec.JacksonCacheCodec;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基于 Lettuce 异步命令的 {@link AsyncCacheService}
+ * <p>
+ * 使用独立的长连接并关闭自动刷出：命令先写入连接的缓冲区，发出命令的线程只在需要时向事件循环提交一次刷出任务，
+ * 同一个事件循环周期内所有线程发出的命令合并为一次网络写入；缓冲的命令数达到 {@code maxBatchSize} 时立即刷出。
+ * 值的编码与 {@link CacheServiceImpl} 相同，两者可以读写同一份数据。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public class AsyncCacheServiceImpl implements AsyncCacheService, Closeable {
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 512;
+
+    private static final TypeFactory TYPE_FACTORY = TypeFactory.defaultInstance();
+
+    private final Logger logger = LoggerFactory.getLogger(AsyncCacheServiceImpl.class);
+
+    private final StatefulRedisConnection<String, byte[]> connection;
+
+    private final RedisAsyncCommands<String, byte[]> commands;
+
+    private final CacheCodec codec;
+
+    private final int maxBatchSize;
+
+    /**
+     * 执行刷出任务的事件循环
+     */
+    private final Executor flushExecutor;
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    public AsyncCacheServiceImpl(RedisClient redisClient) {
+        this(redisClient, JacksonCacheCodec.json(), DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * @param redisClient  redis 客户端，会创建一个独立的连接
+     * @param codec        对象值的编解码方式
+     * @param maxBatchSize 缓冲的命令数达到该值时立即刷出
+     */
+    public AsyncCacheServiceImpl(RedisClient redisClient, CacheCodec codec, int maxBatchSize) {
+        this.connection = redisClient.connect(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE));
+        this.connection.setAutoFlushCommands(false);
+        this.commands = connection.async();
+        this.codec = codec;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.flushExecutor = redisClient.getResources().eventExecutorGroup().next();
+    }
+
+    @Override
+    public CompletableFuture<Long> decrement(String cacheKey) {
+        return dispatch(commands.decr(cacheKey));
+    }
+
+    @Override
+    public CompletableFuture<Long> increment(String cacheKey, long expiredTime) {
+        // 与 CacheServiceImpl 相同的脚本，递增和设置有效期原子完成，key 没有过期时间时才设置
+        return incrementByScript(cacheKey, 1, expiredTime, true);
+    }
+
+    @Override
+    public CompletableFuture<Long> increment(String cacheKey, long delta, long expiredTime) {
+        if (delta < 0) {
+            logger.error("delta must be greater than 0");
+            return CompletableFuture.completedFuture(0L);
+        }
+        return incrementByScript(cacheKey, delta, expiredTime, false);
+    }
+
+    @Override
+    public <T> CompletableFuture<Void> put(String cacheKey, T data) {
+        if (StringUtils.isBlank(cacheKey)) {
+            logger.debug("sorry your cache key is null ，then return now  !!!!!");
+            return done();
+        }
+        byte[] value = encode(data);
+        if (value == null) {
+            return done();
+        }
+        return dispatch(commands.set(cacheKey, value)).thenApply(ok -> null);
+    }
+
+    @Override
+    public <T> CompletableFuture<Void> put(String cacheKey, T data, long expiredTime) {
+        if (StringUtils.isBlank(cacheKey) || expiredTime == 0) {
+            logger.debug("sorry your cache key is null or expired time is 0 ，then return now  !!!!!");
+            return done();
+        }
+        byte[] value = encode(data);
+        if (value == null) {
+            return done();
+        }
+        return set(cacheKey, value, expiredTime);
+    }
+
+    @Override
+    public CompletableFuture<Void> refresh(String cacheKey, long expiredTime) {
+        if (StringUtils.isBlank(cacheKey) || expiredTime == 0) {
+            logger.debug("sorry your cache key is null or expired time is 0 ，then return now  !!!!!");
+            return done();
+        }
+        return dispatch(commands.pexpire(cacheKey, expiredTime)).thenApply(ok -> null);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> get(String key, Class<T> clazzT) {
+        return getAndDecode(key, TYPE_FACTORY.constructType(clazzT));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> get(String key, TypeReference<T> typeReference) {
+        return getAndDecode(key, TYPE_FACTORY.constructType(typeReference));
+    }
+
+    @Override
+    public CompletableFuture<String> getAsString(String cacheKey) {
+        if (StringUtils.isBlank(cacheKey)) {
+            logger.debug("sorry your cache key is null,then return null now !!!!!");
+            return CompletableFuture.completedFuture(null);
+        }
+        return dispatch(commands.get(cacheKey)).thenApply(AsyncCacheServiceImpl::toText);
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String cacheKey, String cacheValue) {
+        if (StringUtils.isBlank(cacheKey) || StringUtils.isBlank(cacheValue)) {
+            logger.debug("sorry your cache key or cache value is null , then this method is exit now !!!!!");
+            return done();
+        }
+        return dispatch(commands.set(cacheKey, toBytes(cacheValue))).thenApply(ok -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String cacheKey, String cacheValue, long expiredTime) {
+        if (StringUtils.isBlank(cacheKey) || StringUtils.isBlank(cacheValue)) {
+            logger.debug("sorry your cache key or cache value is null , then this method is exit now !!!!!");
+            return done();
+        }
+        return set(cacheKey, toBytes(cacheValue), expiredTime);
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String cacheKey) {
+        if (StringUtils.isBlank(cacheKey)) {
+            logger.debug("sorry your cache key is null,then this method is exit now");
+            return done();
+        }
+        return dispatch(commands.del(cacheKey)).thenApply(count -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> lPush(String cacheKey, String cacheValue) {
+        if (StringUtils.isBlank(cacheKey) || StringUtils.isBlank(cacheValue)) {
+            logger.debug("sorry your cache key or cache value is null , then this method is exit now !!!!!");
+            return done();
+        }
+        return dispatch(commands.lpush(cacheKey, toBytes(cacheValue))).thenApply(size -> null);
+    }
+
+    @Override
+    public CompletableFuture<String> rpop(String cacheKey) {
+        if (StringUtils.isBlank(cacheKey)) {
+            logger.debug("sorry your cache key is null,then return null now !!!!!");
+            return CompletableFuture.completedFuture(null);
+        }
+        return dispatch(commands.rpop(cacheKey)).thenApply(AsyncCacheServiceImpl::toText);
+    }
+
+    @Override
+    public CompletableFuture<Long> queueSize(String cacheKey) {
+        if (StringUtils.isBlank(cacheKey)) {
+            logger.debug("sorry your cache key is null,then return null now !!!!!");
+            return CompletableFuture.completedFuture(null);
+        }
+        return dispatch(commands.llen(cacheKey));
+    }
+
+    @Override
+    public <T> CompletableFuture<Void> lPushData(String cacheKey, T data) {
+        if (StringUtils.isBlank(cacheKey)) {
+            logger.debug("sorry your cache key is null then return now  !!!!!");
+            return done();
+        }
+        byte[] value = encode(data);
+        if (value == null) {
+            return done();
+        }
+        return dispatch(commands.lpush(cacheKey, value)).thenApply(size -> null);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> rpopData(String key, Class<T> clazzT) {
+        if (StringUtils.isBlank(key)) {
+            logger.debug("sorry your cache key is null,then return null now !!!!!");
+            return CompletableFuture.completedFuture(null);
+        }
+        JavaType type = TYPE_FACTORY.constructType(clazzT);
+        return dispatch(commands.rpop(key)).thenApply(value -> decode(value, type));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> getStringList(String key) {
+        return dispatch(commands.lrange(key, 0, -1)).thenApply(values -> {
+            List<String> result = new ArrayList<>(values.size());
+            for (byte[] value : values) {
+                result.add(toText(value));
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> pushStringList(String key, List<String> data) {
+        if (StringUtils.isBlank(key) || data == null || data.isEmpty()) {
+            logger.debug("sorry your cache key or cache value is null , then this method is exit now !!!!!");
+            return done();
+        }
+        List<byte[]> values = new ArrayList<>(data.size());
+        for (String value : data) {
+            if (StringUtils.isNotBlank(value)) {
+                values.add(toBytes(value));
+            }
+        }
+        if (values.isEmpty()) {
+            return done();
+        }
+        return dispatch(commands.lpush(key, values.toArray(new byte[0][]))).thenApply(size -> null);
+    }
+
+    @Override
+    public <T> CompletableFuture<Map<String, T>> multiGet(Collection<String> keys, Class<T> clazzT) {
+        List<String> distinctKeys = distinct(keys);
+        if (distinctKeys.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyMap());
+        }
+        JavaType type = TYPE_FACTORY.constructType(clazzT);
+        return dispatch(commands.mget(distinctKeys.toArray(new String[0]))).thenApply(values -> {
+            Map<String, T> result = new LinkedHashMap<>(values.size() * 2);
+            for (KeyValue<String, byte[]> keyValue : values) {
+                if (keyValue.hasValue()) {
+                    T value = decode(keyValue.getValue(), type);
+                    if (value != null) {
+                        result.put(keyValue.getKey(), value);
+                    }
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> multiDelete(Collection<String> keys) {
+        List<String> distinctKeys = distinct(keys);
+        if (distinctKeys.isEmpty()) {
+            return done();
+        }
+        return dispatch(commands.del(distinctKeys.toArray(new String[0]))).thenApply(count -> null);
+    }
+
+    /**
+     * 当前缓冲中尚未刷出的命令数（近似值）
+     */
+    public int getPendingCommands() {
+        return pending.get();
+    }
+
+    @Override
+    public void close() {
+        connection.flushCommands();
+        connection.close();
+    }
+
+    private <T> CompletableFuture<T> getAndDecode(String key, JavaType type) {
+        if (StringUtils.isBlank(key)) {
+            logger.debug("sorry your cache key is null , then return null now !!!!!");
+            return CompletableFuture.completedFuture(null);
+        }
+        return dispatch(commands.get(key)).thenApply(value -> decode(value, type));
+    }
+
+    private CompletableFuture<Void> set(String cacheKey, byte[] value, long expiredTime) {
+        RedisFuture<String> future = expiredTime > 0
+                ? commands.set(cacheKey, value, SetArgs.Builder.px(expiredTime))
+                : commands.set(cacheKey, value);
+        return dispatch(future).thenApply(ok -> null);
+    }
+
+    /**
+     * 通过 EVALSHA 执行 {@link CacheServiceImpl#INCREMENT_SCRIPT}，redis 中没有缓存脚本时改用 EVAL 发送一次脚本
+     *
+     * @param onlyIfNoTtl true 时只在 key 没有过期时间时设置，否则每次都重新设置
+     */
+    private CompletableFuture<Long> incrementByScript(String cacheKey, long delta, long expiredTime, boolean onlyIfNoTtl) {
+        String[] keys = {cacheKey};
+        byte[][] args = {toBytes(String.valueOf(delta)), toBytes(String.valueOf(expiredTime)),
+                toBytes(onlyIfNoTtl ? "1" : "0")};
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        dispatch(commands.<Long>evalsha(CacheServiceImpl.INCREMENT_SCRIPT.getSha1(), ScriptOutputType.INTEGER, keys, args))
+                .whenComplete((count, e) -> {
+                    Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                    if (cause instanceof RedisNoScriptException) {
+                        dispatch(commands.<Long>eval(CacheServiceImpl.INCREMENT_SCRIPT.getScriptAsString(),
+                                ScriptOutputType.INTEGER, keys, args)).whenComplete((retried, error) -> {
+                            if (error == null) {
+                                result.complete(retried);
+                            } else {
+                                result.completeExceptionally(error);
+                            }
+                        });
+                    } else if (cause != null) {
+                        result.completeExceptionally(cause);
+                    } else {
+                        result.complete(count);
+                    }
+                });
+        return result;
+    }
+
+    /**
+     * 命令已写入缓冲，安排刷出
+     */
+    private <T> CompletableFuture<T> dispatch(RedisFuture<T> future) {
+        if (pending.incrementAndGet() >= maxBatchSize) {
+            flush();
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            flushExecutor.execute(() -> {
+                // 先清除标记再刷出，刷出之后写入缓冲的命令会重新安排一次刷出
+                flushScheduled.set(false);
+                flush();
+            });
+        }
+        return future.toCompletableFuture();
+    }
+
+    private void flush() {
+        pending.set(0);
+        connection.flushCommands();
+    }
+
+    private byte[] encode(Object data) {
+        try {
+            return codec.encode(data);
+        } catch (IOException e) {
+            logger.error("failed to encode cache value", e);
+            return null;
+        }
+    }
+
+    private <T> T decode(byte[] value, JavaType type) {
+        if (value == null || value.length == 0) {
+            return null;
+        }
+        try {
+            return codec.decode(value, type);
+        } catch (IOException e) {
+            logger.error("failed to decode cache value, type=" + type, e);
+            return null;
+        }
+    }
+
+    private static List<String> distinct(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return Collections.emptyList();
+        }
+        LinkedHashSet<String> distinct = new LinkedHashSet<>(keys.size() * 2);
+        for (String key : keys) {
+            if (StringUtils.isNotBlank(key)) {
+                distinct.add(key);
+            }
+        }
+        return new ArrayList<>(distinct);
+    }
+
+    private static byte[] toBytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String toText(byte[] value) {
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static CompletableFuture<Void> done() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+}
@@ -2,9 +2,14 @@ package com.magictool.web.util.redis;
 
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import org.springframework.data.redis.core.Cursor;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * 缓存通用服务
@@ -114,12 +119,39 @@ public interface CacheService {
 
     /**
      * get by pattern key
-     * 通过正则表达式获取所有的值
+     * 通过正则表达式获取所有的值（基于SCAN，不会阻塞redis，但结果全部放在内存中，大量key请使用 {@link #forEachKey}）
      * @param keyPattern 正则表达式
      * @return set
      */
     public Set<String> getPatternKeys(String keyPattern);
 
+    /**
+     * 增量遍历匹配的key（SCAN），使用完毕必须关闭游标
+     * @param keyPattern 正则表达式
+     * @param count 每次SCAN的COUNT提示值
+     * @return 游标
+     */
+    Cursor<String> scanKeys(String keyPattern, long count);
+
+    /**
+     * 分批遍历匹配的key，当前批次处理完成后才会继续SCAN，内存占用与key总数无关
+     * @param keyPattern 正则表达式
+     * @param count 每次SCAN的COUNT提示值
+     * @param batchSize 每批key的数量
+     * @param handler 批处理方法，返回false时停止遍历
+     * @return 遍历的key数量
+     */
+    long forEachKey(String keyPattern, long count, int batchSize, Predicate<List<String>> handler);
+
+    /**
+     * 分批删除匹配的key
+     * @param keyPattern 正则表达式
+     * @param count 每次SCAN的COUNT提示值
+     * @param batchSize 每次删除的key数量
+     * @return 删除的key数量
+     */
+    long deletePattern(String keyPattern, long count, int batchSize);
+
     /**
      * 从队列存储一个字符串
      * @param cacheKey key
@@ -167,7 +199,7 @@ public interface CacheService {
     public List<String> getStringList(String key);
 
     /**
-     * 存储一个list
+     * 存储一个list（一次 LPUSH 写入全部元素）
      * @param key key
      * @param data value
      */
@@ -182,5 +214,69 @@ public interface CacheService {
      */
     public Boolean isPermissionInfoAlreadyPush(String cacheKey,Object value,long time);
 
+    /**
+     * 批量获取缓存对象（MGET，一次往返）
+     * @param keys key集合
+     * @param clazzT 类
+     * @return key -> 对象，不存在的key不包含在结果中
+     */
+    <T> Map<String, T> multiGet(Collection<String> keys, Class<T> clazzT);
+
+    /**
+     * 批量获取缓存对象（MGET，一次往返），通过typeReference返回
+     * @param keys key集合
+     * @param typeReference 序列换类型
+     * @return key -> 对象，不存在的key不包含在结果中
+     */
+    <T> Map<String, T> multiGet(Collection<String> keys, TypeReference<T> typeReference);
+
+    /**
+     * 批量写入缓存对象，不设置过期时间（MSET，一次往返）
+     * @param data key -> 对象
+     */
+    <T> void multiPut(Map<String, T> data);
+
+    /**
+     * 批量写入缓存对象，统一过期时间（管道，一次往返）
+     * @param data key -> 对象
+     * @param expiredTime timeout，0或小于0不设置过期时间
+     */
+    <T> void multiPut(Map<String, T> data, long expiredTime);
+
+    /**
+     * 批量写入缓存对象，每个key单独的过期时间（管道，一次往返）
+     * @param data key -> 对象
+     * @param expiredTimes key -> timeout，缺失或0或小于0不设置过期时间
+     */
+    <T> void multiPut(Map<String, T> data, Map<String, Long> expiredTimes);
+
+    /**
+     * 批量删除缓存（DEL，一次往返）
+     * @param keys key集合
+     */
+    void multiDelete(Collection<String> keys);
+
+    /**
+     * 获取缓存对象，不存在时调用loader加载并写入缓存
+     * 同一个key的并发未命中只会调用一次loader，其余调用方共享加载结果
+     * @param key key
+     * @param clazzT 类
+     * @param loader 加载方法，返回null时不写入缓存
+     * @param expiredTime timeout，0或小于0不设置过期时间
+     * @return T
+     */
+    <T> T getOrLoad(String key, Class<T> clazzT, Supplier<T> loader, long expiredTime);
+
+    /**
+     * 获取缓存对象，不存在时调用loader加载并写入缓存，通过typeReference返回
+     * 同一个key的并发未命中只会调用一次loader，其余调用方共享加载结果
+     * @param key key
+     * @param typeReference 序列换类型
+     * @param loader 加载方法，返回null时不写入缓存
+     * @param expiredTime timeout，0或小于0不设置过期时间
+     * @return T
+     */
+    <T> T getOrLoad(String key, TypeReference<T> typeReference, Supplier<T> loader, long expiredTime);
+
 
 }
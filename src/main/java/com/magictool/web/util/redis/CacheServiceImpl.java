@@ -1,18 +1,44 @@
 package com.magictool.web.util.redis;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magictool.web.util.redis.codec.CacheCodec;
+import com.magictool.web.util.redis.codec.JacksonCacheCodec;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.ConvertingCursor;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 /**
  * 
@@ -27,18 +53,86 @@ public class CacheServiceImpl implements CacheService {
 
 	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
+	/**
+	 * 对象值的编解码方式，字符串值不经过编解码
+	 */
+	private final CacheCodec codec;
+
+	/**
+	 * 并行反序列化时每个任务处理的条数
+	 */
+	private static final int PARALLEL_DECODE_CHUNK = 64;
+
+	/**
+	 * getPatternKeys 每次SCAN的COUNT提示值
+	 */
+	private static final int DEFAULT_SCAN_COUNT = 1000;
+
+	private Executor decodeExecutor;
+
+	private int parallelDecodeThreshold = Integer.MAX_VALUE;
+
+	/**
+	 * 加载租约 key 的后缀
+	 */
+	private static final String LOAD_LEASE_SUFFIX = ":load:lease";
+
+	/**
+	 * 记录上次加载耗时 key 的后缀，用于提前刷新
+	 */
+	private static final String LOAD_DELTA_SUFFIX = ":load:delta";
+
+	/**
+	 * 等待其他节点加载时的轮询间隔（毫秒）
+	 */
+	private static final long LOAD_LEASE_POLL_MILLIS = 20;
+
+	/**
+	 * 只释放自己持有的租约
+	 */
+	private static final RedisScript<Long> RELEASE_LEASE_SCRIPT = new DefaultRedisScript<>(
+			"if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+
+	/**
+	 * 原子递增并设置过期时间，ARGV[3] 为 1 时只在 key 没有过期时间时设置，否则每次都重新设置
+	 * 通过 EVALSHA 执行，脚本只在第一次或 redis 重启后传输一次；{@link AsyncCacheServiceImpl} 使用同一个脚本
+	 */
+	static final RedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>(
+			"local count = redis.call('incrby', KEYS[1], ARGV[1]) " +
+			"if tonumber(ARGV[2]) > 0 and (ARGV[3] == '0' or redis.call('pttl', KEYS[1]) == -1) then " +
+			"  redis.call('pexpire', KEYS[1], ARGV[2]) " +
+			"end " +
+			"return count", Long.class);
+
+	private final SingleFlight<Object> singleFlight = new SingleFlight<>();
+
+	private long loadLeaseMillis;
+
+	private long loadLeaseWaitMillis;
+
+	private double earlyRefreshBeta;
+
+	private Executor refreshExecutor;
+
 	public CacheServiceImpl(StringRedisTemplate redisTemplate) {
+		this(redisTemplate, JacksonCacheCodec.json());
+	}
+
+	/**
+	 * @param redisTemplate redis
+	 * @param codec 对象值的编解码方式，如需切换为二进制格式并兼容已有的 JSON 数据，
+	 *              使用 {@link com.magictool.web.util.redis.codec.VersionedCacheCodec}
+	 */
+	public CacheServiceImpl(StringRedisTemplate redisTemplate, CacheCodec codec) {
 		this.redisTemplate = redisTemplate;
+		this.codec = codec;
 	}
 
 	@Override
 	public long increment(String cacheKey, long expiredTime) {
-		long count = Objects.requireNonNull(redisTemplate.opsForValue().increment(cacheKey, 1));
-		if (count == 1) {
-			//设置有效期
-			redisTemplate.expire(cacheKey, expiredTime, TimeUnit.MILLISECONDS);
-		}
-		return count;
+		// 递增和设置有效期在同一个脚本中完成，key 没有过期时间时才设置，不会留下永不过期的计数器
+		return Objects.requireNonNull(redisTemplate.execute(INCREMENT_SCRIPT, Collections.singletonList(cacheKey),
+				"1", String.valueOf(expiredTime), "1"));
 	}
 
 	@Override
@@ -47,11 +141,9 @@ public class CacheServiceImpl implements CacheService {
 			logger.error("delta must be greater than 0");
 			return 0;
 		}
-		long count = Objects.requireNonNull(redisTemplate.opsForValue().increment(cacheKey, delta));
-		if (expiredTime > 0 ){
-			redisTemplate.expire(cacheKey, expiredTime, TimeUnit.MILLISECONDS);
-		}
-		return count;
+		// 一次往返完成递增和重置有效期
+		return Objects.requireNonNull(redisTemplate.execute(INCREMENT_SCRIPT, Collections.singletonList(cacheKey),
+				String.valueOf(delta), String.valueOf(expiredTime), "0"));
 	}
 
 	@Override
@@ -65,11 +157,9 @@ public class CacheServiceImpl implements CacheService {
 			logger.debug("sorry your cache key is null ，then return now  !!!!!");
 			return;
 		}
-		try {
-			String json = OBJECT_MAPPER.writeValueAsString(data);
-			redisTemplate.opsForValue().set(cacheKey, json);
-		} catch (JsonProcessingException e) {
-			logger.error("failed to convert the cache value to json", e);
+		byte[] value = encode(data);
+		if (value != null) {
+			setBytes(cacheKey, value, 0);
 		}
 
 	}
@@ -80,12 +170,9 @@ public class CacheServiceImpl implements CacheService {
 			logger.debug("sorry your cache key is null or expired time is 0 ，then return now  !!!!!");
 			return;
 		}
-		try {
-			String json = OBJECT_MAPPER.writeValueAsString(data);
-			redisTemplate.opsForValue().set(cacheKey, json);
-			redisTemplate.expire(cacheKey, expiredTime, TimeUnit.MILLISECONDS);
-		} catch (JsonProcessingException e) {
-			logger.error("failed to convert the cache value to json", e);
+		byte[] value = encode(data);
+		if (value != null) {
+			setBytes(cacheKey, value, expiredTime);
 		}
 
 	}
@@ -101,41 +188,52 @@ public class CacheServiceImpl implements CacheService {
 
 	@Override
 	public <T> T get(String key, Class<T> clazzT) {
-		String value = getValueByKey(key);
+		byte[] value = getBytesByKey(key);
 		if (value == null) {
 			return null;
 		}
-		T data = null;
-		try {
-			data = OBJECT_MAPPER.readValue(value, clazzT);
-		} catch (IOException e) {
-			logger.error("failed to convert the cache value to object['" + clazzT + "']", e);
-		}
-		return data;
+		return decode(value, OBJECT_MAPPER.getTypeFactory().constructType(clazzT));
 	}
 
 	@Override
 	public <T> T get(String key, TypeReference<T> typeReference) {
-		String value = getValueByKey(key);
+		byte[] value = getBytesByKey(key);
 		if (value == null) {
 			return null;
 		}
-		T data = null;
-		try {
-			data = OBJECT_MAPPER.readValue(value, typeReference);
-		} catch (IOException e) {
-			logger.error("failed to convert the cache value to object['" + typeReference + "']", e);
+		return decode(value, OBJECT_MAPPER.getTypeFactory().constructType(typeReference));
+	}
+
+	/**
+	 * 读取 key 对应的字符串值，空值返回null
+	 * @param key key
+	 * @return str
+	 */
+	protected String getValueByKey(String key) {
+		byte[] bytes = getBytesByKey(key);
+		if (bytes == null) {
+			return null;
+		}
+		String value = new String(bytes, StandardCharsets.UTF_8);
+		if (StringUtils.isBlank(value)) {
+			logger.debug("sorry your cache key fetch the value failed return null now !!!!!");
+			return null;
 		}
-		return data;
+		return value;
 	}
 
-	private String getValueByKey(String key) {
+	/**
+	 * 读取 key 对应的原始字节，空值返回null
+	 * @param key key
+	 * @return bytes
+	 */
+	protected byte[] getBytesByKey(String key) {
 		if (StringUtils.isBlank(key)) {
 			logger.debug("sorry your cache key is null , then return null now !!!!!");
 			return null;
 		}
-		String value = redisTemplate.opsForValue().get(key);
-		if (StringUtils.isBlank(value)) {
+		byte[] value = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.get(rawKey(key)));
+		if (value == null || value.length == 0) {
 			logger.debug("sorry your cache key fetch the value failed return null now !!!!!");
 			return null;
 		}
@@ -187,7 +285,63 @@ public class CacheServiceImpl implements CacheService {
 			logger.debug("sorry your cache key pattern is null,then this method is exit now");
 			return null;
 		}
-		return redisTemplate.keys(keyPattern);
+		Set<String> keys = new LinkedHashSet<>();
+		forEachKey(keyPattern, DEFAULT_SCAN_COUNT, DEFAULT_SCAN_COUNT, batch -> {
+			keys.addAll(batch);
+			return true;
+		});
+		return keys;
+	}
+
+	@Override
+	public Cursor<String> scanKeys(String keyPattern, long count) {
+		if (StringUtils.isBlank(keyPattern)) {
+			logger.debug("sorry your cache key pattern is null,then this method is exit now");
+			return null;
+		}
+		ScanOptions options = ScanOptions.scanOptions().match(keyPattern).count(count).build();
+		RedisSerializer<String> serializer = redisTemplate.getStringSerializer();
+		// 游标占用一个连接，直到游标关闭
+		return redisTemplate.executeWithStickyConnection(
+				connection -> new ConvertingCursor<>(connection.scan(options), serializer::deserialize));
+	}
+
+	@Override
+	public long forEachKey(String keyPattern, long count, int batchSize, Predicate<List<String>> handler) {
+		if (StringUtils.isBlank(keyPattern) || handler == null || batchSize <= 0) {
+			logger.debug("sorry your cache key pattern or handler is null,then this method is exit now");
+			return 0;
+		}
+		long total = 0;
+		try (Cursor<String> cursor = scanKeys(keyPattern, count)) {
+			List<String> batch = new ArrayList<>(batchSize);
+			while (cursor.hasNext()) {
+				batch.add(cursor.next());
+				if (batch.size() >= batchSize) {
+					total += batch.size();
+					// 处理完当前批次才继续 SCAN
+					if (!handler.test(batch)) {
+						return total;
+					}
+					batch = new ArrayList<>(batchSize);
+				}
+			}
+			if (!batch.isEmpty()) {
+				total += batch.size();
+				handler.test(batch);
+			}
+		} catch (IOException e) {
+			logger.error("failed to close the scan cursor, pattern=" + keyPattern, e);
+		}
+		return total;
+	}
+
+	@Override
+	public long deletePattern(String keyPattern, long count, int batchSize) {
+		return forEachKey(keyPattern, count, batchSize, batch -> {
+			multiDelete(batch);
+			return true;
+		});
 	}
 
 	@Override
@@ -224,27 +378,19 @@ public class CacheServiceImpl implements CacheService {
 			logger.debug("sorry your cache key is null then return now  !!!!!");
 			return;
 		}
-		try {
-			String json = OBJECT_MAPPER.writeValueAsString(data);
-			redisTemplate.opsForList().leftPush(cacheKey, json);
-		} catch (JsonProcessingException e) {
-			logger.error("failed to convert the cache value to json", e);
+		byte[] value = encode(data);
+		if (value != null) {
+			redisTemplate.execute((RedisCallback<Long>) connection -> connection.lPush(rawKey(cacheKey), value));
 		}
 	}
 
 	@Override
 	public <T> T rpopData(String key, Class<T> clazzT) {
-		String value = redisTemplate.opsForList().rightPop(key);
+		byte[] value = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.rPop(rawKey(key)));
 		if (value == null) {
 			return null;
 		}
-		T data = null;
-		try {
-			data = OBJECT_MAPPER.readValue(value, clazzT);
-		} catch (IOException e) {
-			logger.error("failed to convert the cache value to object['" + clazzT + "']", e);
-		}
-		return data;
+		return decode(value, OBJECT_MAPPER.getTypeFactory().constructType(clazzT));
 	}
 
 
@@ -255,11 +401,20 @@ public class CacheServiceImpl implements CacheService {
 
 	@Override
 	public void pushStringList(String key, List<String> data) {
-		if (data != null && !data.isEmpty()) {
-			for (String value : data) {
-				lPush(key,value);
+		if (StringUtils.isBlank(key) || data == null || data.isEmpty()) {
+			logger.debug("sorry your cache key or cache value is null , then this method is exit now !!!!!");
+			return;
+		}
+		List<String> values = new ArrayList<>(data.size());
+		for (String value : data) {
+			if (StringUtils.isNotBlank(value)) {
+				values.add(value);
 			}
 		}
+		if (!values.isEmpty()) {
+			// 一次 LPUSH 写入全部元素，顺序与逐个 lPush 一致
+			redisTemplate.opsForList().leftPushAll(key, values);
+		}
 	}
 
 	@Override
@@ -272,4 +427,420 @@ public class CacheServiceImpl implements CacheService {
 		return true;
 	}
 
+	/**
+	 * 开启批量读取的并行反序列化
+	 * @param executor 反序列化使用的线程池
+	 * @param threshold 批量结果条数达到该值才并行反序列化
+	 */
+	public void setParallelDecode(Executor executor, int threshold) {
+		this.decodeExecutor = executor;
+		this.parallelDecodeThreshold = threshold;
+	}
+
+	@Override
+	public <T> Map<String, T> multiGet(Collection<String> keys, Class<T> clazzT) {
+		return decodeAll(getBytesByKeys(keys), OBJECT_MAPPER.getTypeFactory().constructType(clazzT));
+	}
+
+	@Override
+	public <T> Map<String, T> multiGet(Collection<String> keys, TypeReference<T> typeReference) {
+		return decodeAll(getBytesByKeys(keys), OBJECT_MAPPER.getTypeFactory().constructType(typeReference));
+	}
+
+	@Override
+	public <T> void multiPut(Map<String, T> data) {
+		Map<String, byte[]> values = encodeAll(data);
+		if (values.isEmpty()) {
+			return;
+		}
+		Map<byte[], byte[]> rawValues = new LinkedHashMap<>(values.size() * 2);
+		for (Map.Entry<String, byte[]> entry : values.entrySet()) {
+			rawValues.put(rawKey(entry.getKey()), entry.getValue());
+		}
+		redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.mSet(rawValues));
+	}
+
+	@Override
+	public <T> void multiPut(Map<String, T> data, long expiredTime) {
+		if (expiredTime <= 0) {
+			multiPut(data);
+			return;
+		}
+		Map<String, byte[]> values = encodeAll(data);
+		setAllPipelined(values, key -> expiredTime);
+	}
+
+	@Override
+	public <T> void multiPut(Map<String, T> data, Map<String, Long> expiredTimes) {
+		if (expiredTimes == null || expiredTimes.isEmpty()) {
+			multiPut(data);
+			return;
+		}
+		Map<String, byte[]> values = encodeAll(data);
+		setAllPipelined(values, key -> {
+			Long expiredTime = expiredTimes.get(key);
+			return expiredTime == null ? 0 : expiredTime;
+		});
+	}
+
+	@Override
+	public void multiDelete(Collection<String> keys) {
+		List<String> validKeys = validKeys(keys);
+		if (validKeys.isEmpty()) {
+			logger.debug("sorry your cache keys is empty,then this method is exit now");
+			return;
+		}
+		redisTemplate.delete(validKeys);
+	}
+
+	/**
+	 * 开启加载租约：多个节点同时未命中时，只有拿到租约的节点调用loader，其余节点等待缓存写入
+	 * @param leaseMillis 租约时长（毫秒），应大于一次加载的耗时，0或小于0关闭
+	 * @param waitMillis 未拿到租约时最多等待的时间（毫秒），超时后自己加载
+	 */
+	public void setLoadLease(long leaseMillis, long waitMillis) {
+		this.loadLeaseMillis = leaseMillis;
+		this.loadLeaseWaitMillis = waitMillis;
+	}
+
+	/**
+	 * 开启概率提前刷新（XFetch）：越接近过期、加载越慢的key越可能被提前刷新，避免热点key同时过期
+	 * @param beta 提前系数，一般取1，大于1更积极，0或小于0关闭
+	 * @param executor 执行后台刷新的线程池
+	 */
+	public void setEarlyRefresh(double beta, Executor executor) {
+		this.earlyRefreshBeta = beta;
+		this.refreshExecutor = executor;
+	}
+
+	@Override
+	public <T> T getOrLoad(String key, Class<T> clazzT, Supplier<T> loader, long expiredTime) {
+		return getOrLoad(key, OBJECT_MAPPER.getTypeFactory().constructType(clazzT), loader, expiredTime);
+	}
+
+	@Override
+	public <T> T getOrLoad(String key, TypeReference<T> typeReference, Supplier<T> loader, long expiredTime) {
+		return getOrLoad(key, OBJECT_MAPPER.getTypeFactory().constructType(typeReference), loader, expiredTime);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T getOrLoad(String key, JavaType type, Supplier<T> loader, long expiredTime) {
+		if (StringUtils.isBlank(key) || loader == null) {
+			logger.debug("sorry your cache key or loader is null , then return null now !!!!!");
+			return null;
+		}
+		boolean earlyRefresh = earlyRefreshBeta > 0 && expiredTime > 0 && refreshExecutor != null;
+		byte[] value = earlyRefresh ? getValueOrRefresh(key, type, loader, expiredTime) : getBytesByKey(key);
+		if (value != null) {
+			T data = decode(value, type);
+			if (data != null) {
+				return data;
+			}
+		}
+		return (T) singleFlight.load(flightKey(key, type), () -> loadAndPut(key, type, loader, expiredTime));
+	}
+
+	/**
+	 * 读取值，按 XFetch 判断是否需要后台提前刷新
+	 */
+	private byte[] getValueOrRefresh(String key, JavaType type, Supplier<?> loader, long expiredTime) {
+		RefreshRead read = readForRefresh(key);
+		byte[] value = read.getValue();
+		if (value == null) {
+			return null;
+		}
+		if (read.getDelta() >= 0 && read.getTtl() > 0) {
+			double random = ThreadLocalRandom.current().nextDouble();
+			// XFetch：-delta * beta * ln(random) 超过剩余时间时提前刷新
+			if (-read.getDelta() * earlyRefreshBeta * Math.log(random) >= read.getTtl()) {
+				singleFlight.loadAsync(flightKey(key, type), () -> loadAndPut(key, type, loader, expiredTime),
+						refreshExecutor);
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * 提前刷新使用的读取：一次管道读取值、上次加载耗时和剩余过期时间。
+	 * 子类覆盖 {@link #getBytesByKey(String)} 增加了本地缓存时，也需要覆盖该方法，否则 getOrLoad 会绕过本地缓存
+	 * @param key key
+	 * @return 读取结果
+	 */
+	protected RefreshRead readForRefresh(String key) {
+		List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			connection.get(rawKey(key));
+			connection.get(rawKey(key + LOAD_DELTA_SUFFIX));
+			connection.pTtl(rawKey(key));
+			return null;
+		}, RedisSerializer.byteArray());
+		byte[] value = (byte[]) results.get(0);
+		if (value == null || value.length == 0) {
+			return new RefreshRead(null, -1, -1);
+		}
+		byte[] rawDelta = (byte[]) results.get(1);
+		String delta = rawDelta == null ? null : new String(rawDelta, StandardCharsets.UTF_8);
+		Long ttl = (Long) results.get(2);
+		return new RefreshRead(value, StringUtils.isNumeric(delta) ? Long.parseLong(delta) : -1,
+				ttl == null ? -1 : ttl);
+	}
+
+	/**
+	 * 合并加载的 key 包含目标类型，同一个 key 按不同类型读取时不会拿到其他类型的加载结果
+	 */
+	private static String flightKey(String key, JavaType type) {
+		return key + '#' + type.toCanonical();
+	}
+
+	private Object loadAndPut(String key, JavaType type, Supplier<?> loader, long expiredTime) {
+		String leaseKey = key + LOAD_LEASE_SUFFIX;
+		String leaseToken = null;
+		if (loadLeaseMillis > 0) {
+			String token = UUID.randomUUID().toString();
+			if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(leaseKey, token, loadLeaseMillis, TimeUnit.MILLISECONDS))) {
+				leaseToken = token;
+			} else {
+				Object data = waitForLoad(key, type);
+				if (data != null) {
+					return data;
+				}
+			}
+		}
+		try {
+			long start = System.currentTimeMillis();
+			Object data = loader.get();
+			if (data != null) {
+				writeLoadedValue(key, data, System.currentTimeMillis() - start, expiredTime);
+			}
+			return data;
+		} finally {
+			if (leaseToken != null) {
+				redisTemplate.execute(RELEASE_LEASE_SCRIPT, Collections.singletonList(leaseKey), leaseToken);
+			}
+		}
+	}
+
+	/**
+	 * 其他节点持有租约时，轮询等待其写入缓存
+	 */
+	private Object waitForLoad(String key, JavaType type) {
+		long deadline = System.currentTimeMillis() + loadLeaseWaitMillis;
+		while (true) {
+			byte[] value = getBytesByKey(key);
+			if (value != null) {
+				return decode(value, type);
+			}
+			if (System.currentTimeMillis() >= deadline) {
+				logger.debug("wait for cache load timeout, load by self now, key={}", key);
+				return null;
+			}
+			try {
+				Thread.sleep(LOAD_LEASE_POLL_MILLIS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * 写入加载结果，开启提前刷新时同时记录本次加载耗时
+	 * @param key key
+	 * @param data 加载结果
+	 * @param delta 加载耗时（毫秒）
+	 * @param expiredTime timeout
+	 */
+	protected void writeLoadedValue(String key, Object data, long delta, long expiredTime) {
+		byte[] value = encode(data);
+		if (value == null) {
+			return;
+		}
+		Map<String, byte[]> values = new LinkedHashMap<>(4);
+		values.put(key, value);
+		if (earlyRefreshBeta > 0 && expiredTime > 0) {
+			values.put(key + LOAD_DELTA_SUFFIX, String.valueOf(delta).getBytes(StandardCharsets.UTF_8));
+		}
+		setAllPipelined(values, k -> expiredTime);
+	}
+
+	private byte[] encode(Object data) {
+		try {
+			return codec.encode(data);
+		} catch (IOException e) {
+			logger.error("failed to convert the cache value to bytes", e);
+		}
+		return null;
+	}
+
+	private <T> T decode(byte[] value, JavaType type) {
+		try {
+			return codec.decode(value, type);
+		} catch (IOException e) {
+			logger.error("failed to convert the cache value to object['" + type + "']", e);
+		}
+		return null;
+	}
+
+	private static byte[] rawKey(String key) {
+		return key.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * 写入原始字节
+	 * @param expiredTime 大于0时同时设置过期时间
+	 */
+	private void setBytes(String key, byte[] value, long expiredTime) {
+		redisTemplate.execute((RedisCallback<Boolean>) connection -> set(connection, key, value, expiredTime));
+	}
+
+	private static Boolean set(RedisConnection connection, String key, byte[] value, long expiredTime) {
+		if (expiredTime > 0) {
+			return connection.set(rawKey(key), value, Expiration.milliseconds(expiredTime), RedisStringCommands.SetOption.UPSERT);
+		}
+		return connection.set(rawKey(key), value);
+	}
+
+	/**
+	 * 批量读取 key 对应的原始字节（MGET），空值不包含在结果中
+	 * @param keys key集合
+	 * @return key -> bytes，按传入顺序
+	 */
+	protected Map<String, byte[]> getBytesByKeys(Collection<String> keys) {
+		List<String> validKeys = validKeys(keys);
+		if (validKeys.isEmpty()) {
+			return new LinkedHashMap<>();
+		}
+		byte[][] rawKeys = new byte[validKeys.size()][];
+		for (int i = 0; i < rawKeys.length; i++) {
+			rawKeys[i] = rawKey(validKeys.get(i));
+		}
+		List<byte[]> values = redisTemplate.execute((RedisCallback<List<byte[]>>) connection -> connection.mGet(rawKeys));
+		Map<String, byte[]> result = new LinkedHashMap<>(validKeys.size() * 2);
+		if (values == null) {
+			return result;
+		}
+		for (int i = 0; i < validKeys.size() && i < values.size(); i++) {
+			byte[] value = values.get(i);
+			if (value != null && value.length > 0) {
+				result.put(validKeys.get(i), value);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 去掉空key和重复key
+	 */
+	private List<String> validKeys(Collection<String> keys) {
+		if (keys == null || keys.isEmpty()) {
+			return new ArrayList<>();
+		}
+		Set<String> validKeys = new LinkedHashSet<>(keys.size() * 2);
+		for (String key : keys) {
+			if (StringUtils.isNotBlank(key)) {
+				validKeys.add(key);
+			}
+		}
+		return new ArrayList<>(validKeys);
+	}
+
+	/**
+	 * 在一个管道中写入全部值，每个key可以有自己的过期时间
+	 */
+	private void setAllPipelined(Map<String, byte[]> values, ToLongFunction<String> expiredTimes) {
+		if (values.isEmpty()) {
+			return;
+		}
+		redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			for (Map.Entry<String, byte[]> entry : values.entrySet()) {
+				set(connection, entry.getKey(), entry.getValue(), expiredTimes.applyAsLong(entry.getKey()));
+			}
+			return null;
+		});
+	}
+
+	private <T> Map<String, byte[]> encodeAll(Map<String, T> data) {
+		Map<String, byte[]> values = new LinkedHashMap<>();
+		if (data == null || data.isEmpty()) {
+			logger.debug("sorry your cache data is empty, then return now  !!!!!");
+			return values;
+		}
+		for (Map.Entry<String, T> entry : data.entrySet()) {
+			if (StringUtils.isBlank(entry.getKey())) {
+				continue;
+			}
+			byte[] value = encode(entry.getValue());
+			if (value != null) {
+				values.put(entry.getKey(), value);
+			}
+		}
+		return values;
+	}
+
+	private <T> Map<String, T> decodeAll(Map<String, byte[]> values, JavaType type) {
+		if (values.isEmpty()) {
+			return new LinkedHashMap<>();
+		}
+		if (decodeExecutor == null || values.size() < parallelDecodeThreshold) {
+			return decodeChunk(new ArrayList<>(values.entrySet()), type);
+		}
+		// 按块并行反序列化，再按原顺序合并
+		List<Map.Entry<String, byte[]>> entries = new ArrayList<>(values.entrySet());
+		List<CompletableFuture<Map<String, T>>> futures = new ArrayList<>();
+		for (int from = 0; from < entries.size(); from += PARALLEL_DECODE_CHUNK) {
+			List<Map.Entry<String, byte[]>> chunk = entries.subList(from, Math.min(from + PARALLEL_DECODE_CHUNK, entries.size()));
+			futures.add(CompletableFuture.supplyAsync(() -> decodeChunk(chunk, type), decodeExecutor));
+		}
+		Map<String, T> result = new LinkedHashMap<>(values.size() * 2);
+		for (CompletableFuture<Map<String, T>> future : futures) {
+			result.putAll(future.join());
+		}
+		return result;
+	}
+
+	private <T> Map<String, T> decodeChunk(List<Map.Entry<String, byte[]>> entries, JavaType type) {
+		Map<String, T> result = new LinkedHashMap<>(entries.size() * 2);
+		for (Map.Entry<String, byte[]> entry : entries) {
+			T data = decode(entry.getValue(), type);
+			if (data != null) {
+				result.put(entry.getKey(), data);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 提前刷新使用的读取结果
+	 */
+	protected static final class RefreshRead {
+
+		private final byte[] value;
+
+		private final long delta;
+
+		private final long ttl;
+
+		/**
+		 * @param value 值，不存在时为null
+		 * @param delta 上次加载耗时（毫秒），未知时为-1
+		 * @param ttl 剩余过期时间（毫秒），未知或不过期时小于等于0，不判断提前刷新
+		 */
+		public RefreshRead(byte[] value, long delta, long ttl) {
+			this.value = value;
+			this.delta = delta;
+			this.ttl = ttl;
+		}
+
+		public byte[] getValue() {
+			return value;
+		}
+
+		public long getDelta() {
+			return delta;
+		}
+
+		public long getTtl() {
+			return ttl;
+		}
+	}
+
 }
@@ -0,0 +1,51 @@
+package com.magictool.web.util.redis;
+
+import com.magictool.web.util.cache.SegmentedLruCache;
+
+/**
+ * 进程内一级缓存（近端缓存）
+ * <p>
+ * 基于 {@link SegmentedLruCache}：分段 SLRU 淘汰，一次性扫描的冷 key 不会把热点 key 挤出缓存，每个条目同时受 TTL 约束。
+ * 每段维护自己的失效版本号，失效一个 key 只会丢弃同一段内并发的回源结果，不影响其他段。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public class NearCache<V> extends SegmentedLruCache<String, V> {
+
+    /**
+     * @param maximumSize 最大条目数
+     * @param ttlMillis   条目存活时间（毫秒），必须大于0
+     */
+    public NearCache(long maximumSize, long ttlMillis) {
+        this(maximumSize, ttlMillis, DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * @param maximumSize 最大条目数
+     * @param ttlMillis   条目存活时间（毫秒），必须大于0
+     * @param concurrency 分段数，会向上取整为2的幂
+     */
+    public NearCache(long maximumSize, long ttlMillis, int concurrency) {
+        super(maximumSize, requirePositive(ttlMillis), concurrency);
+    }
+
+    @Override
+    public String toString() {
+        return "NearCache{" +
+                "size=" + size() +
+                ", hitCount=" + hitCount() +
+                ", missCount=" + missCount() +
+                ", evictionCount=" + evictionCount() +
+                ", expirationCount=" + expirationCount() +
+                '}';
+    }
+
+    private static long requirePositive(long ttlMillis) {
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("ttlMillis must be greater than 0");
+        }
+        return ttlMillis;
+    }
+
+}
@@ -0,0 +1,332 @@
+package com.magictool.web.util.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magictool.web.util.redis.codec.CacheCodec;
+import com.magictool.web.util.redis.codec.JacksonCacheCodec;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 二级缓存服务：进程内 {@link NearCache} + Redis
+ * <p>
+ * 读请求优先命中本地缓存，未命中再回源 Redis 并写入本地；写请求先写 Redis，再失效本地缓存，
+ * 并通过 {@link StringRedisTemplate#convertAndSend} 广播失效消息，其他节点收到后失效各自的本地缓存。
+ * 消息体固定按字符串序列化，不受 RedisTemplate 值序列化方式（magic.cache.codec）的影响。
+ * 本类同时是 {@link RedisMsgPubSubListener}，需要注册到监听容器，订阅 {@link #INVALIDATE_TOPIC}。
+ * <p>
+ * 注意：本地缓存的存活时间独立于 Redis 的过期时间，数据最多会在本地多保留一个本地 TTL。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public class NearCacheServiceImpl extends CacheServiceImpl implements RedisMsgPubSubListener {
+
+    /**
+     * 失效消息通道
+     */
+    public static final String INVALIDATE_TOPIC = "magic-tool:near-cache:invalidate";
+
+    /**
+     * 消息中节点ID与key的分隔符
+     */
+    private static final char SEPARATOR = '|';
+
+    /**
+     * 消息中多个key之间的分隔符
+     */
+    private static final char KEY_DELIMITER = '\n';
+
+    private static final ObjectMapper MESSAGE_MAPPER = new ObjectMapper();
+
+    private final Logger logger = LoggerFactory.getLogger(NearCacheServiceImpl.class);
+
+    private final NearCache<byte[]> nearCache;
+
+    /**
+     * 发布失效消息，频道和消息体都按字符串序列化
+     */
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * 当前节点标识，忽略自己发出的失效消息
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * @param redisTemplate redis，同时用于发布失效消息
+     * @param maximumSize   本地缓存最大条目数
+     * @param ttlMillis     本地缓存存活时间（毫秒）
+     */
+    public NearCacheServiceImpl(StringRedisTemplate redisTemplate, long maximumSize, long ttlMillis) {
+        this(redisTemplate, JacksonCacheCodec.json(), new NearCache<>(maximumSize, ttlMillis));
+    }
+
+    /**
+     * @param redisTemplate redis，同时用于发布失效消息
+     * @param codec         对象值的编解码方式
+     * @param nearCache     本地缓存，缓存 redis 中的原始字节
+     */
+    public NearCacheServiceImpl(StringRedisTemplate redisTemplate, CacheCodec codec, NearCache<byte[]> nearCache) {
+        super(redisTemplate, codec);
+        this.redisTemplate = redisTemplate;
+        this.nearCache = nearCache;
+    }
+
+    /**
+     * 本地缓存，可用于获取命中、未命中、淘汰次数等统计
+     * @return NearCache
+     */
+    public NearCache<byte[]> getNearCache() {
+        return nearCache;
+    }
+
+    @Override
+    protected byte[] getBytesByKey(String key) {
+        if (StringUtils.isBlank(key)) {
+            return super.getBytesByKey(key);
+        }
+        byte[] value = nearCache.get(key);
+        if (value != null) {
+            return value;
+        }
+        long stamp = nearCache.stamp(key);
+        value = super.getBytesByKey(key);
+        if (value != null) {
+            nearCache.putIfFresh(key, value, stamp);
+        }
+        return value;
+    }
+
+    @Override
+    protected RefreshRead readForRefresh(String key) {
+        byte[] value = nearCache.get(key);
+        if (value != null) {
+            // 本地命中时不判断提前刷新，本地条目过期后回到 Redis 读取时再判断
+            return new RefreshRead(value, -1, -1);
+        }
+        long stamp = nearCache.stamp(key);
+        RefreshRead read = super.readForRefresh(key);
+        if (read.getValue() != null) {
+            nearCache.putIfFresh(key, read.getValue(), stamp);
+        }
+        return read;
+    }
+
+    @Override
+    protected Map<String, byte[]> getBytesByKeys(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return super.getBytesByKeys(keys);
+        }
+        Map<String, byte[]> result = new LinkedHashMap<>(keys.size() * 2);
+        List<String> missKeys = new ArrayList<>();
+        for (String key : keys) {
+            if (StringUtils.isBlank(key) || result.containsKey(key)) {
+                continue;
+            }
+            byte[] value = nearCache.get(key);
+            // 先占位，保证结果顺序与传入顺序一致
+            result.put(key, value);
+            if (value == null) {
+                missKeys.add(key);
+            }
+        }
+        if (!missKeys.isEmpty()) {
+            long[] stamps = new long[missKeys.size()];
+            for (int i = 0; i < stamps.length; i++) {
+                stamps[i] = nearCache.stamp(missKeys.get(i));
+            }
+            Map<String, byte[]> loaded = super.getBytesByKeys(missKeys);
+            for (int i = 0; i < stamps.length; i++) {
+                String key = missKeys.get(i);
+                byte[] value = loaded.get(key);
+                if (value == null) {
+                    result.remove(key);
+                } else {
+                    result.put(key, value);
+                    nearCache.putIfFresh(key, value, stamps[i]);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String getAsString(String cacheKey) {
+        if (StringUtils.isBlank(cacheKey)) {
+            return super.getAsString(cacheKey);
+        }
+        return getValueByKey(cacheKey);
+    }
+
+    @Override
+    public long increment(String cacheKey, long expiredTime) {
+        long count = super.increment(cacheKey, expiredTime);
+        invalidate(cacheKey);
+        return count;
+    }
+
+    @Override
+    public long increment(String cacheKey, long delta, long expiredTime) {
+        long count = super.increment(cacheKey, delta, expiredTime);
+        invalidate(cacheKey);
+        return count;
+    }
+
+    @Override
+    public long decrement(String cacheKey) {
+        long count = super.decrement(cacheKey);
+        invalidate(cacheKey);
+        return count;
+    }
+
+    @Override
+    public <T> void put(String cacheKey, T data) {
+        super.put(cacheKey, data);
+        invalidate(cacheKey);
+    }
+
+    @Override
+    public <T> void put(String cacheKey, T data, long expiredTime) {
+        super.put(cacheKey, data, expiredTime);
+        invalidate(cacheKey);
+    }
+
+    @Override
+    public void put(String cacheKey, String cacheValue) {
+        super.put(cacheKey, cacheValue);
+        invalidate(cacheKey);
+    }
+
+    @Override
+    public void put(String cacheKey, String cacheValue, long expiredTime) {
+        super.put(cacheKey, cacheValue, expiredTime);
+        invalidate(cacheKey);
+    }
+
+    @Override
+    public void delete(String cacheKey) {
+        super.delete(cacheKey);
+        invalidate(cacheKey);
+    }
+
+    @Override
+    protected void writeLoadedValue(String key, Object data, long delta, long expiredTime) {
+        super.writeLoadedValue(key, data, delta, expiredTime);
+        invalidate(key);
+    }
+
+    @Override
+    public <T> void multiPut(Map<String, T> data) {
+        super.multiPut(data);
+        invalidate(data == null ? null : data.keySet());
+    }
+
+    @Override
+    public <T> void multiPut(Map<String, T> data, long expiredTime) {
+        super.multiPut(data, expiredTime);
+        invalidate(data == null ? null : data.keySet());
+    }
+
+    @Override
+    public <T> void multiPut(Map<String, T> data, Map<String, Long> expiredTimes) {
+        super.multiPut(data, expiredTimes);
+        invalidate(data == null ? null : data.keySet());
+    }
+
+    @Override
+    public void multiDelete(Collection<String> keys) {
+        super.multiDelete(keys);
+        invalidate(keys);
+    }
+
+    /**
+     * 失效本地缓存并通知其他节点
+     * @param cacheKey key
+     */
+    public void invalidate(String cacheKey) {
+        if (StringUtils.isBlank(cacheKey)) {
+            return;
+        }
+        invalidate(Collections.singletonList(cacheKey));
+    }
+
+    /**
+     * 批量失效本地缓存，并用一条消息通知其他节点
+     * @param cacheKeys key集合
+     */
+    public void invalidate(Collection<String> cacheKeys) {
+        if (cacheKeys == null || cacheKeys.isEmpty()) {
+            return;
+        }
+        StringBuilder message = new StringBuilder(nodeId).append(SEPARATOR);
+        int count = 0;
+        for (String cacheKey : cacheKeys) {
+            if (StringUtils.isBlank(cacheKey)) {
+                continue;
+            }
+            nearCache.invalidate(cacheKey);
+            if (count++ > 0) {
+                message.append(KEY_DELIMITER);
+            }
+            message.append(cacheKey);
+        }
+        if (count == 0) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(INVALIDATE_TOPIC, message.toString());
+        } catch (Exception e) {
+            logger.error("failed to publish near cache invalidation, keys={}", cacheKeys, e);
+        }
+    }
+
+    @Override
+    public String getTopic() {
+        return INVALIDATE_TOPIC;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = decodeBody(message.getBody());
+        int index = body.indexOf(SEPARATOR);
+        if (index < 0) {
+            logger.warn("unknown near cache invalidation message: {}", body);
+            return;
+        }
+        if (nodeId.equals(body.substring(0, index))) {
+            return;
+        }
+        for (String key : StringUtils.split(body.substring(index + 1), KEY_DELIMITER)) {
+            nearCache.invalidate(key);
+        }
+    }
+
+    /**
+     * 消息体是 UTF-8 文本；兼容早期通过 JSON 序列化发布的带引号的字符串
+     */
+    private String decodeBody(byte[] body) {
+        String text = new String(body, StandardCharsets.UTF_8);
+        if (text.length() > 1 && text.charAt(0) == '"') {
+            try {
+                return MESSAGE_MAPPER.readValue(text, String.class);
+            } catch (IOException e) {
+                logger.debug("near cache invalidation message is not json, use raw text");
+            }
+        }
+        return text;
+    }
+
+}
@@ -0,0 +1,174 @@
+package com.magictool.web.util.redis;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 响应式缓存服务，与 {@link AsyncCacheService} 的操作一一对应，返回 {@link Mono}，订阅时才发送命令
+ * <p>
+ * 值不存在时返回空的 {@link Mono}。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public interface ReactiveCacheService {
+
+    /**
+     * 递减1并且返回
+     * @param cacheKey key
+     * @return long
+     */
+    Mono<Long> decrement(String cacheKey);
+
+    /**
+     * 递增1并且返回，第一次递增时设置过期时间
+     * @param cacheKey key
+     * @param expiredTime timeout
+     * @return long
+     */
+    Mono<Long> increment(String cacheKey, long expiredTime);
+
+    /**
+     * 由外部传入递增因子进行递增并且返回
+     * @param cacheKey key
+     * @param delta data
+     * @param expiredTime 大于0才设置过期时间，0或小于0不设置过期时间
+     * @return long
+     */
+    Mono<Long> increment(String cacheKey, long delta, long expiredTime);
+
+    /**
+     * 压入一个对象到cache中
+     * @param cacheKey key
+     * @param data T
+     */
+    <T> Mono<Void> put(String cacheKey, T data);
+
+    /**
+     * 压入一个对象到cache中
+     * @param cacheKey key
+     * @param data T
+     * @param expiredTime timeout
+     */
+    <T> Mono<Void> put(String cacheKey, T data, long expiredTime);
+
+    /**
+     * 更新cache key的过期时间
+     * @param cacheKey key
+     * @param expiredTime timeout
+     */
+    Mono<Void> refresh(String cacheKey, long expiredTime);
+
+    /**
+     * 获取一个缓存对象 通过key和对应的class
+     * @param key key
+     * @param clazzT 类
+     * @return T，不存在时为空
+     */
+    <T> Mono<T> get(String key, Class<T> clazzT);
+
+    /**
+     * 通过typeReference返回
+     * @param key key
+     * @param typeReference 序列换类型
+     * @return T，不存在时为空
+     */
+    <T> Mono<T> get(String key, TypeReference<T> typeReference);
+
+    /**
+     * 获取缓存对象用String object方式获取
+     * @param cacheKey key
+     * @return str
+     */
+    Mono<String> getAsString(String cacheKey);
+
+    /**
+     * 写入cache string类型
+     * @param cacheKey key
+     * @param cacheValue value
+     */
+    Mono<Void> put(String cacheKey, String cacheValue);
+
+    /**
+     * 写入cache string类型
+     * @param cacheKey key
+     * @param cacheValue value
+     * @param expiredTime timeout
+     */
+    Mono<Void> put(String cacheKey, String cacheValue, long expiredTime);
+
+    /**
+     * 删除缓存
+     * @param cacheKey key
+     */
+    Mono<Void> delete(String cacheKey);
+
+    /**
+     * 从队列存储一个字符串
+     * @param cacheKey key
+     * @param cacheValue value
+     */
+    Mono<Void> lPush(String cacheKey, String cacheValue);
+
+    /**
+     * 从队首获取一个值
+     * @param cacheKey key
+     * @return str
+     */
+    Mono<String> rpop(String cacheKey);
+
+    /**
+     * 获取队列长度
+     * @param cacheKey key
+     * @return long
+     */
+    Mono<Long> queueSize(String cacheKey);
+
+    /**
+     * 从队列存储一个对象
+     * @param cacheKey key
+     * @param data value
+     */
+    <T> Mono<Void> lPushData(String cacheKey, T data);
+
+    /**
+     * 从队首获取一个对象
+     * @param key key
+     * @param clazzT 类
+     * @return T
+     */
+    <T> Mono<T> rpopData(String key, Class<T> clazzT);
+
+    /**
+     * 获取集合
+     * @param key key
+     * @return List<String>
+     */
+    Mono<List<String>> getStringList(String key);
+
+    /**
+     * 存储一个list（一次 LPUSH 写入全部元素）
+     * @param key key
+     * @param data value
+     */
+    Mono<Void> pushStringList(String key, List<String> data);
+
+    /**
+     * 批量获取缓存对象（MGET）
+     * @param keys key集合
+     * @param clazzT 类
+     * @return key -> 对象，不存在的key不包含在结果中
+     */
+    <T> Mono<Map<String, T>> multiGet(Collection<String> keys, Class<T> clazzT);
+
+    /**
+     * 批量删除缓存（DEL）
+     * @param keys key集合
+     */
+    Mono<Void> multiDelete(Collection<String> keys);
+
+}
@@ -0,0 +1,131 @@
+package com.magictool.web.util.redis;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于 {@link AsyncCacheService} 的 {@link ReactiveCacheService}
+ * <p>
+ * 每个 {@link Mono} 在订阅时才调用异步接口发送命令，命令的合并刷出与 {@link AsyncCacheServiceImpl} 相同。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public class ReactiveCacheServiceImpl implements ReactiveCacheService {
+
+    private final AsyncCacheService asyncCacheService;
+
+    public ReactiveCacheServiceImpl(AsyncCacheService asyncCacheService) {
+        this.asyncCacheService = asyncCacheService;
+    }
+
+    @Override
+    public Mono<Long> decrement(String cacheKey) {
+        return Mono.fromFuture(() -> asyncCacheService.decrement(cacheKey));
+    }
+
+    @Override
+    public Mono<Long> increment(String cacheKey, long expiredTime) {
+        return Mono.fromFuture(() -> asyncCacheService.increment(cacheKey, expiredTime));
+    }
+
+    @Override
+    public Mono<Long> increment(String cacheKey, long delta, long expiredTime) {
+        return Mono.fromFuture(() -> asyncCacheService.increment(cacheKey, delta, expiredTime));
+    }
+
+    @Override
+    public <T> Mono<Void> put(String cacheKey, T data) {
+        return Mono.fromFuture(() -> asyncCacheService.put(cacheKey, data));
+    }
+
+    @Override
+    public <T> Mono<Void> put(String cacheKey, T data, long expiredTime) {
+        return Mono.fromFuture(() -> asyncCacheService.put(cacheKey, data, expiredTime));
+    }
+
+    @Override
+    public Mono<Void> refresh(String cacheKey, long expiredTime) {
+        return Mono.fromFuture(() -> asyncCacheService.refresh(cacheKey, expiredTime));
+    }
+
+    @Override
+    public <T> Mono<T> get(String key, Class<T> clazzT) {
+        return Mono.fromFuture(() -> asyncCacheService.get(key, clazzT));
+    }
+
+    @Override
+    public <T> Mono<T> get(String key, TypeReference<T> typeReference) {
+        return Mono.fromFuture(() -> asyncCacheService.get(key, typeReference));
+    }
+
+    @Override
+    public Mono<String> getAsString(String cacheKey) {
+        return Mono.fromFuture(() -> asyncCacheService.getAsString(cacheKey));
+    }
+
+    @Override
+    public Mono<Void> put(String cacheKey, String cacheValue) {
+        return Mono.fromFuture(() -> asyncCacheService.put(cacheKey, cacheValue));
+    }
+
+    @Override
+    public Mono<Void> put(String cacheKey, String cacheValue, long expiredTime) {
+        return Mono.fromFuture(() -> asyncCacheService.put(cacheKey, cacheValue, expiredTime));
+    }
+
+    @Override
+    public Mono<Void> delete(String cacheKey) {
+        return Mono.fromFuture(() -> asyncCacheService.delete(cacheKey));
+    }
+
+    @Override
+    public Mono<Void> lPush(String cacheKey, String cacheValue) {
+        return Mono.fromFuture(() -> asyncCacheService.lPush(cacheKey, cacheValue));
+    }
+
+    @Override
+    public Mono<String> rpop(String cacheKey) {
+        return Mono.fromFuture(() -> asyncCacheService.rpop(cacheKey));
+    }
+
+    @Override
+    public Mono<Long> queueSize(String cacheKey) {
+        return Mono.fromFuture(() -> asyncCacheService.queueSize(cacheKey));
+    }
+
+    @Override
+    public <T> Mono<Void> lPushData(String cacheKey, T data) {
+        return Mono.fromFuture(() -> asyncCacheService.lPushData(cacheKey, data));
+    }
+
+    @Override
+    public <T> Mono<T> rpopData(String key, Class<T> clazzT) {
+        return Mono.fromFuture(() -> asyncCacheService.rpopData(key, clazzT));
+    }
+
+    @Override
+    public Mono<List<String>> getStringList(String key) {
+        return Mono.fromFuture(() -> asyncCacheService.getStringList(key));
+    }
+
+    @Override
+    public Mono<Void> pushStringList(String key, List<String> data) {
+        return Mono.fromFuture(() -> asyncCacheService.pushStringList(key, data));
+    }
+
+    @Override
+    public <T> Mono<Map<String, T>> multiGet(Collection<String> keys, Class<T> clazzT) {
+        return Mono.fromFuture(() -> asyncCacheService.multiGet(keys, clazzT));
+    }
+
+    @Override
+    public Mono<Void> multiDelete(Collection<String> keys) {
+        return Mono.fromFuture(() -> asyncCacheService.multiDelete(keys));
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.magictool.web.util.redis;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * 请求合并：同一个 key 同一时刻只有一个加载任务在执行，其余并发调用共享同一个 {@link CompletableFuture} 的结果
+ * <p>
+ * 注意：合并后的调用方拿到的是同一个对象实例，调用方不应修改返回的对象。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public class SingleFlight<V> {
+
+    private final ConcurrentHashMap<String, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    /**
+     * 同步加载，当前线程是第一个调用方时由当前线程执行 loader，否则等待正在执行的加载结果
+     *
+     * @param key    合并的 key
+     * @param loader 加载方法
+     * @return 加载结果
+     */
+    public V load(String key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = calls.putIfAbsent(key, call);
+        if (existing != null) {
+            return join(existing);
+        }
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, call);
+        }
+    }
+
+    /**
+     * 异步加载，已有相同 key 的加载任务时直接返回该任务
+     *
+     * @param key      合并的 key
+     * @param loader   加载方法
+     * @param executor 执行加载的线程池
+     * @return 加载结果
+     */
+    public CompletableFuture<V> loadAsync(String key, Supplier<V> loader, Executor executor) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = calls.putIfAbsent(key, call);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    call.complete(loader.get());
+                } catch (Throwable e) {
+                    call.completeExceptionally(e);
+                } finally {
+                    calls.remove(key, call);
+                }
+            });
+        } catch (RuntimeException e) {
+            // 线程池拒绝执行
+            calls.remove(key, call);
+            call.completeExceptionally(e);
+        }
+        return call;
+    }
+
+    /**
+     * 正在执行的加载任务数
+     */
+    public int inFlight() {
+        return calls.size();
+    }
+
+    private V join(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.magictool.web.util.redis.codec;
+
+import com.fasterxml.jackson.databind.JavaType;
+
+import java.io.IOException;
+
+/**
+ * 缓存值编解码 SPI
+ * <p>
+ * 实现类需要线程安全。{@link #id()} 会写入 {@link VersionedCacheCodec} 的头部，
+ * 用于在切换编码方式后仍能读取旧数据，已经使用过的 id 不要修改。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public interface CacheCodec {
+
+    /**
+     * 编码方式标识，0~127
+     * @return id
+     */
+    byte id();
+
+    /**
+     * 编码
+     * @param value 缓存值
+     * @return 字节数组
+     * @throws IOException 编码失败
+     */
+    byte[] encode(Object value) throws IOException;
+
+    /**
+     * 解码
+     * @param data 字节数组
+     * @param type 目标类型
+     * @param <T> T
+     * @return T
+     * @throws IOException 解码失败
+     */
+    <T> T decode(byte[] data, JavaType type) throws IOException;
+
+}
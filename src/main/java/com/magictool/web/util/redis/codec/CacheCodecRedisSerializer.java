@@ -0,0 +1,50 @@
+package com.magictool.web.util.redis.codec;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+
+/**
+ * 将 {@link CacheCodec} 适配为 RedisTemplate 使用的序列化器
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public class CacheCodecRedisSerializer implements RedisSerializer<Object> {
+
+    private static final JavaType OBJECT_TYPE = TypeFactory.defaultInstance().constructType(Object.class);
+
+    private final CacheCodec codec;
+
+    public CacheCodecRedisSerializer(CacheCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        try {
+            return codec.encode(value);
+        } catch (IOException e) {
+            throw new SerializationException("Could not write cache value: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            return codec.decode(bytes, OBJECT_TYPE);
+        } catch (IOException e) {
+            throw new SerializationException("Could not read cache value: " + e.getMessage(), e);
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.magictool.web.util.redis.codec;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 缓存值中类名的白名单
+ * <p>
+ * 缓存中的字节可能被其他程序写入，按其中的类名加载类存在反序列化漏洞的风险。
+ * 只允许 JDK 的常用类型、指定包下的类和单独登记的类，其他类名在加载之前就会被拒绝。
+ * {@link #allowAll()} 不做限制，用于兼容没有配置白名单的已有数据。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public class CacheTypeValidator extends PolymorphicTypeValidator.Base {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String[] JDK_PACKAGES = {"java.lang.", "java.util.", "java.time.", "java.math."};
+
+    private final String[] trustedPackages;
+
+    private final Set<String> trustedClasses = ConcurrentHashMap.newKeySet();
+
+    private final boolean allowAll;
+
+    /**
+     * @param trustedPackages 信任的包名前缀，例如 {@code com.magictool}，包含子包
+     */
+    public CacheTypeValidator(String... trustedPackages) {
+        this(false, trustedPackages);
+    }
+
+    private CacheTypeValidator(boolean allowAll, String... trustedPackages) {
+        this.allowAll = allowAll;
+        List<String> prefixes = new ArrayList<>(trustedPackages.length);
+        for (String trusted : trustedPackages) {
+            if (trusted != null && !trusted.trim().isEmpty()) {
+                trusted = trusted.trim();
+                prefixes.add(trusted.endsWith(".") ? trusted : trusted + ".");
+            }
+        }
+        this.trustedPackages = prefixes.toArray(new String[0]);
+    }
+
+    /**
+     * 允许任意类名，与 Jackson 的 LaissezFaireSubTypeValidator 相同。
+     * 缓存中的数据可能被其他程序写入时存在反序列化漏洞的风险，只用于兼容升级前的行为
+     */
+    public static CacheTypeValidator allowAll() {
+        return new CacheTypeValidator(true);
+    }
+
+    public boolean isAllowAll() {
+        return allowAll;
+    }
+
+    /**
+     * 单独信任一个类
+     *
+     * @param type 类型
+     * @return this
+     */
+    public CacheTypeValidator trust(Class<?> type) {
+        trustedClasses.add(type.getName());
+        return this;
+    }
+
+    /**
+     * 类名是否在白名单中，数组按元素类型判断
+     *
+     * @param className {@link Class#getName()} 格式的类名
+     */
+    public boolean isAllowed(String className) {
+        if (allowAll) {
+            return true;
+        }
+        String name = className;
+        int dimension = 0;
+        while (dimension < name.length() && name.charAt(dimension) == '[') {
+            dimension++;
+        }
+        if (dimension > 0) {
+            if (name.length() == dimension + 1) {
+                // 基本类型数组，例如 [I
+                return true;
+            }
+            if (name.charAt(dimension) != 'L' || !name.endsWith(";")) {
+                return false;
+            }
+            name = name.substring(dimension + 1, name.length() - 1);
+        }
+        if (trustedClasses.contains(name)) {
+            return true;
+        }
+        for (String prefix : JDK_PACKAGES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        for (String prefix : trustedPackages) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Validity validateSubClassName(MapperConfig<?> config, JavaType baseType, String subClassName) {
+        return isAllowed(subClassName) ? Validity.ALLOWED : Validity.DENIED;
+    }
+
+    @Override
+    public Validity validateSubType(MapperConfig<?> config, JavaType baseType, JavaType subType) {
+        return isAllowed(subType.getRawClass().getName()) ? Validity.ALLOWED : Validity.DENIED;
+    }
+
+}
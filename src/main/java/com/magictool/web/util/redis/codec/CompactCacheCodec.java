@@ -0,0 +1,180 @@
+package com.magictool.web.util.redis.codec;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 紧凑二进制编解码
+ * <p>
+ * 在 Smile 的基础上，已注册的类型按数组形式序列化（只写属性值，不写属性名），并且只写入注册的类型编号，
+ * 不再写入类的全名；未注册的类型写入类名，保证读取时仍能还原为原来的类型。
+ * 嵌套的属性、集合元素与 {@link JacksonCacheCodec#configureTyping} 一样写入类型信息，按 Object 读取时也能还原。
+ * 已注册的类型关闭了 Jackson 的默认类型信息，作为根对象或声明类型就是它本身的属性时都不再包一层类名；
+ * 声明为 Object 等父类型的属性仍会写入实际类名。
+ * 读取时只加载 {@link CacheTypeValidator} 白名单中的类，已注册的类型自动加入白名单。
+ * <p>
+ * 注意：
+ * 1. 类型需要在第一次编解码之前注册，一般在启动时完成；
+ * 2. 已注册类型的属性按字母顺序排列，增删属性会改变数据结构，此时应使用新的类型编号注册。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public class CompactCacheCodec implements CacheCodec {
+
+    public static final byte ID = 4;
+
+    /**
+     * 未注册类型的编号
+     */
+    private static final int UNREGISTERED = 0;
+
+    private final ObjectMapper objectMapper;
+
+    private final CacheTypeValidator validator;
+
+    private final ConcurrentHashMap<Integer, Class<?>> types = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Class<?>, Integer> typeIds = new ConcurrentHashMap<>();
+
+    /**
+     * 只信任 JDK 常用类型和注册的类型
+     */
+    public CompactCacheCodec() {
+        this(new CacheTypeValidator());
+    }
+
+    /**
+     * @param validator 类名白名单，注册的类型会加入其中
+     */
+    public CompactCacheCodec(CacheTypeValidator validator) {
+        this.validator = validator;
+        objectMapper = JacksonCacheCodec.configureTyping(new ObjectMapper(JacksonCacheCodec.smileFactory()), validator);
+        // 属性顺序即数据结构，按字母排序保证不同 JVM 之间一致
+        objectMapper.configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true);
+    }
+
+    /**
+     * 注册类型
+     *
+     * @param typeId 类型编号，必须大于0
+     * @param type   类型
+     * @return this
+     */
+    public CompactCacheCodec register(int typeId, Class<?> type) {
+        if (typeId <= UNREGISTERED) {
+            throw new IllegalArgumentException("typeId must be greater than 0");
+        }
+        Class<?> existing = types.putIfAbsent(typeId, type);
+        if (existing != null && existing != type) {
+            throw new IllegalArgumentException("typeId " + typeId + " is already registered by " + existing.getName());
+        }
+        typeIds.put(type, typeId);
+        validator.trust(type);
+        objectMapper.configOverride(type).setFormat(JsonFormat.Value.forShape(JsonFormat.Shape.ARRAY));
+        // 类型已由编号确定，不再写入 [类名, 值] 包装
+        objectMapper.addMixIn(type, RegisteredType.class);
+        return this;
+    }
+
+    /**
+     * 用于自定义序列化配置，需在注册类型和编解码之前调用
+     */
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    @Override
+    public byte id() {
+        return ID;
+    }
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        Integer typeId = value == null ? null : typeIds.get(value.getClass());
+        if (typeId != null) {
+            writeVarInt(out, typeId);
+        } else {
+            writeVarInt(out, UNREGISTERED);
+            byte[] className = value == null ? new byte[0] : value.getClass().getName().getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, className.length);
+            out.write(className);
+        }
+        objectMapper.writeValue(out, value);
+        return out.toByteArray();
+    }
+
+    @Override
+    public <T> T decode(byte[] data, JavaType type) throws IOException {
+        int[] offset = {0};
+        int typeId = readVarInt(data, offset);
+        Class<?> actualType;
+        if (typeId == UNREGISTERED) {
+            int length = readVarInt(data, offset);
+            actualType = length == 0 ? null : loadClass(new String(data, offset[0], length, StandardCharsets.UTF_8));
+            offset[0] += length;
+        } else {
+            actualType = types.get(typeId);
+            if (actualType == null) {
+                throw new IOException("unknown compact cache typeId: " + typeId);
+            }
+        }
+        JavaType targetType = type;
+        if (actualType != null && type.getRawClass() != actualType && type.getRawClass().isAssignableFrom(actualType)) {
+            // 目标类型是父类或 Object 时，按写入时的实际类型读取
+            targetType = objectMapper.getTypeFactory().constructType(actualType);
+        }
+        return objectMapper.readValue(data, offset[0], data.length - offset[0], targetType);
+    }
+
+    private Class<?> loadClass(String className) throws IOException {
+        if (!validator.isAllowed(className)) {
+            throw new IOException("cache value class is not trusted: " + className);
+        }
+        try {
+            return Class.forName(className, false, Thread.currentThread().getContextClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IOException("cache value class not found: " + className, e);
+        }
+    }
+
+    /**
+     * 注册类型的 mix-in，覆盖默认类型信息
+     */
+    @JsonTypeInfo(use = JsonTypeInfo.Id.NONE)
+    private abstract static class RegisteredType {
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarInt(byte[] data, int[] offset) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (offset[0] >= data.length) {
+                throw new IOException("unexpected end of compact cache value");
+            }
+            byte b = data[offset[0]++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed varint in compact cache value");
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.magictool.web.util.redis.codec;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+import java.io.IOException;
+
+/**
+ * 基于 Jackson 的编解码，支持 JSON、Smile、CBOR 三种格式
+ * <p>
+ * {@link #json()} 等工厂方法创建的编解码按调用方传入的目标类型读取，不写入类型信息，与 CacheServiceImpl 原有的格式一致；
+ * 按 Object 读取的场景（例如 RedisTemplate 的值序列化）需要用 {@link #configureTyping} 配置的 ObjectMapper，
+ * 把类名写入数据中。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public class JacksonCacheCodec implements CacheCodec {
+
+    public static final byte JSON_ID = 1;
+
+    public static final byte SMILE_ID = 2;
+
+    public static final byte CBOR_ID = 3;
+
+    private final byte id;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param id           编码方式标识
+     * @param objectMapper 对应格式的 ObjectMapper
+     */
+    public JacksonCacheCodec(byte id, ObjectMapper objectMapper) {
+        this.id = id;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * JSON 文本，与 CacheServiceImpl 原有的存储格式一致
+     */
+    public static JacksonCacheCodec json() {
+        return new JacksonCacheCodec(JSON_ID, new ObjectMapper());
+    }
+
+    /**
+     * Smile 二进制 JSON，开启属性名和短字符串的回引用
+     */
+    public static JacksonCacheCodec smile() {
+        return new JacksonCacheCodec(SMILE_ID, new ObjectMapper(smileFactory()));
+    }
+
+    /**
+     * CBOR 二进制 JSON
+     */
+    public static JacksonCacheCodec cbor() {
+        return new JacksonCacheCodec(CBOR_ID, new ObjectMapper(new CBORFactory()));
+    }
+
+    static SmileFactory smileFactory() {
+        SmileFactory factory = new SmileFactory();
+        factory.enable(SmileGenerator.Feature.CHECK_SHARED_NAMES);
+        factory.enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+        return factory;
+    }
+
+    /**
+     * 配置写入类型信息的 ObjectMapper：非 final 类型按 [类名, 值] 写入，读取时只加载白名单中的类
+     *
+     * @param om        ObjectMapper，JSON、Smile、CBOR 均可
+     * @param validator 类名白名单
+     * @return 传入的 ObjectMapper
+     */
+    public static ObjectMapper configureTyping(ObjectMapper om, PolymorphicTypeValidator validator) {
+        //只针对非空的属性进行序列化
+        om.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        //访问类型
+        om.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        //将类的全名序列化到数据中
+        om.activateDefaultTyping(validator, ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.WRAPPER_ARRAY);
+        //对于匹配不了的属性忽略报错信息
+        om.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        //不包含任何属性的bean也不报错
+        om.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+        return om;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    @Override
+    public byte id() {
+        return id;
+    }
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        return objectMapper.writeValueAsBytes(value);
+    }
+
+    @Override
+    public <T> T decode(byte[] data, JavaType type) throws IOException {
+        return objectMapper.readValue(data, type);
+    }
+
+}
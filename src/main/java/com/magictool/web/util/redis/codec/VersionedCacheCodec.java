@@ -0,0 +1,198 @@
+package com.magictool.web.util.redis.codec;
+
+import com.fasterxml.jackson.databind.JavaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 带版本头的编解码，支持在线迁移已有数据
+ * <p>
+ * 数据格式：魔数(1) + 版本(1) + 编码方式 id(1) + 标志位(1) [+ 压缩前长度(4)] + 数据。
+ * 魔数 0xC1 在 UTF-8 中不会出现，因此没有版本头的旧数据（如 JSON 文本）可以直接识别，交给 legacy 解码；
+ * 读取时按头部的编码方式 id 选择解码器，所以切换写入的编码方式后，新旧数据可以同时读取，随写入逐步迁移。
+ * 超过阈值的数据会用 Deflate 压缩，压缩后没有变小则保留原数据。
+ * 解压前校验头部记录的压缩前长度，超过上限或不合法时按损坏数据抛出 {@link IOException}，
+ * 一条被篡改的缓存值不会导致分配超大数组。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public class VersionedCacheCodec implements CacheCodec {
+
+    static final byte MAGIC = (byte) 0xC1;
+
+    static final byte VERSION = 1;
+
+    private static final int FLAG_DEFLATE = 1;
+
+    private static final int HEADER_LENGTH = 4;
+
+    /**
+     * 默认的解压后最大字节数
+     */
+    public static final int DEFAULT_MAX_DECOMPRESSED_BYTES = 64 * 1024 * 1024;
+
+    private final CacheCodec writer;
+
+    private final CacheCodec legacy;
+
+    private final int compressThreshold;
+
+    private final int maxDecompressedBytes;
+
+    private final Map<Byte, CacheCodec> readers = new HashMap<>();
+
+    /**
+     * @param writer            写入使用的编码方式
+     * @param legacy            没有版本头的旧数据使用的解码方式
+     * @param compressThreshold 数据达到该字节数时压缩，0或小于0不压缩
+     * @param readers           其他需要兼容读取的编码方式
+     */
+    public VersionedCacheCodec(CacheCodec writer, CacheCodec legacy, int compressThreshold, CacheCodec... readers) {
+        this(writer, legacy, compressThreshold, DEFAULT_MAX_DECOMPRESSED_BYTES, readers);
+    }
+
+    /**
+     * @param writer               写入使用的编码方式
+     * @param legacy               没有版本头的旧数据使用的解码方式
+     * @param compressThreshold    数据达到该字节数时压缩，0或小于0不压缩
+     * @param maxDecompressedBytes 解压后的最大字节数，超过时按损坏数据处理
+     * @param readers              其他需要兼容读取的编码方式
+     */
+    public VersionedCacheCodec(CacheCodec writer, CacheCodec legacy, int compressThreshold, int maxDecompressedBytes,
+                               CacheCodec... readers) {
+        if (maxDecompressedBytes <= 0) {
+            throw new IllegalArgumentException("maxDecompressedBytes must be greater than 0");
+        }
+        this.writer = writer;
+        this.legacy = legacy;
+        this.compressThreshold = compressThreshold;
+        this.maxDecompressedBytes = maxDecompressedBytes;
+        this.readers.put(legacy.id(), legacy);
+        for (CacheCodec reader : readers) {
+            this.readers.put(reader.id(), reader);
+        }
+        this.readers.put(writer.id(), writer);
+    }
+
+    @Override
+    public byte id() {
+        return writer.id();
+    }
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        byte[] payload = writer.encode(value);
+        // 超过解压上限的数据不压缩，否则写入后无法读取
+        if (compressThreshold > 0 && payload.length >= compressThreshold && payload.length <= maxDecompressedBytes) {
+            byte[] compressed = deflate(payload);
+            if (compressed.length + 4 < payload.length) {
+                byte[] data = new byte[HEADER_LENGTH + 4 + compressed.length];
+                writeHeader(data, FLAG_DEFLATE);
+                writeInt(data, HEADER_LENGTH, payload.length);
+                System.arraycopy(compressed, 0, data, HEADER_LENGTH + 4, compressed.length);
+                return data;
+            }
+        }
+        byte[] data = new byte[HEADER_LENGTH + payload.length];
+        writeHeader(data, 0);
+        System.arraycopy(payload, 0, data, HEADER_LENGTH, payload.length);
+        return data;
+    }
+
+    @Override
+    public <T> T decode(byte[] data, JavaType type) throws IOException {
+        if (data.length < HEADER_LENGTH || data[0] != MAGIC) {
+            return legacy.decode(data, type);
+        }
+        if (data[1] > VERSION) {
+            throw new IOException("unsupported cache value version: " + data[1]);
+        }
+        CacheCodec codec = readers.get(data[2]);
+        if (codec == null) {
+            throw new IOException("unknown cache codec id: " + data[2]);
+        }
+        byte[] payload;
+        if ((data[3] & FLAG_DEFLATE) != 0) {
+            if (data.length < HEADER_LENGTH + 4) {
+                throw new IOException("corrupted compressed cache value: missing length");
+            }
+            int length = readInt(data, HEADER_LENGTH);
+            if (length < 0 || length > maxDecompressedBytes) {
+                throw new IOException("corrupted compressed cache value: length " + length
+                        + " exceeds the limit of " + maxDecompressedBytes + " bytes");
+            }
+            payload = inflate(data, HEADER_LENGTH + 4, length);
+        } else {
+            payload = Arrays.copyOfRange(data, HEADER_LENGTH, data.length);
+        }
+        return codec.decode(payload, type);
+    }
+
+    private void writeHeader(byte[] data, int flags) {
+        data[0] = MAGIC;
+        data[1] = VERSION;
+        data[2] = writer.id();
+        data[3] = (byte) flags;
+    }
+
+    private static byte[] deflate(byte[] payload) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int offset, int length) throws IOException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data, offset, data.length - offset);
+            byte[] payload = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int n = inflater.inflate(payload, read, length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != length) {
+                throw new IOException("corrupted compressed cache value");
+            }
+            return payload;
+        } catch (DataFormatException e) {
+            throw new IOException("corrupted compressed cache value", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeInt(byte[] data, int offset, int value) {
+        data[offset] = (byte) (value >>> 24);
+        data[offset + 1] = (byte) (value >>> 16);
+        data[offset + 2] = (byte) (value >>> 8);
+        data[offset + 3] = (byte) value;
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return ((data[offset] & 0xFF) << 24) | ((data[offset + 1] & 0xFF) << 16)
+                | ((data[offset + 2] & 0xFF) << 8) | (data[offset + 3] & 0xFF);
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.magictool.web.filter.bloom;
+
+import io.netty.buffer.ByteBuf;
+import org.junit.jupiter.api.Test;
+import org.redisson.RedissonBloomFilter;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.codec.JsonJacksonCodec;
+import org.redisson.misc.Hash;
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 本地计算的下标和哈希次数与 Redisson RBloomFilter 一致
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+class BloomHashesTest {
+
+    @Test
+    void indexesMatchRedisson() throws Exception {
+        RedissonBloomFilter<?> redisson = allocate();
+        Method hash = RedissonBloomFilter.class.getDeclaredMethod("hash", long.class, long.class, int.class, long.class);
+        hash.setAccessible(true);
+        for (Codec codec : new Codec[]{StringCodec.INSTANCE, new JsonJacksonCodec()}) {
+            for (long bitSize : new long[]{1, 63, 9585058, BloomHashes.optimalNumOfBits(1_000_000_000L, 0.0001)}) {
+                for (int i = 0; i < 500; i++) {
+                    Object value = "element-" + i;
+                    int iterations = 1 + i % 13;
+                    long[] hashes = hash128(codec, value);
+                    long[] expected = (long[]) hash.invoke(redisson, hashes[0], hashes[1], iterations, bitSize);
+                    assertArrayEquals(expected, BloomHashes.indexes(codec, value, iterations, bitSize),
+                            "value=" + value + ", bitSize=" + bitSize + ": ");
+                }
+            }
+        }
+    }
+
+    @Test
+    void hashIterationsMatchRedisson() throws Exception {
+        RedissonBloomFilter<?> redisson = allocate();
+        Method optimal = RedissonBloomFilter.class.getDeclaredMethod("optimalNumOfHashFunctions", long.class, long.class);
+        optimal.setAccessible(true);
+        for (long insertions : new long[]{1, 1000, 1_000_000}) {
+            for (double probability : new double[]{0.1, 0.01, 0.0001}) {
+                long bitSize = BloomHashes.optimalNumOfBits(insertions, probability);
+                assertEquals(optimal.invoke(redisson, insertions, bitSize),
+                        BloomHashes.optimalNumOfHashFunctions(insertions, bitSize));
+            }
+        }
+    }
+
+    private static long[] hash128(Codec codec, Object value) throws Exception {
+        ByteBuf state = codec.getValueEncoder().encode(value);
+        try {
+            return Hash.hash128(state);
+        } finally {
+            state.release();
+        }
+    }
+
+    /**
+     * 下标计算不依赖连接，跳过构造方法创建实例
+     */
+    private static RedissonBloomFilter<?> allocate() throws Exception {
+        Field field = Unsafe.class.getDeclaredField("theUnsafe");
+        field.setAccessible(true);
+        return (RedissonBloomFilter<?>) ((Unsafe) field.get(null)).allocateInstance(RedissonBloomFilter.class);
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.magictool.web.filter.bloom;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link LocalBitArray} 合并 Redis 位图后与 SETBIT 的位置一致
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+class LocalBitArrayTest {
+
+    @Test
+    void mergedBitmapMatchesSetBitOffsets() {
+        long bitSize = 9585058;
+        Random random = new Random(3);
+        Set<Long> offsets = new HashSet<>();
+        for (int i = 0; i < 7000; i++) {
+            offsets.add((long) random.nextInt((int) bitSize));
+        }
+        // 按 Redis SETBIT 的布局构造位图：第 offset 位在第 offset / 8 个字节，字节内高位在前
+        byte[] bitmap = new byte[(int) ((bitSize + 7) / 8)];
+        for (long offset : offsets) {
+            bitmap[(int) (offset >>> 3)] |= (byte) (0x80 >>> (offset & 7));
+        }
+        LocalBitArray local = new LocalBitArray(bitSize);
+        local.merge(bitmap);
+        assertEquals(offsets.size(), local.cardinality());
+        for (long offset : offsets) {
+            assertTrue(local.get(offset), "offset " + offset);
+        }
+        for (int i = 0; i < 1000; i++) {
+            long offset = random.nextInt((int) bitSize);
+            assertEquals(offsets.contains(offset), local.get(offset), "offset " + offset);
+        }
+    }
+
+    @Test
+    void setReportsFirstWrite() {
+        LocalBitArray local = new LocalBitArray(130);
+        assertTrue(local.set(129));
+        assertFalse(local.set(129));
+        assertTrue(local.get(129));
+        assertFalse(local.get(128));
+        assertEquals(1, local.cardinality());
+        byte[] bitmap = new byte[17];
+        bitmap[16] = (byte) 0x80;
+        local.merge(bitmap);
+        assertTrue(local.get(128));
+        assertEquals(2, local.cardinality());
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.magictool.web.util.highlight;
+
+import com.magictool.web.util.ObjectUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 自动机高亮与正则实现 {@link ObjectUtil#replaceAllIgnoreCase(String, String)} 的结果一致
+ * <p>
+ * 正则按关键字从长到短拼成分支，得到的也是“最左开始、同一位置取最长”的匹配
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+class KeywordHighlighterTest {
+
+    private static final char[] ALPHABET = {'a', 'b', 'c', 'A', 'B', ' ', '中'};
+
+    @Test
+    void singleKeywordMatchesRegex() {
+        Random random = new Random(7);
+        for (int round = 0; round < 2000; round++) {
+            String keyword = randomText(random, 1 + random.nextInt(3));
+            String text = randomText(random, random.nextInt(40));
+            assertEquals(ObjectUtil.replaceAllIgnoreCase(text, keyword), KeywordHighlighter.of(keyword).highlight(text),
+                    "keyword=" + keyword + ", text=" + text);
+        }
+    }
+
+    @Test
+    void overlappingKeywordsMatchRegexAlternation() {
+        Random random = new Random(11);
+        for (int round = 0; round < 2000; round++) {
+            Set<String> keywords = new LinkedHashSet<>();
+            int count = 1 + random.nextInt(5);
+            while (keywords.size() < count) {
+                keywords.add(randomText(random, 1 + random.nextInt(4)));
+            }
+            String text = randomText(random, random.nextInt(60));
+            KeywordHighlighter highlighter = new KeywordHighlighter(keywords, KeywordHighlighter.DEFAULT_PRE_TAG,
+                    KeywordHighlighter.DEFAULT_POST_TAG);
+            assertEquals(ObjectUtil.replaceAllIgnoreCase(text, alternation(keywords)), highlighter.highlight(text),
+                    "keywords=" + keywords + ", text=" + text);
+        }
+    }
+
+    @Test
+    void customTagsAndEdgeCases() {
+        KeywordHighlighter highlighter = new KeywordHighlighter(Arrays.asList("Lucene", "", null, "lucene"), "[", "]");
+        assertEquals(1, highlighter.getKeywordCount());
+        assertEquals("[LUCENE] and [lucene]", highlighter.highlight("LUCENE and lucene"));
+        String text = "no match";
+        assertTrue(text == highlighter.highlight(text));
+        assertNull(highlighter.highlight(null));
+        assertTrue(highlighter.containsAny("use Lucene"));
+        assertFalse(highlighter.containsAny("use solr"));
+        assertEquals("abc", new KeywordHighlighter(Collections.<String>emptyList(), "[", "]").highlight("abc"));
+        assertTrue(KeywordHighlighter.of("a", "b") == KeywordHighlighter.of("a", "b"));
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * 按长度倒序拼接，关键字只包含字母、空格和汉字，不需要转义
+     */
+    private static String alternation(Set<String> keywords) {
+        List<String> sorted = new ArrayList<>(keywords);
+        sorted.sort(Comparator.comparingInt(String::length).reversed());
+        return String.join("|", sorted);
+    }
+
+}
@@ -0,0 +1,165 @@
+package com.magictool.web.util.id;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 租约丢失后心跳持续重新抢占槽位，lease() 沿用已有的心跳
+ * <p>
+ * 用内存中的槽位表代替 Redis 执行三个租约脚本，只验证续期和重新抢占的流程
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+class RedisWorkerIdAllocatorTest {
+
+    private static final String PREFIX = "test:{worker-id}:";
+
+    private static final String HEARTBEAT_THREAD = "worker-id-lease-heartbeat";
+
+    @Test
+    void lostLeaseIsReacquiredWithBackoff() throws Exception {
+        FakeRedis redis = new FakeRedis();
+        RedisWorkerIdAllocator allocator = new RedisWorkerIdAllocator(redis, PREFIX, 300);
+        BlockingQueue<SnowflakeIdGenerator> switched = new LinkedBlockingQueue<>();
+        allocator.addListener(switched::add);
+        try {
+            SnowflakeIdGenerator old = allocator.lease();
+            int lost = allocator.getSlot();
+            old.nextId();
+
+            // 租约被其他节点接手，接下来两次重新抢占遇到 Redis 故障
+            redis.failLeases.set(2);
+            redis.slots.put(PREFIX + lost, "other");
+
+            SnowflakeIdGenerator generator = switched.poll(5, TimeUnit.SECONDS);
+            assertNotNull(generator, "lease was not reacquired");
+            assertEquals(0, redis.failLeases.get());
+            assertEquals(2, allocator.getReacquireFailureCount());
+            assertEquals(1, allocator.getLeaseLostCount());
+            assertTrue(allocator.isLeased());
+            assertTrue(allocator.getSlot() != lost);
+            assertTrue(generator == allocator.getGenerator());
+            generator.nextId();
+            assertThrows(IllegalStateException.class, old::nextId);
+        } finally {
+            allocator.close();
+        }
+        // 只释放自己租到的槽位
+        assertEquals(1, redis.slots.size());
+        assertTrue(redis.slots.containsValue("other"));
+    }
+
+    @Test
+    void leaseAfterLossReusesHeartbeat() throws Exception {
+        awaitTrue(() -> heartbeatThreads() == 0);
+        FakeRedis redis = new FakeRedis();
+        RedisWorkerIdAllocator allocator = new RedisWorkerIdAllocator(redis, PREFIX, 300);
+        AtomicInteger switched = new AtomicInteger();
+        allocator.addListener(generator -> switched.incrementAndGet());
+        try {
+            allocator.lease();
+            // 没有空闲槽位，心跳只能退避重试
+            redis.full = true;
+            redis.slots.clear();
+            awaitTrue(() -> !allocator.isLeased() && allocator.getReacquireFailureCount() > 0);
+            assertThrows(IllegalStateException.class, allocator::lease);
+
+            redis.full = false;
+            SnowflakeIdGenerator generator = allocator.lease();
+            assertTrue(allocator.isLeased());
+            generator.nextId();
+            assertEquals(1, switched.get());
+            assertEquals(1, heartbeatThreads());
+
+            // 重新租到后心跳继续续期
+            long renewed = allocator.getRenewCount();
+            awaitTrue(() -> allocator.getRenewCount() > renewed);
+        } finally {
+            allocator.close();
+        }
+        assertFalse(allocator.isLeased());
+        assertTrue(redis.slots.isEmpty());
+    }
+
+    private static int heartbeatThreads() {
+        int count = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (HEARTBEAT_THREAD.equals(thread.getName()) && thread.isAlive()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * 按脚本内容区分抢占、续期和释放，槽位不过期，测试中手动删除或改写来模拟租约丢失
+     */
+    private static class FakeRedis extends StringRedisTemplate {
+
+        final Map<String, String> slots = new ConcurrentHashMap<>();
+
+        final AtomicInteger failLeases = new AtomicInteger();
+
+        volatile boolean full;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            String source = script.getScriptAsString();
+            String key = keys.get(0);
+            String owner = (String) args[0];
+            if (source.contains("'nx'")) {
+                if (failLeases.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                    throw new RedisConnectionFailureException("connection refused");
+                }
+                if (full) {
+                    return (T) Long.valueOf(-1);
+                }
+                int start = Integer.parseInt((String) args[2]);
+                int count = Integer.parseInt((String) args[3]);
+                int excluded = Integer.parseInt((String) args[4]);
+                for (int i = 0; i < count; i++) {
+                    int slot = (start + i) % count;
+                    if (slot != excluded && slots.putIfAbsent(key + slot, owner) == null) {
+                        return (T) Long.valueOf(slot);
+                    }
+                }
+                return (T) Long.valueOf(-1);
+            }
+            if (!owner.equals(slots.get(key))) {
+                return (T) Long.valueOf(0);
+            }
+            if (source.contains("'del'")) {
+                slots.remove(key);
+            }
+            return (T) Long.valueOf(1);
+        }
+    }
+
+}
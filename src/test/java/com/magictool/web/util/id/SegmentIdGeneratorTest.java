@@ -0,0 +1,162 @@
+package com.magictool.web.util.id;
+
+import com.magictool.web.util.redis.InMemoryRedis;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 号段双缓冲：预取时机、切换时等待、预取失败后同步重试，以及并发取号不重复
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+class SegmentIdGeneratorTest {
+
+    @Test
+    void prefetchesOncePerSegmentAndSwitchesWithoutGaps() {
+        CountingStore store = new CountingStore();
+        SegmentIdGenerator generator = new SegmentIdGenerator(store, "order", 100, 0.1, Runnable::run);
+
+        for (long expected = 1; expected <= 10; expected++) {
+            assertEquals(expected, generator.nextId());
+        }
+        assertEquals(1, generator.getLoadCount());
+        // 发出第 11 个号时预取下一个号段
+        assertEquals(11, generator.nextId());
+        assertEquals(2, generator.getLoadCount());
+        assertEquals(89, generator.getRemaining());
+
+        for (long expected = 12; expected <= 210; expected++) {
+            assertEquals(expected, generator.nextId());
+        }
+        assertEquals(3, generator.getLoadCount());
+        assertEquals(211, generator.nextId());
+        assertEquals(4, generator.getLoadCount());
+        assertEquals(4, store.calls.get());
+        assertEquals(0, generator.getWaitCount());
+    }
+
+    @Test
+    void waitsWhenTheNextSegmentIsNotReady() {
+        CountingStore store = new CountingStore();
+        // 预取在其他线程中延迟完成
+        SegmentIdGenerator generator = new SegmentIdGenerator(store, "order", 10, 0.0, task -> new Thread(() -> {
+            sleep(200);
+            task.run();
+        }).start());
+        for (long expected = 1; expected <= 10; expected++) {
+            assertEquals(expected, generator.nextId());
+        }
+        long start = System.currentTimeMillis();
+        assertEquals(11, generator.nextId());
+        assertTrue(System.currentTimeMillis() - start >= 100);
+        assertEquals(1, generator.getWaitCount());
+        assertEquals(2, generator.getLoadCount());
+    }
+
+    @Test
+    void failedPrefetchIsRetriedSynchronously() {
+        CountingStore store = new CountingStore();
+        SegmentIdGenerator generator = new SegmentIdGenerator(store, "order", 10, 0.5, Runnable::run);
+        assertEquals(1, generator.nextId());
+        store.failures.set(1);
+        for (long expected = 2; expected <= 10; expected++) {
+            assertEquals(expected, generator.nextId());
+        }
+        // 预取失败，切换时同步重新加载
+        assertEquals(11, generator.nextId());
+
+        // 存储一直不可用时，本地号段还能继续使用，用完后抛出异常
+        store.failures.set(Integer.MAX_VALUE);
+        for (long expected = 12; expected <= 20; expected++) {
+            assertEquals(expected, generator.nextId());
+        }
+        assertThrows(IllegalStateException.class, generator::nextId);
+        store.failures.set(0);
+        assertEquals(21, generator.nextId());
+    }
+
+    @Test
+    void concurrentIdsAreUniqueAndIncreasingPerThread() throws Exception {
+        InMemoryRedis redis = new InMemoryRedis();
+        SegmentIdGenerator generator = new SegmentIdGenerator(new RedisSegmentStore(redis.template()), "order", 500);
+        int threads = 8;
+        int perThread = 5000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    long last = 0;
+                    for (int i = 0; i < perThread; i++) {
+                        long id = generator.nextId();
+                        if (id <= last || !ids.add(id)) {
+                            return false;
+                        }
+                        last = id;
+                    }
+                    return true;
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(threads * perThread, ids.size());
+        // 号段按 step 连续分配，已发出的ID都在已分配的范围内
+        long allocated = Long.parseLong(redis.getString(RedisSegmentStore.DEFAULT_KEY_PREFIX + "order"));
+        assertEquals(0, allocated % 500);
+        assertTrue(ids.stream().allMatch(id -> id >= 1 && id <= allocated));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class CountingStore implements SegmentStore {
+
+        private final AtomicLong max = new AtomicLong();
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        /**
+         * 接下来失败的次数
+         */
+        private final AtomicInteger failures = new AtomicInteger();
+
+        @Override
+        public long allocate(String bizTag, long step) {
+            calls.incrementAndGet();
+            if (failures.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0) {
+                throw new IllegalStateException("store unavailable");
+            }
+            return max.addAndGet(step);
+        }
+    }
+
+}
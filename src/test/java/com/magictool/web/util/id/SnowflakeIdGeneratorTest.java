@@ -0,0 +1,131 @@
+package com.magictool.web.util.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 雪花ID：并发下唯一且单线程内递增，时钟回拨时的行为
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+class SnowflakeIdGeneratorTest {
+
+    private static final long START = SnowflakeIdGenerator.EPOCH + TimeUnit.DAYS.toMillis(1);
+
+    @Test
+    void idsAreUniqueAndIncreasingUnderContention() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3, 5);
+        int threads = 8;
+        int perThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> futures = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                long[] ids = new long[perThread];
+                int i = 0;
+                while (i < perThread) {
+                    if (i % 100 == 0 && perThread - i >= 50) {
+                        // 单个和批量混合，批量预留的区间也不能与其他线程重叠
+                        long[] batch = generator.nextIds(50);
+                        System.arraycopy(batch, 0, ids, i, batch.length);
+                        i += batch.length;
+                    } else {
+                        ids[i++] = generator.nextId();
+                    }
+                }
+                return ids;
+            }));
+        }
+        start.countDown();
+        long[] all = new long[threads * perThread];
+        int offset = 0;
+        for (Future<long[]> future : futures) {
+            long[] ids = future.get(1, TimeUnit.MINUTES);
+            for (int i = 1; i < ids.length; i++) {
+                assertTrue(ids[i] > ids[i - 1], "ids of one thread must be increasing");
+            }
+            System.arraycopy(ids, 0, all, offset, ids.length);
+            offset += ids.length;
+        }
+        executor.shutdown();
+        Arrays.sort(all);
+        for (int i = 1; i < all.length; i++) {
+            assertTrue(all[i] != all[i - 1], "duplicate id " + all[i]);
+        }
+        assertEquals(3L, SnowflakeIdGenerator.getWorkerId(all[0]));
+        assertEquals(5L, SnowflakeIdGenerator.getDataCenterId(all[0]));
+    }
+
+    @Test
+    void clockRollbackWithinToleranceKeepsIncreasing() {
+        AtomicLong clock = new AtomicLong(START);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 1, 10, null, clock::get);
+        long before = generator.nextId();
+        clock.addAndGet(-5);
+        long after = generator.nextId();
+        assertTrue(after > before);
+        // 回拨期间沿用上次的时间戳
+        assertEquals(START, SnowflakeIdGenerator.getTimestamp(after));
+        clock.set(START + 1);
+        assertTrue(generator.nextId() > after);
+    }
+
+    @Test
+    void clockRollbackBeyondToleranceThrows() {
+        AtomicLong clock = new AtomicLong(START);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 1, 10, null, clock::get);
+        generator.nextId();
+        clock.addAndGet(-11);
+        assertThrows(IllegalStateException.class, generator::nextId);
+    }
+
+    @Test
+    void exhaustedSequenceBorrowsNextMillisecond() {
+        AtomicLong clock = new AtomicLong(START);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 1, 2, null, clock::get);
+        // 时钟不动，一毫秒4096个，最多借用2毫秒
+        long[] ids = generator.nextIds(4096 * 3);
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i] > ids[i - 1]);
+            // 序列号占低12位，借用的每一毫秒都从0用到4095
+            assertEquals(i % 4096, ids[i] & 4095);
+        }
+        assertEquals(START, SnowflakeIdGenerator.getTimestamp(ids[0]));
+        assertEquals(START + 2, SnowflakeIdGenerator.getTimestamp(ids[ids.length - 1]));
+    }
+
+    @Test
+    void expiredLeaseRefusesToGenerate() {
+        AtomicLong clock = new AtomicLong(START);
+        AtomicLong deadline = new AtomicLong(START + 100);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 1, 10, deadline::get, clock::get);
+        generator.nextId();
+        clock.set(START + 100);
+        assertThrows(IllegalStateException.class, generator::nextId);
+        deadline.set(START + 200);
+        assertEquals(START + 100, SnowflakeIdGenerator.getTimestamp(generator.nextId()));
+    }
+
+    @Test
+    void sharedInstancePerNode() {
+        assertTrue(SnowflakeIdGenerator.of(7, 9) == SnowflakeIdGenerator.of(7, 9));
+        assertThrows(IllegalArgumentException.class, () -> SnowflakeIdGenerator.of(32, 0));
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.magictool.web.util.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 本地租借许可：一批许可只访问一次底层限流器，过期后丢弃，放行总数不超过底层限制
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+class LeasingRateLimiterTest {
+
+    @Test
+    void onlyOneDelegateCallPerLease() {
+        CountingLimiter delegate = new CountingLimiter(1000);
+        LeasingRateLimiter limiter = new LeasingRateLimiter(delegate, 10, 60_000);
+        for (int i = 0; i < 25; i++) {
+            assertTrue(limiter.tryAcquire("api", 1));
+        }
+        assertEquals(3, delegate.calls.get());
+        assertEquals(30, delegate.granted("api"));
+        // 超过一批的请求直接访问底层限流器
+        assertTrue(limiter.tryAcquire("api", 11));
+        assertEquals(4, delegate.calls.get());
+    }
+
+    @Test
+    void fallsBackToExactPermitsNearTheLimit() {
+        CountingLimiter delegate = new CountingLimiter(15);
+        LeasingRateLimiter limiter = new LeasingRateLimiter(delegate, 10, 60_000);
+        int admitted = 0;
+        for (int i = 0; i < 20; i++) {
+            if (limiter.tryAcquire("api", 1)) {
+                admitted++;
+            }
+        }
+        // 剩余不够一批时按本次需要的数量获取，不会因为批量而少放行
+        assertEquals(15, admitted);
+        assertFalse(limiter.tryAcquire("api", 1));
+    }
+
+    @Test
+    void expiredLeasesAreDroppedAndSwept() throws Exception {
+        CountingLimiter delegate = new CountingLimiter(1000);
+        LeasingRateLimiter limiter = new LeasingRateLimiter(delegate, 10, 50);
+        assertTrue(limiter.tryAcquire("a", 1));
+        assertTrue(limiter.tryAcquire("b", 1));
+        assertEquals(2, limiter.size());
+        TimeUnit.MILLISECONDS.sleep(120);
+        // 过期的租约不再使用，取新一批时顺带清理其他过期的 key
+        assertTrue(limiter.tryAcquire("a", 1));
+        assertEquals(3, delegate.calls.get());
+        assertEquals(1, limiter.size());
+    }
+
+    @Test
+    void concurrentAcquiresNeverExceedTheDelegateLimit() throws Exception {
+        CountingLimiter delegate = new CountingLimiter(1000);
+        LeasingRateLimiter limiter = new LeasingRateLimiter(delegate, 16, 60_000);
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 500; i++) {
+                        if (limiter.tryAcquire("api", 1)) {
+                            admitted.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1000, admitted.get());
+        assertEquals(1000, delegate.granted("api"));
+    }
+
+    /**
+     * 按 key 计数的底层限流器
+     */
+    private static final class CountingLimiter implements RateLimiter {
+
+        private final long limit;
+
+        private final Map<String, AtomicLong> used = new ConcurrentHashMap<>();
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private CountingLimiter(long limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean tryAcquire(String key, int permits) {
+            calls.incrementAndGet();
+            AtomicLong counter = used.computeIfAbsent(key, k -> new AtomicLong());
+            while (true) {
+                long current = counter.get();
+                if (current + permits > limit) {
+                    return false;
+                }
+                if (counter.compareAndSet(current, current + permits)) {
+                    return true;
+                }
+            }
+        }
+
+        private long granted(String key) {
+            AtomicLong counter = used.get(key);
+            return counter == null ? 0 : counter.get();
+        }
+    }
+
+}
@@ -0,0 +1,173 @@
+package com.magictool.web.util.limiter;
+
+import com.magictool.web.util.redis.InMemoryRedis;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 租借式配额：Redis 访问次数、多节点总量不超过配额、偏差上限、归还未用许可和 Redis 不可用时的放行策略
+ * <p>
+ * LEASE / RETURN 脚本在内存 Redis 中按相同的语义用 Java 实现，脚本本身的正确性需要真实 Redis 验证
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+class QuotaClientTest {
+
+    private static final long PERIOD_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private static final String PREFIX = "quota:";
+
+    private InMemoryRedis redis;
+
+    private final AtomicBoolean redisDown = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        redis = new InMemoryRedis();
+        redis.onScript("local grant", (r, keys, argv) -> {
+            checkAvailable();
+            long used = used(r, keys.get(0));
+            long grant = Math.min(Long.parseLong(argv.get(0)), Long.parseLong(argv.get(1)) - used);
+            if (grant <= 0) {
+                return 0L;
+            }
+            r.incrementBy(keys.get(0), grant);
+            if (used == 0) {
+                r.expireMillis(keys.get(0), Long.parseLong(argv.get(2)));
+            }
+            return grant;
+        });
+        redis.onScript("local back", (r, keys, argv) -> {
+            checkAvailable();
+            long back = Math.min(used(r, keys.get(0)), Long.parseLong(argv.get(0)));
+            if (back > 0) {
+                r.incrementBy(keys.get(0), -back);
+            }
+            return back;
+        });
+    }
+
+    @Test
+    void localBucketCutsRedisCalls() {
+        QuotaClient client = new QuotaClient(redis.template(), PREFIX, 10_000, PERIOD_MILLIS, 100, 0.2, Runnable::run);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(client.tryAcquire("api", 1));
+        }
+        // 每 100 个许可访问一次 Redis，低水位时提前续租
+        assertTrue(client.getRedisCalls() <= 11, "redis calls: " + client.getRedisCalls());
+        assertTrue(client.getLocalAdmits() >= 1000 - client.getRedisCalls());
+        assertEquals(redisUsed("api") - 1000, client.getOutstandingPermits());
+        assertEquals(0, client.getOverAdmitted());
+    }
+
+    @Test
+    void nodesTogetherNeverExceedTheLimit() throws Exception {
+        long limit = 5_000;
+        ExecutorService refill = Executors.newFixedThreadPool(2);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        QuotaClient nodeA = new QuotaClient(redis.template(), PREFIX, limit, PERIOD_MILLIS, 64, 0.25, refill);
+        QuotaClient nodeB = new QuotaClient(redis.template(), PREFIX, limit, PERIOD_MILLIS, 64, 0.25, refill);
+        AtomicLong admittedA = new AtomicLong();
+        AtomicLong admittedB = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                QuotaClient client = t % 2 == 0 ? nodeA : nodeB;
+                AtomicLong admitted = t % 2 == 0 ? admittedA : admittedB;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 2_000; i++) {
+                        if (client.tryAcquire("api", 1 + i % 3)) {
+                            admitted.addAndGet(1 + i % 3);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+            refill.shutdown();
+            assertTrue(refill.awaitTermination(5, TimeUnit.SECONDS));
+        }
+        // Redis 发出的许可不超过配额
+        long used = redisUsed("api");
+        assertTrue(used <= limit, "redis used: " + used);
+        // 没有进行中的租借时，偏差上限就是已租未用的许可；异步续租和同步续租可能各租到一批
+        assertEquals(nodeA.getOutstandingPermits(), nodeA.getDeviationBound());
+        assertTrue(nodeA.getDeviationBound() <= 2 * 64 + 16, "deviation bound: " + nodeA.getDeviationBound());
+
+        // 关闭时归还未用的许可，并统计本地桶的残留多放行
+        long outstanding = nodeA.getOutstandingPermits() + nodeB.getOutstandingPermits();
+        nodeA.close();
+        nodeB.close();
+        assertEquals(used - outstanding, redisUsed("api"));
+        long overAdmitted = nodeA.getOverAdmitted() + nodeB.getOverAdmitted();
+        // 租到的许可 = 放行 + 未用 - 多放行，多放行最多是并发线程各自一次请求的许可
+        assertEquals(used, admittedA.get() + admittedB.get() + outstanding - overAdmitted);
+        assertTrue(overAdmitted <= 8 * 3, "over admitted: " + overAdmitted);
+        assertTrue(admittedA.get() + admittedB.get() <= limit + overAdmitted);
+    }
+
+    @Test
+    void exhaustedQuotaIsRejectedWithoutMoreLeases() {
+        QuotaClient client = new QuotaClient(redis.template(), PREFIX, 150, PERIOD_MILLIS, 100, 0.0, Runnable::run);
+        for (int i = 0; i < 150; i++) {
+            assertTrue(client.tryAcquire("api", 1));
+        }
+        assertFalse(client.tryAcquire("api", 1));
+        long calls = client.getRedisCalls();
+        assertFalse(client.tryAcquire("api", 1));
+        // 配额发完后本周期不再访问 Redis
+        assertEquals(calls, client.getRedisCalls());
+        // 其他 key 不受影响
+        assertTrue(client.tryAcquire("other", 1));
+    }
+
+    @Test
+    void failOpenOrClosedWhenRedisIsDown() {
+        QuotaClient client = new QuotaClient(redis.template(), PREFIX, 1000, PERIOD_MILLIS, 10, 0.0, Runnable::run);
+        redisDown.set(true);
+        assertTrue(client.tryAcquire("api", 1));
+        client.setFailOpen(false);
+        assertFalse(client.tryAcquire("api", 1));
+        redisDown.set(false);
+        assertTrue(client.tryAcquire("api", 1));
+        assertEquals(10, redisUsed("api"));
+    }
+
+    private void checkAvailable() {
+        if (redisDown.get()) {
+            throw new IllegalStateException("redis is down");
+        }
+    }
+
+    private long redisUsed(String key) {
+        return used(redis, PREFIX + "{" + key + "}:" + System.currentTimeMillis() / PERIOD_MILLIS);
+    }
+
+    private static long used(InMemoryRedis redis, String redisKey) {
+        String value = redis.getString(redisKey);
+        return value == null ? 0 : Long.parseLong(value);
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.magictool.web.util.limiter;
+
+import com.magictool.web.util.redis.RedisTestSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 各个限流脚本在真实 Redis 上的行为，时间通过 doAcquire 的 now 参数控制；没有可用的 Redis 时跳过
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+class RateLimiterScriptTest {
+
+    private RedisTestSupport redis;
+
+    @BeforeEach
+    void setUp() {
+        redis = RedisTestSupport.connectOrSkip();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (redis != null) {
+            redis.close();
+        }
+    }
+
+    @Test
+    void fixedWindowResetsAtTheWindowBoundary() {
+        FixedWindowRateLimiter limiter = new FixedWindowRateLimiter(redis.template(), redis.key("fixed:"), 3, 1000);
+        long now = 10_000;
+        assertTrue(limiter.doAcquire("api", 2, now));
+        assertTrue(limiter.doAcquire("api", 1, now + 500));
+        assertFalse(limiter.doAcquire("api", 1, now + 999));
+        // 被拒绝的请求不计数，新窗口重新计数
+        assertTrue(limiter.doAcquire("api", 3, now + 1000));
+        assertFalse(limiter.doAcquire("api", 4, now + 5000));
+        assertTrue(redis.template().getExpire(redis.key("fixed:") + "{api}:" + 11, TimeUnit.MILLISECONDS) > 0);
+    }
+
+    @Test
+    void slidingWindowWeightsThePreviousWindow() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(redis.template(), redis.key("window:"), 10, 1000);
+        long start = 20_000;
+        assertTrue(limiter.doAcquire("api", 10, start + 900));
+        // 下一个窗口刚开始时，上个窗口的 10 次几乎全部计入
+        assertFalse(limiter.doAcquire("api", 2, start + 1100));
+        // 过了 3/4 窗口，上个窗口只计入 1/4
+        assertTrue(limiter.doAcquire("api", 7, start + 1750));
+        assertFalse(limiter.doAcquire("api", 2, start + 1750));
+    }
+
+    @Test
+    void slidingLogCountsEachPermit() {
+        SlidingLogRateLimiter limiter = new SlidingLogRateLimiter(redis.template(), redis.key("log:"), 5, 1000);
+        long start = 30_000;
+        assertTrue(limiter.doAcquire("api", 3, start));
+        assertTrue(limiter.doAcquire("api", 2, start + 10));
+        assertFalse(limiter.doAcquire("api", 1, start + 999));
+        // 最早的 3 个许可滑出窗口
+        assertTrue(limiter.doAcquire("api", 3, start + 1000));
+        assertFalse(limiter.doAcquire("api", 1, start + 1005));
+    }
+
+    @Test
+    void tokenBucketAllowsBurstThenRefills() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(redis.template(), redis.key("bucket:"), 5, 10);
+        long start = 40_000;
+        assertTrue(limiter.doAcquire("api", 5, start));
+        assertFalse(limiter.doAcquire("api", 1, start));
+        // 每秒 10 个，100ms 补充 1 个
+        assertTrue(limiter.doAcquire("api", 1, start + 100));
+        assertFalse(limiter.doAcquire("api", 1, start + 150));
+        // 补满后不会超过容量
+        assertTrue(limiter.doAcquire("api", 5, start + 10_000));
+        assertFalse(limiter.doAcquire("api", 1, start + 10_000));
+        // 超过容量的请求直接拒绝
+        assertFalse(limiter.doAcquire("api", 6, start + 60_000));
+    }
+
+}
@@ -0,0 +1,159 @@
+package com.magictool.web.util.lucene;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * NRT 索引管理器：写入不提交也能查到，searcher 复用并在借出期间保持不变，关闭时提交，快照可以恢复
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+class LuceneIndexManagerTest {
+
+    private Directory directory;
+
+    private LuceneIndexManager manager;
+
+    @BeforeEach
+    void setUp() {
+        directory = new RAMDirectory();
+        manager = new LuceneIndexManager(directory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    void writesBecomeVisibleWithoutCommit() throws Exception {
+        long generation = manager.addDocument(doc("1"));
+        manager.waitForGeneration(generation);
+        assertEquals(1, count());
+        // 没有提交，目录中还没有提交点
+        assertFalse(DirectoryReader.indexExists(directory));
+
+        manager.updateDocument(new Term("id", "1"), doc("1"));
+        manager.addDocument(doc("2"));
+        manager.refresh();
+        assertEquals(2, count());
+        manager.waitForGeneration(manager.deleteDocuments(new Term("id", "2")));
+        assertEquals(1, count());
+    }
+
+    @Test
+    void searcherIsSharedUntilRefreshAndStableWhileBorrowed() throws Exception {
+        manager.addDocument(doc("1"));
+        manager.refresh();
+        IndexSearcher first = manager.acquire();
+        try {
+            IndexSearcher second = manager.acquire();
+            // 没有新的写入时复用同一个 searcher，不会每次查询都打开 reader
+            assertSame(first, second);
+            manager.release(second);
+
+            manager.addDocument(doc("2"));
+            manager.refresh();
+            // 借出的 searcher 仍然是刷新前的视图
+            assertEquals(1, first.count(new MatchAllDocsQuery()));
+            IndexSearcher refreshed = manager.acquire();
+            try {
+                assertNotSame(first, refreshed);
+                assertEquals(2, refreshed.count(new MatchAllDocsQuery()));
+            } finally {
+                manager.release(refreshed);
+            }
+        } finally {
+            manager.release(first);
+        }
+    }
+
+    @Test
+    void sharedWriterIsCommittedNotClosed() throws Exception {
+        assertSame(manager, LuceneIndexManager.ownerOf(manager.getIndexWriter()));
+        manager.addDocument(doc("1"));
+        LuceneUtil.close(manager.getIndexWriter());
+        assertTrue(manager.getIndexWriter().isOpen());
+        assertTrue(DirectoryReader.indexExists(directory));
+        assertEquals(1, count());
+
+        manager.addDocument(doc("2"));
+        manager.close();
+        assertTrue(manager.isClosed());
+        assertNull(LuceneIndexManager.ownerOf(manager.getIndexWriter()));
+        // 关闭前提交
+        try (DirectoryReader reader = DirectoryReader.open(directory)) {
+            assertEquals(2, reader.numDocs());
+        }
+    }
+
+    @Test
+    void snapshotCanBeRestored() throws Exception {
+        Path snapshot = Files.createTempDirectory("lucene-snapshot");
+        try {
+            for (int i = 0; i < 10; i++) {
+                manager.addDocument(doc(String.valueOf(i)));
+            }
+            manager.snapshot(snapshot.toString());
+            manager.addDocument(doc("10"));
+            // 第二次快照只复制新增的段，并删除不再引用的文件
+            manager.snapshot(snapshot.toString());
+
+            Directory restored = new RAMDirectory();
+            assertTrue(LuceneUtil.restoreSnapshot(restored, snapshot.toString()));
+            // 已有索引时不覆盖
+            assertFalse(LuceneUtil.restoreSnapshot(restored, snapshot.toString()));
+            LuceneIndexManager restoredManager = new LuceneIndexManager(restored);
+            try {
+                assertEquals(11, (int) restoredManager.search(searcher -> searcher.count(new MatchAllDocsQuery())));
+                assertEquals(1, (int) restoredManager.search(searcher -> searcher.count(new TermQuery(new Term("id", "10")))));
+            } finally {
+                restoredManager.close();
+            }
+        } finally {
+            delete(snapshot);
+        }
+    }
+
+    private int count() throws IOException {
+        return manager.search(searcher -> searcher.count(new MatchAllDocsQuery()));
+    }
+
+    private static Document doc(String id) {
+        Document document = new Document();
+        document.add(new StringField("id", id, Field.Store.YES));
+        return document;
+    }
+
+    private static void delete(Path path) throws IOException {
+        try (Stream<Path> files = Files.walk(path)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.magictool.web.util.lucene;
+
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.search.Query;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 查询解析缓存：关键字、字段和分词器都相同时命中，任一不同都重新解析，多线程解析结果一致
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+class QueryParserEngineTest {
+
+    @Test
+    void sameInputsHitTheCache() throws Exception {
+        QueryParserEngine engine = new QueryParserEngine(Analyzers.Type.SIMPLE, 1024);
+        Query first = engine.parse("title", "Hello World");
+        assertSame(first, engine.parse("title", "Hello World"));
+        assertSame(first, engine.parse(new String[]{"title"}, "Hello World", Analyzers.Type.SIMPLE));
+        assertEquals(2, engine.getHitCount());
+        assertEquals(1, engine.size());
+        assertEquals("title:hello title:world", first.toString());
+    }
+
+    @Test
+    void keyCoversKeywordFieldsAndAnalyzer() throws Exception {
+        QueryParserEngine engine = new QueryParserEngine(Analyzers.Type.SIMPLE, 1024);
+        Query simple = engine.parse("title", "a1b");
+        // 不同的分词器解析出不同的查询
+        Query standard = engine.parse("title", "a1b", Analyzers.Type.STANDARD);
+        assertNotEquals(simple, standard);
+        assertNotSame(simple, engine.parse("content", "a1b"));
+        assertNotSame(simple, engine.parse("title", "a1c"));
+
+        String[] fields = {"title", "content"};
+        Query multi = engine.parse(fields, "java");
+        // 字段顺序不同视为不同的 key
+        assertNotSame(multi, engine.parse(new String[]{"content", "title"}, "java"));
+        // 调用方修改数组不影响已缓存的 key
+        fields[1] = "summary";
+        assertNotSame(multi, engine.parse(fields, "java"));
+        assertSame(multi, engine.parse(new String[]{"title", "content"}, "java"));
+        assertEquals(7, engine.size());
+        assertEquals(1, engine.getHitCount());
+    }
+
+    @Test
+    void zeroSizeNeverCachesAndErrorsAreNotCached() throws Exception {
+        QueryParserEngine engine = new QueryParserEngine(Analyzers.Type.SIMPLE, 0);
+        Query first = engine.parse("title", "java");
+        assertNotSame(first, engine.parse("title", "java"));
+        assertEquals(first, engine.parse("title", "java"));
+        assertEquals(0, engine.size());
+
+        QueryParserEngine cached = new QueryParserEngine(Analyzers.Type.SIMPLE, 1024);
+        assertThrows(ParseException.class, () -> cached.parse("title", "(java"));
+        assertEquals(0, cached.size());
+        assertThrows(IllegalArgumentException.class, () -> cached.parse(new String[0], "java"));
+        assertThrows(IllegalArgumentException.class, () -> new QueryParserEngine(Analyzers.Type.SIMPLE, -1));
+    }
+
+    @Test
+    void concurrentParsingMatchesSequentialParsing() throws Exception {
+        String[] keywords = {"java lucene", "title:redis AND cache", "\"near cache\"", "spring -boot", "a1b c2d"};
+        String[][] fields = {{"title"}, {"content"}, {"title", "content"}};
+        QueryParserEngine reference = new QueryParserEngine(Analyzers.Type.SIMPLE, 0);
+        // 缓存容量小于 key 的数量，解析和淘汰同时发生
+        QueryParserEngine engine = new QueryParserEngine(Analyzers.Type.SIMPLE, 8);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int offset = t;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 2_000; i++) {
+                        String keyword = keywords[(i + offset) % keywords.length];
+                        String[] field = fields[(i / keywords.length + offset) % fields.length];
+                        Analyzers.Type analyzer = i % 2 == 0 ? Analyzers.Type.SIMPLE : Analyzers.Type.STANDARD;
+                        Query expected;
+                        synchronized (reference) {
+                            expected = reference.parse(field, keyword, analyzer);
+                        }
+                        assertEquals(expected, engine.parse(field, keyword, analyzer));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(8 * 2_000, engine.getHitCount() + engine.getMissCount());
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.magictool.web.util.lucene;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 查询结果缓存：结构相同的查询命中，NRT 刷新后整体失效，旧 searcher 的结果不会写回缓存
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+class QueryResultCacheTest {
+
+    private LuceneIndexManager manager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        manager = new LuceneIndexManager(new RAMDirectory());
+        manager.addDocument(doc("1", "java"));
+        manager.addDocument(doc("2", "java"));
+        manager.refresh();
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    void equalQueriesHitTheCache() throws Exception {
+        QueryResultCache cache = new QueryResultCache(manager, 16);
+        TopDocs first = cache.search(javaQuery(), 10);
+        // 每次新建的查询对象，结构相同就命中
+        assertSame(first, cache.search(javaQuery(), 10));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.size());
+
+        // 条数或排序不同是不同的结果
+        assertNotSame(first, cache.search(javaQuery(), 5));
+        assertNotSame(first, cache.search(javaQuery(), 10, new Sort(new SortField("id", SortField.Type.STRING))));
+        assertEquals(3, cache.size());
+        assertEquals(0.25, cache.getHitRate(), 1e-9);
+    }
+
+    @Test
+    void refreshInvalidatesTheCache() throws Exception {
+        QueryResultCache cache = new QueryResultCache(manager, 16);
+        assertEquals(2, cache.search(javaQuery(), 10).totalHits);
+
+        manager.addDocument(doc("3", "java"));
+        // 没有刷新时新文档不可见，缓存结果仍然有效
+        assertEquals(2, cache.search(javaQuery(), 10).totalHits);
+        assertEquals(1, cache.getHitCount());
+
+        manager.refresh();
+        assertEquals(0, cache.size());
+        assertEquals(3, cache.search(javaQuery(), 10).totalHits);
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void staleSearcherResultsAreNotCached() throws Exception {
+        QueryResultCache cache = new QueryResultCache(manager, 16);
+        IndexSearcher stale = manager.acquire();
+        try {
+            manager.addDocument(doc("3", "java"));
+            manager.refresh();
+            // 刷新前借出的 searcher 仍然能查询，但结果不写入缓存
+            assertEquals(2, cache.search(stale, javaQuery(), 10, null).totalHits);
+            assertEquals(0, cache.size());
+        } finally {
+            manager.release(stale);
+        }
+        assertEquals(3, cache.search(javaQuery(), 10).totalHits);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void zeroSizeNeverCaches() throws Exception {
+        QueryResultCache cache = new QueryResultCache(manager, 0);
+        assertEquals(2, cache.search(javaQuery(), 10).totalHits);
+        assertEquals(2, cache.search(javaQuery(), 10).totalHits);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getHitCount());
+        assertThrows(IllegalArgumentException.class, () -> new QueryResultCache(manager, -1));
+    }
+
+    private static TermQuery javaQuery() {
+        return new TermQuery(new Term("tag", "java"));
+    }
+
+    private static Document doc(String id, String tag) {
+        Document document = new Document();
+        document.add(new StringField("id", id, Field.Store.YES));
+        document.add(new SortedDocValuesField("id", new BytesRef(id)));
+        document.add(new StringField("tag", tag, Field.Store.NO));
+        return document;
+    }
+
+}
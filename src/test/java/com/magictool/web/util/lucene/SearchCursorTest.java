@@ -0,0 +1,64 @@
+package com.magictool.web.util.lucene;
+
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.util.BytesRef;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 游标编码后还原出的 ScoreDoc 与原来一致
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+class SearchCursorTest {
+
+    @Test
+    void scoreDocRoundTrip() {
+        String encoded = SearchCursor.after(3, new ScoreDoc(42, 1.5F)).encode();
+        SearchCursor cursor = SearchCursor.decode(encoded);
+        assertEquals(3, cursor.getPageNum());
+        ScoreDoc doc = cursor.toScoreDoc();
+        assertFalse(doc instanceof FieldDoc);
+        assertEquals(42, doc.doc);
+        assertEquals(1.5F, doc.score);
+    }
+
+    @Test
+    void fieldDocRoundTrip() {
+        byte[] bytes = {9, 1, 2, 3, 9};
+        Object[] fields = {7, 8L, 1.25F, 2.5D, new BytesRef(bytes, 1, 3), "中文", null};
+        String encoded = SearchCursor.after(2, new FieldDoc(5, Float.NaN, fields)).encode();
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"), "cursor must be url safe: " + encoded);
+        ScoreDoc doc = SearchCursor.decode(encoded).toScoreDoc();
+        assertTrue(doc instanceof FieldDoc);
+        assertEquals(5, doc.doc);
+        assertTrue(Float.isNaN(doc.score));
+        Object[] expected = {7, 8L, 1.25F, 2.5D, new BytesRef(new byte[]{1, 2, 3}), "中文", null};
+        assertArrayEquals(expected, ((FieldDoc) doc).fields);
+    }
+
+    @Test
+    void cursorCopiesReusedBytes() {
+        byte[] bytes = {1, 2};
+        SearchCursor cursor = SearchCursor.after(2, new FieldDoc(0, 0, new Object[]{new BytesRef(bytes)}));
+        // TopFieldCollector 复用底层数组
+        bytes[0] = 9;
+        assertEquals(new BytesRef(new byte[]{1, 2}), ((FieldDoc) cursor.toScoreDoc()).fields[0]);
+    }
+
+    @Test
+    void invalidCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode(""));
+        String encoded = SearchCursor.after(2, new FieldDoc(1, 1, new Object[]{"value"})).encode();
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode(encoded.substring(0, encoded.length() - 4)));
+    }
+
+}
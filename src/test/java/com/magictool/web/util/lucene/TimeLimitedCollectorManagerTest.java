@@ -0,0 +1,167 @@
+package com.magictool.web.util.lucene;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.search.CollectorManager;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 带超时的收集：超时返回已收集的部分结果并标记超时，时间足够时结果完整，顺序和并行搜索一致
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+class TimeLimitedCollectorManagerTest {
+
+    private static final int SEGMENTS = 10;
+
+    private static final int DOCS_PER_SEGMENT = 10;
+
+    private static final int TOTAL = SEGMENTS * DOCS_PER_SEGMENT;
+
+    private DirectoryReader reader;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        RAMDirectory directory = new RAMDirectory();
+        IndexWriterConfig config = new IndexWriterConfig(new StandardAnalyzer()).setMergePolicy(NoMergePolicy.INSTANCE);
+        try (IndexWriter writer = new IndexWriter(directory, config)) {
+            for (int s = 0; s < SEGMENTS; s++) {
+                for (int d = 0; d < DOCS_PER_SEGMENT; d++) {
+                    Document document = new Document();
+                    document.add(new StringField("id", s + "-" + d, Field.Store.YES));
+                    writer.addDocument(document);
+                }
+                // 每次提交生成一个段
+                writer.commit();
+            }
+        }
+        reader = DirectoryReader.open(directory);
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        reader.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void timeoutReturnsPartialResults() throws Exception {
+        assertEquals(SEGMENTS, reader.leaves().size());
+        TimeLimitedCollectorManager<SlowCountCollector, Integer> manager = slowCount(100);
+        long start = System.nanoTime();
+        int count = new IndexSearcher(reader).search(new MatchAllDocsQuery(), manager);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // 不抛出异常，返回超时前收集到的结果，剩余的段直接跳过
+        assertTrue(manager.isTimedOut());
+        assertTrue(count > 0 && count < TOTAL, "count: " + count);
+        assertTrue(elapsedMillis < TOTAL * 10, "elapsed: " + elapsedMillis);
+    }
+
+    @Test
+    void parallelTimeoutReturnsPartialResults() throws Exception {
+        ParallelIndexSearcher searcher = new ParallelIndexSearcher(reader, executor, Integer.MAX_VALUE, 2);
+        assertEquals(SEGMENTS / 2, searcher.getSliceCount());
+        // 每个切片顺序收集约需要100毫秒
+        TimeLimitedCollectorManager<SlowCountCollector, Integer> manager = slowCount(40);
+        int count = searcher.search(new MatchAllDocsQuery(), manager);
+        // 所有切片共用一个时间基准，超时后每个切片都停止
+        assertTrue(manager.isTimedOut());
+        assertTrue(count > 0 && count < TOTAL, "count: " + count);
+    }
+
+    @Test
+    void generousTimeoutReturnsFullResults() throws Exception {
+        IndexSearcher sequential = new IndexSearcher(reader);
+        ParallelIndexSearcher parallel = new ParallelIndexSearcher(reader, executor, Integer.MAX_VALUE, 3);
+        TopDocs expected = sequential.search(new MatchAllDocsQuery(), 15);
+
+        TimeLimitedCollectorManager<?, TopDocs> manager = TimeLimitedCollectorManager.topDocs(15, null, 10_000);
+        TopDocs topDocs = parallel.search(new MatchAllDocsQuery(), manager);
+        assertFalse(manager.isTimedOut());
+        assertEquals(expected.totalHits, topDocs.totalHits);
+        assertEquals(expected.scoreDocs.length, topDocs.scoreDocs.length);
+        for (int i = 0; i < expected.scoreDocs.length; i++) {
+            assertEquals(expected.scoreDocs[i].doc, topDocs.scoreDocs[i].doc);
+        }
+
+        TimeLimitedCollectorManager<?, Integer> count = TimeLimitedCollectorManager.count(10_000);
+        assertEquals(TOTAL, (int) parallel.search(new MatchAllDocsQuery(), count));
+        assertFalse(count.isTimedOut());
+    }
+
+    @Test
+    void nonPositiveTimeoutIsUnlimited() throws Exception {
+        TimeLimitedCollectorManager<SlowCountCollector, Integer> manager = slowCount(0);
+        assertEquals(TOTAL, (int) new IndexSearcher(reader).search(new MatchAllDocsQuery(), manager));
+        assertFalse(manager.isTimedOut());
+    }
+
+    /**
+     * 每收集一条文档耗时约5毫秒的计数，顺序收集全部文档约需要500毫秒
+     */
+    private static TimeLimitedCollectorManager<SlowCountCollector, Integer> slowCount(long timeoutMillis) {
+        return new TimeLimitedCollectorManager<>(new CollectorManager<SlowCountCollector, Integer>() {
+            @Override
+            public SlowCountCollector newCollector() {
+                return new SlowCountCollector();
+            }
+
+            @Override
+            public Integer reduce(Collection<SlowCountCollector> collectors) {
+                int total = 0;
+                for (SlowCountCollector collector : collectors) {
+                    total += collector.count;
+                }
+                return total;
+            }
+        }, timeoutMillis);
+    }
+
+    private static final class SlowCountCollector extends SimpleCollector {
+
+        private int count;
+
+        @Override
+        public void collect(int doc) throws IOException {
+            try {
+                TimeUnit.MILLISECONDS.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            count++;
+        }
+
+        @Override
+        public boolean needsScores() {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.magictool.web.util.lucene.facet;
+
+import com.magictool.web.util.lucene.LuceneIndexManager;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 在小索引上核对分面计数，索引分多个段，覆盖跨段合并和高基数字段
+ *
+ * @Author ljf
+ * @Date 2026/10/18
+ */
+class FacetSearcherTest {
+
+    private static final String[] COLORS = {"red", "green", "blue"};
+
+    @Test
+    void termsAndRangeCounts() throws Exception {
+        try (LuceneIndexManager manager = new LuceneIndexManager(new RAMDirectory())) {
+            // 3 个段，每段 100 个文档
+            for (int segment = 0; segment < 3; segment++) {
+                for (int i = 0; i < 100; i++) {
+                    int n = segment * 100 + i;
+                    Document document = new Document();
+                    FacetFields.addTerms(document, "color", COLORS[n % 3]);
+                    if (n % 10 == 0) {
+                        // 多值文档
+                        FacetFields.addTerms(document, "color", "black");
+                    }
+                    FacetFields.addLongs(document, "price", n);
+                    manager.addDocument(document);
+                }
+                manager.commit();
+            }
+            manager.refresh();
+            FacetSearchResult result = manager.search(searcher -> FacetSearcher.search(searcher,
+                    new MatchAllDocsQuery(), 0, FacetRequest.terms("color", 2),
+                    FacetRequest.ranges("price", FacetRange.atMost("cheap", 99), FacetRange.of("middle", 100, 199),
+                            FacetRange.atLeast("expensive", 150))));
+            assertEquals(300L, result.getTotalHits());
+
+            FacetResult color = result.getFacets().get("color");
+            assertEquals(300L, color.getTotalCount());
+            assertEquals(4, color.getChildCount());
+            // 数量相同时按标签排序
+            assertEquals(labels("blue:100", "green:100"), labels(color));
+
+            FacetResult price = result.getFacets().get("price");
+            assertEquals(labels("cheap:100", "middle:100", "expensive:150"), labels(price));
+            assertEquals(3, price.getChildCount());
+        }
+    }
+
+    @Test
+    void countsOnlyMatchingDocuments() throws Exception {
+        try (LuceneIndexManager manager = new LuceneIndexManager(new RAMDirectory())) {
+            for (int n = 0; n < 60; n++) {
+                Document document = new Document();
+                FacetFields.addTerms(document, "color", COLORS[n % 3]);
+                FacetFields.addTerms(document, "size", n % 2 == 0 ? "even" : "odd");
+                manager.addDocument(document);
+            }
+            manager.refresh();
+            FacetSearchResult result = manager.search(searcher -> FacetSearcher.search(searcher,
+                    new TermQuery(new Term("color", "red")), 0, FacetRequest.terms("size", 10)));
+            assertEquals(20L, result.getTotalHits());
+            assertEquals(labels("even:10", "odd:10"), labels(result.getFacets().get("size")));
+        }
+    }
+
+    @Test
+    void highCardinalityCounts() throws Exception {
+        int users = 70_000;
+        try (LuceneIndexManager manager = new LuceneIndexManager(new RAMDirectory())) {
+            for (int round = 0; round < 2; round++) {
+                for (int n = 0; n < users; n++) {
+                    // 第二轮只写前 10 个用户，这些用户的计数为2
+                    if (round == 1 && n >= 10) {
+                        break;
+                    }
+                    Document document = new Document();
+                    FacetFields.addTerms(document, "user", String.format("u%05d", n));
+                    manager.addDocument(document);
+                }
+                manager.commit();
+            }
+            manager.refresh();
+            FacetSearchResult result = manager.search(searcher -> FacetSearcher.search(searcher,
+                    new MatchAllDocsQuery(), 0, FacetRequest.terms("user", 3)));
+            FacetResult user = result.getFacets().get("user");
+            assertEquals((long) users + 10, user.getTotalCount());
+            assertEquals(users, user.getChildCount());
+            assertEquals(labels("u00000:2", "u00001:2", "u00002:2"), labels(user));
+        }
+    }
+
+    private static List<String> labels(String... labels) {
+        return Arrays.asList(labels);
+    }
+
+    private static List<String> labels(FacetResult result) {
+        List<String> list = new ArrayList<>();
+        for (FacetResult.LabelAndCount value : result.getValues()) {
+            list.add(value.getLabel() + ":" + value.getCount());
+        }
+        return list;
+    }
+
+}
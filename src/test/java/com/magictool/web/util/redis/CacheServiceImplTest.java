@@ -0,0 +1,237 @@
+package com.magictool.web.util.redis;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 基于内存 Redis 的 {@link CacheServiceImpl} 测试
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+class CacheServiceImplTest {
+
+    private InMemoryRedis redis;
+
+    private CacheServiceImpl cacheService;
+
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() {
+        redis = new InMemoryRedis();
+        // 只释放自己持有的加载租约
+        redis.onScript("redis.call('del'", (r, keys, argv) ->
+                argv.get(0).equals(r.getString(keys.get(0))) && r.delete(keys.get(0)) ? 1L : 0L);
+        cacheService = new CacheServiceImpl(redis.template());
+        pool = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void concurrentMissesLoadOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return cacheService.getOrLoad("user:1", String.class, () -> {
+                    loads.incrementAndGet();
+                    sleep(200);
+                    return "loaded";
+                }, 60_000);
+            }));
+        }
+        start.countDown();
+        for (Future<String> result : results) {
+            assertEquals("loaded", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals("loaded", cacheService.get("user:1", String.class));
+        assertTrue(redis.ttlMillis("user:1") > 0);
+
+        // 命中后不再加载
+        assertEquals("loaded", cacheService.getOrLoad("user:1", String.class, () -> "other", 60_000));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void nullIsNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+        assertNull(cacheService.getOrLoad("missing", String.class, () -> {
+            loads.incrementAndGet();
+            return null;
+        }, 60_000));
+        assertNull(cacheService.getOrLoad("missing", String.class, () -> {
+            loads.incrementAndGet();
+            return null;
+        }, 60_000));
+        assertEquals(2, loads.get());
+        assertFalse(redis.exists("missing"));
+    }
+
+    @Test
+    void waitsForTheLeaseHolderThenLoadsAfterTimeout() throws Exception {
+        cacheService.setLoadLease(5_000, 1_000);
+        // 其他节点持有租约，稍后写入缓存
+        redis.setString("user:2:load:lease", "other-node", 5_000);
+        pool.submit(() -> {
+            sleep(100);
+            redis.setString("user:2", "\"from-other-node\"", 60_000);
+        });
+        assertEquals("from-other-node", cacheService.getOrLoad("user:2", String.class, () -> "self", 60_000));
+        assertEquals("other-node", redis.getString("user:2:load:lease"));
+
+        // 持有者一直没有写入，等待超时后自己加载，不释放别人的租约
+        redis.setString("user:3:load:lease", "other-node", 5_000);
+        long start = System.currentTimeMillis();
+        assertEquals("self", cacheService.getOrLoad("user:3", String.class, () -> "self", 60_000));
+        assertTrue(System.currentTimeMillis() - start >= 1_000);
+        assertEquals("other-node", redis.getString("user:3:load:lease"));
+
+        // 自己拿到租约时，加载完成后释放
+        assertEquals("self", cacheService.getOrLoad("user:4", String.class, () -> "self", 60_000));
+        assertFalse(redis.exists("user:4:load:lease"));
+    }
+
+    @Test
+    void earlyRefreshReturnsTheCachedValueAndReloadsInBackground() {
+        List<Runnable> refreshes = new ArrayList<>();
+        cacheService.setEarlyRefresh(1.0, refreshes::add);
+
+        // 第一次加载记录耗时
+        assertEquals("v1", cacheService.getOrLoad("hot", String.class, () -> "v1", 60_000));
+        assertTrue(redis.exists("hot:load:delta"));
+
+        // 加载耗时远小于剩余时间，不会提前刷新
+        redis.setString("hot:load:delta", "0", 60_000);
+        assertEquals("v1", cacheService.getOrLoad("hot", String.class, () -> "v2", 60_000));
+        assertTrue(refreshes.isEmpty());
+
+        // 加载耗时远大于剩余时间，返回旧值并提交一次后台刷新，并发读取不会重复提交
+        redis.setString("hot:load:delta", "1000000000", 60_000);
+        assertEquals("v1", cacheService.getOrLoad("hot", String.class, () -> "v2", 60_000));
+        assertEquals("v1", cacheService.getOrLoad("hot", String.class, () -> "v2", 60_000));
+        assertEquals(1, refreshes.size());
+        refreshes.get(0).run();
+        assertEquals("v2", cacheService.get("hot", String.class));
+    }
+
+    @Test
+    void sameKeyWithDifferentTypesLoadsSeparately() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Integer> asInteger = pool.submit(() -> cacheService.getOrLoad("n", Integer.class, () -> {
+            started.countDown();
+            await(release);
+            return 7;
+        }, 60_000));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        // 同一个 key 按不同类型读取时不合并到正在进行的加载上，否则会拿到 Integer
+        Long asLong = cacheService.getOrLoad("n", Long.class, () -> 8L, 60_000);
+        assertEquals(Long.valueOf(8), asLong);
+        release.countDown();
+        assertEquals(Integer.valueOf(7), asInteger.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void patternKeysCoverEveryScanPage() {
+        for (int i = 0; i < 2500; i++) {
+            redis.setString("order:" + i, "1");
+            if (i % 5 == 0) {
+                redis.setString("user:" + i, "1");
+            }
+        }
+        Set<String> keys = cacheService.getPatternKeys("order:*");
+        assertEquals(2500, keys.size());
+        assertTrue(keys.contains("order:0") && keys.contains("order:2499"));
+        // 3000 个 key，每页 COUNT 1000，至少 3 页，不再使用 KEYS
+        assertTrue(redis.count("scanPage") >= 3);
+        assertEquals(0, redis.count("keys"));
+        assertNull(cacheService.getPatternKeys(" "));
+    }
+
+    @Test
+    void emptyPagesDoNotEndTheScan() {
+        for (int i = 0; i < 50; i++) {
+            redis.setString("other:" + i, "1");
+        }
+        for (int i = 0; i < 5; i++) {
+            redis.setString("match:" + i, "1");
+        }
+        List<Integer> batchSizes = new ArrayList<>();
+        long total = cacheService.forEachKey("match:*", 10, 2, batch -> batchSizes.add(batch.size()));
+        assertEquals(5, total);
+        assertEquals(Arrays.asList(2, 2, 1), batchSizes);
+        // 前 5 页都没有匹配的 key
+        assertTrue(redis.count("scanPage") >= 6);
+    }
+
+    @Test
+    void handlerCanStopTheScan() {
+        for (int i = 0; i < 100; i++) {
+            redis.setString("job:" + i, "1");
+        }
+        List<String> seen = new ArrayList<>();
+        long total = cacheService.forEachKey("job:*", 10, 10, batch -> {
+            seen.addAll(batch);
+            return false;
+        });
+        assertEquals(10, total);
+        assertEquals(10, seen.size());
+        assertTrue(redis.count("scanPage") < 10);
+        assertEquals(0, cacheService.forEachKey("job:*", 10, 0, batch -> true));
+    }
+
+    @Test
+    void deletePatternDeletesInBatchesWhileScanning() {
+        for (int i = 0; i < 100; i++) {
+            redis.setString("session:" + i, "1");
+            redis.setString("keep:" + i, "1");
+        }
+        assertEquals(100, cacheService.deletePattern("session:*", 10, 7));
+        assertTrue(cacheService.getPatternKeys("session:*").isEmpty());
+        assertEquals(100, cacheService.getPatternKeys("keep:*").size());
+        // 每批一次 DEL
+        assertEquals(15, redis.count("del"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.magictool.web.util.redis;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 递增并设置有效期的 Lua 脚本，需要真实 Redis，没有可用的 Redis 时跳过
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+class CacheServiceScriptTest {
+
+    private RedisTestSupport redis;
+
+    private CacheServiceImpl cacheService;
+
+    @BeforeEach
+    void setUp() {
+        redis = RedisTestSupport.connectOrSkip();
+        cacheService = new CacheServiceImpl(redis.template());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (redis != null) {
+            redis.close();
+        }
+    }
+
+    @Test
+    void incrementSetsTheTtlOnlyOnce() {
+        String key = redis.key("counter");
+        assertEquals(1, cacheService.increment(key, 60_000));
+        assertTrue(ttl(key) > 55_000);
+
+        redis.template().expire(key, 5, TimeUnit.SECONDS);
+        assertEquals(2, cacheService.increment(key, 60_000));
+        // 已有过期时间时不再重置，固定窗口不会被一直延长
+        assertTrue(ttl(key) <= 5_000);
+    }
+
+    @Test
+    void incrementByDeltaResetsTheTtl() {
+        String key = redis.key("counter");
+        assertEquals(3, cacheService.increment(key, 3, 5_000));
+        assertTrue(ttl(key) <= 5_000);
+        assertEquals(5, cacheService.increment(key, 2, 60_000));
+        assertTrue(ttl(key) > 55_000);
+    }
+
+    @Test
+    void counterWithoutTtlGetsOne() {
+        String key = redis.key("counter");
+        redis.template().opsForValue().set(key, "10");
+        assertEquals(11, cacheService.increment(key, 60_000));
+        assertTrue(ttl(key) > 0);
+        // 不设置有效期
+        String persistent = redis.key("persistent");
+        assertEquals(1, cacheService.increment(persistent, 0));
+        assertEquals(-1L, ttl(persistent));
+    }
+
+    private long ttl(String key) {
+        Long ttl = redis.template().getExpire(key, TimeUnit.MILLISECONDS);
+        return ttl == null ? -2 : ttl;
+    }
+
+}
@@ -0,0 +1,495 @@
+package com.magictool.web.util.redis;
+
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanCursor;
+import org.springframework.data.redis.core.ScanIteration;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DigestUtils;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * 测试用的内存版 Redis
+ * <p>
+ * 通过动态代理实现 {@link RedisConnection} 中字符串、key 过期、SCAN、发布订阅和管道相关的命令，
+ * 供 {@link StringRedisTemplate} 使用。Lua 脚本不会真正执行，需要通过 {@link #onScript(String, ScriptHandler)}
+ * 按脚本内容登记等价的 Java 实现，未登记的脚本抛出 {@link UnsupportedOperationException}。
+ * 过期按 {@link #setClock(LongSupplier)} 的时钟惰性判断；
+ * SCAN 按 key 的创建顺序分页，COUNT 个位置中可能没有匹配的 key（与 Redis 一样返回空页），遍历期间删除 key 不会跳过其他 key。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public class InMemoryRedis {
+
+    private final Map<String, Entry> data = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong(1);
+
+    private final Map<String, LongAdder> commandCounts = new ConcurrentHashMap<>();
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private final Map<String, ScriptHandler> scriptHandlers = new LinkedHashMap<>();
+
+    /**
+     * 已通过 EVAL 加载的脚本，sha1 -> 脚本内容
+     */
+    private final Map<String, String> loadedScripts = new ConcurrentHashMap<>();
+
+    private volatile LongSupplier clock = System::currentTimeMillis;
+
+    private final RedisConnectionFactory connectionFactory = (RedisConnectionFactory) Proxy.newProxyInstance(
+            InMemoryRedis.class.getClassLoader(), new Class<?>[]{RedisConnectionFactory.class}, this::invokeFactory);
+
+    public StringRedisTemplate template() {
+        return new StringRedisTemplate(connectionFactory);
+    }
+
+    public RedisConnectionFactory getConnectionFactory() {
+        return connectionFactory;
+    }
+
+    public void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * 订阅频道，发布的消息同步回调
+     */
+    public void subscribe(String channel, MessageListener listener) {
+        subscriptions.add(new Subscription(channel, listener));
+    }
+
+    /**
+     * 登记脚本的 Java 实现，脚本内容包含 fragment 时使用，先登记的优先
+     */
+    public synchronized void onScript(String fragment, ScriptHandler handler) {
+        scriptHandlers.put(fragment, handler);
+    }
+
+    /**
+     * 命令的执行次数，命令名与 {@link RedisConnection} 的方法名相同，例如 get、mGet、scan
+     */
+    public long count(String command) {
+        LongAdder adder = commandCounts.get(command);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    public String getString(String key) {
+        byte[] value = read(key);
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+
+    public void setString(String key, String value) {
+        write(key, value.getBytes(StandardCharsets.UTF_8), 0);
+    }
+
+    /**
+     * @param ttlMillis 大于0时设置过期时间
+     */
+    public void setString(String key, String value, long ttlMillis) {
+        write(key, value.getBytes(StandardCharsets.UTF_8), ttlMillis > 0 ? clock.getAsLong() + ttlMillis : 0);
+    }
+
+    public boolean exists(String key) {
+        return read(key) != null;
+    }
+
+    public synchronized boolean delete(String key) {
+        return read(key) != null && data.remove(key) != null;
+    }
+
+    public long incrementBy(String key, long delta) {
+        return incrBy(key, delta);
+    }
+
+    public boolean expireMillis(String key, long millis) {
+        return expire(key, millis);
+    }
+
+    /**
+     * 与 PTTL 相同：key 不存在返回-2，没有过期时间返回-1
+     */
+    public long ttlMillis(String key) {
+        return ttl(key);
+    }
+
+    public int size() {
+        data.keySet().removeIf(key -> read(key) == null);
+        return data.size();
+    }
+
+    public void flushAll() {
+        data.clear();
+    }
+
+    private Object invokeFactory(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getConnection":
+                return newConnection();
+            case "getConvertPipelineAndTxResults":
+                return true;
+            case "translateExceptionIfPossible":
+                return null;
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "InMemoryRedisConnectionFactory";
+            default:
+                throw new UnsupportedOperationException(method.getName());
+        }
+    }
+
+    private RedisConnection newConnection() {
+        InvocationHandler handler = new ConnectionHandler();
+        return (RedisConnection) Proxy.newProxyInstance(InMemoryRedis.class.getClassLoader(),
+                new Class<?>[]{RedisConnection.class}, handler);
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+
+        private List<Object> pipeline;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    return null;
+                case "isClosed":
+                case "isQueueing":
+                case "isSubscribed":
+                    return false;
+                case "isPipelined":
+                    return pipeline != null;
+                case "openPipeline":
+                    pipeline = new ArrayList<>();
+                    return null;
+                case "closePipeline":
+                    List<Object> results = pipeline == null ? new ArrayList<>() : pipeline;
+                    pipeline = null;
+                    return results;
+                case "getNativeConnection":
+                    return null;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "InMemoryRedisConnection";
+                default:
+                    break;
+            }
+            commandCounts.computeIfAbsent(name, k -> new LongAdder()).increment();
+            Object result = execute(name, method, args == null ? new Object[0] : args);
+            if (pipeline != null && method.getReturnType() != void.class) {
+                pipeline.add(result);
+                return null;
+            }
+            return result;
+        }
+    }
+
+    private Object execute(String name, Method method, Object[] args) {
+        switch (name) {
+            case "get":
+                return read(key(args[0]));
+            case "set":
+                return set(key(args[0]), (byte[]) args[1], args.length > 2 ? (Expiration) args[2] : null,
+                        args.length > 3 ? (RedisStringCommands.SetOption) args[3] : RedisStringCommands.SetOption.UPSERT);
+            case "setNX":
+                return set(key(args[0]), (byte[]) args[1], null, RedisStringCommands.SetOption.SET_IF_ABSENT);
+            case "setEx":
+                write(key(args[0]), (byte[]) args[2], clock.getAsLong() + (Long) args[1] * 1000);
+                return true;
+            case "pSetEx":
+                write(key(args[0]), (byte[]) args[2], clock.getAsLong() + (Long) args[1]);
+                return true;
+            case "mGet": {
+                List<byte[]> values = new ArrayList<>();
+                for (byte[] key : (byte[][]) args[0]) {
+                    values.add(read(key(key)));
+                }
+                return values;
+            }
+            case "mSet": {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) args[0]).entrySet()) {
+                    write(key(entry.getKey()), (byte[]) entry.getValue(), 0);
+                }
+                return true;
+            }
+            case "del":
+            case "unlink": {
+                long deleted = 0;
+                for (byte[] key : (byte[][]) args[0]) {
+                    if (read(key(key)) != null && data.remove(key(key)) != null) {
+                        deleted++;
+                    }
+                }
+                return deleted;
+            }
+            case "exists":
+                if (method.getParameterTypes()[0] == byte[].class) {
+                    return read(key(args[0])) != null;
+                }
+                long exists = 0;
+                for (byte[] key : (byte[][]) args[0]) {
+                    exists += read(key(key)) != null ? 1 : 0;
+                }
+                return exists;
+            case "pExpire":
+                return expire(key(args[0]), (Long) args[1]);
+            case "expire":
+                return expire(key(args[0]), (Long) args[1] * 1000);
+            case "pTtl":
+                return ttl(key(args[0]));
+            case "ttl": {
+                long ttl = ttl(key(args[0]));
+                return ttl < 0 ? ttl : (ttl + 999) / 1000;
+            }
+            case "incr":
+                return incrBy(key(args[0]), 1);
+            case "decr":
+                return incrBy(key(args[0]), -1);
+            case "incrBy":
+                return incrBy(key(args[0]), (Long) args[1]);
+            case "decrBy":
+                return incrBy(key(args[0]), -(Long) args[1]);
+            case "publish":
+                return publish((byte[]) args[0], (byte[]) args[1]);
+            case "scan":
+                return scan((ScanOptions) args[0]);
+            case "evalSha": {
+                String source = loadedScripts.get((String) args[0]);
+                if (source == null) {
+                    // 与 Redis 一样返回 NOSCRIPT，RedisTemplate 会改用 EVAL 重新发送脚本
+                    throw new InvalidDataAccessApiUsageException("NOSCRIPT No matching script. Please use EVAL.");
+                }
+                return eval(source, (Integer) args[2], (byte[][]) args[3]);
+            }
+            case "eval": {
+                String source = new String((byte[]) args[0], StandardCharsets.UTF_8);
+                loadedScripts.put(DigestUtils.sha1DigestAsHex(source), source);
+                return eval(source, (Integer) args[2], (byte[][]) args[3]);
+            }
+            default:
+                throw new UnsupportedOperationException("in-memory redis does not support " + method);
+        }
+    }
+
+    private static String key(Object raw) {
+        return new String((byte[]) raw, StandardCharsets.UTF_8);
+    }
+
+    private byte[] read(String key) {
+        Entry entry = data.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expireAt > 0 && clock.getAsLong() >= entry.expireAt) {
+            data.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    private synchronized void write(String key, byte[] value, long expireAt) {
+        Entry existing = data.get(key);
+        long seq = existing != null && read(key) != null ? existing.seq : sequence.getAndIncrement();
+        data.put(key, new Entry(value, expireAt, seq));
+    }
+
+    private synchronized Boolean set(String key, byte[] value, Expiration expiration, RedisStringCommands.SetOption option) {
+        boolean present = read(key) != null;
+        if (option == RedisStringCommands.SetOption.SET_IF_ABSENT && present
+                || option == RedisStringCommands.SetOption.SET_IF_PRESENT && !present) {
+            return false;
+        }
+        long expireAt = expiration == null || expiration.isPersistent() ? 0
+                : clock.getAsLong() + expiration.getExpirationTimeInMilliseconds();
+        write(key, value, expireAt);
+        return true;
+    }
+
+    private synchronized Boolean expire(String key, long millis) {
+        byte[] value = read(key);
+        if (value == null) {
+            return false;
+        }
+        data.put(key, new Entry(value, clock.getAsLong() + millis, data.get(key).seq));
+        return true;
+    }
+
+    private long ttl(String key) {
+        if (read(key) == null) {
+            return -2;
+        }
+        Entry entry = data.get(key);
+        return entry == null ? -2 : entry.expireAt == 0 ? -1 : Math.max(0, entry.expireAt - clock.getAsLong());
+    }
+
+    private synchronized long incrBy(String key, long delta) {
+        byte[] value = read(key);
+        long count = (value == null ? 0 : Long.parseLong(new String(value, StandardCharsets.UTF_8))) + delta;
+        Entry entry = data.get(key);
+        write(key, String.valueOf(count).getBytes(StandardCharsets.UTF_8), entry == null ? 0 : entry.expireAt);
+        return count;
+    }
+
+    private Object eval(String source, int numKeys, byte[][] keysAndArgs) {
+        ScriptHandler handler = null;
+        synchronized (this) {
+            for (Map.Entry<String, ScriptHandler> entry : scriptHandlers.entrySet()) {
+                if (source.contains(entry.getKey())) {
+                    handler = entry.getValue();
+                    break;
+                }
+            }
+        }
+        if (handler == null) {
+            throw new UnsupportedOperationException("no handler for script: " + source);
+        }
+        List<String> keys = new ArrayList<>();
+        List<String> argv = new ArrayList<>();
+        for (int i = 0; i < keysAndArgs.length; i++) {
+            (i < numKeys ? keys : argv).add(new String(keysAndArgs[i], StandardCharsets.UTF_8));
+        }
+        // 与 Redis 一样，脚本执行期间不会穿插其他命令
+        synchronized (this) {
+            return handler.eval(this, keys, argv);
+        }
+    }
+
+    private long publish(byte[] channel, byte[] body) {
+        String name = new String(channel, StandardCharsets.UTF_8);
+        long receivers = 0;
+        for (Subscription subscription : subscriptions) {
+            if (subscription.channel.equals(name)) {
+                subscription.listener.onMessage(new DefaultMessage(channel, body), null);
+                receivers++;
+            }
+        }
+        return receivers;
+    }
+
+    private Cursor<byte[]> scan(ScanOptions options) {
+        Pattern pattern = options.getPattern() == null ? null : glob(options.getPattern());
+        long count = options.getCount() == null ? 10 : options.getCount();
+        return new ScanCursor<byte[]>(options) {
+            @Override
+            protected ScanIteration<byte[]> doScan(long cursorId, ScanOptions scanOptions) {
+                commandCounts.computeIfAbsent("scanPage", k -> new LongAdder()).increment();
+                List<Map.Entry<String, Entry>> entries = new ArrayList<>();
+                for (Map.Entry<String, Entry> entry : data.entrySet()) {
+                    if (entry.getValue().seq >= Math.max(1, cursorId)) {
+                        entries.add(entry);
+                    }
+                }
+                entries.sort(Comparator.comparingLong(entry -> entry.getValue().seq));
+                List<byte[]> page = new ArrayList<>();
+                long next = 0;
+                for (Map.Entry<String, Entry> entry : entries) {
+                    long seq = entry.getValue().seq;
+                    // 一页覆盖 count 个序号位置，与 Redis 一样可能返回空页
+                    if (seq >= Math.max(1, cursorId) + count) {
+                        next = seq;
+                        break;
+                    }
+                    String key = entry.getKey();
+                    if (read(key) != null && (pattern == null || pattern.matcher(key).matches())) {
+                        page.add(key.getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+                return new ScanIteration<>(next, page);
+            }
+        }.open();
+    }
+
+    private static Pattern glob(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            switch (c) {
+                case '*':
+                    regex.append(".*");
+                    break;
+                case '?':
+                    regex.append('.');
+                    break;
+                case '[':
+                case ']':
+                    regex.append(c);
+                    break;
+                default:
+                    regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    /**
+     * 脚本的 Java 实现，在 Redis 的全局锁内执行
+     */
+    public interface ScriptHandler {
+
+        /**
+         * @param redis 当前的内存 Redis，可以通过 {@link #getString(String)} 等方法读写
+         * @param keys  KEYS
+         * @param argv  ARGV
+         * @return 与脚本相同的返回值，整数使用 Long
+         */
+        Object eval(InMemoryRedis redis, List<String> keys, List<String> argv);
+    }
+
+    private static final class Entry {
+
+        private final byte[] value;
+
+        private final long expireAt;
+
+        private final long seq;
+
+        private Entry(byte[] value, long expireAt, long seq) {
+            this.value = value;
+            this.expireAt = expireAt;
+            this.seq = seq;
+        }
+    }
+
+    private static final class Subscription {
+
+        private final String channel;
+
+        private final MessageListener listener;
+
+        private Subscription(String channel, MessageListener listener) {
+            this.channel = channel;
+            this.listener = listener;
+        }
+    }
+
+}
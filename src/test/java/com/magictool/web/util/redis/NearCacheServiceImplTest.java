@@ -0,0 +1,104 @@
+package com.magictool.web.util.redis;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 失效消息按字符串发布，其他节点收到后失效本地缓存，自己发出的消息被忽略
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+class NearCacheServiceImplTest {
+
+    private InMemoryRedis redis;
+
+    private NearCacheServiceImpl nodeA;
+
+    private NearCacheServiceImpl nodeB;
+
+    private final List<String> published = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        redis = new InMemoryRedis();
+        nodeA = new NearCacheServiceImpl(redis.template(), 100, 60_000);
+        nodeB = new NearCacheServiceImpl(redis.template(), 100, 60_000);
+        redis.subscribe(NearCacheServiceImpl.INVALIDATE_TOPIC,
+                (message, pattern) -> published.add(new String(message.getBody(), StandardCharsets.UTF_8)));
+        redis.subscribe(NearCacheServiceImpl.INVALIDATE_TOPIC, nodeA);
+        redis.subscribe(NearCacheServiceImpl.INVALIDATE_TOPIC, nodeB);
+    }
+
+    @Test
+    void writeOnOneNodeInvalidatesTheOther() {
+        nodeA.put("user:1", "v1");
+        assertEquals("v1", nodeB.getAsString("user:1"));
+        assertEquals("v1", nodeA.getAsString("user:1"));
+        long gets = redis.count("get");
+        // 两个节点都从本地命中
+        assertEquals("v1", nodeB.getAsString("user:1"));
+        assertEquals("v1", nodeA.getAsString("user:1"));
+        assertEquals(gets, redis.count("get"));
+
+        published.clear();
+        nodeA.put("user:1", "v2");
+        assertEquals(1, published.size());
+        // 纯文本消息体，不经过 JSON 或缓存编解码
+        String body = published.get(0);
+        assertTrue(body.endsWith("|user:1"), body);
+        assertEquals("v2", nodeB.getAsString("user:1"));
+
+        nodeB.delete("user:1");
+        assertNull(nodeA.getAsString("user:1"));
+    }
+
+    @Test
+    void batchInvalidationUsesOneMessage() {
+        nodeB.put("k1", "a");
+        nodeB.put("k2", "b");
+        assertEquals("a", nodeB.getAsString("k1"));
+        assertEquals("b", nodeB.getAsString("k2"));
+
+        published.clear();
+        List<String> keys = new ArrayList<>();
+        keys.add("k1");
+        keys.add("k2");
+        nodeA.multiDelete(keys);
+        assertEquals(1, published.size());
+        assertNull(nodeB.getAsString("k1"));
+        assertNull(nodeB.getAsString("k2"));
+    }
+
+    @Test
+    void ownAndUnknownMessagesKeepTheLocalEntry() {
+        nodeA.put("k", "v");
+        assertEquals("v", nodeA.getAsString("k"));
+        String own = published.get(published.size() - 1);
+
+        // 绕过 NearCacheServiceImpl 直接改 Redis，本地条目仍在时说明没有被失效
+        redis.setString("k", "changed");
+        nodeA.onMessage(message(own), null);
+        nodeA.onMessage(message("no-separator"), null);
+        assertEquals("v", nodeA.getAsString("k"));
+
+        // 兼容早期 JSON 序列化发布的消息
+        nodeA.onMessage(message("\"other-node|k\""), null);
+        assertEquals("changed", nodeA.getAsString("k"));
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(NearCacheServiceImpl.INVALIDATE_TOPIC.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
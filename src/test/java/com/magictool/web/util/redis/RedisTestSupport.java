@@ -0,0 +1,74 @@
+package com.magictool.web.util.redis;
+
+import org.junit.jupiter.api.Assumptions;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.Closeable;
+import java.util.UUID;
+
+/**
+ * 需要真实 Redis 的测试（例如 Lua 脚本）使用的连接
+ * <p>
+ * 默认连接 localhost:6379，可以通过系统属性 magic.test.redis.host / magic.test.redis.port 修改；
+ * 连接不上时跳过当前测试。测试只使用 {@link #key(String)} 生成的随机前缀 key，关闭时删除。
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+public final class RedisTestSupport implements Closeable {
+
+    private final LettuceConnectionFactory connectionFactory;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final String prefix = "magic-tool:test:" + UUID.randomUUID() + ":";
+
+    private RedisTestSupport(LettuceConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+        this.redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    /**
+     * 连接 Redis，连接不上时跳过当前测试
+     */
+    public static RedisTestSupport connectOrSkip() {
+        String host = System.getProperty("magic.test.redis.host", "localhost");
+        int port = Integer.getInteger("magic.test.redis.port", 6379);
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(host, port));
+        connectionFactory.afterPropertiesSet();
+        boolean available;
+        try {
+            available = "PONG".equals(connectionFactory.getConnection().ping());
+        } catch (Exception e) {
+            available = false;
+        }
+        if (!available) {
+            connectionFactory.destroy();
+        }
+        Assumptions.assumeTrue(available, "redis is not available on " + host + ":" + port);
+        return new RedisTestSupport(connectionFactory);
+    }
+
+    public StringRedisTemplate template() {
+        return redisTemplate;
+    }
+
+    /**
+     * 本次测试专用的 key 前缀
+     */
+    public String key(String name) {
+        return prefix + name;
+    }
+
+    @Override
+    public void close() {
+        try {
+            new CacheServiceImpl(redisTemplate).deletePattern(prefix + "*", 1000, 1000);
+        } finally {
+            connectionFactory.destroy();
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.magictool.web.util.redis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 并发调用只执行一次加载，异常传给所有等待方，加载结束后下一次调用重新加载
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+class SingleFlightTest {
+
+    @Test
+    void concurrentCallsShareOneLoad() throws Exception {
+        SingleFlight<Object> flight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            results.add(pool.submit(() -> flight.load("k", () -> {
+                loads.incrementAndGet();
+                started.countDown();
+                await(release);
+                return new Object();
+            })));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 7; i++) {
+                results.add(pool.submit(() -> flight.load("k", () -> {
+                    loads.incrementAndGet();
+                    return new Object();
+                })));
+            }
+            // 等其余调用都挂到同一个加载任务上
+            TimeUnit.MILLISECONDS.sleep(100);
+            assertEquals(1, flight.inFlight());
+            release.countDown();
+
+            Object first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<Object> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(0, flight.inFlight());
+
+            // 加载结束后不再合并
+            assertEquals("again", flight.load("k", () -> "again"));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void failureIsSharedAndNotCached() throws Exception {
+        SingleFlight<Object> flight = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> owner = pool.submit(() -> flight.load("k", () -> {
+                started.countDown();
+                await(release);
+                throw new IllegalStateException("boom");
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<Object> waiter = pool.submit(() -> flight.load("k", () -> "not called"));
+            TimeUnit.MILLISECONDS.sleep(100);
+            release.countDown();
+
+            assertTrue(assertThrows(Exception.class, () -> owner.get(5, TimeUnit.SECONDS)).getCause()
+                    instanceof IllegalStateException);
+            assertTrue(assertThrows(Exception.class, () -> waiter.get(5, TimeUnit.SECONDS)).getCause()
+                    instanceof IllegalStateException);
+            assertEquals("ok", flight.load("k", () -> "ok"));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void asyncLoadIsSharedAndRejectionIsCleared() {
+        SingleFlight<Object> flight = new SingleFlight<>();
+        List<Runnable> queued = new ArrayList<>();
+        CompletableFuture<Object> first = flight.loadAsync("k", () -> "v", queued::add);
+        CompletableFuture<Object> second = flight.loadAsync("k", () -> "other", queued::add);
+        assertSame(first, second);
+        assertEquals(1, queued.size());
+        queued.get(0).run();
+        assertEquals("v", first.join());
+        assertEquals(0, flight.inFlight());
+
+        CompletableFuture<Object> rejected = flight.loadAsync("k", () -> "v", task -> {
+            throw new RejectedExecutionException("full");
+        });
+        assertTrue(rejected.isCompletedExceptionally());
+        assertEquals(0, flight.inFlight());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.magictool.web.util.redis.codec;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 类名白名单：JDK 类型、信任的包、单独登记的类和数组，以及不做限制的兼容模式
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+class CacheTypeValidatorTest {
+
+    @Test
+    void trustedPackagesAndClasses() {
+        CacheTypeValidator validator = new CacheTypeValidator(" com.magictool ", "", null);
+        assertTrue(validator.isAllowed("java.util.ArrayList"));
+        assertTrue(validator.isAllowed("com.magictool.web.entity.Page"));
+        assertTrue(validator.isAllowed("[Lcom.magictool.web.entity.Page;"));
+        assertTrue(validator.isAllowed("[[I"));
+        // 前缀必须在包名边界上
+        assertFalse(validator.isAllowed("com.magictoolkit.Evil"));
+        assertFalse(validator.isAllowed("org.springframework.context.support.FileSystemXmlApplicationContext"));
+        assertFalse(validator.isAllowed("[Lorg.example.Dto;"));
+
+        validator.trust(CacheTypeValidatorTest.class);
+        assertTrue(validator.isAllowed(CacheTypeValidatorTest.class.getName()));
+        assertFalse(validator.isAllowAll());
+    }
+
+    @Test
+    void allowAllKeepsThePreviousBehaviour() {
+        CacheTypeValidator validator = CacheTypeValidator.allowAll();
+        assertTrue(validator.isAllowAll());
+        assertTrue(validator.isAllowed("org.example.Dto"));
+        assertTrue(validator.isAllowed("[Lorg.example.Dto;"));
+    }
+
+}
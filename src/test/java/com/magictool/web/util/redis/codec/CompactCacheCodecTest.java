@@ -0,0 +1,118 @@
+package com.magictool.web.util.redis.codec;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 注册类型只写类型编号，不写类名；嵌套的多态属性和未注册类型仍能还原
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+class CompactCacheCodecTest {
+
+    private static final TypeFactory TYPES = TypeFactory.defaultInstance();
+
+    @Test
+    void registeredRootTypeWritesNoClassName() throws IOException {
+        CompactCacheCodec codec = new CompactCacheCodec().register(1, Item.class);
+        Item item = new Item("sku-1", 3, Arrays.asList("a", "b"));
+        byte[] data = codec.encode(item);
+
+        String raw = new String(data, StandardCharsets.ISO_8859_1);
+        assertFalse(raw.contains(Item.class.getName()), "payload contains the class name");
+        assertFalse(raw.contains("Item"), "payload contains the class name");
+        // 数组形式不写属性名
+        assertFalse(raw.contains("name"));
+
+        assertEquals(item, codec.decode(data, TYPES.constructType(Item.class)));
+        assertEquals(item, codec.decode(data, TYPES.constructType(Object.class)));
+    }
+
+    @Test
+    void nestedValuesKeepTheirTypes() throws IOException {
+        CompactCacheCodec codec = new CompactCacheCodec().register(1, Item.class).register(2, Order.class);
+        Order order = new Order();
+        order.items.add(new Item("sku-1", 1, null));
+        order.items.add(new Item("sku-2", 2, Arrays.asList("x")));
+        order.extra = new Item("gift", 1, null);
+        order.amount = 12L;
+
+        byte[] data = codec.encode(order);
+        assertFalse(new String(data, StandardCharsets.ISO_8859_1).contains(Order.class.getName()));
+        Order decoded = codec.decode(data, TYPES.constructType(Object.class));
+        assertEquals(order.items, decoded.items);
+        // 声明为 Object 的属性按写入的实际类型还原
+        assertEquals(order.extra, decoded.extra);
+        assertEquals(12L, decoded.amount);
+    }
+
+    @Test
+    void unregisteredTypesAreCheckedAgainstTheAllowList() throws IOException {
+        CompactCacheCodec trusted = new CompactCacheCodec(new CacheTypeValidator("com.magictool"));
+        Item item = new Item("sku-1", 3, null);
+        byte[] data = trusted.encode(item);
+        assertTrue(new String(data, StandardCharsets.ISO_8859_1).contains(Item.class.getName()));
+        assertEquals(item, trusted.decode(data, TYPES.constructType(Object.class)));
+
+        CompactCacheCodec untrusted = new CompactCacheCodec();
+        JavaType object = TYPES.constructType(Object.class);
+        assertThrows(IOException.class, () -> untrusted.decode(data, object));
+        assertThrows(IOException.class, () -> untrusted.decode(new byte[]{9}, object));
+    }
+
+    static class Item {
+
+        private String name;
+
+        private int count;
+
+        private List<String> tags;
+
+        Item() {
+        }
+
+        Item(String name, int count, List<String> tags) {
+            this.name = name;
+            this.count = count;
+            this.tags = tags;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Item)) {
+                return false;
+            }
+            Item other = (Item) o;
+            return name.equals(other.name) && count == other.count
+                    && (tags == null ? other.tags == null : tags.equals(other.tags));
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode() * 31 + count;
+        }
+    }
+
+    static class Order {
+
+        private List<Item> items = new ArrayList<>();
+
+        private Object extra;
+
+        private Object amount;
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.magictool.web.util.redis.codec;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 版本头的读写、旧数据兼容，以及损坏的压缩数据按 {@link IOException} 拒绝
+ *
+ * @author ljf
+ * @date 2026/10/18
+ */
+class VersionedCacheCodecTest {
+
+    private static final JavaType STRING = TypeFactory.defaultInstance().constructType(String.class);
+
+    private static final String LARGE = repeat("magic-tool ", 500);
+
+    @Test
+    void roundTripAndLegacyValues() throws IOException {
+        VersionedCacheCodec codec = new VersionedCacheCodec(JacksonCacheCodec.smile(), JacksonCacheCodec.json(), 1024,
+                JacksonCacheCodec.cbor());
+        byte[] small = codec.encode("small");
+        assertEquals(VersionedCacheCodec.MAGIC, small[0]);
+        assertEquals("small", codec.decode(small, STRING));
+
+        byte[] compressed = codec.encode(LARGE);
+        assertTrue(compressed.length < LARGE.length() / 4, "large value should be compressed");
+        assertEquals(LARGE, codec.decode(compressed, STRING));
+
+        // 没有版本头的 JSON 文本交给 legacy 解码
+        assertEquals("legacy", codec.decode("\"legacy\"".getBytes(StandardCharsets.UTF_8), STRING));
+        // 切换写入方式后仍能读取其他编码方式写入的数据
+        VersionedCacheCodec cbor = new VersionedCacheCodec(JacksonCacheCodec.cbor(), JacksonCacheCodec.json(), 1024,
+                JacksonCacheCodec.smile());
+        assertEquals(LARGE, cbor.decode(compressed, STRING));
+    }
+
+    @Test
+    void corruptedLengthIsRejected() throws IOException {
+        VersionedCacheCodec codec = new VersionedCacheCodec(JacksonCacheCodec.json(), JacksonCacheCodec.json(), 1024,
+                1 << 20);
+        byte[] compressed = codec.encode(LARGE);
+
+        assertThrows(IOException.class, () -> codec.decode(withLength(compressed, -1), STRING));
+        assertThrows(IOException.class, () -> codec.decode(withLength(compressed, Integer.MAX_VALUE), STRING));
+        assertThrows(IOException.class, () -> codec.decode(withLength(compressed, (1 << 20) + 1), STRING));
+        // 长度在上限内但与实际数据不符
+        assertThrows(IOException.class, () -> codec.decode(withLength(compressed, LARGE.length() * 2), STRING));
+        // 头部之后缺少长度字段
+        assertThrows(IOException.class, () -> codec.decode(Arrays.copyOf(compressed, 6), STRING));
+        assertThrows(IOException.class, () -> codec.decode(Arrays.copyOf(compressed, 4), STRING));
+    }
+
+    @Test
+    void valuesAboveTheLimitAreNotCompressed() throws IOException {
+        VersionedCacheCodec codec = new VersionedCacheCodec(JacksonCacheCodec.json(), JacksonCacheCodec.json(), 1024,
+                2048);
+        byte[] data = codec.encode(LARGE);
+        assertEquals(0, data[3]);
+        assertEquals(LARGE, codec.decode(data, STRING));
+    }
+
+    private static byte[] withLength(byte[] compressed, int length) {
+        byte[] data = compressed.clone();
+        data[4] = (byte) (length >>> 24);
+        data[5] = (byte) (length >>> 16);
+        data[6] = (byte) (length >>> 8);
+        data[7] = (byte) length;
+        return data;
+    }
+
+    private static String repeat(String s, int times) {
+        StringBuilder builder = new StringBuilder(s.length() * times);
+        for (int i = 0; i < times; i++) {
+            builder.append(s);
+        }
+        return builder.toString();
+    }
+
+}